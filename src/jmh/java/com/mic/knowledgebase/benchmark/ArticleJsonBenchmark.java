@@ -0,0 +1,63 @@
+package com.mic.knowledgebase.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mic.knowledgebase.model.Article;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Article の Jackson シリアライズ/デシリアライズ。
+ * Lambda のレスポンス本文と同じく、単一記事と一覧 (List&lt;Article&gt;) を文字列との間で変換します。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class ArticleJsonBenchmark {
+    private static final TypeReference<List<Article>> ARTICLE_LIST = new TypeReference<>() {
+    };
+
+    @Param({ "100", "1000" })
+    public int listSize;
+
+    private ObjectMapper objectMapper;
+    private Article article;
+    private String articleJson;
+    private List<Article> articles;
+    private String articlesJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = BenchmarkData.objectMapper();
+        articles = BenchmarkData.articles(listSize);
+        article = articles.get(0);
+        articleJson = objectMapper.writeValueAsString(article);
+        articlesJson = objectMapper.writeValueAsString(articles);
+    }
+
+    @Benchmark
+    public String serializeArticle() throws Exception {
+        return objectMapper.writeValueAsString(article);
+    }
+
+    @Benchmark
+    public Article deserializeArticle() throws Exception {
+        return objectMapper.readValue(articleJson, Article.class);
+    }
+
+    @Benchmark
+    public String serializeList() throws Exception {
+        return objectMapper.writeValueAsString(articles);
+    }
+
+    @Benchmark
+    public List<Article> deserializeList() throws Exception {
+        return objectMapper.readValue(articlesJson, ARTICLE_LIST);
+    }
+}
@@ -0,0 +1,74 @@
+package com.mic.knowledgebase.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mic.knowledgebase.model.Article;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ベンチマーク用の記事データ。
+ * コミット間で結果を比較できるよう、乱数のシードと記事の大きさを固定しています。
+ */
+final class BenchmarkData {
+    static final long SEED = 42L;
+
+    /** 記事本文のおおよその文字数（実データの中央値に近い値）。 */
+    static final int CONTENT_CHARS = 2000;
+
+    /** 検索ベンチマークでヒットするよう、本文はこの語彙から組み立てます。 */
+    static final String[] WORDS = {
+            "DynamoDB", "Lambda", "Spring", "Java", "API", "キャッシュ", "インデックス", "検索", "記事", "設定",
+            "performance", "latency", "throughput", "partition", "capacity", "request", "response", "table",
+            "ナレッジ", "ベース", "デプロイ", "監視", "ログ", "メトリクス", "index", "query", "scan", "item",
+    };
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * ID が article-00000 から連番の記事を作ります。同じ引数なら常に同じ内容になります。
+     */
+    static List<Article> articles(int count) {
+        Random random = new Random(SEED);
+        List<Article> articles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            articles.add(article(random, String.format("article-%05d", i)));
+        }
+        return articles;
+    }
+
+    static Article article(Random random, String id) {
+        Article article = new Article(id, text(random, 40), text(random, CONTENT_CHARS),
+                BASE_TIME.plusSeconds(random.nextInt(86_400 * 365)).plusNanos(random.nextInt(1_000_000) * 1000L),
+                BASE_TIME.plusSeconds(86_400L * 365 + random.nextInt(86_400 * 30)));
+        article.setVersion(1L + random.nextInt(5));
+        return article;
+    }
+
+    private static String text(Random random, int chars) {
+        StringBuilder text = new StringBuilder(chars + 16);
+        while (text.length() < chars) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * {@code MainLambdaFunction} のコンストラクタと同じ設定の ObjectMapper。
+     */
+    static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
@@ -0,0 +1,62 @@
+package com.mic.knowledgebase.benchmark;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.mic.knowledgebase.model.Article;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DynamoDBMapper による Article と項目 (Map&lt;String, AttributeValue&gt;) の相互変換。
+ * save/load が DynamoDB を呼ぶ前後に行う処理で、ネットワークは使いません。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms512m", "-Xmx512m" })
+public class DynamoDBMarshallingBenchmark {
+
+    private AmazonDynamoDB client;
+    private DynamoDBMapperTableModel<Article> tableModel;
+    private Article article;
+    private Map<String, AttributeValue> item;
+
+    @Setup
+    public void setUp() {
+        // テーブルモデルの取得にクライアントは使われないため、接続先はダミーで構いません
+        client = AmazonDynamoDBClientBuilder.standard()
+                .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration("http://localhost:8000",
+                        "ap-northeast-1"))
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials("dummy", "dummy")))
+                .build();
+        tableModel = new DynamoDBMapper(client).getTableModel(Article.class);
+        article = BenchmarkData.articles(1).get(0);
+        item = tableModel.convert(article);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> marshall() {
+        return tableModel.convert(article);
+    }
+
+    @Benchmark
+    public Article unmarshall() {
+        return tableModel.unconvert(item);
+    }
+}
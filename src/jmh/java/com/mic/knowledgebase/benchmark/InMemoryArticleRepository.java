@@ -0,0 +1,276 @@
+package com.mic.knowledgebase.benchmark;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.model.ArticleFields;
+import com.mic.knowledgebase.repository.ArticleRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * DynamoDB を使わずにリクエスト処理の CPU コストを測るための、メモリ上の {@link ArticleRepository}。
+ * バージョン属性と条件付き書き込みは {@code ArticleRepositoryImpl} と同じ規則で扱います。
+ * スキャンは ID 順で、LastEvaluatedKey は最後に返した項目の ID です。
+ */
+class InMemoryArticleRepository implements ArticleRepository {
+
+    private final ConcurrentNavigableMap<String, Article> items = new ConcurrentSkipListMap<>();
+
+    @Override
+    public <S extends Article> S save(S article) {
+        if (article.getVersion() == null) {
+            article.setVersion(1L);
+        } else {
+            article.setVersion(article.getVersion() + 1);
+        }
+        items.put(article.getId(), article);
+        return article;
+    }
+
+    @Override
+    public <S extends Article> Iterable<S> saveAll(Iterable<S> articles) {
+        List<S> saved = new ArrayList<>();
+        articles.forEach(article -> saved.add(save(article)));
+        return saved;
+    }
+
+    @Override
+    public Optional<Article> findById(String id) {
+        return Optional.ofNullable(items.get(id));
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return items.containsKey(id);
+    }
+
+    @Override
+    public Iterable<Article> findAll() {
+        return new ArrayList<>(items.values());
+    }
+
+    @Override
+    public Iterable<Article> findAllById(Iterable<String> ids) {
+        return StreamSupport.stream(ids.spliterator(), false).map(items::get).filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long count() {
+        return items.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        items.remove(id);
+    }
+
+    @Override
+    public void delete(Article article) {
+        items.remove(article.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(items::remove);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Article> articles) {
+        articles.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        items.clear();
+    }
+
+    @Override
+    public ScanResultPage<Article> scanPage(int limit, Map<String, AttributeValue> exclusiveStartKey) {
+        Map<String, Article> remaining = exclusiveStartKey == null ? items
+                : items.tailMap(exclusiveStartKey.get("id").getS(), false);
+        List<Article> results = new ArrayList<>(limit);
+        for (Article article : remaining.values()) {
+            if (results.size() == limit) {
+                break;
+            }
+            results.add(article);
+        }
+        ScanResultPage<Article> page = new ScanResultPage<>();
+        page.setResults(results);
+        if (results.size() == limit) {
+            page.setLastEvaluatedKey(Map.of("id", new AttributeValue(results.get(limit - 1).getId())));
+        }
+        return page;
+    }
+
+    @Override
+    public ScanResultPage<Article> scanPage(int limit, Map<String, AttributeValue> exclusiveStartKey,
+            ArticleFields fields) {
+        ScanResultPage<Article> page = scanPage(limit, exclusiveStartKey);
+        page.setResults(page.getResults().stream().map(article -> project(article, fields))
+                .collect(Collectors.toList()));
+        return page;
+    }
+
+    @Override
+    public Stream<Article> parallelScan() {
+        return new ArrayList<>(items.values()).stream();
+    }
+
+    @Override
+    public Stream<Article> parallelScan(int totalSegments) {
+        return parallelScan();
+    }
+
+    @Override
+    public Stream<Article> parallelScan(ArticleFields fields) {
+        return parallelScan().map(article -> project(article, fields));
+    }
+
+    @Override
+    public Map<String, String> batchPut(List<Article> articles) {
+        articles.forEach(article -> items.put(article.getId(), article));
+        return Map.of();
+    }
+
+    @Override
+    public Map<String, Article> batchGet(Collection<String> ids) {
+        Map<String, Article> found = new HashMap<>();
+        for (String id : ids) {
+            Article article = items.get(id);
+            if (article != null) {
+                found.put(id, article);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Map<String, Article> batchGet(Collection<String> ids, ArticleFields fields) {
+        Map<String, Article> found = batchGet(ids);
+        found.replaceAll((id, article) -> project(article, fields));
+        return found;
+    }
+
+    @Override
+    public List<Article> findByTitle(String title) {
+        return items.values().stream().filter(article -> title.equals(article.getTitle()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Article> findByTitle(String title, ArticleFields fields) {
+        return findByTitle(title).stream().map(article -> project(article, fields)).collect(Collectors.toList());
+    }
+
+    /**
+     * RecentIndex の代わりに、全記事を更新日時の新しい順に並べて limit 件を返します。シャードには分けません。
+     */
+    @Override
+    public QueryResultPage<Article> findRecent(int limit, Map<String, AttributeValue> cursor, ArticleFields fields) {
+        List<Article> sorted = items.values().stream()
+                .filter(article -> article.getUpdatedAtMillis() != null)
+                .sorted(Comparator.comparing(Article::getUpdatedAtMillis, Comparator.reverseOrder())
+                        .thenComparing(Article::getId, Comparator.reverseOrder()))
+                .collect(Collectors.toList());
+        int from = 0;
+        if (cursor != null) {
+            String lastId = cursor.get("id").getS();
+            for (int i = 0; i < sorted.size(); i++) {
+                if (sorted.get(i).getId().equals(lastId)) {
+                    from = i + 1;
+                    break;
+                }
+            }
+        }
+        List<Article> results = sorted.subList(from, Math.min(from + limit, sorted.size()));
+        QueryResultPage<Article> page = new QueryResultPage<>();
+        page.setResults(results.stream().map(article -> project(article, fields)).collect(Collectors.toList()));
+        if (from + limit < sorted.size()) {
+            page.setLastEvaluatedKey(Map.of("id", new AttributeValue(results.get(limit - 1).getId())));
+        }
+        return page;
+    }
+
+    /**
+     * ProjectionExpression と同じく、fields に含まれない属性を null にした記事を返します。
+     */
+    private static Article project(Article article, ArticleFields fields) {
+        if (fields.isAll()) {
+            return article;
+        }
+        Set<String> names = fields.names();
+        Article projected = new Article(article.getId(),
+                names.contains("title") ? article.getTitle() : null,
+                names.contains("content") ? article.getContent() : null,
+                names.contains("createdAt") ? article.getCreatedAt() : null,
+                names.contains("updatedAt") ? article.getUpdatedAt() : null);
+        projected.setContentRef(names.contains("contentRef") ? article.getContentRef() : null);
+        projected.setContentLength(names.contains("contentLength") ? article.getContentLength() : null);
+        projected.setVersion(names.contains("version") ? article.getVersion() : null);
+        return projected;
+    }
+
+    @Override
+    public Article updateIfExists(Article changes, Collection<String> attributeNames, Long expectedVersion) {
+        Article[] updated = new Article[1];
+        items.compute(changes.getId(), (id, current) -> {
+            checkCondition(id, current, expectedVersion);
+            Article article = new Article(id, current.getTitle(), current.getContent(), current.getCreatedAt(),
+                    current.getUpdatedAt());
+            for (String attributeName : attributeNames) {
+                switch (attributeName) {
+                    case "title" -> article.setTitle(changes.getTitle());
+                    case "content" -> article.setContent(changes.getContent());
+                    case "createdAt" -> article.setCreatedAt(changes.getCreatedAt());
+                    case "updatedAt" -> article.setUpdatedAt(changes.getUpdatedAt());
+                    case "createdAtMillis", "updatedAtMillis" -> {
+                        // 日時から計算される属性
+                    }
+                    default -> throw new IllegalArgumentException("Unknown attribute: " + attributeName);
+                }
+            }
+            article.setVersion(current.getVersion() == null ? 1L : current.getVersion() + 1);
+            updated[0] = article;
+            return article;
+        });
+        return updated[0];
+    }
+
+    @Override
+    public void deleteIfExists(String id, Long expectedVersion) {
+        items.compute(id, (key, current) -> {
+            checkCondition(key, current, expectedVersion);
+            return null;
+        });
+    }
+
+    private static void checkCondition(String id, Article current, Long expectedVersion) {
+        if (current == null) {
+            throw new ConditionalCheckFailedException("The conditional request failed");
+        }
+        long currentVersion = current.getVersion() == null ? 0 : current.getVersion();
+        if (expectedVersion != null && expectedVersion != currentVersion) {
+            ConditionalCheckFailedException e = new ConditionalCheckFailedException("The conditional request failed");
+            e.setItem(Map.of("id", new AttributeValue(id)));
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.mic.knowledgebase.benchmark;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mic.knowledgebase.MainLambdaFunction;
+import com.mic.knowledgebase.blob.BlobStore;
+import com.mic.knowledgebase.blob.FileSystemBlobStore;
+import com.mic.knowledgebase.cache.ArticleCache;
+import com.mic.knowledgebase.cache.ArticleResponseCache;
+import com.mic.knowledgebase.logging.AccessLog;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.search.SearchService;
+import com.mic.knowledgebase.service.ArticleContentStore;
+import com.mic.knowledgebase.service.ArticleImportService;
+import com.mic.knowledgebase.service.ArticleService;
+import com.mic.knowledgebase.util.ArticleETag;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MainLambdaFunction#apply} をリポジトリだけメモリ上のものに差し替えて呼び出し、
+ * ルーティング・サービス・キャッシュ・JSON 変換・メトリクス・アクセスログを含めた 1 リクエストの CPU コストを測ります。
+ * <p>
+ * Bean は本番と同じクラスを使い、@Timed のアスペクトも有効にしています。
+ * 記事キャッシュとレスポンスキャッシュは既定の設定のため、GET は（更新直後を除き）シリアライズ済みのバイト列から返ります。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class LambdaApplyBenchmark {
+    static final int ARTICLE_COUNT = 1000;
+
+    private AnnotationConfigApplicationContext context;
+    private MainLambdaFunction function;
+    private List<Article> articles;
+
+    private APIGatewayProxyRequestEvent[] getRequests;
+    private APIGatewayProxyRequestEvent[] gzipGetRequests;
+    private APIGatewayProxyRequestEvent[] conditionalGetRequests;
+    private APIGatewayProxyRequestEvent[] putRequests;
+    private APIGatewayProxyRequestEvent listPageRequest;
+    private APIGatewayProxyRequestEvent searchRequest;
+    private APIGatewayProxyRequestEvent notFoundRequest;
+
+    /** スレッドごとに、対象の記事を順番に切り替えます。 */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next() {
+            int index = next;
+            next = (next + 1) % ARTICLE_COUNT;
+            return index;
+        }
+    }
+
+    @Configuration
+    @EnableAspectJAutoProxy
+    @Import({ MainLambdaFunction.class, ArticleService.class, ArticleImportService.class, ArticleCache.class,
+            ArticleResponseCache.class, ArticleContentStore.class, SearchService.class, AccessLog.class })
+    static class BenchmarkConfig {
+        @Bean
+        InMemoryArticleRepository articleRepository() {
+            return new InMemoryArticleRepository();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        TimedAspect timedAspect(MeterRegistry meterRegistry) {
+            return new TimedAspect(meterRegistry);
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return BenchmarkData.objectMapper();
+        }
+
+        // ベンチマークの記事は本文を外に置くしきい値より小さいため、BlobStore は使われない
+        @Bean
+        BlobStore blobStore() throws IOException {
+            return new FileSystemBlobStore(Files.createTempDirectory("benchmark-content"));
+        }
+
+        @Bean(destroyMethod = "shutdown")
+        ExecutorService dynamoDBExecutor() {
+            return Executors.newSingleThreadExecutor();
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new AnnotationConfigApplicationContext();
+        // Duration などの @Value を Spring Boot と同じ規則で変換する
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        context.register(BenchmarkConfig.class);
+        context.refresh();
+        function = context.getBean(MainLambdaFunction.class);
+
+        InMemoryArticleRepository repository = context.getBean(InMemoryArticleRepository.class);
+        articles = BenchmarkData.articles(ARTICLE_COUNT);
+        repository.batchPut(articles);
+
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        getRequests = new APIGatewayProxyRequestEvent[ARTICLE_COUNT];
+        gzipGetRequests = new APIGatewayProxyRequestEvent[ARTICLE_COUNT];
+        conditionalGetRequests = new APIGatewayProxyRequestEvent[ARTICLE_COUNT];
+        putRequests = new APIGatewayProxyRequestEvent[ARTICLE_COUNT];
+        for (int i = 0; i < ARTICLE_COUNT; i++) {
+            Article article = articles.get(i);
+            getRequests[i] = request("GET", "/articles/" + article.getId());
+            gzipGetRequests[i] = request("GET", "/articles/" + article.getId())
+                    .withHeaders(Map.of("Accept-Encoding", "gzip, deflate, br"));
+            conditionalGetRequests[i] = request("GET", "/articles/" + article.getId())
+                    .withHeaders(Map.of("If-None-Match", ArticleETag.of(article)));
+            putRequests[i] = request("PUT", "/articles/" + article.getId())
+                    .withHeaders(Map.of("Content-Type", "application/json"))
+                    .withBody(objectMapper.writeValueAsString(
+                            Map.of("title", article.getTitle(), "content", article.getContent())));
+        }
+        listPageRequest = request("GET", "/articles").withQueryStringParameters(Map.of("limit", "20"));
+        searchRequest = request("GET", "/articles/search")
+                .withQueryStringParameters(Map.of("q", "DynamoDB キャッシュ", "limit", "20"));
+        notFoundRequest = request("GET", "/users/1");
+
+        // 検索インデックスとキャッシュを計測前に用意する
+        for (APIGatewayProxyRequestEvent request : getRequests) {
+            expectStatus(function.apply(request), 200);
+        }
+        expectStatus(function.apply(searchRequest), 200);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private static APIGatewayProxyRequestEvent request(String method, String path) {
+        return new APIGatewayProxyRequestEvent().withHttpMethod(method).withPath(path);
+    }
+
+    private static void expectStatus(APIGatewayProxyResponseEvent response, int status) {
+        if (response.getStatusCode() != status) {
+            throw new IllegalStateException("Unexpected response: " + response.getStatusCode() + " "
+                    + response.getBody());
+        }
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent getById(Cursor cursor) {
+        return function.apply(getRequests[cursor.next()]);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent getByIdGzip(Cursor cursor) {
+        return function.apply(gzipGetRequests[cursor.next()]);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent getByIdNotModified(Cursor cursor) {
+        return function.apply(conditionalGetRequests[cursor.next()]);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent listPage() {
+        return function.apply(listPageRequest);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent search() {
+        return function.apply(searchRequest);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent update(Cursor cursor) {
+        return function.apply(putRequests[cursor.next()]);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent notFound() {
+        return function.apply(notFoundRequest);
+    }
+}
@@ -0,0 +1,41 @@
+package com.mic.knowledgebase.benchmark;
+
+import com.mic.knowledgebase.model.Article;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Article.LocalDateTimeConverter} の変換。
+ * unconvert は現行の ISO 形式に加えて、旧データに残る形式（スペース区切り、時が 1 桁、小数秒なし）も測ります。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms512m", "-Xmx512m" })
+public class LocalDateTimeConverterBenchmark {
+
+    private final Article.LocalDateTimeConverter converter = new Article.LocalDateTimeConverter();
+    private final LocalDateTime time = LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_456_000);
+
+    @Benchmark
+    public String convert() {
+        return converter.convert(time);
+    }
+
+    /** DynamoDB に保存されている値。convert の結果には影響しないため unconvert だけが使います。 */
+    @State(Scope.Benchmark)
+    public static class Stored {
+        @Param({ "2024-05-01T10:15:30.123456", "2024-05-01T10:15:30", "2024-05-01 10:15:30", "2024-05-01 9:15:30" })
+        public String value;
+    }
+
+    @Benchmark
+    public LocalDateTime unconvert(Stored stored) {
+        return converter.unconvert(stored.value);
+    }
+}
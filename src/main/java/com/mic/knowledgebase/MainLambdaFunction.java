@@ -6,20 +6,47 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mic.knowledgebase.cache.ArticleResponseCache;
+import com.mic.knowledgebase.cache.ArticleResponseCache.SerializedArticle;
 import com.mic.knowledgebase.controller.ArticleController;
+import com.mic.knowledgebase.exception.ArticleNotFoundException;
+import com.mic.knowledgebase.exception.BadRequestException;
+import com.mic.knowledgebase.exception.InvalidPageTokenException;
+import com.mic.knowledgebase.exception.PreconditionFailedException;
+import com.mic.knowledgebase.exception.ServiceUnavailableException;
+import com.mic.knowledgebase.exception.ThrottledException;
+import com.mic.knowledgebase.lambda.RouteTable;
+import com.mic.knowledgebase.logging.AccessLog;
+import com.mic.knowledgebase.logging.AccessLogEntry;
+import com.mic.knowledgebase.metrics.EmfMetricsEmitter;
 import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.model.ArticleFields;
+import com.mic.knowledgebase.model.ArticlePage;
+import com.mic.knowledgebase.model.BatchWriteResult;
+import com.mic.knowledgebase.model.MultiGetRequest;
+import com.mic.knowledgebase.model.MultiGetResult;
+import com.mic.knowledgebase.model.SearchHit;
+import com.mic.knowledgebase.search.SearchService;
+import com.mic.knowledgebase.service.ArticleContentStore;
+import com.mic.knowledgebase.service.ArticleImportService;
 import com.mic.knowledgebase.service.ArticleService;
+import com.mic.knowledgebase.stream.ArticleStreamConsumer;
+import com.mic.knowledgebase.util.ArticleETag;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.function.Function;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * メインLambda関数ハンドラー。
@@ -38,13 +65,73 @@ public class MainLambdaFunction implements Function<APIGatewayProxyRequestEvent,
     @Autowired
     private ArticleService articleService;
 
+    @Autowired
+    private ArticleImportService articleImportService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private ArticleContentStore articleContentStore;
+
+    @Autowired
+    private ArticleResponseCache articleResponseCache;
+
+    @Autowired
+    private AccessLog accessLog;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** app.metrics.emf.enabled=true の場合のみ存在します。 */
+    @Autowired(required = false)
+    private EmfMetricsEmitter emfMetricsEmitter;
+
+    /** app.stream.enabled=true の場合のみ存在します。 */
+    @Autowired(required = false)
+    private ArticleStreamConsumer articleStreamConsumer;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    /** 起動時に一度だけ構築するルーティングテーブル。 */
+    private final RouteTable<RouteHandler> routes;
+
     public MainLambdaFunction() {
-        this.objectMapper = new ObjectMapper()
+        this.objectMapper = ArticleFields.configure(new ObjectMapper()
                 .registerModule(new JavaTimeModule())
-                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        this.routes = buildRoutes();
+    }
+
+    /**
+     * ルートのハンドラー。パス変数は {@code match.pathVariable("id")} で取得します。
+     */
+    @FunctionalInterface
+    private interface RouteHandler {
+        void handle(APIGatewayProxyRequestEvent input, RouteTable.Match<RouteHandler> match,
+                APIGatewayProxyResponseEvent response) throws Exception;
+    }
+
+    /**
+     * API のルートを登録します。
+     * API Gateway のリソース構成によってパスに /api が付く場合と付かない場合があるため、両方を登録します。
+     */
+    private RouteTable<RouteHandler> buildRoutes() {
+        RouteTable.Builder<RouteHandler> builder = RouteTable.builder();
+        for (String base : new String[] { "/articles", "/api/articles" }) {
+            builder.add("GET", base, (input, match, response) -> handleListRequest(input, response))
+                    .add("GET", base + "/search", (input, match, response) -> handleSearchRequest(input, response))
+                    .add("GET", base + "/recent", (input, match, response) -> handleRecentRequest(input, response))
+                    .add("GET", base + "/{id}", this::handleGetByIdRequest)
+                    .add("GET", base + "/{id}/content", this::handleGetContentRequest)
+                    .add("POST", base, (input, match, response) -> handlePostRequest(input, response))
+                    .add("POST", base + "/batch", (input, match, response) -> handleBatchCreateRequest(input, response))
+                    .add("POST", base + "/batch-get", (input, match, response) -> handleBatchGetRequest(input, response))
+                    .add("PUT", base + "/{id}", this::handlePutRequest)
+                    .add("DELETE", base + "/{id}", this::handleDeleteRequest);
+        }
+        return builder.build();
     }
 
     private String serialize(Object obj) throws JsonProcessingException {
@@ -60,105 +147,269 @@ public class MainLambdaFunction implements Function<APIGatewayProxyRequestEvent,
      */
     @Override
     public APIGatewayProxyResponseEvent apply(APIGatewayProxyRequestEvent input) {
+        long start = System.nanoTime();
         APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
+        String route = null;
 
         // CORS ヘッダーを追加
         response.setHeaders(createCorsHeaders());
 
         try {
-            logger.info("Received event: {}", objectMapper.writeValueAsString(input));
-            // HTTPメソッドに基づいて適切な操作を実行
-            switch (input.getHttpMethod()) {
-                case "GET":
-                    handleGetRequest(input, response);
-                    break;
-                case "POST":
-                    handlePostRequest(input, response);
-                    break;
-                case "PUT":
-                    handlePutRequest(input, response);
-                    break;
-                case "DELETE":
-                    handleDeleteRequest(input, response);
+            logger.debug("Received {} {}", input.getHttpMethod(), input.getPath());
+            if ("OPTIONS".equals(input.getHttpMethod())) {
+                // CORS のプリフライトはパスによらず許可する
+                response.setStatusCode(200);
+                return response;
+            }
+            if (articleStreamConsumer != null) {
+                // 凍結中に止まっていたポーリングを追いつかせてから、キャッシュを使って応答する
+                articleStreamConsumer.pollIfDue();
+            }
+            RouteTable.Match<RouteHandler> match = routes.match(input.getHttpMethod(), input.getPath());
+            route = match.getTemplate();
+            switch (match.getStatus()) {
+                case FOUND:
+                    match.getHandler().handle(input, match, response);
                     break;
-                case "OPTIONS":
-                    response.setStatusCode(200);
+                case METHOD_NOT_ALLOWED:
+                    response.getHeaders().put("Allow", match.getAllow());
+                    response.setStatusCode(405);
+                    response.setBody("{\"error\": \"Method Not Allowed\"}");
                     break;
                 default:
-                    // サポートされていないHTTPメソッドの場合
-                    response.setStatusCode(405);
-                    response.setBody("Method Not Allowed");
+                    response.setStatusCode(404);
+                    response.setBody("{\"error\": \"Not Found\"}");
             }
+        } catch (ArticleNotFoundException e) {
+            logger.warn(e.getMessage());
+            response.setStatusCode(404);
+            response.setBody("{\"error\": \"Article not found\"}");
+        } catch (ServiceUnavailableException e) {
+            logger.warn(e.getMessage());
+            response.getHeaders().put("Retry-After", Long.toString(e.getRetryAfterSeconds()));
+            response.setStatusCode(503);
+            response.setBody("{\"error\": \"Service Unavailable\"}");
+        } catch (ThrottledException e) {
+            logger.warn(e.getMessage());
+            response.getHeaders().put("Retry-After", Long.toString(e.getRetryAfterSeconds()));
+            response.setStatusCode(429);
+            response.setBody("{\"error\": \"Too Many Requests\"}");
         } catch (Exception e) {
             // 予期しないエラーが発生した場合の処理
             logger.error("Error processing request", e);
             response.setStatusCode(500);
             response.setBody("Internal Server Error: " + e.getMessage());
+        } finally {
+            recordMetrics(input, response, route, start);
+            logAccess(input, response, route, start);
         }
         return response;
     }
 
+    /**
+     * ルートごとの処理時間を lambda.requests タイマーに記録し、必要なら EMF でメトリクスを出力します。
+     */
+    private void recordMetrics(APIGatewayProxyRequestEvent input, APIGatewayProxyResponseEvent response,
+            String route, long start) {
+        int status = response.getStatusCode() != null ? response.getStatusCode() : 500;
+        meterRegistry.timer("lambda.requests",
+                "method", String.valueOf(input.getHttpMethod()),
+                "route", route != null ? route : "UNMATCHED",
+                "status", Integer.toString(status))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (emfMetricsEmitter != null) {
+            emfMetricsEmitter.flushIfDue();
+        }
+    }
+
+    /**
+     * アクセスログを 1 行出力します。サンプリングで対象外となったリクエストでは何もしません。
+     */
+    private void logAccess(APIGatewayProxyRequestEvent input, APIGatewayProxyResponseEvent response, String route,
+            long start) {
+        int status = response.getStatusCode() != null ? response.getStatusCode() : 500;
+        if (!accessLog.isSampled(status)) {
+            return;
+        }
+        String requestId = input.getRequestContext() != null ? input.getRequestContext().getRequestId() : null;
+        accessLog.log(new AccessLogEntry("lambda", input.getHttpMethod(), route, input.getPath(), status,
+                System.nanoTime() - start, AccessLog.utf8Length(response.getBody()), requestId), input::getBody);
+    }
+
     private Map<String, String> createCorsHeaders() {
         Map<String, String> headers = new HashMap<>();
         headers.put("Access-Control-Allow-Origin", "https://d2vr3lhn3cliio.cloudfront.net");
         headers.put("Access-Control-Allow-Headers",
-                "Content-Type,X-Amz-Date,Authorization,X-Api-Key,X-Amz-Security-Token");
+                "Content-Type,X-Amz-Date,Authorization,X-Api-Key,X-Amz-Security-Token,If-Match,If-None-Match");
         headers.put("Access-Control-Allow-Methods", "GET,POST,PUT,DELETE,OPTIONS");
+        headers.put("Access-Control-Expose-Headers", "ETag");
         return headers;
     }
 
-    // private void handleGetRequest(APIGatewayProxyRequestEvent input,
-    // APIGatewayProxyResponseEvent response)
-    // throws Exception {
-    // logger.info("### input.path: {} ###", input.getPath());
-    // if (input.getPath().matches("/articles/\\w+")) {
-    // // 特定の記事を取得
-    // String id = input.getPath().split("/")[2];
-    // Article article = articleService.getArticleById(id);
-    // response.setStatusCode(200);
-    // response.setBody(objectMapper.writeValueAsString(article));
-    // } else {
-    // // 全記事を取得
-    // List<Article> articles = articleService.getAllArticles();
-    // response.setStatusCode(200);
-    // response.setBody(objectMapper.writeValueAsString(articles));
-    // }
-    // }
-
-    /**
-     * GETリクエストを処理します。
-     * 特定の記事IDが指定されている場合は単一の記事を、そうでない場合は全記事のリストを返します。
-     */
-    private void handleGetRequest(APIGatewayProxyRequestEvent input, APIGatewayProxyResponseEvent response)
-            throws Exception {
-        logger.info("### input.path: {} ###", input.getPath());
-        logger.info("### input.pathParameters: {} ###", input.getPathParameters());
-
-        Map<String, String> pathParameters = input.getPathParameters();
-        if (pathParameters != null && pathParameters.containsKey("proxy")) {
-            String[] pathParts = pathParameters.get("proxy").split("/");
-            logger.info("### pathParts: {} ###", Arrays.toString(pathParts));
-
-            if (pathParts.length > 2 && "articles".equals(pathParts[1])) {
-                // 特定の記事を取得
-                String id = pathParts[2];
-                logger.info("Fetching article with ID: {}", id);
-                Article article = articleService.getArticleById(id);
-                response.setStatusCode(200);
-                response.setBody(objectMapper.writeValueAsString(article));
-            } else {
-                logger.info("Condition not met for single article fetch, fetching all articles");
-                // 全記事を取得
-                List<Article> articles = articleService.getAllArticles();
-                response.setStatusCode(200);
-                response.setBody(objectMapper.writeValueAsString(articles));
-            }
+    /**
+     * 指定された ID の記事を返します。シリアライズ済みの記事がキャッシュにあればそのまま返します。
+     * Accept-Encoding が gzip を含む場合、大きな記事は gzip を Base64 にしたバイナリレスポンス (isBase64Encoded) で返します。
+     * If-None-Match が現在の ETag と一致する場合は本文なしの 304 を返します。
+     */
+    private void handleGetByIdRequest(APIGatewayProxyRequestEvent input, RouteTable.Match<RouteHandler> match,
+            APIGatewayProxyResponseEvent response) throws Exception {
+        String id = match.pathVariable("id");
+        logger.debug("Fetching article with ID: {}", id);
+        SerializedArticle article = articleResponseCache.get(id);
+        if (article == null) {
+            long loadGeneration = articleResponseCache.beginLoad();
+            article = articleResponseCache.serialize(articleService.getArticleById(id), loadGeneration);
+        }
+        boolean gzip = article.hasGzip() && ArticleResponseCache.acceptsGzip(getHeader(input, "Accept-Encoding"));
+        String etag = gzip ? article.gzipEtag() : article.etag();
+        response.getHeaders().put("ETag", etag);
+        if (article.hasGzip()) {
+            response.getHeaders().put("Vary", "Accept-Encoding");
+        }
+        if (ArticleETag.matchesIfNoneMatch(getHeader(input, "If-None-Match"), etag)) {
+            // クライアントのキャッシュが最新のため本文を返さない
+            response.setStatusCode(304);
+            return;
+        }
+        response.setStatusCode(200);
+        if (gzip) {
+            response.getHeaders().put("Content-Encoding", "gzip");
+            response.setIsBase64Encoded(true);
+            response.setBody(article.gzipBase64());
         } else {
-            logger.info("No path parameters, fetching all articles");
-            // パスパラメータがない場合は全記事を取得
-            List<Article> articles = articleService.getAllArticles();
+            response.setBody(article.jsonText());
+        }
+    }
+
+    /**
+     * 指定された ID の記事の本文を text/plain で返します。ETag は記事と同じです。
+     * API Gateway のレスポンスは一括で返すため、本文は読み込んでから返します。
+     */
+    private void handleGetContentRequest(APIGatewayProxyRequestEvent input, RouteTable.Match<RouteHandler> match,
+            APIGatewayProxyResponseEvent response) throws Exception {
+        String id = match.pathVariable("id");
+        logger.debug("Fetching content of article with ID: {}", id);
+        Article article = articleService.getArticleById(id);
+        response.getHeaders().put("ETag", ArticleETag.of(article));
+        if (ArticleETag.matchesIfNoneMatch(getHeader(input, "If-None-Match"), article)) {
+            response.setStatusCode(304);
+            return;
+        }
+        response.getHeaders().put("Content-Type", "text/plain; charset=UTF-8");
+        response.setStatusCode(200);
+        response.setBody(articleContentStore.readContent(article));
+    }
+
+    /**
+     * 記事一覧を返します。
+     * クエリパラメータ title が指定されている場合はタイトルが完全一致する記事を、ids が指定されている場合は
+     * それらの記事を返します。それ以外は limit 件（既定 20 件）の 1 ページ分と次ページのトークンを返し、
+     * テーブル全体は読み込みません。
+     * fields（カンマ区切り）または view=summary が指定されている場合は、その属性だけを読み取って返します。
+     */
+    private void handleListRequest(APIGatewayProxyRequestEvent input, APIGatewayProxyResponseEvent response)
+            throws Exception {
+        Map<String, String> queryParameters = input.getQueryStringParameters();
+        String title = queryParameters != null ? queryParameters.get("title") : null;
+        String ids = queryParameters != null ? queryParameters.get("ids") : null;
+        String limit = queryParameters != null ? queryParameters.get("limit") : null;
+        String pageToken = queryParameters != null ? queryParameters.get("pageToken") : null;
+        ArticleFields fields;
+        try {
+            fields = ArticleFields.parse(queryParameters != null ? queryParameters.get("fields") : null,
+                    queryParameters != null ? queryParameters.get("view") : null);
+        } catch (BadRequestException e) {
+            response.setStatusCode(400);
+            response.setBody(objectMapper.writeValueAsString(Map.of("error", e.getMessage())));
+            return;
+        }
+        if (title != null) {
+            List<Article> articles = articleService.getArticlesByTitle(title, fields);
             response.setStatusCode(200);
-            response.setBody(objectMapper.writeValueAsString(articles));
+            response.setBody(objectMapper.writer(fields.filters()).writeValueAsString(articles));
+            return;
+        }
+        if (ids != null) {
+            handleMultiGet(Arrays.asList(ids.split(",")), fields, response);
+            return;
+        }
+        // limit も pageToken もない場合も先頭ページだけを返し、テーブル全体を読み込まない
+        try {
+            ArticlePage page = articleService.getArticlesPage(limit != null ? Integer.valueOf(limit) : null,
+                    pageToken, fields);
+            response.setStatusCode(200);
+            response.setBody(objectMapper.writer(fields.filters()).writeValueAsString(page));
+        } catch (NumberFormatException e) {
+            response.setStatusCode(400);
+            response.setBody("{\"error\": \"Invalid limit\"}");
+        } catch (InvalidPageTokenException e) {
+            response.setStatusCode(400);
+            response.setBody("{\"error\": \"Invalid page token\"}");
+        }
+    }
+
+    /**
+     * 更新日時の新しい順に記事を 1 ページ分返します。クエリパラメータは limit・pageToken・fields・view です。
+     */
+    private void handleRecentRequest(APIGatewayProxyRequestEvent input, APIGatewayProxyResponseEvent response)
+            throws Exception {
+        Map<String, String> queryParameters = input.getQueryStringParameters();
+        String limit = queryParameters != null ? queryParameters.get("limit") : null;
+        String pageToken = queryParameters != null ? queryParameters.get("pageToken") : null;
+        try {
+            ArticleFields fields = ArticleFields.parse(queryParameters != null ? queryParameters.get("fields") : null,
+                    queryParameters != null ? queryParameters.get("view") : null);
+            ArticlePage page = articleService.getRecentArticles(limit != null ? Integer.valueOf(limit) : null,
+                    pageToken, fields);
+            response.setStatusCode(200);
+            response.setBody(objectMapper.writer(fields.filters()).writeValueAsString(page));
+        } catch (BadRequestException e) {
+            response.setStatusCode(400);
+            response.setBody(objectMapper.writeValueAsString(Map.of("error", e.getMessage())));
+        } catch (NumberFormatException e) {
+            response.setStatusCode(400);
+            response.setBody("{\"error\": \"Invalid limit\"}");
+        } catch (InvalidPageTokenException e) {
+            response.setStatusCode(400);
+            response.setBody("{\"error\": \"Invalid page token\"}");
+        }
+    }
+
+    /**
+     * 全文検索を行います。クエリパラメータ q が検索語、limit が最大件数です。
+     */
+    private void handleSearchRequest(APIGatewayProxyRequestEvent input, APIGatewayProxyResponseEvent response)
+            throws Exception {
+        Map<String, String> queryParameters = input.getQueryStringParameters();
+        String query = queryParameters != null ? queryParameters.get("q") : null;
+        if (query == null) {
+            response.setStatusCode(400);
+            response.setBody("{\"error\": \"Missing query\"}");
+            return;
+        }
+        String limit = queryParameters.get("limit");
+        try {
+            List<SearchHit> hits = searchService.search(query, limit != null ? Integer.valueOf(limit) : null);
+            response.setStatusCode(200);
+            response.setBody(objectMapper.writeValueAsString(hits));
+        } catch (NumberFormatException e) {
+            response.setStatusCode(400);
+            response.setBody("{\"error\": \"Invalid limit\"}");
+        }
+    }
+
+    /**
+     * 複数の記事を ID で一括取得します。見つからない ID は missingIds として返します。
+     */
+    private void handleMultiGet(List<String> ids, ArticleFields fields, APIGatewayProxyResponseEvent response)
+            throws Exception {
+        try {
+            MultiGetResult result = articleService.getArticlesByIds(ids, fields);
+            response.setStatusCode(200);
+            response.setBody(objectMapper.writer(fields.filters()).writeValueAsString(result));
+        } catch (BadRequestException e) {
+            response.setStatusCode(400);
+            response.setBody(objectMapper.writeValueAsString(Map.of("error", e.getMessage())));
         }
     }
 
@@ -174,44 +425,56 @@ public class MainLambdaFunction implements Function<APIGatewayProxyRequestEvent,
         response.setBody(objectMapper.writeValueAsString(created));
     }
 
-    // private void handlePutRequest(APIGatewayProxyRequestEvent input,
-    // APIGatewayProxyResponseEvent response)
-    // throws Exception {
-    // String id = input.getPath().split("/")[2];
-    // Article updateArticle = objectMapper.readValue(input.getBody(),
-    // Article.class);
-    // Article updated = articleService.updateArticle(id, updateArticle);
-    // response.setStatusCode(200);
-    // response.setBody(objectMapper.writeValueAsString(updated));
-    // }
+    /**
+     * ボディの ids に指定された記事を一括取得します。
+     */
+    private void handleBatchGetRequest(APIGatewayProxyRequestEvent input, APIGatewayProxyResponseEvent response)
+            throws Exception {
+        MultiGetRequest request = objectMapper.readValue(input.getBody(), MultiGetRequest.class);
+        handleMultiGet(request.getIds() != null ? request.getIds() : List.of(), ArticleFields.ALL, response);
+    }
+
+    /**
+     * 一括作成の POST リクエストを処理します。
+     * ボディは JSON 配列または NDJSON で、記事ごとの作成結果を返します。
+     */
+    private void handleBatchCreateRequest(APIGatewayProxyRequestEvent input, APIGatewayProxyResponseEvent response)
+            throws Exception {
+        String body = input.getBody() != null ? input.getBody() : "";
+        BatchWriteResult result;
+        try {
+            result = articleImportService.importArticles(
+                    new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (JsonProcessingException e) {
+            response.setStatusCode(400);
+            response.setBody("{\"error\": \"Invalid request body\"}");
+            return;
+        }
+        response.setStatusCode(result.getFailed() == 0 ? 201 : 207);
+        response.setBody(objectMapper.writeValueAsString(result));
+    }
 
     /**
      * PUTリクエストを処理します。
      * 既存の記事を更新します。
      */
-    private void handlePutRequest(APIGatewayProxyRequestEvent input, APIGatewayProxyResponseEvent response)
-            throws Exception {
-        logger.info("Handling PUT request");
-        Map<String, String> pathParameters = input.getPathParameters();
-        if (pathParameters != null && pathParameters.containsKey("proxy")) {
-            String[] pathParts = pathParameters.get("proxy").split("/");
-            logger.info("Path parts: {}", Arrays.toString(pathParts));
-            if (pathParts.length > 2 && "articles".equals(pathParts[1])) {
-                String id = pathParts[2];
-                logger.info("Updating article with ID: {}", id);
-                Article updateArticle = objectMapper.readValue(input.getBody(), Article.class);
-                Article updated = articleService.updateArticle(id, updateArticle);
-                response.setStatusCode(200);
-                response.setBody(objectMapper.writeValueAsString(updated));
-            } else {
-                logger.warn("Invalid path for article update");
-                response.setStatusCode(400);
-                response.setBody("{\"error\": \"Invalid article ID\"}");
-            }
-        } else {
-            logger.warn("No path parameters found for article update");
+    private void handlePutRequest(APIGatewayProxyRequestEvent input, RouteTable.Match<RouteHandler> match,
+            APIGatewayProxyResponseEvent response) throws Exception {
+        String id = match.pathVariable("id");
+        logger.debug("Updating article with ID: {}", id);
+        Article updateArticle = objectMapper.readValue(input.getBody(), Article.class);
+        try {
+            Article updated = articleService.updateArticle(id, updateArticle,
+                    ArticleETag.parseIfMatch(getHeader(input, "If-Match")));
+            response.getHeaders().put("ETag", ArticleETag.of(updated));
+            response.setStatusCode(200);
+            response.setBody(objectMapper.writeValueAsString(updated));
+        } catch (PreconditionFailedException e) {
+            response.setStatusCode(412);
+            response.setBody(objectMapper.writeValueAsString(Map.of("error", e.getMessage())));
+        } catch (BadRequestException e) {
             response.setStatusCode(400);
-            response.setBody("{\"error\": \"Missing article ID\"}");
+            response.setBody(objectMapper.writeValueAsString(Map.of("error", e.getMessage())));
         }
     }
 
@@ -219,9 +482,35 @@ public class MainLambdaFunction implements Function<APIGatewayProxyRequestEvent,
      * DELETEリクエストを処理します。
      * 指定された記事を削除します。
      */
-    private void handleDeleteRequest(APIGatewayProxyRequestEvent input, APIGatewayProxyResponseEvent response) {
-        String deleteId = input.getPath().split("/")[2];
-        articleService.deleteArticle(deleteId);
-        response.setStatusCode(204);
+    private void handleDeleteRequest(APIGatewayProxyRequestEvent input, RouteTable.Match<RouteHandler> match,
+            APIGatewayProxyResponseEvent response) throws Exception {
+        String deleteId = match.pathVariable("id");
+        try {
+            articleService.deleteArticle(deleteId, ArticleETag.parseIfMatch(getHeader(input, "If-Match")));
+            response.setStatusCode(204);
+        } catch (PreconditionFailedException e) {
+            response.setStatusCode(412);
+            response.setBody(objectMapper.writeValueAsString(Map.of("error", e.getMessage())));
+        } catch (BadRequestException e) {
+            response.setStatusCode(400);
+            response.setBody(objectMapper.writeValueAsString(Map.of("error", e.getMessage())));
+        }
+    }
+
+    /**
+     * リクエストヘッダーを大文字小文字を区別せずに取得します。
+     * API Gateway はクライアントが送った表記のままヘッダー名を渡すためです。
+     */
+    private static String getHeader(APIGatewayProxyRequestEvent input, String name) {
+        Map<String, String> headers = input.getHeaders();
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
     }
 }
@@ -0,0 +1,39 @@
+package com.mic.knowledgebase.blob;
+
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 記事本文など、DynamoDB の項目に収めたくない大きなデータの保存先。
+ * <p>
+ * データは所有者（記事の ID）ごとに blobId で区別します。同じ blobId への書き込みは 1 回だけで、
+ * 内容を変える場合は新しい blobId で書き込み、古いものは削除するか {@link #expire} で削除を予約します。
+ * 失敗は非チェック例外（AmazonClientException、UncheckedIOException）で通知します。
+ */
+public interface BlobStore {
+
+    void put(String ownerId, String blobId, byte[] content);
+
+    /**
+     * @return データを先頭から読み出すストリーム（呼び出し元が close します）。存在しない場合は空
+     */
+    Optional<InputStream> open(String ownerId, String blobId);
+
+    /**
+     * 所有者のデータの blobId を返します。{@link #expire} で削除を予約したものは含みません。
+     */
+    List<String> list(String ownerId);
+
+    /**
+     * データを expiresAt 以降に削除するよう予約します。削除は保存先が行うため（DynamoDB の TTL など）、
+     * 予約したプロセスが終了しても失われません。削除されるまでは {@link #open} で読み出せます。
+     */
+    void expire(String ownerId, String blobId, Instant expiresAt);
+
+    /**
+     * データを削除します。存在しない場合は何もしません。
+     */
+    void delete(String ownerId, String blobId);
+}
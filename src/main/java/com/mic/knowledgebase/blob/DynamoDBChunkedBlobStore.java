@@ -0,0 +1,240 @@
+package com.mic.knowledgebase.blob;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * データを一定サイズのチャンクに分け、DynamoDB の子項目として保存する {@link BlobStore}。
+ * <p>
+ * テーブルのキーは ownerId (ハッシュキー) と part (レンジキー) です。チャンクの part は
+ * {@code <blobId>#<連番 6 桁>}、チャンク数とバイト数を持つマニフェストの part は {@code #<blobId>} です。
+ * マニフェストはチャンクをすべて書き込んだ後に書き、削除時は最後に消すため、マニフェストがあればデータは揃っています。
+ * 読み出しはチャンクを数個ずつクエリしながら返すので、データ全体をメモリに載せません。
+ * <p>
+ * {@link #expire} はチャンクとマニフェストに TTL 属性 {@value #EXPIRES_AT_ATTRIBUTE}（エポック秒）を設定し、
+ * 削除は DynamoDB の TTL に任せます。テーブルでこの属性の TTL を有効にしておく必要があります。
+ */
+public class DynamoDBChunkedBlobStore implements BlobStore {
+
+    public static final String TABLE_NAME = "ArticleContentChunks";
+    public static final String OWNER_ATTRIBUTE = "ownerId";
+    public static final String PART_ATTRIBUTE = "part";
+    public static final String EXPIRES_AT_ATTRIBUTE = "expiresAt";
+
+    /** DynamoDB の項目の上限 (400 KB) からキーなどの分を除いたチャンクの最大サイズ。 */
+    public static final int MAX_CHUNK_BYTES = 384 * 1024;
+
+    private static final String MANIFEST_PREFIX = "#";
+    /** 1 回のクエリで読むチャンク数（1 MB のクエリ上限に収まる数）。 */
+    private static final int PARTS_PER_QUERY = 2;
+
+    private final AmazonDynamoDB amazonDynamoDB;
+    private final int chunkBytes;
+
+    public DynamoDBChunkedBlobStore(AmazonDynamoDB amazonDynamoDB, int chunkBytes) {
+        if (chunkBytes <= 0 || chunkBytes > MAX_CHUNK_BYTES) {
+            throw new IllegalArgumentException("Chunk size must be between 1 and " + MAX_CHUNK_BYTES);
+        }
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.chunkBytes = chunkBytes;
+    }
+
+    @Override
+    public void put(String ownerId, String blobId, byte[] content) {
+        int parts = Math.max(1, (content.length + chunkBytes - 1) / chunkBytes);
+        for (int i = 0; i < parts; i++) {
+            int from = i * chunkBytes;
+            int length = Math.min(chunkBytes, content.length - from);
+            amazonDynamoDB.putItem(new PutItemRequest()
+                    .withTableName(TABLE_NAME)
+                    .withItem(Map.of(
+                            OWNER_ATTRIBUTE, new AttributeValue(ownerId),
+                            PART_ATTRIBUTE, new AttributeValue(partKey(blobId, i)),
+                            "data", new AttributeValue().withB(
+                                    ByteBuffer.wrap(Arrays.copyOfRange(content, from, from + length))))));
+        }
+        amazonDynamoDB.putItem(new PutItemRequest()
+                .withTableName(TABLE_NAME)
+                .withItem(Map.of(
+                        OWNER_ATTRIBUTE, new AttributeValue(ownerId),
+                        PART_ATTRIBUTE, new AttributeValue(MANIFEST_PREFIX + blobId),
+                        "parts", new AttributeValue().withN(Integer.toString(parts)),
+                        "length", new AttributeValue().withN(Integer.toString(content.length)))));
+    }
+
+    @Override
+    public Optional<InputStream> open(String ownerId, String blobId) {
+        return parts(ownerId, blobId).map(parts -> new ChunkInputStream(ownerId, blobId, parts));
+    }
+
+    @Override
+    public List<String> list(String ownerId) {
+        List<String> blobIds = new ArrayList<>();
+        Map<String, AttributeValue> startKey = null;
+        do {
+            QueryResult result = amazonDynamoDB.query(new QueryRequest()
+                    .withTableName(TABLE_NAME)
+                    .withKeyConditionExpression("#owner = :owner AND begins_with(#part, :manifest)")
+                    .withFilterExpression("attribute_not_exists(#expiresAt)")
+                    .withExpressionAttributeNames(Map.of("#owner", OWNER_ATTRIBUTE, "#part", PART_ATTRIBUTE,
+                            "#expiresAt", EXPIRES_AT_ATTRIBUTE))
+                    .withExpressionAttributeValues(Map.of(
+                            ":owner", new AttributeValue(ownerId),
+                            ":manifest", new AttributeValue(MANIFEST_PREFIX)))
+                    .withProjectionExpression("#part")
+                    .withExclusiveStartKey(startKey));
+            for (Map<String, AttributeValue> item : result.getItems()) {
+                blobIds.add(item.get(PART_ATTRIBUTE).getS().substring(MANIFEST_PREFIX.length()));
+            }
+            startKey = result.getLastEvaluatedKey();
+        } while (startKey != null && !startKey.isEmpty());
+        return blobIds;
+    }
+
+    @Override
+    public void delete(String ownerId, String blobId) {
+        Optional<Integer> parts = parts(ownerId, blobId);
+        if (parts.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < parts.get(); i++) {
+            deleteItem(ownerId, partKey(blobId, i));
+        }
+        deleteItem(ownerId, MANIFEST_PREFIX + blobId);
+    }
+
+    /**
+     * チャンクを先に、マニフェストを最後に予約します。途中で失敗してもマニフェストは {@link #list} に残るため、
+     * 次の予約で改めて全体を予約できます。
+     */
+    @Override
+    public void expire(String ownerId, String blobId, Instant expiresAt) {
+        Optional<Integer> parts = parts(ownerId, blobId);
+        if (parts.isEmpty()) {
+            return;
+        }
+        AttributeValue epochSeconds = new AttributeValue().withN(Long.toString(expiresAt.getEpochSecond()));
+        for (int i = 0; i < parts.get(); i++) {
+            setExpiresAt(ownerId, partKey(blobId, i), epochSeconds);
+        }
+        setExpiresAt(ownerId, MANIFEST_PREFIX + blobId, epochSeconds);
+    }
+
+    private void setExpiresAt(String ownerId, String part, AttributeValue epochSeconds) {
+        amazonDynamoDB.updateItem(new UpdateItemRequest()
+                .withTableName(TABLE_NAME)
+                .withKey(key(ownerId, part))
+                .withUpdateExpression("SET #expiresAt = :expiresAt")
+                .withExpressionAttributeNames(Map.of("#expiresAt", EXPIRES_AT_ATTRIBUTE))
+                .withExpressionAttributeValues(Map.of(":expiresAt", epochSeconds)));
+    }
+
+    private Optional<Integer> parts(String ownerId, String blobId) {
+        Map<String, AttributeValue> manifest = amazonDynamoDB.getItem(new GetItemRequest()
+                .withTableName(TABLE_NAME)
+                .withKey(key(ownerId, MANIFEST_PREFIX + blobId))
+                .withConsistentRead(true)).getItem();
+        return manifest == null ? Optional.empty() : Optional.of(Integer.parseInt(manifest.get("parts").getN()));
+    }
+
+    private void deleteItem(String ownerId, String part) {
+        amazonDynamoDB.deleteItem(new DeleteItemRequest().withTableName(TABLE_NAME).withKey(key(ownerId, part)));
+    }
+
+    private static Map<String, AttributeValue> key(String ownerId, String part) {
+        return Map.of(OWNER_ATTRIBUTE, new AttributeValue(ownerId), PART_ATTRIBUTE, new AttributeValue(part));
+    }
+
+    private static String partKey(String blobId, int index) {
+        return String.format("%s#%06d", blobId, index);
+    }
+
+    /**
+     * チャンクを数個ずつクエリしながら順に返すストリーム。チャンクが欠けている場合は IOException になります。
+     */
+    private final class ChunkInputStream extends InputStream {
+        private final String ownerId;
+        private final String blobId;
+        private final int parts;
+        private int nextPart;
+        private Iterator<Map<String, AttributeValue>> page = List.<Map<String, AttributeValue>>of().iterator();
+        private Map<String, AttributeValue> startKey;
+        private ByteBuffer chunk = ByteBuffer.allocate(0);
+
+        ChunkInputStream(String ownerId, String blobId, int parts) {
+            this.ownerId = ownerId;
+            this.blobId = blobId;
+            this.parts = parts;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return nextChunk() ? chunk.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!nextChunk()) {
+                return -1;
+            }
+            int n = Math.min(len, chunk.remaining());
+            chunk.get(b, off, n);
+            return n;
+        }
+
+        /**
+         * @return 読めるデータがある場合は true
+         */
+        private boolean nextChunk() throws IOException {
+            while (!chunk.hasRemaining()) {
+                if (nextPart == parts) {
+                    return false;
+                }
+                if (!page.hasNext()) {
+                    QueryResult result = amazonDynamoDB.query(new QueryRequest()
+                            .withTableName(TABLE_NAME)
+                            .withKeyConditionExpression("#owner = :owner AND begins_with(#part, :blob)")
+                            .withExpressionAttributeNames(Map.of("#owner", OWNER_ATTRIBUTE, "#part", PART_ATTRIBUTE))
+                            .withExpressionAttributeValues(Map.of(
+                                    ":owner", new AttributeValue(ownerId),
+                                    ":blob", new AttributeValue(blobId + "#")))
+                            .withConsistentRead(true)
+                            .withLimit(PARTS_PER_QUERY)
+                            .withExclusiveStartKey(startKey));
+                    page = result.getItems().iterator();
+                    startKey = result.getLastEvaluatedKey();
+                    if (!page.hasNext()) {
+                        throw new IOException("Blob " + ownerId + "/" + blobId + " is missing part " + nextPart);
+                    }
+                }
+                Map<String, AttributeValue> item = page.next();
+                if (!partKey(blobId, nextPart).equals(item.get(PART_ATTRIBUTE).getS())) {
+                    throw new IOException("Blob " + ownerId + "/" + blobId + " is missing part " + nextPart);
+                }
+                chunk = item.get("data").getB().duplicate();
+                nextPart++;
+            }
+            return true;
+        }
+    }
+}
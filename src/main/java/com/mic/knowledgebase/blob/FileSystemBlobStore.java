@@ -0,0 +1,151 @@
+package com.mic.knowledgebase.blob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * ローカルのファイルシステムに保存する {@link BlobStore}（開発・テスト用）。
+ * データは {@code <root>/<ownerId>/<blobId>} に置き、一時ファイルに書いてから移動するため、
+ * 読み取り側が書きかけのファイルを見ることはありません。
+ * <p>
+ * 削除の予約は {@code .<blobId>.expires} に期限（エポックミリ秒）を書いて記録し、期限を過ぎたデータは
+ * 同じ所有者の {@link #list}・{@link #expire} の呼び出し時に削除します。
+ */
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final String EXPIRES_SUFFIX = ".expires";
+
+    private final Path root;
+
+    public FileSystemBlobStore(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public void put(String ownerId, String blobId, byte[] content) {
+        try {
+            Path directory = Files.createDirectories(root.resolve(name(ownerId)));
+            Path temporary = Files.createTempFile(directory, ".", ".tmp");
+            try {
+                Files.write(temporary, content);
+                Files.move(temporary, directory.resolve(name(blobId)), StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write blob " + ownerId + "/" + blobId, e);
+        }
+    }
+
+    @Override
+    public Optional<InputStream> open(String ownerId, String blobId) {
+        try {
+            return Optional.of(Files.newInputStream(root.resolve(name(ownerId)).resolve(name(blobId))));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read blob " + ownerId + "/" + blobId, e);
+        }
+    }
+
+    @Override
+    public List<String> list(String ownerId) {
+        Path directory = root.resolve(name(ownerId));
+        purgeExpired(directory);
+        List<String> blobIds = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                file -> !file.getFileName().toString().startsWith("."))) {
+            for (Path file : files) {
+                if (!Files.exists(expiresFile(file))) {
+                    blobIds.add(file.getFileName().toString());
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return List.of();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list blobs of " + ownerId, e);
+        }
+        return blobIds;
+    }
+
+    @Override
+    public void delete(String ownerId, String blobId) {
+        Path file = root.resolve(name(ownerId)).resolve(name(blobId));
+        try {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(expiresFile(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete blob " + ownerId + "/" + blobId, e);
+        }
+    }
+
+    @Override
+    public void expire(String ownerId, String blobId, Instant expiresAt) {
+        Path directory = root.resolve(name(ownerId));
+        Path file = directory.resolve(name(blobId));
+        try {
+            if (Files.exists(file)) {
+                Files.writeString(expiresFile(file), Long.toString(expiresAt.toEpochMilli()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to expire blob " + ownerId + "/" + blobId, e);
+        }
+        purgeExpired(directory);
+    }
+
+    /**
+     * 期限を過ぎたデータと、その予約の記録を削除します。
+     */
+    private void purgeExpired(Path directory) {
+        long now = System.currentTimeMillis();
+        try (DirectoryStream<Path> markers = Files.newDirectoryStream(directory, ".*" + EXPIRES_SUFFIX)) {
+            for (Path marker : markers) {
+                String markerName = marker.getFileName().toString();
+                String blobId = markerName.substring(1, markerName.length() - EXPIRES_SUFFIX.length());
+                if (expiresAt(marker) <= now) {
+                    Files.deleteIfExists(directory.resolve(blobId));
+                    Files.deleteIfExists(marker);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // 所有者のデータがまだない
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to purge expired blobs in " + directory, e);
+        }
+    }
+
+    /**
+     * @return 予約の期限。内容が壊れている場合は期限切れとして扱います
+     */
+    private static long expiresAt(Path marker) throws IOException {
+        try {
+            return Long.parseLong(Files.readString(marker).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static Path expiresFile(Path file) {
+        return file.resolveSibling("." + file.getFileName() + EXPIRES_SUFFIX);
+    }
+
+    /**
+     * ID をパスの 1 要素として使えるか確認します（ルートの外を指すことがないようにします）。
+     */
+    private static String name(String id) {
+        if (id == null || id.isEmpty() || id.startsWith(".") || id.contains("/") || id.contains("\\")) {
+            throw new IllegalArgumentException("Invalid blob path element: " + id);
+        }
+        return id;
+    }
+}
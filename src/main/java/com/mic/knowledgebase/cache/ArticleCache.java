@@ -0,0 +1,199 @@
+package com.mic.knowledgebase.cache;
+
+import com.mic.knowledgebase.event.ArticleChangedEvent;
+import com.mic.knowledgebase.model.Article;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ArticleService.getArticleById の前段に置くプロセス内の読み取りキャッシュ。
+ * <p>
+ * エントリ数と content の合計サイズの両方で上限を設け、TTL を過ぎたエントリは読み取り時に破棄します。
+ * 上限を超える場合は LRU の末尾を追い出し候補とし、{@link FrequencySketch} で推定した
+ * 新規エントリのアクセス頻度が候補より低ければ新規エントリの方を採用しません (TinyLFU)。
+ * これにより一度しか読まれない記事が人気記事を追い出すことを防ぎます。
+ * <p>
+ * キャッシュされた Article インスタンスは呼び出し側で共有されるため、変更しないでください。
+ */
+@Component
+public class ArticleCache {
+    private static final Logger logger = LoggerFactory.getLogger(ArticleCache.class);
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private long totalBytes;
+
+    /** 無効化のたびに進める世代。読み込み中に無効化された値を格納しないために使います。 */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public ArticleCache(@Value("${app.cache.articles.max-entries:1000}") int maxEntries,
+            @Value("${app.cache.articles.max-bytes:33554432}") long maxBytes,
+            @Value("${app.cache.articles.ttl:PT10M}") Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttl.toNanos();
+        this.sketch = new FrequencySketch(maxEntries);
+    }
+
+    /**
+     * キャッシュされた記事を返します。存在しないか期限切れの場合は null を返します。
+     */
+    public Article get(String id) {
+        lock.lock();
+        try {
+            sketch.increment(id);
+            Entry entry = entries.get(id);
+            if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+                remove(id);
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.article;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * DynamoDB から読み込む直前に呼び出し、戻り値を {@link #putIfFresh} に渡してください。
+     */
+    public long beginLoad() {
+        return generation.get();
+    }
+
+    /**
+     * 読み込みを開始してから無効化が発生していない場合に限り、記事をキャッシュします。
+     */
+    public void putIfFresh(Article article, long loadGeneration) {
+        long weight = weigh(article);
+        if (weight > maxBytes || maxEntries <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (generation.get() != loadGeneration) {
+                return;
+            }
+            Entry previous = entries.remove(article.getId());
+            if (previous != null) {
+                totalBytes -= previous.weight;
+            }
+            if (!makeRoom(article.getId(), weight)) {
+                rejections.increment();
+                return;
+            }
+            entries.put(article.getId(), new Entry(article, weight, System.nanoTime() + ttlNanos));
+            totalBytes += weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 指定した記事をキャッシュから取り除きます。
+     */
+    public void invalidate(String id) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            entries.clear();
+            totalBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onArticleChanged(ArticleChangedEvent event) {
+        if (event.getType() != ArticleChangedEvent.Type.CREATED) {
+            logger.debug("Invalidating cached article: {}", event.getArticleId());
+            invalidate(event.getArticleId());
+        }
+    }
+
+    public CacheStats stats() {
+        lock.lock();
+        try {
+            return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), rejections.sum(), entries.size(),
+                    totalBytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 新しいエントリの分だけ空きを作ります。追い出し候補の方がよく使われている場合は false を返します。
+     */
+    private boolean makeRoom(String candidateId, long weight) {
+        int candidateFrequency = -1;
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() + 1 > maxEntries || totalBytes + weight > maxBytes) {
+            Map.Entry<String, Entry> victim = eldest.next();
+            if (victim.getValue().expiresAt - System.nanoTime() > 0) {
+                if (candidateFrequency < 0) {
+                    candidateFrequency = sketch.frequency(candidateId);
+                }
+                if (candidateFrequency <= sketch.frequency(victim.getKey())) {
+                    return false;
+                }
+            }
+            eldest.remove();
+            totalBytes -= victim.getValue().weight;
+            evictions.increment();
+        }
+        return true;
+    }
+
+    private void remove(String id) {
+        Entry removed = entries.remove(id);
+        if (removed != null) {
+            totalBytes -= removed.weight;
+        }
+    }
+
+    /** content の UTF-16 文字列としてのおおよそのバイト数。 */
+    private static long weigh(Article article) {
+        return article.getContent() == null ? 0 : 2L * article.getContent().length();
+    }
+
+    private record Entry(Article article, long weight, long expiresAt) {
+    }
+
+    public record CacheStats(long hits, long misses, long evictions, long rejections, int size, long bytes) {
+    }
+}
@@ -0,0 +1,291 @@
+package com.mic.knowledgebase.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mic.knowledgebase.event.ArticleChangedEvent;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.util.ArticleETag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GET /api/articles/{id} のレスポンス本文（JSON の UTF-8 バイト列と、その gzip）をキャッシュします。
+ * <p>
+ * ヒットした場合は Jackson でのシリアライズも圧縮も行わず、保持しているバイト列と事前に計算した ETag をそのまま返します。
+ * エントリ数とバイト数 (JSON + gzip) で上限を設けた LRU で、TTL と無効化は {@link ArticleCache} と同じです。
+ * 記事の変更 ({@link ArticleChangedEvent}) で無効化し、読み込み中に無効化された記事は格納しません。
+ */
+@Component
+public class ArticleResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(ArticleResponseCache.class);
+
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final int gzipMinBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    /** 無効化のたびに進める世代。読み込み中に無効化された値を格納しないために使います。 */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ArticleResponseCache(ObjectMapper objectMapper,
+            @Value("${app.cache.responses.max-entries:1000}") int maxEntries,
+            @Value("${app.cache.responses.max-bytes:33554432}") long maxBytes,
+            @Value("${app.cache.responses.ttl:PT10M}") Duration ttl,
+            @Value("${app.cache.responses.gzip-min-bytes:1024}") int gzipMinBytes) {
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttl.toNanos();
+        this.gzipMinBytes = gzipMinBytes;
+    }
+
+    /**
+     * キャッシュされたレスポンスを返します。存在しないか期限切れの場合は null を返します。
+     */
+    public SerializedArticle get(String id) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+                remove(id);
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.response;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 記事を読み込む直前に呼び出し、戻り値を {@link #serialize} に渡してください。
+     */
+    public long beginLoad() {
+        return generation.get();
+    }
+
+    /**
+     * 記事をシリアライズ（一定サイズ以上は gzip も）し、読み込みを開始してから無効化が発生していなければキャッシュします。
+     */
+    public SerializedArticle serialize(Article article, long loadGeneration) {
+        SerializedArticle response = toResponse(article);
+        long weight = response.weight();
+        if (weight > maxBytes || maxEntries <= 0) {
+            return response;
+        }
+        lock.lock();
+        try {
+            if (generation.get() != loadGeneration) {
+                return response;
+            }
+            remove(article.getId());
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() + 1 > maxEntries || totalBytes + weight > maxBytes) {
+                Map.Entry<String, Entry> victim = eldest.next();
+                eldest.remove();
+                totalBytes -= victim.getValue().response.weight();
+                evictions.increment();
+            }
+            entries.put(article.getId(), new Entry(response, System.nanoTime() + ttlNanos));
+            totalBytes += weight;
+            return response;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(String id) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            entries.clear();
+            totalBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onArticleChanged(ArticleChangedEvent event) {
+        if (event.getType() != ArticleChangedEvent.Type.CREATED) {
+            logger.debug("Invalidating cached response: {}", event.getArticleId());
+            invalidate(event.getArticleId());
+        }
+    }
+
+    public ArticleCache.CacheStats stats() {
+        lock.lock();
+        try {
+            return new ArticleCache.CacheStats(hits.sum(), misses.sum(), evictions.sum(), 0, entries.size(),
+                    totalBytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(String id) {
+        Entry removed = entries.remove(id);
+        if (removed != null) {
+            totalBytes -= removed.response.weight();
+        }
+    }
+
+    private SerializedArticle toResponse(Article article) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(article);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize article " + article.getId(), e);
+        }
+        byte[] gzip = json.length >= gzipMinBytes ? gzip(json) : null;
+        return new SerializedArticle(ArticleETag.of(article), json, gzip);
+    }
+
+    /**
+     * @return 圧縮したデータ。元のデータより小さくならない場合は null
+     */
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.size() < data.length ? out.toByteArray() : null;
+    }
+
+    /**
+     * Accept-Encoding が gzip を受け付けるかどうか。gzip の指定が * より優先され、q=0 は拒否を表します。
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            boolean accepted = true;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") && parameter.substring(2).trim().matches("0(\\.0*)?")) {
+                    accepted = false;
+                }
+            }
+            if (name.equalsIgnoreCase("gzip")) {
+                return accepted;
+            }
+            if (name.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    /**
+     * シリアライズ済みの記事。バイト列は共有されるため変更しないでください。
+     * Lambda (API Gateway) のレスポンス本文は文字列のため、JSON の文字列と gzip の Base64 も作成時に用意しておき、
+     * ヒット時にデコードやエンコードをしないようにします。
+     */
+    public static final class SerializedArticle {
+        private final String etag;
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String jsonText;
+        private final String gzipBase64;
+
+        SerializedArticle(String etag, byte[] json, byte[] gzip) {
+            this.etag = etag;
+            this.json = json;
+            this.gzip = gzip;
+            this.jsonText = new String(json, StandardCharsets.UTF_8);
+            this.gzipBase64 = gzip != null ? Base64.getEncoder().encodeToString(gzip) : null;
+        }
+
+        /** identity (非圧縮) の表現の ETag。 */
+        public String etag() {
+            return etag;
+        }
+
+        /** gzip の表現の ETag。 */
+        public String gzipEtag() {
+            return ArticleETag.gzipped(etag);
+        }
+
+        public byte[] json() {
+            return json;
+        }
+
+        /** gzip したバイト列。小さい本文など gzip しなかった場合は null。 */
+        public byte[] gzip() {
+            return gzip;
+        }
+
+        public boolean hasGzip() {
+            return gzip != null;
+        }
+
+        /** API Gateway のレスポンス本文にする JSON 文字列。 */
+        public String jsonText() {
+            return jsonText;
+        }
+
+        /** API Gateway のバイナリレスポンス (isBase64Encoded) にする gzip の Base64。gzip しなかった場合は null。 */
+        public String gzipBase64() {
+            return gzipBase64;
+        }
+
+        /**
+         * 保持しているデータのおおよそのバイト数。文字列は ASCII だけなら 1 文字 1 バイト、
+         * それ以外は 1 文字 2 バイト（UTF-16）で数えます。
+         */
+        long weight() {
+            long textBytes = jsonText.length() == json.length ? json.length : 2L * jsonText.length();
+            return json.length + textBytes
+                    + (gzip != null ? gzip.length + gzipBase64.length() : 0);
+        }
+    }
+
+    private record Entry(SerializedArticle response, long expiresAt) {
+    }
+}
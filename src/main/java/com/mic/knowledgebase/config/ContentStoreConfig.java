@@ -0,0 +1,44 @@
+package com.mic.knowledgebase.config;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.mic.knowledgebase.blob.BlobStore;
+import com.mic.knowledgebase.blob.DynamoDBChunkedBlobStore;
+import com.mic.knowledgebase.blob.FileSystemBlobStore;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * 大きな記事本文の保存先 ({@link BlobStore}) を app.content-store.type で選びます。
+ * dynamodb（既定）は ArticleContentChunks テーブルの子項目に、filesystem は app.content-store.directory 以下の
+ * ファイルに保存します（開発・テスト用）。
+ */
+@Configuration
+public class ContentStoreConfig {
+
+        @Value("${app.content-store.chunk-bytes:262144}")
+        private int chunkBytes;
+
+        @Value("${app.content-store.directory:${java.io.tmpdir}/knowledgebase-content}")
+        private String directory;
+
+        @Autowired
+        private AmazonDynamoDB amazonDynamoDB;
+
+        @Bean
+        @ConditionalOnProperty(name = "app.content-store.type", havingValue = "dynamodb", matchIfMissing = true)
+        public BlobStore dynamoDBBlobStore() {
+                return new DynamoDBChunkedBlobStore(amazonDynamoDB, chunkBytes);
+        }
+
+        @Bean
+        @ConditionalOnProperty(name = "app.content-store.type", havingValue = "filesystem")
+        public BlobStore fileSystemBlobStore() {
+                return new FileSystemBlobStore(Path.of(directory));
+        }
+}
@@ -28,6 +28,9 @@ public class CorsConfig {
         // すべてのHTTPメソッド（GET、POST、PUTなど）を許可
         config.addAllowedMethod("*");
 
+        // 条件付きリクエスト（If-None-Match / If-Match）に使う ETag をブラウザから読めるようにする
+        config.addExposedHeader("ETag");
+
         // すべてのエンドポイントにこのCORS設定を適用
         source.registerCorsConfiguration("/**", config);
 
@@ -1,16 +1,45 @@
 package com.mic.knowledgebase.config;
 
 import org.socialsignin.spring.data.dynamodb.repository.config.EnableDynamoDBRepositories;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import com.amazonaws.ClientConfiguration;
 // import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBStreams;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBStreamsClientBuilder;
+import com.mic.knowledgebase.metrics.DynamoDBAsyncMetrics;
+import com.mic.knowledgebase.metrics.DynamoDBMetrics;
+import com.mic.knowledgebase.resilience.AdaptiveRateLimiter;
+import com.mic.knowledgebase.resilience.DecorrelatedJitterBackoffStrategy;
+import com.mic.knowledgebase.resilience.DynamoDBBulkhead;
+import com.mic.knowledgebase.resilience.DynamoDBRateLimit;
+import com.mic.knowledgebase.util.ContentCompression;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClientBuilder;
+
+import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
 @EnableDynamoDBRepositories(basePackages = "com.mic.knowledgebase.repository")
@@ -28,23 +57,224 @@ public class DynamoDBConfig {
         @Value("${amazon.aws.region}")
         private String amazonAWSRegion;
 
+        @Value("${app.dynamodb.executor.threads:8}")
+        private int dynamoDBExecutorThreads;
+
+        @Value("${app.dynamodb.scan-executor.threads:8}")
+        private int scanExecutorThreads;
+
+        @Value("${app.dynamodb.async.max-concurrency:200}")
+        private int asyncMaxConcurrency;
+
+        @Value("${app.dynamodb.async.max-pending-acquires:10000}")
+        private int asyncMaxPendingAcquires;
+
+        @Value("${app.dynamodb.bulkhead.max-concurrent-calls:50}")
+        private int bulkheadMaxConcurrentCalls;
+
+        @Value("${app.dynamodb.bulkhead.acquire-timeout-millis:1000}")
+        private long bulkheadAcquireTimeoutMillis;
+
+        @Value("${app.dynamodb.rate-limit.initial-rate:100}")
+        private double rateLimitInitialRate;
+
+        @Value("${app.dynamodb.rate-limit.min-rate:5}")
+        private double rateLimitMinRate;
+
+        @Value("${app.dynamodb.rate-limit.max-rate:2000}")
+        private double rateLimitMaxRate;
+
+        @Value("${app.dynamodb.rate-limit.increase-per-second:10}")
+        private double rateLimitIncreasePerSecond;
+
+        @Value("${app.dynamodb.rate-limit.decrease-factor:0.5}")
+        private double rateLimitDecreaseFactor;
+
+        @Value("${app.dynamodb.rate-limit.max-wait-millis:200}")
+        private long rateLimitMaxWaitMillis;
+
+        @Value("${app.dynamodb.retry.base-millis:25}")
+        private long retryBaseMillis;
+
+        @Value("${app.dynamodb.retry.throttled-base-millis:500}")
+        private long retryThrottledBaseMillis;
+
+        @Value("${app.dynamodb.retry.cap-millis:5000}")
+        private long retryCapMillis;
+
+        @Value("${app.dynamodb.compression.threshold-bytes:4096}")
+        private int compressionThresholdBytes;
+
+        @Value("${app.dynamodb.compression.level:-1}")
+        private int compressionLevel;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        /**
+         * Article.content の圧縮設定を登録します。DynamoDBMapper は変換クラスを自身で生成するため、
+         * 変換クラスはここで登録した設定を参照します。
+         */
+        @PostConstruct
+        public void configureContentCompression() {
+                ContentCompression.install(new ContentCompression(compressionThresholdBytes, compressionLevel,
+                                meterRegistry));
+        }
+
+        /*
+         * 同期クライアントは DynamoDBBulkhead で同時呼び出し数を app.dynamodb.bulkhead.max-concurrent-calls までに制限し、
+         * HTTP の接続数も同じ値にします。リクエストのスレッドと各スレッドプールから同時に呼び出しても、テーブルと接続プールへの
+         * 同時リクエストはこの数を超えません。
+         */
+
         @Bean(name = "amazonDynamoDB")
         @Profile("dev")
         public AmazonDynamoDB amazonDynamoDBDev() {
-                return AmazonDynamoDBClientBuilder.standard()
+                DynamoDBMetrics metrics = new DynamoDBMetrics(meterRegistry);
+                return limit(AmazonDynamoDBClientBuilder.standard()
+                                .withClientConfiguration(clientConfiguration(metrics))
+                                .withRequestHandlers(metrics)
                                 .withEndpointConfiguration(
                                                 new AwsClientBuilder.EndpointConfiguration(amazonDynamoDBEndpoint,
                                                                 amazonAWSRegion))
                                 .withCredentials(new AWSStaticCredentialsProvider(
                                                 new BasicAWSCredentials(amazonAWSAccessKey, amazonAWSSecretKey)))
-                                .build();
+                                .build());
         }
 
         @Bean(name = "amazonDynamoDB")
         @Profile("!dev")
         public AmazonDynamoDB amazonDynamoDBProd() {
-                return AmazonDynamoDBClientBuilder.standard()
+                DynamoDBMetrics metrics = new DynamoDBMetrics(meterRegistry);
+                return limit(AmazonDynamoDBClientBuilder.standard()
+                                .withClientConfiguration(clientConfiguration(metrics))
+                                .withRequestHandlers(metrics)
                                 .withRegion(amazonAWSRegion)
+                                .build());
+        }
+
+        /**
+         * Articles テーブルの変更を読む DynamoDB Streams のクライアント (ArticleStreamConsumer)。
+         * ストリームの読み取りはテーブルの容量を消費しないため、DynamoDBBulkhead とレート制限は適用しません。
+         */
+        @Bean(name = "amazonDynamoDBStreams")
+        @Profile("dev")
+        public AmazonDynamoDBStreams amazonDynamoDBStreamsDev() {
+                return AmazonDynamoDBStreamsClientBuilder.standard()
+                                .withEndpointConfiguration(
+                                                new AwsClientBuilder.EndpointConfiguration(amazonDynamoDBEndpoint,
+                                                                amazonAWSRegion))
+                                .withCredentials(new AWSStaticCredentialsProvider(
+                                                new BasicAWSCredentials(amazonAWSAccessKey, amazonAWSSecretKey)))
+                                .build();
+        }
+
+        @Bean(name = "amazonDynamoDBStreams")
+        @Profile("!dev")
+        public AmazonDynamoDBStreams amazonDynamoDBStreamsProd() {
+                return AmazonDynamoDBStreamsClientBuilder.standard()
+                                .withRegion(amazonAWSRegion)
+                                .build();
+        }
+
+        private ClientConfiguration clientConfiguration(DynamoDBMetrics metrics) {
+                AdaptiveRateLimiter limiter = dynamoDBRateLimiter();
+                return new ClientConfiguration()
+                                .withRetryPolicy(metrics.retryPolicy(new DecorrelatedJitterBackoffStrategy(
+                                                retryBaseMillis, retryThrottledBaseMillis, retryCapMillis),
+                                                limiter::onThrottle))
+                                .withMaxConnections(bulkheadMaxConcurrentCalls);
+        }
+
+        /**
+         * リクエスト数の制限 (DynamoDBRateLimit) の内側に同時呼び出し数の制限 (DynamoDBBulkhead) を重ねます。
+         * レート制限で待っている間はバルクヘッドの許可を占有しません。
+         */
+        private AmazonDynamoDB limit(AmazonDynamoDB client) {
+                return DynamoDBRateLimit.wrap(DynamoDBBulkhead.wrap(client, bulkheadMaxConcurrentCalls,
+                                bulkheadAcquireTimeoutMillis, meterRegistry), dynamoDBRateLimiter());
+        }
+
+        /**
+         * 同期・非同期のクライアントで共有する、DynamoDB へのリクエスト数の制限。
+         * スロットリングされると rate を下げ、成功が続くと app.dynamodb.rate-limit.max-rate まで少しずつ上げます。
+         * トークンを app.dynamodb.rate-limit.max-wait-millis 以上待つ必要がある場合は 429 を返します。
+         */
+        @Bean
+        public AdaptiveRateLimiter dynamoDBRateLimiter() {
+                AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(rateLimitInitialRate, rateLimitMinRate,
+                                rateLimitMaxRate, rateLimitIncreasePerSecond, rateLimitDecreaseFactor,
+                                rateLimitMaxWaitMillis);
+                Gauge.builder("dynamodb.rate-limit.rate", limiter, AdaptiveRateLimiter::getRate)
+                                .baseUnit("requests/s")
+                                .register(meterRegistry);
+                FunctionCounter.builder("dynamodb.rate-limit.rejected", limiter,
+                                AdaptiveRateLimiter::getRejectedCount)
+                                .register(meterRegistry);
+                return limiter;
+        }
+
+        /**
+         * 非同期のデータアクセス層 (AsyncArticleRepository) が使う AWS SDK v2 のクライアント。
+         * Netty のイベントループで I/O を行うため、応答待ちの間スレッドを占有しません。
+         * 同時に送信する最大リクエスト数は app.dynamodb.async.max-concurrency、接続の空き待ちの上限は
+         * app.dynamodb.async.max-pending-acquires です。
+         */
+        @Bean(name = "dynamoDbAsyncClient", destroyMethod = "close")
+        @Profile("dev")
+        public DynamoDbAsyncClient dynamoDbAsyncClientDev() {
+                return asyncClientBuilder()
+                                .endpointOverride(URI.create(amazonDynamoDBEndpoint))
+                                .credentialsProvider(StaticCredentialsProvider.create(
+                                                AwsBasicCredentials.create(amazonAWSAccessKey, amazonAWSSecretKey)))
                                 .build();
         }
-}
\ No newline at end of file
+
+        @Bean(name = "dynamoDbAsyncClient", destroyMethod = "close")
+        @Profile("!dev")
+        public DynamoDbAsyncClient dynamoDbAsyncClientProd() {
+                return asyncClientBuilder().build();
+        }
+
+        private DynamoDbAsyncClientBuilder asyncClientBuilder() {
+                return DynamoDbAsyncClient.builder()
+                                .region(Region.of(amazonAWSRegion))
+                                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                                                .maxConcurrency(asyncMaxConcurrency)
+                                                .maxPendingConnectionAcquires(asyncMaxPendingAcquires))
+                                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                                                .addExecutionInterceptor(new DynamoDBAsyncMetrics(meterRegistry))
+                                                .build());
+        }
+
+        /**
+         * バッチの読み書きや本文の保存など、短時間で終わる DynamoDB の呼び出しを並行して行う有界スレッドプール。
+         * 消費側の速さに合わせて長く待つことがある並列スキャンは {@link #dynamoDBScanExecutor()} で行います。
+         */
+        @Bean(name = "dynamoDBExecutor", destroyMethod = "shutdownNow")
+        public ExecutorService dynamoDBExecutor() {
+                AtomicInteger threadNumber = new AtomicInteger();
+                return Executors.newFixedThreadPool(dynamoDBExecutorThreads, runnable -> {
+                        Thread thread = new Thread(runnable, "dynamodb-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                });
+        }
+
+        /**
+         * 並列スキャンのセグメント (ParallelScan、タイムスタンプの移行) 専用の有界スレッドプール。
+         * セグメントは消費側（エクスポートのクライアントや検索インデックスの構築）が遅い間スレッドを占有するため、
+         * dynamoDBExecutor とは分け、スキャンが短い呼び出しを待たせないようにします。
+         * 同時に実行されるセグメントは app.dynamodb.scan-executor.threads までで、それを超えるスキャンのセグメントは
+         * 空きを待ちます。
+         */
+        @Bean(name = "dynamoDBScanExecutor", destroyMethod = "shutdownNow")
+        public ExecutorService dynamoDBScanExecutor() {
+                AtomicInteger threadNumber = new AtomicInteger();
+                return Executors.newFixedThreadPool(scanExecutorThreads, runnable -> {
+                        Thread thread = new Thread(runnable, "dynamodb-scan-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                });
+        }
+}
@@ -2,37 +2,209 @@ package com.mic.knowledgebase.config;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.model.*;
+import com.mic.knowledgebase.blob.DynamoDBChunkedBlobStore;
+import com.mic.knowledgebase.model.Article;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 import jakarta.annotation.PostConstruct;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 起動時に Articles テーブルと GSI（app.stream.enabled=true の場合はストリームも）、大きな本文を保存する
+ * ArticleContentChunks テーブルとその TTL を作成します。
+ * アプリケーションは遅延初期化で起動するため、どこからも参照されないこのクラスは {@code @Lazy(false)} で
+ * 明示的に生成します。Lambda (prod) ではコールドスタートを遅らせないよう app.dynamodb.create-tables=false にしています。
+ */
 @Configuration
+@Lazy(false)
+@ConditionalOnProperty(name = "app.dynamodb.create-tables", havingValue = "true", matchIfMissing = true)
 public class DynamoDBTableCreator {
     private static final Logger logger = LoggerFactory.getLogger(DynamoDBTableCreator.class);
 
+    static final String ARTICLES_TABLE = "Articles";
+    static final String TITLE_INDEX = "TitleIndex";
+    static final String RECENT_INDEX = Article.RECENT_INDEX;
+
     @Autowired
     private AmazonDynamoDB amazonDynamoDB;
 
+    // ArticleStreamConsumer が読むストリームを有効にする
+    @Value("${app.stream.enabled:false}")
+    private boolean streamEnabled;
+
     @PostConstruct
     public void createTables() {
         logger.info("Attempting to create DynamoDB tables...");
         try {
             // Article テーブルの作成
             CreateTableRequest createTableRequest = new CreateTableRequest()
-                    .withAttributeDefinitions(new AttributeDefinition("id", ScalarAttributeType.S))
+                    .withAttributeDefinitions(
+                            new AttributeDefinition("id", ScalarAttributeType.S),
+                            new AttributeDefinition("title", ScalarAttributeType.S),
+                            new AttributeDefinition("recentShard", ScalarAttributeType.N),
+                            new AttributeDefinition("updatedAtMillis", ScalarAttributeType.N))
                     .withKeySchema(new KeySchemaElement("id", KeyType.HASH))
+                    .withGlobalSecondaryIndexes(titleIndex(), recentIndex())
                     .withProvisionedThroughput(new ProvisionedThroughput(5L, 5L))
-                    .withTableName("Articles");
+                    .withTableName(ARTICLES_TABLE);
+            if (streamEnabled) {
+                createTableRequest.withStreamSpecification(streamSpecification());
+            }
             amazonDynamoDB.createTable(createTableRequest);
             logger.info("Article テーブルが作成されました");
         } catch (ResourceInUseException e) {
             logger.info("Article テーブルは既に存在します");
+            ensureGlobalSecondaryIndexes();
+            if (streamEnabled) {
+                ensureStream();
+            }
         } catch (Exception e) {
             logger.error("テーブル作成中にエラーが発生しました", e);
         }
+        createContentChunksTable();
+    }
+
+    private void createContentChunksTable() {
+        try {
+            amazonDynamoDB.createTable(new CreateTableRequest()
+                    .withAttributeDefinitions(
+                            new AttributeDefinition(DynamoDBChunkedBlobStore.OWNER_ATTRIBUTE, ScalarAttributeType.S),
+                            new AttributeDefinition(DynamoDBChunkedBlobStore.PART_ATTRIBUTE, ScalarAttributeType.S))
+                    .withKeySchema(
+                            new KeySchemaElement(DynamoDBChunkedBlobStore.OWNER_ATTRIBUTE, KeyType.HASH),
+                            new KeySchemaElement(DynamoDBChunkedBlobStore.PART_ATTRIBUTE, KeyType.RANGE))
+                    .withProvisionedThroughput(new ProvisionedThroughput(5L, 5L))
+                    .withTableName(DynamoDBChunkedBlobStore.TABLE_NAME));
+            logger.info("{} テーブルが作成されました", DynamoDBChunkedBlobStore.TABLE_NAME);
+        } catch (ResourceInUseException e) {
+            logger.info("{} テーブルは既に存在します", DynamoDBChunkedBlobStore.TABLE_NAME);
+        } catch (Exception e) {
+            logger.error("テーブル作成中にエラーが発生しました", e);
+            return;
+        }
+        ensureContentChunksTimeToLive();
+    }
+
+    /**
+     * 置き換えられた本文を削除する TTL ({@link DynamoDBChunkedBlobStore#EXPIRES_AT_ATTRIBUTE}) を有効にします。
+     * 作成直後のテーブルでは失敗することがあるため、その場合は次回の起動時に改めて有効にします。
+     */
+    private void ensureContentChunksTimeToLive() {
+        try {
+            TimeToLiveDescription current = amazonDynamoDB.describeTimeToLive(new DescribeTimeToLiveRequest()
+                    .withTableName(DynamoDBChunkedBlobStore.TABLE_NAME)).getTimeToLiveDescription();
+            if (current != null && !TimeToLiveStatus.DISABLED.toString().equals(current.getTimeToLiveStatus())) {
+                return;
+            }
+            amazonDynamoDB.updateTimeToLive(new UpdateTimeToLiveRequest()
+                    .withTableName(DynamoDBChunkedBlobStore.TABLE_NAME)
+                    .withTimeToLiveSpecification(new TimeToLiveSpecification()
+                            .withEnabled(true)
+                            .withAttributeName(DynamoDBChunkedBlobStore.EXPIRES_AT_ATTRIBUTE)));
+            logger.info("{} テーブルの TTL を有効にしました", DynamoDBChunkedBlobStore.TABLE_NAME);
+        } catch (Exception e) {
+            logger.warn("{} テーブルの TTL を有効にできませんでした: {}", DynamoDBChunkedBlobStore.TABLE_NAME,
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * 既存のテーブルに不足している GSI を追加します。UpdateTable では 1 回に 1 つの GSI しか作成できないため、
+     * GSI ごとに要求します（作成中の GSI がある場合は失敗するので、次回の起動時に改めて追加します）。
+     * GSI の作成はバックグラウンドで行われ、完了するまでその GSI へのクエリは失敗します。
+     */
+    private void ensureGlobalSecondaryIndexes() {
+        TableDescription table = amazonDynamoDB.describeTable(ARTICLES_TABLE).getTable();
+        Set<String> existing = new HashSet<>();
+        if (table.getGlobalSecondaryIndexes() != null) {
+            table.getGlobalSecondaryIndexes().forEach(index -> existing.add(index.getIndexName()));
+        }
+        Map<GlobalSecondaryIndex, List<AttributeDefinition>> required = new LinkedHashMap<>();
+        required.put(titleIndex(), List.of(new AttributeDefinition("title", ScalarAttributeType.S)));
+        required.put(recentIndex(), List.of(new AttributeDefinition("recentShard", ScalarAttributeType.N),
+                new AttributeDefinition("updatedAtMillis", ScalarAttributeType.N)));
+        required.forEach((index, attributeDefinitions) -> {
+            if (existing.contains(index.getIndexName())) {
+                return;
+            }
+            try {
+                amazonDynamoDB.updateTable(new UpdateTableRequest()
+                        .withTableName(ARTICLES_TABLE)
+                        .withAttributeDefinitions(attributeDefinitions)
+                        .withGlobalSecondaryIndexUpdates(new GlobalSecondaryIndexUpdate()
+                                .withCreate(new CreateGlobalSecondaryIndexAction()
+                                        .withIndexName(index.getIndexName())
+                                        .withKeySchema(index.getKeySchema())
+                                        .withProjection(index.getProjection())
+                                        .withProvisionedThroughput(index.getProvisionedThroughput()))));
+                logger.info("{} を Article テーブルに追加しました", index.getIndexName());
+            } catch (Exception e) {
+                logger.error("{} の追加中にエラーが発生しました", index.getIndexName(), e);
+            }
+        });
+    }
+
+    /**
+     * 既存のテーブルでストリームが無効な場合に有効にします。変更後の項目が必要なため、KEYS_ONLY などの
+     * 別の形式で有効になっている場合は変更せずに警告します（形式を変えるにはストリームを一度無効にする必要があります）。
+     */
+    private void ensureStream() {
+        try {
+            StreamSpecification current = amazonDynamoDB.describeTable(ARTICLES_TABLE).getTable()
+                    .getStreamSpecification();
+            if (current != null && Boolean.TRUE.equals(current.getStreamEnabled())) {
+                String viewType = current.getStreamViewType();
+                if (!StreamViewType.NEW_IMAGE.toString().equals(viewType)
+                        && !StreamViewType.NEW_AND_OLD_IMAGES.toString().equals(viewType)) {
+                    logger.warn("Article テーブルのストリームは {} です。変更後の記事を受け取るには NEW_IMAGE にしてください",
+                            viewType);
+                }
+                return;
+            }
+            amazonDynamoDB.updateTable(new UpdateTableRequest()
+                    .withTableName(ARTICLES_TABLE)
+                    .withStreamSpecification(streamSpecification()));
+            logger.info("Article テーブルのストリームを有効にしました");
+        } catch (Exception e) {
+            logger.error("ストリームの有効化中にエラーが発生しました", e);
+        }
+    }
+
+    private static StreamSpecification streamSpecification() {
+        return new StreamSpecification().withStreamEnabled(true).withStreamViewType(StreamViewType.NEW_IMAGE);
+    }
+
+    private static GlobalSecondaryIndex titleIndex() {
+        return new GlobalSecondaryIndex()
+                .withIndexName(TITLE_INDEX)
+                .withKeySchema(new KeySchemaElement("title", KeyType.HASH))
+                .withProjection(new Projection().withProjectionType(ProjectionType.ALL))
+                .withProvisionedThroughput(new ProvisionedThroughput(5L, 5L));
+    }
+
+    /**
+     * 更新日時の新しい順の一覧 (RecentIndex) 用の GSI。本文以外の属性を射影し、一覧はテーブルを読まずに返します。
+     */
+    private static GlobalSecondaryIndex recentIndex() {
+        return new GlobalSecondaryIndex()
+                .withIndexName(RECENT_INDEX)
+                .withKeySchema(new KeySchemaElement("recentShard", KeyType.HASH),
+                        new KeySchemaElement("updatedAtMillis", KeyType.RANGE))
+                .withProjection(new Projection().withProjectionType(ProjectionType.INCLUDE)
+                        .withNonKeyAttributes("title", "contentRef", "contentLength", "createdAt", "updatedAt",
+                                "version"))
+                .withProvisionedThroughput(new ProvisionedThroughput(5L, 5L));
     }
-}
\ No newline at end of file
+}
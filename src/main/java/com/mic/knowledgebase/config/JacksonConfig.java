@@ -0,0 +1,17 @@
+package com.mic.knowledgebase.config;
+
+import com.mic.knowledgebase.model.ArticleFields;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // 記事一覧の fields パラメータで、記事の JSON を指定した属性に絞れるようにする（ArticleFields.filters）
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer articleFieldsCustomizer() {
+        return builder -> builder.postConfigurer(ArticleFields::configure);
+    }
+}
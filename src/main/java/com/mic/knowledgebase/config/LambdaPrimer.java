@@ -0,0 +1,122 @@
+package com.mic.knowledgebase.config;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mic.knowledgebase.MainLambdaFunction;
+import com.mic.knowledgebase.metrics.EmfMetricsEmitter;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.model.ArticlePage;
+
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lambda のコールドスタート対策として、最初の呼び出しの前にリクエスト処理の経路を温めます。
+ * <p>
+ * アプリケーションは遅延初期化で起動するため、何もしなければ最初のリクエストが Bean の生成、
+ * DynamoDBMapper による Article のリフレクション、Jackson のシリアライザ構築、DynamoDB への TLS ハンドシェイクを
+ * すべて負担します。このクラスは Lambda の初期化フェーズ（ApplicationReadyEvent）でそれらを済ませます。
+ * SnapStart では CRaC の {@link Resource} としてチェックポイントの直前にも呼ばれ、温まった状態がスナップショットに含まれます。
+ * 復元後は {@link #afterRestore} で DynamoDB への接続を張り直します。
+ * <p>
+ * app.lambda.priming.enabled=true の場合のみ有効です（prod プロファイルで有効にしています）。
+ */
+@Component
+@Lazy(false)
+@ConditionalOnProperty(name = "app.lambda.priming.enabled", havingValue = "true")
+public class LambdaPrimer implements Resource {
+    private static final Logger logger = LoggerFactory.getLogger(LambdaPrimer.class);
+
+    /** 存在しない記事の ID。GetItem の往復だけを発生させるために使います。 */
+    static final String PRIMING_ARTICLE_ID = "__priming__";
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private final AtomicBoolean primed = new AtomicBoolean();
+
+    @PostConstruct
+    public void registerCheckpointHook() {
+        // 登録は弱参照で保持されるため、Spring が保持し続けるシングルトンの Bean 自身を登録します
+        Core.getGlobalContext().register(this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        prime();
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        prime();
+    }
+
+    /**
+     * スナップショットから復元された直後に呼ばれます。チェックポイント前に確立した DynamoDB への接続は
+     * 復元後には切れているため、最初のリクエストが失敗と再試行を負担しないよう、ここで GetItem を
+     * もう一度発行して接続を張り直します。EMF の出力時刻と累積値も復元した実行環境を基準にし直します。
+     */
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        long start = System.nanoTime();
+        primeDynamoDB(applicationContext.getBean(DynamoDBMapper.class));
+        applicationContext.getBeanProvider(EmfMetricsEmitter.class).ifAvailable(EmfMetricsEmitter::resetAfterRestore);
+        logger.info("Restored from checkpoint in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 各経路を 1 回ずつ実行します。2 回目以降の呼び出しは何もしません。
+     * 失敗しても起動は止めず、その経路は最初のリクエストで初期化されます。
+     */
+    public void prime() {
+        if (!primed.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.nanoTime();
+        MainLambdaFunction function = applicationContext.getBean(MainLambdaFunction.class);
+        primeJackson(applicationContext.getBean(ObjectMapper.class));
+        primeDynamoDB(applicationContext.getBean(DynamoDBMapper.class));
+        // ハンドラー自体の経路 (CORS ヘッダーの生成、イベントのログ出力) は DynamoDB に触れない OPTIONS で温める
+        function.apply(new APIGatewayProxyRequestEvent().withHttpMethod("OPTIONS").withPath("/articles"));
+        logger.info("Lambda priming finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void primeJackson(ObjectMapper objectMapper) {
+        try {
+            Article article = new Article(PRIMING_ARTICLE_ID, "title", "content", LocalDateTime.now(),
+                    LocalDateTime.now());
+            article.setVersion(1L);
+            String json = objectMapper.writeValueAsString(article);
+            objectMapper.readValue(json, Article.class);
+            objectMapper.writeValueAsString(new ArticlePage(List.of(article), null));
+        } catch (Exception e) {
+            logger.warn("Failed to prime Jackson: {}", e.getMessage());
+        }
+    }
+
+    private void primeDynamoDB(DynamoDBMapper dynamoDBMapper) {
+        try {
+            // テーブルモデルの構築、認証情報の解決、接続の確立と TLS ハンドシェイクをまとめて済ませる
+            dynamoDBMapper.load(Article.class, PRIMING_ARTICLE_ID);
+        } catch (Exception e) {
+            logger.warn("Failed to prime DynamoDB client: {}", e.getMessage());
+        }
+    }
+}
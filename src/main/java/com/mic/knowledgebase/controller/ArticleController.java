@@ -1,9 +1,24 @@
 package com.mic.knowledgebase.controller;
 
+import com.mic.knowledgebase.cache.ArticleResponseCache;
+import com.mic.knowledgebase.cache.ArticleResponseCache.SerializedArticle;
 import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.model.ArticleFields;
+import com.mic.knowledgebase.model.ArticlePage;
+import com.mic.knowledgebase.model.BatchWriteResult;
+import com.mic.knowledgebase.model.MultiGetRequest;
+import com.mic.knowledgebase.model.MultiGetResult;
+import com.mic.knowledgebase.model.SearchHit;
+import com.mic.knowledgebase.search.SearchService;
+import com.mic.knowledgebase.service.ArticleExportService;
+import com.mic.knowledgebase.service.ArticleContentStore;
+import com.mic.knowledgebase.service.ArticleImportService;
 import com.mic.knowledgebase.service.ArticleService;
+import com.mic.knowledgebase.service.AsyncArticleService;
+import com.mic.knowledgebase.util.ArticleETag;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -15,11 +30,20 @@ import com.mic.knowledgebase.exception.DatabaseOperationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/articles")
@@ -30,46 +54,222 @@ public class ArticleController {
     @Autowired
     private ArticleService articleService;
 
-    @Operation(summary = "全ての記事を取得", description = "データベースに保存されている全ての記事のリストを取得します")
+    @Autowired
+    private AsyncArticleService asyncArticleService;
+
+    @Autowired
+    private ArticleExportService articleExportService;
+
+    @Autowired
+    private ArticleImportService articleImportService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private ArticleContentStore articleContentStore;
+
+    @Autowired
+    private ArticleResponseCache articleResponseCache;
+
+    @Operation(summary = "記事を 1 ページ分取得", description = "記事を 1 ページ分（limit 件、既定 20 件）と次ページのトークンを返します。"
+            + "全件が必要な場合は pageToken で続きを取得するか、/export を使ってください。"
+            + "title を指定した場合はタイトルが完全一致する記事を、ids を指定した場合はそれらの記事を一括取得します。"
+            + "fields（カンマ区切り）または view=summary を指定すると、その属性だけを DynamoDB から読み取って返します")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "記事リストの取得に成功", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Article.class))),
+            @ApiResponse(responseCode = "400", description = "ページトークンまたは fields が不正です", content = @Content),
             @ApiResponse(responseCode = "500", description = "サーバーエラー", content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<Article>> getAllArticles() {
-        logger.debug("Fetching all articles");
+    public ResponseEntity<?> getAllArticles(
+            @Parameter(description = "1 ページの最大件数") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "前ページのレスポンスに含まれる nextPageToken") @RequestParam(required = false) String pageToken,
+            @Parameter(description = "一括取得する記事の ID（カンマ区切り）") @RequestParam(required = false) List<String> ids,
+            @Parameter(description = "完全一致で検索するタイトル") @RequestParam(required = false) String title,
+            @Parameter(description = "返す属性（カンマ区切り、id は常に含みます）") @RequestParam(required = false) String fields,
+            @Parameter(description = "summary の場合は id・title・createdAt・updatedAt のみ返します") @RequestParam(required = false) String view) {
+        ArticleFields articleFields = ArticleFields.parse(fields, view);
         try {
-            List<Article> articles = articleService.getAllArticles();
-            logger.debug("Found {} articles", articles.size());
-            return ResponseEntity.ok(articles);
+            if (title != null) {
+                logger.debug("Fetching articles with title: {}", title);
+                return ResponseEntity.ok(filtered(articleService.getArticlesByTitle(title, articleFields), articleFields));
+            }
+            if (ids != null) {
+                logger.debug("Fetching {} articles by ID", ids.size());
+                return ResponseEntity.ok(filtered(articleService.getArticlesByIds(ids, articleFields), articleFields));
+            }
+            // limit も pageToken もない場合は先頭ページを返す（全件のスキャンは /export で行う）
+            logger.debug("Fetching articles page (limit: {})", limit);
+            ArticlePage page = articleService.getArticlesPage(limit, pageToken, articleFields);
+            logger.debug("Found {} articles in page", page.getItems().size());
+            return ResponseEntity.ok(filtered(page, articleFields));
         } catch (DatabaseOperationException e) {
             logger.error("Error fetching articles", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
-    @Operation(summary = "IDで記事を取得", description = "指定されたIDの記事を取得します")
+    @Operation(summary = "複数の記事を一括取得", description = "リクエストボディで指定された ID の記事を一括取得します。見つからない ID は missingIds に含まれます")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "記事の取得に成功", content = {
-                    @Content(mediaType = "application/json", schema = @Schema(implementation = Article.class)) }),
-            @ApiResponse(responseCode = "404", description = "指定されたIDの記事が見つかりません", content = @Content),
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = MultiGetResult.class)) }),
+            @ApiResponse(responseCode = "400", description = "ID が多すぎます", content = @Content),
             @ApiResponse(responseCode = "500", description = "サーバーエラー", content = @Content)
     })
-    @GetMapping("/{id}")
-    public ResponseEntity<Article> getArticleById(@PathVariable String id) {
+    @PostMapping("/batch-get")
+    public CompletableFuture<ResponseEntity<MultiGetResult>> getArticlesByIds(@RequestBody MultiGetRequest request) {
+        List<String> ids = request.getIds() != null ? request.getIds() : List.of();
+        logger.debug("Fetching {} articles by ID", ids.size());
+        return asyncArticleService.getArticlesByIds(ids)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(e -> failed(e, "Error fetching articles by ID"));
+    }
+
+    @Operation(summary = "記事を全文検索", description = "タイトルと本文を対象に全文検索し、関連度 (BM25) の高い順に返します")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "検索に成功", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = SearchHit.class)) }),
+            @ApiResponse(responseCode = "500", description = "サーバーエラー", content = @Content)
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<SearchHit>> searchArticles(
+            @Parameter(description = "検索語") @RequestParam("q") String query,
+            @Parameter(description = "最大件数") @RequestParam(required = false) Integer limit) {
         try {
-            logger.debug("Fetching article id: {}", id);
-            Article article = articleService.getArticleById(id);
-            return ResponseEntity.ok(article);
-        } catch (ArticleNotFoundException e) {
-            logger.warn("Article not found with id: {}", id);
-            return ResponseEntity.notFound().build();
+            logger.debug("Searching articles: {}", query);
+            return ResponseEntity.ok(searchService.search(query, limit));
         } catch (DatabaseOperationException e) {
-            logger.error("Error fetching article with id: {}", id, e);
+            logger.error("Error searching articles", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
+    @Operation(summary = "最近更新された記事を取得", description = "更新日時の新しい順に記事を 1 ページ分取得します。"
+            + "レスポンスの nextPageToken を pageToken に指定すると続きを取得できます。"
+            + "RecentIndex (GSI) を読むため、書き込み直後の記事が含まれない場合があります")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "記事の取得に成功", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ArticlePage.class))),
+            @ApiResponse(responseCode = "400", description = "ページトークンまたは fields が不正です", content = @Content),
+            @ApiResponse(responseCode = "500", description = "サーバーエラー", content = @Content)
+    })
+    @GetMapping("/recent")
+    public ResponseEntity<?> getRecentArticles(
+            @Parameter(description = "1 ページの最大件数") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "前ページのレスポンスに含まれる nextPageToken") @RequestParam(required = false) String pageToken,
+            @Parameter(description = "返す属性（カンマ区切り、id は常に含みます）") @RequestParam(required = false) String fields,
+            @Parameter(description = "summary の場合は id・title・createdAt・updatedAt のみ返します") @RequestParam(required = false) String view) {
+        ArticleFields articleFields = ArticleFields.parse(fields, view);
+        try {
+            logger.debug("Fetching recently updated articles (limit: {})", limit);
+            ArticlePage page = articleService.getRecentArticles(limit, pageToken, articleFields);
+            logger.debug("Found {} recently updated articles", page.getItems().size());
+            return ResponseEntity.ok(filtered(page, articleFields));
+        } catch (DatabaseOperationException e) {
+            logger.error("Error fetching recently updated articles", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+
+    @Operation(summary = "全ての記事をエクスポート", description = "全ての記事を NDJSON 形式 (1 行 1 記事) でストリーム出力します")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "エクスポートを開始", content = @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = Article.class)))
+    })
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportArticles() {
+        logger.debug("Exporting all articles");
+        StreamingResponseBody body = outputStream -> {
+            long count = articleExportService.exportAsNdjson(outputStream);
+            logger.debug("Exported {} articles", count);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    @Operation(summary = "IDで記事を取得", description = "指定されたIDの記事を取得します。"
+            + "レスポンスの ETag を If-None-Match に指定すると、記事が変更されていない場合は本文なしの 304 を返します。"
+            + "Accept-Encoding が gzip を含む場合、大きな記事は gzip で返します")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "記事の取得に成功", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = Article.class)) }),
+            @ApiResponse(responseCode = "304", description = "記事は変更されていません", content = @Content),
+            @ApiResponse(responseCode = "404", description = "指定されたIDの記事が見つかりません", content = @Content),
+            @ApiResponse(responseCode = "500", description = "サーバーエラー", content = @Content)
+    })
+    @GetMapping("/{id}")
+    public CompletableFuture<ResponseEntity<byte[]>> getArticleById(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        logger.debug("Fetching article id: {}", id);
+        SerializedArticle cached = articleResponseCache.get(id);
+        if (cached != null) {
+            // シリアライズ済みのバイト列をそのまま返す（Jackson も圧縮も実行しない）
+            return CompletableFuture.completedFuture(serialized(cached, ifNoneMatch, acceptEncoding));
+        }
+        long loadGeneration = articleResponseCache.beginLoad();
+        return asyncArticleService.getArticleById(id)
+                .thenApply(article -> serialized(articleResponseCache.serialize(article, loadGeneration),
+                        ifNoneMatch, acceptEncoding))
+                .exceptionally(e -> failed(e, "Error fetching article with id: " + id));
+    }
+
+    /**
+     * シリアライズ済みの記事のレスポンスを作ります。gzip を受け付けるクライアントには gzip の表現を返し、
+     * If-None-Match が ETag と一致する場合は本文なしの 304 を返します。
+     */
+    private static ResponseEntity<byte[]> serialized(SerializedArticle article, String ifNoneMatch,
+            String acceptEncoding) {
+        boolean gzip = article.hasGzip() && ArticleResponseCache.acceptsGzip(acceptEncoding);
+        String etag = gzip ? article.gzipEtag() : article.etag();
+        boolean notModified = ArticleETag.matchesIfNoneMatch(ifNoneMatch, etag);
+        ResponseEntity.BodyBuilder response = notModified ? ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                : ResponseEntity.ok();
+        response.eTag(etag);
+        if (article.hasGzip()) {
+            response.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (notModified) {
+            return response.build();
+        }
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.contentType(MediaType.APPLICATION_JSON).body(gzip ? article.gzip() : article.json());
+    }
+
+    @Operation(summary = "記事の本文を取得", description = "指定されたIDの記事の本文を text/plain でストリーム出力します。"
+            + "大きな本文は記事の取得 (GET /{id}) には含まれず (contentRef と contentLength のみ)、このエンドポイントで取得します。"
+            + "ETag は記事と同じです")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "本文の取得に成功", content = @Content(mediaType = "text/plain")),
+            @ApiResponse(responseCode = "304", description = "記事は変更されていません", content = @Content),
+            @ApiResponse(responseCode = "404", description = "指定されたIDの記事が見つかりません", content = @Content),
+            @ApiResponse(responseCode = "500", description = "サーバーエラー", content = @Content)
+    })
+    @GetMapping(value = "/{id}/content", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<StreamingResponseBody> getArticleContent(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("Fetching content of article id: {}", id);
+        Article article = articleService.getArticleById(id);
+        if (ArticleETag.matchesIfNoneMatch(ifNoneMatch, article)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ArticleETag.of(article)).build();
+        }
+        // 本文が見つからない場合に 404 を返せるよう、レスポンスを書き始める前に開きます
+        InputStream content = articleContentStore.open(article);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(ArticleETag.of(article))
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8));
+        if (article.getContentLength() != null) {
+            response.contentLength(article.getContentLength());
+        }
+        return response.body(outputStream -> {
+            try (content) {
+                content.transferTo(outputStream);
+            }
+        });
+    }
+
     @Operation(summary = "新しい記事を作成", description = "新しい記事をデータベースに作成します")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "記事の作成に成功", content = {
@@ -77,54 +277,101 @@ public class ArticleController {
             @ApiResponse(responseCode = "500", description = "サーバーエラー", content = @Content)
     })
     @PostMapping
-    public ResponseEntity<Article> createArticle(@RequestBody Article article) {
+    public CompletableFuture<ResponseEntity<Article>> createArticle(@RequestBody Article article) {
+        return asyncArticleService.createArticle(article)
+                .thenApply(createdArticle -> ResponseEntity.status(HttpStatus.CREATED).body(createdArticle))
+                .exceptionally(e -> failed(e, "Error creating article"));
+    }
+
+    @Operation(summary = "記事を一括作成", description = "JSON 配列または NDJSON で送られた複数の記事を一括作成し、記事ごとの結果を返します")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "全ての記事の作成に成功", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = BatchWriteResult.class)) }),
+            @ApiResponse(responseCode = "207", description = "一部の記事の作成に失敗（途中に解釈できない記事があった場合は、"
+                    + "その位置の FAILED で終わり、以降の記事は作成されません）", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = BatchWriteResult.class)) }),
+            @ApiResponse(responseCode = "400", description = "先頭の記事からリクエストボディが不正です（何も作成されません）",
+                    content = @Content),
+            @ApiResponse(responseCode = "500", description = "サーバーエラー", content = @Content)
+    })
+    @PostMapping(value = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson" })
+    public ResponseEntity<BatchWriteResult> createArticles(InputStream body) {
         try {
-            Article createdArticle = articleService.createArticle(article);
-            return ResponseEntity.status(HttpStatus.CREATED).body(createdArticle);
+            BatchWriteResult result = articleImportService.importArticles(body);
+            logger.debug("Batch create finished: {} succeeded, {} failed", result.getSucceeded(), result.getFailed());
+            HttpStatus status = result.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+            return ResponseEntity.status(status).body(result);
+        } catch (IOException e) {
+            logger.warn("Invalid batch create request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (DatabaseOperationException e) {
-            logger.error("Error creating article", e);
+            logger.error("Error creating articles in batch", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
-    @Operation(summary = "記事を更新", description = "指定されたIDの記事を更新します")
+    @Operation(summary = "記事を更新", description = "指定されたIDの記事を更新します。"
+            + "If-Match に ETag を指定すると、その後に他の更新があった場合は更新せずに 412 を返します")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "記事の更新に成功", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = Article.class)) }),
             @ApiResponse(responseCode = "404", description = "指定されたIDの記事が見つかりません", content = @Content),
+            @ApiResponse(responseCode = "412", description = "記事が他の更新により変更されています", content = @Content),
             @ApiResponse(responseCode = "500", description = "サーバーエラー", content = @Content)
     })
     @PutMapping("/{id}")
-    public ResponseEntity<Article> updateArticle(@PathVariable String id, @RequestBody Article articleDetails) {
-        try {
-            Article updatedArticle = articleService.updateArticle(id, articleDetails);
-            return ResponseEntity.ok(updatedArticle);
-        } catch (ArticleNotFoundException e) {
-            logger.warn("Article not found with id: {}", id);
-            return ResponseEntity.notFound().build();
-        } catch (DatabaseOperationException e) {
-            logger.error("Error updating article with id: {}", id, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
-        }
+    public CompletableFuture<ResponseEntity<Article>> updateArticle(@PathVariable String id,
+            @RequestBody Article articleDetails,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return asyncArticleService.updateArticle(id, articleDetails, ArticleETag.parseIfMatch(ifMatch))
+                .thenApply(updatedArticle -> ResponseEntity.ok().eTag(ArticleETag.of(updatedArticle))
+                        .body(updatedArticle))
+                .exceptionally(e -> failed(e, "Error updating article with id: " + id));
     }
 
-    @Operation(summary = "記事を削除", description = "指定されたIDの記事を削除します")
+    @Operation(summary = "記事を削除", description = "指定されたIDの記事を削除します。"
+            + "If-Match に ETag を指定すると、その後に他の更新があった場合は削除せずに 412 を返します")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "記事の削除に成功"),
             @ApiResponse(responseCode = "404", description = "指定されたIDの記事が見つかりません", content = @Content),
+            @ApiResponse(responseCode = "412", description = "記事が他の更新により変更されています", content = @Content),
             @ApiResponse(responseCode = "500", description = "サーバーエラー", content = @Content)
     })
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteArticle(@PathVariable String id) {
-        try {
-            articleService.deleteArticle(id);
-            return ResponseEntity.noContent().build();
-        } catch (ArticleNotFoundException e) {
-            logger.warn("Article not found with id: {}", id);
+    public CompletableFuture<ResponseEntity<Void>> deleteArticle(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return asyncArticleService.deleteArticle(id, ArticleETag.parseIfMatch(ifMatch))
+                .thenApply(ignored -> ResponseEntity.noContent().<Void>build())
+                .exceptionally(e -> failed(e, "Error deleting article with id: " + id));
+    }
+
+    /**
+     * 記事の JSON を fields の属性に絞って書き出すようにします。
+     */
+    private static Object filtered(Object body, ArticleFields fields) {
+        if (fields.isAll()) {
+            return body;
+        }
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(fields.filters());
+        return value;
+    }
+
+    /**
+     * 非同期処理の失敗を同期版と同じレスポンスに変換します。
+     * ArticleNotFoundException は 404、DatabaseOperationException は 500 とし、
+     * それ以外（PreconditionFailedException など）は GlobalExceptionHandler に任せます。
+     */
+    private static <T> ResponseEntity<T> failed(Throwable error, String message) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof ArticleNotFoundException) {
+            logger.warn(cause.getMessage());
             return ResponseEntity.notFound().build();
-        } catch (DatabaseOperationException e) {
-            logger.error("Error deleting article with id: {}", id, e);
+        }
+        if (cause instanceof DatabaseOperationException) {
+            logger.error(message, cause);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
+        throw error instanceof CompletionException completion ? completion : new CompletionException(cause);
     }
 }
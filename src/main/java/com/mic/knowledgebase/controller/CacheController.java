@@ -0,0 +1,37 @@
+package com.mic.knowledgebase.controller;
+
+import com.mic.knowledgebase.cache.ArticleCache;
+import com.mic.knowledgebase.cache.ArticleResponseCache;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/cache")
+@Tag(name = "Cache", description = "プロセス内キャッシュの状態確認API")
+public class CacheController {
+
+    @Autowired
+    private ArticleCache articleCache;
+
+    @Autowired
+    private ArticleResponseCache articleResponseCache;
+
+    @Operation(summary = "記事キャッシュの統計を取得", description = "ヒット・ミス・追い出し件数と現在のエントリ数、content の合計サイズを返します")
+    @GetMapping("/articles")
+    public ResponseEntity<ArticleCache.CacheStats> getArticleCacheStats() {
+        return ResponseEntity.ok(articleCache.stats());
+    }
+
+    @Operation(summary = "レスポンスキャッシュの統計を取得", description = "シリアライズ済みの記事のヒット・ミス・追い出し件数と、現在のエントリ数、JSON と gzip の合計サイズを返します")
+    @GetMapping("/responses")
+    public ResponseEntity<ArticleCache.CacheStats> getResponseCacheStats() {
+        return ResponseEntity.ok(articleResponseCache.stats());
+    }
+}
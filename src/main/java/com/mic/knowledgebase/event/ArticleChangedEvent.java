@@ -0,0 +1,42 @@
+package com.mic.knowledgebase.event;
+
+import com.mic.knowledgebase.model.Article;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 記事が作成・更新・削除されたことを通知するイベント。
+ * ArticleService が書き込み成功後に発行し、キャッシュなどのプロセス内の状態がこれを購読して更新します。
+ */
+@Getter
+@ToString
+public class ArticleChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final String articleId;
+    /** 変更後の記事。DELETED の場合は null です。 */
+    private final Article article;
+
+    public ArticleChangedEvent(Type type, String articleId, Article article) {
+        this.type = type;
+        this.articleId = articleId;
+        this.article = article;
+    }
+
+    public static ArticleChangedEvent created(Article article) {
+        return new ArticleChangedEvent(Type.CREATED, article.getId(), article);
+    }
+
+    public static ArticleChangedEvent updated(Article article) {
+        return new ArticleChangedEvent(Type.UPDATED, article.getId(), article);
+    }
+
+    public static ArticleChangedEvent deleted(String articleId) {
+        return new ArticleChangedEvent(Type.DELETED, articleId, null);
+    }
+}
@@ -0,0 +1,17 @@
+package com.mic.knowledgebase.exception;
+
+/**
+ * 一時的に処理できないことを表します (503)。retryAfterSeconds 秒後の再試行を促します。
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
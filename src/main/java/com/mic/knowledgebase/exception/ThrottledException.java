@@ -0,0 +1,22 @@
+package com.mic.knowledgebase.exception;
+
+/**
+ * DynamoDB へのリクエスト数の上限に達したことを表します (429)。retryAfterSeconds 秒後の再試行を促します。
+ */
+public class ThrottledException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public ThrottledException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
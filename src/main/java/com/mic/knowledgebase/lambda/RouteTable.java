@@ -0,0 +1,294 @@
+package com.mic.knowledgebase.lambda;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * HTTP メソッドとパステンプレート（例: {@code /articles/{id}}）からハンドラーを引くルーティングテーブル。
+ * <p>
+ * テンプレートは起動時にセグメント単位のトライ木に変換します。照合はパス文字列を先頭から走査して
+ * リテラルのセグメントを {@link String#regionMatches} で比較するため、リクエストごとに正規表現や
+ * {@code split} による配列を生成しません。パス変数のないルートは事前に作った照合結果を返し、
+ * パス変数のあるルートもパスを保持する照合結果を 1 つ生成するだけで、値は {@link Match#pathVariable} の呼び出し時に切り出します。同じ位置ではリテラルのセグメントをパス変数より優先します
+ * （{@code /articles/search} は {@code /articles/{id}} より先に一致します）。
+ * <p>
+ * 構築後は不変で、複数スレッドから同時に参照できます。
+ *
+ * @param <H> ハンドラーの型
+ */
+public final class RouteTable<H> {
+
+    private static final Match<?> NOT_FOUND = new Match<>(Status.NOT_FOUND, null, null, null, null, null, null);
+
+    private final Node<H> root;
+
+    private RouteTable(Node<H> root) {
+        this.root = root;
+    }
+
+    public static <H> Builder<H> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * リクエストに一致するルートを探します。
+     *
+     * @param method HTTP メソッド（大文字）
+     * @param path   リクエストパス（クエリ文字列を含まない）。末尾のスラッシュは無視します
+     * @return 照合結果。一致しない場合も null は返しません
+     */
+    @SuppressWarnings("unchecked")
+    public Match<H> match(String method, String path) {
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        }
+        Node<H> node = find(root, method, path, 0);
+        if (node == null) {
+            // メソッドを問わずパスが一致するノードがあれば 405、なければ 404
+            node = find(root, null, path, 0);
+            return node != null ? node.methodNotAllowed : (Match<H>) NOT_FOUND;
+        }
+        Route<H> route = node.routes.get(method);
+        if (route.variableNames.length == 0) {
+            return route.match;
+        }
+        return new Match<>(Status.FOUND, route.handler, route.template, route.variableNames,
+                route.variableSegments, path, null);
+    }
+
+    /**
+     * pos 以降のパスに一致し、method のルートを持つノードを返します（method が null の場合はいずれかのルート）。
+     * リテラルの枝で一致しなかった場合はパス変数の枝に戻って探します。
+     */
+    private static <H> Node<H> find(Node<H> node, String method, String path, int pos) {
+        int length = path.length();
+        if (pos < length && path.charAt(pos) == '/') {
+            pos++;
+        }
+        if (pos >= length) {
+            boolean matches = method == null ? !node.routes.isEmpty() : node.routes.containsKey(method);
+            return matches ? node : null;
+        }
+        int end = path.indexOf('/', pos);
+        if (end < 0) {
+            end = length;
+        }
+        int segmentLength = end - pos;
+        if (segmentLength == 0) {
+            return null;
+        }
+        for (Node<H> child : node.literals) {
+            if (child.literal.length() == segmentLength && path.regionMatches(pos, child.literal, 0, segmentLength)) {
+                Node<H> found = find(child, method, path, end);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        if (node.variableChild != null) {
+            return find(node.variableChild, method, path, end);
+        }
+        return null;
+    }
+
+    public enum Status {
+        FOUND, NOT_FOUND, METHOD_NOT_ALLOWED
+    }
+
+    /**
+     * 照合結果。FOUND の場合はハンドラーとパス変数、METHOD_NOT_ALLOWED の場合は Allow ヘッダーの値を持ちます。
+     */
+    public static final class Match<H> {
+        private final Status status;
+        private final H handler;
+        private final String template;
+        private final String[] variableNames;
+        /** variableNames と同じ順で、各変数が何番目のセグメントにあるか。 */
+        private final int[] variableSegments;
+        private final String path;
+        private final String allow;
+
+        private Match(Status status, H handler, String template, String[] variableNames, int[] variableSegments,
+                String path, String allow) {
+            this.status = status;
+            this.handler = handler;
+            this.template = template;
+            this.variableNames = variableNames;
+            this.variableSegments = variableSegments;
+            this.path = path;
+            this.allow = allow;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public H getHandler() {
+            return handler;
+        }
+
+        /**
+         * @return 一致したルートのパステンプレート（FOUND の場合のみ）。アクセスログのルート名に使います
+         */
+        public String getTemplate() {
+            return template;
+        }
+
+        /**
+         * @return テンプレートの {name} に対応するパスの値。該当する変数がない場合は null
+         */
+        public String pathVariable(String name) {
+            if (variableNames == null) {
+                return null;
+            }
+            for (int i = 0; i < variableNames.length; i++) {
+                if (variableNames[i].equals(name)) {
+                    return segment(variableSegments[i]);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * パスの index 番目（0 始まり）のセグメントを返します。照合時（{@link RouteTable#find}）と同じく、
+         * 各セグメントの前のスラッシュを 1 つ読み飛ばして次のスラッシュまでを 1 セグメントとします。
+         */
+        private String segment(int index) {
+            int pos = 0;
+            for (int i = 0; ; i++) {
+                if (pos < path.length() && path.charAt(pos) == '/') {
+                    pos++;
+                }
+                int end = path.indexOf('/', pos);
+                if (end < 0) {
+                    end = path.length();
+                }
+                if (i == index) {
+                    return path.substring(pos, end);
+                }
+                pos = end;
+            }
+        }
+
+        /**
+         * @return このパスで受け付けるメソッドのカンマ区切り（METHOD_NOT_ALLOWED の場合のみ）
+         */
+        public String getAllow() {
+            return allow;
+        }
+    }
+
+    public static final class Builder<H> {
+        private final Node<H> root = new Node<>(null);
+
+        private Builder() {
+        }
+
+        /**
+         * @param template {@code /articles/{id}} のようなパステンプレート。{name} は 1 セグメント全体に一致します
+         * @throws IllegalArgumentException テンプレートが不正な場合、または同じメソッドとパスが登録済みの場合
+         */
+        public Builder<H> add(String method, String template, H handler) {
+            Node<H> node = root;
+            List<String> variableNames = new ArrayList<>();
+            List<Integer> variableSegments = new ArrayList<>();
+            int segmentIndex = 0;
+            for (String segment : template.split("/")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    String name = segment.substring(1, segment.length() - 1);
+                    if (name.isEmpty() || variableNames.contains(name)) {
+                        throw new IllegalArgumentException("Invalid path variable in template: " + template);
+                    }
+                    variableNames.add(name);
+                    variableSegments.add(segmentIndex);
+                    if (node.variableChild == null) {
+                        node.variableChild = new Node<>(null);
+                    }
+                    node = node.variableChild;
+                } else if (segment.indexOf('{') >= 0 || segment.indexOf('}') >= 0) {
+                    throw new IllegalArgumentException("Path variables must span a whole segment: " + template);
+                } else {
+                    node = node.literalChild(segment);
+                }
+                segmentIndex++;
+            }
+            String[] names = variableNames.toArray(new String[0]);
+            int[] segments = variableSegments.stream().mapToInt(Integer::intValue).toArray();
+            if (node.routes.putIfAbsent(method, new Route<>(handler, template, names, segments)) != null) {
+                throw new IllegalArgumentException("Duplicate route: " + method + " " + template);
+            }
+            return this;
+        }
+
+        public RouteTable<H> build() {
+            root.freeze();
+            return new RouteTable<>(root);
+        }
+    }
+
+    private static final class Route<H> {
+        final H handler;
+        final String template;
+        final String[] variableNames;
+        final int[] variableSegments;
+        /** パス変数のないルートで使い回す照合結果。 */
+        final Match<H> match;
+
+        Route(H handler, String template, String[] variableNames, int[] variableSegments) {
+            this.handler = handler;
+            this.template = template;
+            this.variableNames = variableNames;
+            this.variableSegments = variableSegments;
+            this.match = variableNames.length == 0
+                    ? new Match<>(Status.FOUND, handler, template, null, null, null, null)
+                    : null;
+        }
+    }
+
+    private static final class Node<H> {
+        final String literal;
+        final Map<String, Route<H>> routes = new LinkedHashMap<>();
+        final List<Node<H>> literalChildren = new ArrayList<>();
+        /** 照合用のリテラルの子ノード。イテレーターを生成しないよう配列で持ちます。 */
+        Node<H>[] literals;
+        Node<H> variableChild;
+        Match<H> methodNotAllowed;
+
+        Node(String literal) {
+            this.literal = literal;
+        }
+
+        Node<H> literalChild(String segment) {
+            for (Node<H> child : literalChildren) {
+                if (child.literal.equals(segment)) {
+                    return child;
+                }
+            }
+            Node<H> child = new Node<>(segment);
+            literalChildren.add(child);
+            return child;
+        }
+
+        /**
+         * 照合時に使う状態を確定します。リテラルの子ノードを配列にし、405 の応答を事前に作っておきます。
+         */
+        @SuppressWarnings("unchecked")
+        void freeze() {
+            literals = literalChildren.toArray(new Node[0]);
+            if (!routes.isEmpty()) {
+                String allow = String.join(",", new TreeSet<>(routes.keySet()));
+                methodNotAllowed = new Match<>(Status.METHOD_NOT_ALLOWED, null, null, null, null, null, allow);
+            }
+            literalChildren.forEach(Node::freeze);
+            if (variableChild != null) {
+                variableChild.freeze();
+            }
+        }
+    }
+}
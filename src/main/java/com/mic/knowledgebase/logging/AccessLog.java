@@ -0,0 +1,114 @@
+package com.mic.knowledgebase.logging;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * リクエストごとに 1 行の JSON でアクセスログを出力します。
+ * <p>
+ * 成功したリクエスト (ステータス 400 未満) は app.access-log.sample-rate の割合だけ出力し、
+ * 4xx/5xx は常に出力します。リクエスト本文はステータス 500 以上の場合のみ、先頭
+ * app.access-log.payload-max-chars 文字まで記録します。
+ * 出力先は logback-spring.xml の ACCESS_LOG ロガー（非同期アペンダー）です。
+ */
+@Component
+public class AccessLog {
+    private static final Logger accessLogger = LoggerFactory.getLogger("ACCESS_LOG");
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final double sampleRate;
+    private final int payloadMaxChars;
+
+    public AccessLog(@Value("${app.access-log.sample-rate:1.0}") double sampleRate,
+            @Value("${app.access-log.payload-max-chars:2048}") int payloadMaxChars) {
+        this.sampleRate = sampleRate;
+        this.payloadMaxChars = payloadMaxChars;
+    }
+
+    public int getPayloadMaxChars() {
+        return payloadMaxChars;
+    }
+
+    /**
+     * このステータスのリクエストを出力するかを決めます。
+     * false の場合は {@link AccessLogEntry} を組み立てる必要もありません。
+     */
+    public boolean isSampled(int status) {
+        if (!accessLogger.isInfoEnabled()) {
+            return false;
+        }
+        if (status >= 400 || sampleRate >= 1.0) {
+            return true;
+        }
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * @param payload リクエスト本文。ステータスが 500 以上の場合のみ取得します
+     */
+    public void log(AccessLogEntry entry, Supplier<String> payload) {
+        StringWriter line = new StringWriter(192);
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(line)) {
+            json.writeStartObject();
+            json.writeStringField("time", Instant.now().toString());
+            json.writeStringField("source", entry.source());
+            json.writeStringField("method", entry.method());
+            json.writeStringField("route", entry.route());
+            json.writeStringField("path", entry.path());
+            json.writeNumberField("status", entry.status());
+            json.writeNumberField("latencyMs", entry.latencyNanos() / 1_000 / 1_000.0);
+            json.writeNumberField("bytes", entry.bytes());
+            if (entry.requestId() != null) {
+                json.writeStringField("requestId", entry.requestId());
+            }
+            if (entry.status() >= 500 && payload != null) {
+                String body = payload.get();
+                if (body != null && !body.isEmpty()) {
+                    json.writeStringField("payload",
+                            body.length() > payloadMaxChars ? body.substring(0, payloadMaxChars) : body);
+                }
+            }
+            json.writeEndObject();
+        } catch (IOException e) {
+            // StringWriter への書き込みでは発生しない
+            throw new IllegalStateException(e);
+        }
+        accessLogger.info(line.toString());
+    }
+
+    /**
+     * 文字列を UTF-8 でエンコードした場合のバイト数を、バイト配列を作らずに数えます。
+     */
+    public static long utf8Length(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
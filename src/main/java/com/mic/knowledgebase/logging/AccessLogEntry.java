@@ -0,0 +1,17 @@
+package com.mic.knowledgebase.logging;
+
+/**
+ * アクセスログ 1 行分の項目。
+ *
+ * @param source       リクエストの入口 (http または lambda)
+ * @param method       HTTP メソッド
+ * @param route        一致したルートのパステンプレート（一致しなかった場合は null）
+ * @param path         リクエストパス
+ * @param status       レスポンスのステータスコード
+ * @param latencyNanos 処理時間（ナノ秒）
+ * @param bytes        レスポンス本文のバイト数
+ * @param requestId    リクエスト ID（ない場合は null）
+ */
+public record AccessLogEntry(String source, String method, String route, String path, int status,
+        long latencyNanos, long bytes, String requestId) {
+}
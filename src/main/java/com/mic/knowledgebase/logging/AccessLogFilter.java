@@ -0,0 +1,146 @@
+package com.mic.knowledgebase.logging;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Spring MVC のリクエストを {@link AccessLog} に記録するフィルター。
+ * ルートにはコントローラーのパステンプレート（例: /api/articles/{id}）を使います。
+ * リクエスト本文はエラー時に記録するため、先頭 app.access-log.payload-max-chars バイトまで読み取り時に保持します。
+ */
+@Component
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private AccessLog accessLog;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        ContentCachingRequestWrapper cachingRequest = new ContentCachingRequestWrapper(request,
+                accessLog.getPayloadMaxChars());
+        CountingResponseWrapper countingResponse = new CountingResponseWrapper(response);
+        boolean failed = true;
+        try {
+            chain.doFilter(cachingRequest, countingResponse);
+            failed = false;
+        } finally {
+            if (!failed && cachingRequest.isAsyncStarted()) {
+                // StreamingResponseBody などの非同期処理は、書き込みが終わった時点で記録する
+                cachingRequest.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        log(cachingRequest, countingResponse, countingResponse.getStatus(), start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                log(cachingRequest, countingResponse, failed ? 500 : countingResponse.getStatus(), start);
+            }
+        }
+    }
+
+    private void log(ContentCachingRequestWrapper request, CountingResponseWrapper response, int status,
+            long start) {
+        if (!accessLog.isSampled(status)) {
+            return;
+        }
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        accessLog.log(new AccessLogEntry("http", request.getMethod(), route != null ? route.toString() : null,
+                request.getRequestURI(), status, System.nanoTime() - start, response.getByteCount(),
+                request.getHeader("X-Request-Id")),
+                () -> new String(request.getContentAsByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * getOutputStream 経由で書き込まれたレスポンス本文のバイト数を数えます。
+     */
+    private static final class CountingResponseWrapper extends HttpServletResponseWrapper {
+        private CountingOutputStream outputStream;
+
+        CountingResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        long getByteCount() {
+            return outputStream != null ? outputStream.count : 0;
+        }
+    }
+
+    private static final class CountingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+        private long count;
+
+        CountingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.mic.knowledgebase.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AWS SDK v2 の非同期 DynamoDB クライアントの呼び出しを、{@link DynamoDBMetrics} と同じ名前のメトリクスとして記録します。
+ * <p>
+ * 読み書きの各リクエストに ReturnConsumedCapacity=TOTAL を付け、呼び出し時間（再試行を含む）、
+ * オペレーションごとの RCU/WCU、バッチの未処理項目数を記録します。再試行とスロットリングの回数は記録しません。
+ */
+public class DynamoDBAsyncMetrics implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Long> START_NANOS = new ExecutionAttribute<>("MetricsStartNanos");
+
+    private final MeterRegistry registry;
+
+    public DynamoDBAsyncMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes attributes) {
+        attributes.putAttribute(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes attributes) {
+        SdkRequest request = context.request();
+        if (request instanceof GetItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+        } else if (request instanceof PutItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+        } else if (request instanceof UpdateItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+        } else if (request instanceof DeleteItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+        } else if (request instanceof QueryRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+        } else if (request instanceof ScanRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+        } else if (request instanceof BatchGetItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+        } else if (request instanceof BatchWriteItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+        }
+        return request;
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes attributes) {
+        String operation = operation(attributes);
+        recordLatency(attributes, operation, "SUCCESS");
+        SdkResponse response = context.response();
+        if (response instanceof GetItemResponse r) {
+            recordCapacity(operation, true, r.consumedCapacity());
+        } else if (response instanceof QueryResponse r) {
+            recordCapacity(operation, true, r.consumedCapacity());
+        } else if (response instanceof ScanResponse r) {
+            recordCapacity(operation, true, r.consumedCapacity());
+        } else if (response instanceof BatchGetItemResponse r) {
+            recordCapacity(operation, true, r.consumedCapacity());
+            recordUnprocessed(operation, r.unprocessedKeys().values().stream()
+                    .mapToInt(keys -> keys.keys().size()).sum());
+        } else if (response instanceof PutItemResponse r) {
+            recordCapacity(operation, false, r.consumedCapacity());
+        } else if (response instanceof UpdateItemResponse r) {
+            recordCapacity(operation, false, r.consumedCapacity());
+        } else if (response instanceof DeleteItemResponse r) {
+            recordCapacity(operation, false, r.consumedCapacity());
+        } else if (response instanceof BatchWriteItemResponse r) {
+            recordCapacity(operation, false, r.consumedCapacity());
+            recordUnprocessed(operation, r.unprocessedItems().values().stream().mapToInt(List::size).sum());
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes attributes) {
+        recordLatency(attributes, operation(attributes), "ERROR");
+    }
+
+    private void recordLatency(ExecutionAttributes attributes, String operation, String outcome) {
+        Long start = attributes.getAttribute(START_NANOS);
+        if (start != null) {
+            Timer.builder("dynamodb.requests")
+                    .tags("operation", operation, "outcome", outcome)
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void recordCapacity(String operation, boolean read, ConsumedCapacity capacity) {
+        if (capacity != null && capacity.capacityUnits() != null) {
+            registry.counter(read ? "dynamodb.consumed.read.capacity.units"
+                    : "dynamodb.consumed.write.capacity.units", "operation", operation)
+                    .increment(capacity.capacityUnits());
+        }
+    }
+
+    private void recordCapacity(String operation, boolean read, List<ConsumedCapacity> capacities) {
+        capacities.forEach(capacity -> recordCapacity(operation, read, capacity));
+    }
+
+    private void recordUnprocessed(String operation, int count) {
+        if (count > 0) {
+            registry.counter("dynamodb.unprocessed.items", "operation", operation).increment(count);
+        }
+    }
+
+    private static String operation(ExecutionAttributes attributes) {
+        String operation = attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        return operation != null ? operation : "Unknown";
+    }
+}
@@ -0,0 +1,208 @@
+package com.mic.knowledgebase.metrics;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.SdkBaseException;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.retry.RetryPolicy;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.dynamodbv2.model.*;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DynamoDB クライアントの呼び出しを Micrometer のメトリクスとして記録します。
+ * <p>
+ * 読み書きの各リクエストに ReturnConsumedCapacity=TOTAL を付け、応答の消費キャパシティを
+ * オペレーションごとの RCU/WCU のカウンターに加算します。あわせて呼び出し時間（再試行を含む）、
+ * リクエスト/レスポンスのサイズ、バッチの未処理項目数を記録します。
+ * 再試行とスロットリングの回数は {@link #retryPolicy()} が返す再試行ポリシーで数えます。
+ */
+public class DynamoDBMetrics extends RequestHandler2 {
+
+    private static final HandlerContextKey<Long> START_NANOS = new HandlerContextKey<>("MetricsStartNanos");
+
+    private static final ClassValue<String> OPERATION_NAMES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            String name = type.getSimpleName();
+            return name.endsWith("Request") ? name.substring(0, name.length() - "Request".length()) : name;
+        }
+    };
+
+    private final MeterRegistry registry;
+
+    public DynamoDBMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * DynamoDB 既定の再試行ポリシーに、再試行とスロットリングの計数を加えたものを返します。
+     */
+    public RetryPolicy retryPolicy() {
+        return retryPolicy(PredefinedRetryPolicies.DYNAMODB_DEFAULT_BACKOFF_STRATEGY, () -> {
+        });
+    }
+
+    /**
+     * 待機時間を backoffStrategy で決める再試行ポリシーを返します。
+     * スロットリングされた試行ごとに onThrottle を呼び出します（再試行しない場合も含む）。
+     */
+    public RetryPolicy retryPolicy(RetryPolicy.BackoffStrategy backoffStrategy, Runnable onThrottle) {
+        RetryPolicy.RetryCondition defaultCondition = PredefinedRetryPolicies.DEFAULT_RETRY_CONDITION;
+        return new RetryPolicy((originalRequest, exception, retriesAttempted) -> {
+            boolean retry = defaultCondition.shouldRetry(originalRequest, exception, retriesAttempted);
+            String operation = OPERATION_NAMES.get(originalRequest.getClass());
+            if (RetryUtils.isThrottlingException(exception)) {
+                registry.counter("dynamodb.throttles", "operation", operation).increment();
+                onThrottle.run();
+            }
+            if (retry) {
+                registry.counter("dynamodb.retries", "operation", operation, "reason", reason(exception))
+                        .increment();
+            }
+            return retry;
+        }, backoffStrategy, PredefinedRetryPolicies.DYNAMODB_DEFAULT_MAX_ERROR_RETRY, true);
+    }
+
+    @Override
+    public AmazonWebServiceRequest beforeExecution(AmazonWebServiceRequest request) {
+        if (request instanceof GetItemRequest r && r.getReturnConsumedCapacity() == null) {
+            r.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof PutItemRequest r && r.getReturnConsumedCapacity() == null) {
+            r.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof UpdateItemRequest r && r.getReturnConsumedCapacity() == null) {
+            r.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof DeleteItemRequest r && r.getReturnConsumedCapacity() == null) {
+            r.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof QueryRequest r && r.getReturnConsumedCapacity() == null) {
+            r.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof ScanRequest r && r.getReturnConsumedCapacity() == null) {
+            r.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof BatchGetItemRequest r && r.getReturnConsumedCapacity() == null) {
+            r.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof BatchWriteItemRequest r && r.getReturnConsumedCapacity() == null) {
+            r.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        }
+        return request;
+    }
+
+    @Override
+    public void beforeRequest(Request<?> request) {
+        request.addHandlerContext(START_NANOS, System.nanoTime());
+        recordSize("dynamodb.request.size", operation(request), request.getHeaders().get("Content-Length"));
+    }
+
+    @Override
+    public void afterResponse(Request<?> request, Response<?> response) {
+        String operation = operation(request);
+        recordLatency(request, operation, "SUCCESS");
+        if (response.getHttpResponse() != null) {
+            List<String> contentLength = response.getHttpResponse().getHeaderValues("Content-Length");
+            recordSize("dynamodb.response.size", operation,
+                    contentLength == null || contentLength.isEmpty() ? null : contentLength.get(0));
+        }
+        Object result = response.getAwsResponse();
+        if (result instanceof GetItemResult r) {
+            recordCapacity(operation, true, r.getConsumedCapacity());
+        } else if (result instanceof QueryResult r) {
+            recordCapacity(operation, true, r.getConsumedCapacity());
+        } else if (result instanceof ScanResult r) {
+            recordCapacity(operation, true, r.getConsumedCapacity());
+        } else if (result instanceof BatchGetItemResult r) {
+            recordCapacity(operation, true, r.getConsumedCapacity());
+            recordUnprocessed(operation, r.getUnprocessedKeys() == null ? 0
+                    : r.getUnprocessedKeys().values().stream()
+                            .mapToInt(keys -> keys.getKeys() == null ? 0 : keys.getKeys().size()).sum());
+        } else if (result instanceof PutItemResult r) {
+            recordCapacity(operation, false, r.getConsumedCapacity());
+        } else if (result instanceof UpdateItemResult r) {
+            recordCapacity(operation, false, r.getConsumedCapacity());
+        } else if (result instanceof DeleteItemResult r) {
+            recordCapacity(operation, false, r.getConsumedCapacity());
+        } else if (result instanceof BatchWriteItemResult r) {
+            recordCapacity(operation, false, r.getConsumedCapacity());
+            recordUnprocessed(operation, r.getUnprocessedItems() == null ? 0
+                    : r.getUnprocessedItems().values().stream().mapToInt(List::size).sum());
+        }
+    }
+
+    @Override
+    public void afterError(Request<?> request, Response<?> response, Exception e) {
+        recordLatency(request, operation(request), "ERROR");
+    }
+
+    private void recordLatency(Request<?> request, String operation, String outcome) {
+        Long start = request.getHandlerContext(START_NANOS);
+        if (start != null) {
+            Timer.builder("dynamodb.requests")
+                    .tags("operation", operation, "outcome", outcome)
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void recordSize(String name, String operation, String contentLength) {
+        if (contentLength == null) {
+            return;
+        }
+        try {
+            DistributionSummary.builder(name)
+                    .baseUnit("bytes")
+                    .tag("operation", operation)
+                    .register(registry)
+                    .record(Long.parseLong(contentLength));
+        } catch (NumberFormatException e) {
+            // サイズが分からない場合は記録しない
+        }
+    }
+
+    private void recordCapacity(String operation, boolean read, ConsumedCapacity capacity) {
+        if (capacity != null && capacity.getCapacityUnits() != null) {
+            capacityCounter(operation, read).increment(capacity.getCapacityUnits());
+        }
+    }
+
+    private void recordCapacity(String operation, boolean read, List<ConsumedCapacity> capacities) {
+        if (capacities != null) {
+            capacities.forEach(capacity -> recordCapacity(operation, read, capacity));
+        }
+    }
+
+    private Counter capacityCounter(String operation, boolean read) {
+        return registry.counter(read ? "dynamodb.consumed.read.capacity.units"
+                : "dynamodb.consumed.write.capacity.units", "operation", operation);
+    }
+
+    private void recordUnprocessed(String operation, int count) {
+        if (count > 0) {
+            registry.counter("dynamodb.unprocessed.items", "operation", operation).increment(count);
+        }
+    }
+
+    private static String operation(Request<?> request) {
+        String operation = request.getHandlerContext(HandlerContextKey.OPERATION_NAME);
+        if (operation != null) {
+            return operation;
+        }
+        AmazonWebServiceRequest original = request.getOriginalRequest();
+        return original != null ? OPERATION_NAMES.get(original.getClass()) : "Unknown";
+    }
+
+    private static String reason(SdkBaseException exception) {
+        if (RetryUtils.isThrottlingException(exception)) {
+            return "throttle";
+        }
+        return exception instanceof AmazonServiceException ? "service_error" : "client_error";
+    }
+}
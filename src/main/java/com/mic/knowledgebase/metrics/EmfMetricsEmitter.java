@@ -0,0 +1,236 @@
+package com.mic.knowledgebase.metrics;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lambda 上でメトリクスを CloudWatch Embedded Metric Format (EMF) のログ行として出力します。
+ * <p>
+ * Lambda ではリクエストの合間にプロセスが凍結されるため、定期実行のスレッドには頼らず、
+ * 呼び出しの終わりに {@link #flushIfDue()} を呼び、前回の出力から app.metrics.emf.interval 以上経っていれば
+ * 前回からの差分（件数・合計）と現在の最大値・パーセンタイルを 1 メーター 1 行で出力します。
+ * 出力するのは app.metrics.emf.prefixes に一致する名前のメーターのみです。
+ * CloudWatch Logs がこの行からメトリクスを作るため、API 呼び出しは発生しません。
+ * EMF_METRICS ロガーは非同期のアペンダーを通さずに出力するため（logback-spring.xml）、行は呼び出しが応答を返す前に
+ * 書き終わり、捨てられたり凍結後の別の呼び出しにずれたりしません。
+ */
+@Component
+@ConditionalOnProperty(name = "app.metrics.emf.enabled", havingValue = "true")
+public class EmfMetricsEmitter {
+    private static final Logger emfLogger = LoggerFactory.getLogger("EMF_METRICS");
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final MeterRegistry registry;
+    private final String namespace;
+    private final long intervalMillis;
+    private final List<String> prefixes;
+
+    /** メーターごとの前回出力時点の累積値 (件数, 合計)。 */
+    private final Map<Meter.Id, double[]> lastValues = new HashMap<>();
+    private final AtomicLong lastFlushMillis = new AtomicLong(System.currentTimeMillis());
+
+    public EmfMetricsEmitter(MeterRegistry registry,
+            @Value("${app.metrics.emf.namespace:KnowledgeBase}") String namespace,
+            @Value("${app.metrics.emf.interval:PT1M}") Duration interval,
+            @Value("${app.metrics.emf.prefixes:lambda.,article.,dynamodb.}") List<String> prefixes) {
+        this.registry = registry;
+        this.namespace = namespace;
+        this.intervalMillis = interval.toMillis();
+        this.prefixes = prefixes;
+    }
+
+    /**
+     * 前回の出力から一定時間が経っていれば出力します。呼び出しごとに呼んでも、通常は時刻の比較だけで終わります。
+     */
+    public void flushIfDue() {
+        long now = System.currentTimeMillis();
+        long last = lastFlushMillis.get();
+        if (now - last >= intervalMillis && lastFlushMillis.compareAndSet(last, now)) {
+            flush(now);
+        }
+    }
+
+    /**
+     * SnapStart の復元直後に呼びます。前回の出力時刻と累積値はスナップショットごと複製され、
+     * 復元されたすべての実行環境で同じになるため、何も出力せずに現在の時刻と累積値を基準にし直します。
+     * これにより、チェックポイント前（プライミング）の計測値が実行環境の数だけ重複して出力されることもありません。
+     */
+    public synchronized void resetAfterRestore() {
+        lastFlushMillis.set(System.currentTimeMillis());
+        for (Meter meter : registry.getMeters()) {
+            if (!isExported(meter.getId().getName())) {
+                continue;
+            }
+            if (meter instanceof Timer timer) {
+                delta(meter.getId(), 0, timer.count());
+                delta(meter.getId(), 1, timer.totalTime(TimeUnit.MILLISECONDS));
+            } else if (meter instanceof DistributionSummary summary) {
+                delta(meter.getId(), 0, summary.count());
+                delta(meter.getId(), 1, summary.totalAmount());
+            } else if (meter instanceof Counter counter) {
+                delta(meter.getId(), 0, counter.count());
+            }
+        }
+    }
+
+    /**
+     * 実行環境の終了時に、未出力の差分を出力します。
+     */
+    @PreDestroy
+    public void close() {
+        long now = System.currentTimeMillis();
+        lastFlushMillis.set(now);
+        flush(now);
+    }
+
+    synchronized void flush(long timestamp) {
+        for (Meter meter : registry.getMeters()) {
+            if (!isExported(meter.getId().getName())) {
+                continue;
+            }
+            if (meter instanceof Timer timer) {
+                double count = delta(meter.getId(), 0, timer.count());
+                double sum = delta(meter.getId(), 1, timer.totalTime(TimeUnit.MILLISECONDS));
+                if (count > 0) {
+                    emit(timestamp, meter, count, sum, timer.max(TimeUnit.MILLISECONDS),
+                            timer.takeSnapshot().percentileValues(), "Milliseconds");
+                }
+            } else if (meter instanceof DistributionSummary summary) {
+                double count = delta(meter.getId(), 0, summary.count());
+                double sum = delta(meter.getId(), 1, summary.totalAmount());
+                if (count > 0) {
+                    emit(timestamp, meter, count, sum, summary.max(), summary.takeSnapshot().percentileValues(),
+                            "bytes".equals(meter.getId().getBaseUnit()) ? "Bytes" : "None");
+                }
+            } else if (meter instanceof Counter counter) {
+                double count = delta(meter.getId(), 0, counter.count());
+                if (count > 0) {
+                    emit(timestamp, meter, count, Double.NaN, Double.NaN, null, "Count");
+                }
+            }
+        }
+    }
+
+    private boolean isExported(String name) {
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double delta(Meter.Id id, int index, double cumulative) {
+        double[] last = lastValues.computeIfAbsent(id, k -> new double[2]);
+        double delta = cumulative - last[index];
+        last[index] = cumulative;
+        return delta;
+    }
+
+    /**
+     * 1 メーター分の EMF を出力します。タグをディメンションとし、カウンターは件数、
+     * タイマーとサマリーは件数・合計・最大値・パーセンタイルをメトリクスにします。
+     */
+    private void emit(long timestamp, Meter meter, double count, double sum, double max,
+            ValueAtPercentile[] percentiles, String unit) {
+        String name = meter.getId().getName();
+        List<Tag> tags = meter.getId().getTags();
+        boolean counterOnly = Double.isNaN(sum);
+        StringWriter line = new StringWriter(256);
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(line)) {
+            json.writeStartObject();
+            json.writeObjectFieldStart("_aws");
+            json.writeNumberField("Timestamp", timestamp);
+            json.writeArrayFieldStart("CloudWatchMetrics");
+            json.writeStartObject();
+            json.writeStringField("Namespace", namespace);
+            json.writeArrayFieldStart("Dimensions");
+            json.writeStartArray();
+            for (Tag tag : tags) {
+                json.writeString(tag.getKey());
+            }
+            json.writeEndArray();
+            json.writeEndArray();
+            json.writeArrayFieldStart("Metrics");
+            if (counterOnly) {
+                writeMetric(json, name, unit);
+            } else {
+                writeMetric(json, name + ".count", "Count");
+                writeMetric(json, name + ".sum", unit);
+                writeMetric(json, name + ".max", unit);
+                if (percentiles != null) {
+                    for (ValueAtPercentile percentile : percentiles) {
+                        writeMetric(json, name + "." + percentileName(percentile), unit);
+                    }
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndArray();
+            json.writeEndObject();
+            for (Tag tag : tags) {
+                json.writeStringField(tag.getKey(), tag.getValue());
+            }
+            if (counterOnly) {
+                json.writeNumberField(name, count);
+            } else {
+                json.writeNumberField(name + ".count", count);
+                json.writeNumberField(name + ".sum", sum);
+                json.writeNumberField(name + ".max", max);
+                if (percentiles != null) {
+                    for (ValueAtPercentile percentile : percentiles) {
+                        json.writeNumberField(name + "." + percentileName(percentile),
+                                "Milliseconds".equals(unit) ? percentile.value(TimeUnit.MILLISECONDS)
+                                        : percentile.value());
+                    }
+                }
+            }
+            json.writeEndObject();
+        } catch (IOException e) {
+            // StringWriter への書き込みでは発生しない
+            throw new IllegalStateException(e);
+        }
+        emfLogger.info(line.toString());
+    }
+
+    private static void writeMetric(JsonGenerator json, String name, String unit) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("Name", name);
+        json.writeStringField("Unit", unit);
+        json.writeEndObject();
+    }
+
+    /** 0.95 → p95, 0.999 → p99.9 */
+    private static String percentileName(ValueAtPercentile percentile) {
+        String value = String.valueOf(percentile.percentile() * 100);
+        if (value.endsWith(".0")) {
+            value = value.substring(0, value.length() - 2);
+        }
+        return "p" + value;
+    }
+}
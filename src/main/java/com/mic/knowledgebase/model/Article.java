@@ -3,7 +3,12 @@ package com.mic.knowledgebase.model;
 import lombok.Data;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.*;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mic.knowledgebase.util.ContentCompression;
+import com.mic.knowledgebase.util.Timestamps;
 
 import org.springframework.data.annotation.Id;
 
@@ -15,6 +20,14 @@ import java.time.format.DateTimeParseException;
 @DynamoDBTable(tableName = "Articles")
 public class Article {
 
+    /** 更新日時の新しい順に記事を読むための GSI。パーティションキーは recentShard、ソートキーは updatedAtMillis です。 */
+    public static final String RECENT_INDEX = "RecentIndex";
+
+    /**
+     * RecentIndex のシャード数。変更すると既存の記事のシャードが変わるため、移行ジョブでの再設定が必要です。
+     */
+    public static final int RECENT_SHARDS = 8;
+
     @Id
     @DynamoDBHashKey
     private String id;
@@ -23,9 +36,21 @@ public class Article {
     @DynamoDBIndexHashKey(globalSecondaryIndexName = "TitleIndex")
     private String title;
 
+    // 一定サイズ以上の本文は圧縮してバイナリ属性で保存します（ContentConverter）
+    @DynamoDBTypeConverted(converter = ContentConverter.class)
     @DynamoDBAttribute
     private String content;
 
+    // 本文を BlobStore に置いた場合の参照と、本文のバイト数 (UTF-8)。この場合 content は null で、
+    // 本文は GET /api/articles/{id}/content で取得します
+    @DynamoDBAttribute
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String contentRef;
+
+    @DynamoDBAttribute
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long contentLength;
+
     @DynamoDBTypeConverted(converter = LocalDateTimeConverter.class)
     @DynamoDBAttribute
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSSSS")
@@ -36,6 +61,42 @@ public class Article {
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSSSS")
     private LocalDateTime updatedAt;
 
+    // createdAt / updatedAt をエポックミリ秒 (UTC) にした数値属性。範囲検索・並べ替え用で、常に日時から計算します
+    @DynamoDBAttribute
+    @JsonIgnore
+    public Long getCreatedAtMillis() {
+        return Timestamps.toEpochMillis(createdAt);
+    }
+
+    // 読み込んだ値は使わない（createdAt から計算し直す）
+    public void setCreatedAtMillis(Long createdAtMillis) {
+    }
+
+    @DynamoDBAttribute
+    @DynamoDBIndexRangeKey(globalSecondaryIndexName = RECENT_INDEX)
+    @JsonIgnore
+    public Long getUpdatedAtMillis() {
+        return Timestamps.toEpochMillis(updatedAt);
+    }
+
+    public void setUpdatedAtMillis(Long updatedAtMillis) {
+    }
+
+    // RecentIndex (GSI) のパーティションキー。更新日時順の一覧で書き込みが 1 パーティションに集中しないよう、
+    // ID から 0 〜 RECENT_SHARDS-1 のシャードに振り分けます。常に ID から計算します
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = RECENT_INDEX)
+    @JsonIgnore
+    public Integer getRecentShard() {
+        return id != null ? recentShardOf(id) : null;
+    }
+
+    public void setRecentShard(Integer recentShard) {
+    }
+
+    // 楽観的排他制御用のバージョン。作成時に 1 となり、更新のたびに 1 ずつ増えます（ETag の元になります）
+    @DynamoDBVersionAttribute
+    private Long version;
+
     // デフォルトコンストラクタ
     public Article() {
     }
@@ -49,7 +110,15 @@ public class Article {
         this.updatedAt = updatedAt;
     }
 
+    /**
+     * ID が属する RecentIndex のシャード。String.hashCode は仕様で定まっているため、JVM が変わっても同じ値になります。
+     */
+    public static int recentShardOf(String id) {
+        return Math.floorMod(id.hashCode(), RECENT_SHARDS);
+    }
+
     // LocalDateTime converter
+    // 保存形式は ISO 形式。読み込みは旧形式も受け付けます（形式の判別は Timestamps.parse で例外なしに行います）
     public static class LocalDateTimeConverter implements DynamoDBTypeConverter<String, LocalDateTime> {
         private static final DateTimeFormatter[] formatters = {
                 DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
@@ -68,6 +137,11 @@ public class Article {
             if (stringValue == null) {
                 return null;
             }
+            LocalDateTime parsed = Timestamps.parse(stringValue);
+            if (parsed != null) {
+                return parsed;
+            }
+            // 高速パスで扱わない入力（存在しない日付の補正など）は従来どおりフォーマッタで解析する
             for (DateTimeFormatter formatter : formatters) {
                 try {
                     return LocalDateTime.parse(stringValue, formatter);
@@ -78,4 +152,19 @@ public class Article {
             throw new IllegalArgumentException("Unable to parse date time value: " + stringValue);
         }
     }
-}
\ No newline at end of file
+
+    // content converter
+    // 設定（しきい値・圧縮レベル）は ContentCompression.install で登録されたものを使います。文字列属性のままの項目も読めます
+    public static class ContentConverter implements DynamoDBTypeConverter<AttributeValue, String> {
+
+        @Override
+        public AttributeValue convert(String content) {
+            return ContentCompression.current().encode(content);
+        }
+
+        @Override
+        public String unconvert(AttributeValue value) {
+            return ContentCompression.current().decode(value);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.mic.knowledgebase.model;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.mic.knowledgebase.exception.BadRequestException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 記事一覧で返す属性 (sparse fieldset)。
+ * <p>
+ * 指定した属性だけを DynamoDB の ProjectionExpression で読み取り、JSON にもその属性だけを書き出します。
+ * JSON のプロパティ名と DynamoDB の属性名は同じです。id は常に含みます。
+ * JSON の絞り込みは {@link #configure} で ObjectMapper に登録したフィルターに {@link #filters()} を渡して行います。
+ */
+public record ArticleFields(Set<String> names) {
+
+    /** 指定できる属性（JSON に出力される記事のプロパティ）。 */
+    public static final List<String> SELECTABLE = List.of("id", "title", "content", "contentRef", "contentLength",
+            "createdAt", "updatedAt", "version");
+
+    /** 全ての属性。DynamoDB からは項目全体を読み取ります。 */
+    public static final ArticleFields ALL = new ArticleFields(Set.copyOf(SELECTABLE));
+
+    /** 一覧表示用の要約 (view=summary)。本文は読み取りません。 */
+    public static final ArticleFields SUMMARY = new ArticleFields(Set.of("id", "title", "createdAt", "updatedAt"));
+
+    static final String FILTER_ID = "articleFields";
+
+    private static final FilterProvider NO_FILTER = new SimpleFilterProvider().setFailOnUnknownId(false);
+
+    public ArticleFields {
+        Set<String> ordered = new LinkedHashSet<>();
+        // ProjectionExpression を毎回同じ文字列にするため SELECTABLE の順に並べる
+        for (String name : SELECTABLE) {
+            if (names.contains(name)) {
+                ordered.add(name);
+            }
+        }
+        names = Collections.unmodifiableSet(ordered);
+    }
+
+    /**
+     * クエリパラメータ fields と view から返す属性を決めます。
+     *
+     * @param fields カンマ区切りの属性名（id は指定しなくても含まれます）
+     * @param view   summary または full。fields と同時には指定できません
+     * @throws BadRequestException 不明な属性名や view が指定された場合
+     */
+    public static ArticleFields parse(String fields, String view) {
+        if (fields != null && view != null) {
+            throw new BadRequestException("Specify either fields or view, not both");
+        }
+        if (view != null) {
+            return switch (view) {
+                case "summary" -> SUMMARY;
+                case "full" -> ALL;
+                default -> throw new BadRequestException("Unknown view: " + view);
+            };
+        }
+        if (fields == null) {
+            return ALL;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        names.add("id");
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!SELECTABLE.contains(trimmed)) {
+                throw new BadRequestException("Unknown field: " + trimmed + " (allowed: "
+                        + String.join(",", SELECTABLE) + ")");
+            }
+            names.add(trimmed);
+        }
+        return new ArticleFields(names);
+    }
+
+    public boolean isAll() {
+        return names.size() == SELECTABLE.size();
+    }
+
+    /**
+     * DynamoDB の ProjectionExpression。全ての属性を返す場合は null（項目全体を読み取ります）。
+     */
+    public String projectionExpression() {
+        return isAll() ? null : names.stream().map(name -> "#" + name).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * {@link #projectionExpression()} の ExpressionAttributeNames。全ての属性を返す場合は null。
+     */
+    public Map<String, String> expressionAttributeNames() {
+        if (isAll()) {
+            return null;
+        }
+        Map<String, String> expressionNames = new LinkedHashMap<>();
+        names.forEach(name -> expressionNames.put("#" + name, name));
+        return expressionNames;
+    }
+
+    /**
+     * 記事の JSON をこの属性だけに絞るフィルター。ObjectWriter や MappingJacksonValue に渡します。
+     */
+    public FilterProvider filters() {
+        if (isAll()) {
+            return NO_FILTER;
+        }
+        return new SimpleFilterProvider().addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(names));
+    }
+
+    /**
+     * 記事のシリアライズにフィルターを使うよう ObjectMapper を設定します。
+     * フィルターを渡さずに書き出した場合は全ての属性を出力します。
+     */
+    public static ObjectMapper configure(ObjectMapper objectMapper) {
+        return objectMapper.addMixIn(Article.class, FilteredArticle.class).setFilterProvider(NO_FILTER);
+    }
+
+    @JsonFilter(FILTER_ID)
+    private interface FilteredArticle {
+    }
+}
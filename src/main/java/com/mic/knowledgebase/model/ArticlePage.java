@@ -0,0 +1,23 @@
+package com.mic.knowledgebase.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 記事一覧の 1 ページ分のレスポンス。
+ * nextPageToken が null の場合、それ以降のページはありません。
+ */
+@Data
+public class ArticlePage {
+    private List<Article> items;
+    private String nextPageToken;
+
+    public ArticlePage() {
+    }
+
+    public ArticlePage(List<Article> items, String nextPageToken) {
+        this.items = items;
+        this.nextPageToken = nextPageToken;
+    }
+}
@@ -0,0 +1,28 @@
+package com.mic.knowledgebase.model;
+
+import lombok.Data;
+
+/**
+ * 一括作成リクエストの 1 項目分の処理結果。
+ * index はリクエスト内での 0 始まりの位置です。
+ */
+@Data
+public class BatchItemResult {
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    private int index;
+    private String id;
+    private String status;
+    private String error;
+
+    public BatchItemResult() {
+    }
+
+    public BatchItemResult(int index, String id, String status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+}
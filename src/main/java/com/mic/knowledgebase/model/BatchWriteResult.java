@@ -0,0 +1,25 @@
+package com.mic.knowledgebase.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一括作成リクエスト全体の処理結果。
+ */
+@Data
+public class BatchWriteResult {
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResult> results = new ArrayList<>();
+
+    public void add(BatchItemResult result) {
+        results.add(result);
+        if (BatchItemResult.CREATED.equals(result.getStatus())) {
+            succeeded++;
+        } else {
+            failed++;
+        }
+    }
+}
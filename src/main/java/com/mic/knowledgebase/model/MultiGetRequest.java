@@ -0,0 +1,13 @@
+package com.mic.knowledgebase.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 複数記事の一括取得リクエスト（URL に収まらない長い ID リスト用）。
+ */
+@Data
+public class MultiGetRequest {
+    private List<String> ids;
+}
@@ -0,0 +1,23 @@
+package com.mic.knowledgebase.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 複数記事の一括取得結果。
+ * articles はリクエストされた ID の順序を保ち、見つからなかった ID は missingIds に含まれます。
+ */
+@Data
+public class MultiGetResult {
+    private List<Article> articles;
+    private List<String> missingIds;
+
+    public MultiGetResult() {
+    }
+
+    public MultiGetResult(List<Article> articles, List<String> missingIds) {
+        this.articles = articles;
+        this.missingIds = missingIds;
+    }
+}
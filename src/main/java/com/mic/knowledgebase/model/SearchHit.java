@@ -0,0 +1,24 @@
+package com.mic.knowledgebase.model;
+
+import lombok.Data;
+
+/**
+ * 全文検索のヒット 1 件。score は BM25 のスコアで、大きいほど関連性が高いことを表します。
+ */
+@Data
+public class SearchHit {
+    private String id;
+    private String title;
+    private double score;
+    private String snippet;
+
+    public SearchHit() {
+    }
+
+    public SearchHit(String id, String title, double score, String snippet) {
+        this.id = id;
+        this.title = title;
+        this.score = score;
+        this.snippet = snippet;
+    }
+}
@@ -7,5 +7,5 @@ import org.socialsignin.spring.data.dynamodb.repository.DynamoDBCrudRepository;
 
 @Repository
 @EnableScan
-public interface ArticleRepository extends DynamoDBCrudRepository<Article, String> {
+public interface ArticleRepository extends DynamoDBCrudRepository<Article, String>, ArticleRepositoryCustom {
 }
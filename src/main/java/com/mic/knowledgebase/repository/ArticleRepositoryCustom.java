@@ -0,0 +1,122 @@
+package com.mic.knowledgebase.repository;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.model.ArticleFields;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Spring Data の派生クエリでは表現できない DynamoDB 操作を提供するリポジトリフラグメント。
+ * 実装は {@link ArticleRepositoryImpl} にあります。
+ */
+public interface ArticleRepositoryCustom {
+
+    /**
+     * Articles テーブルを 1 ページ分だけスキャンします。
+     *
+     * @param limit             1 ページで読み取る最大件数
+     * @param exclusiveStartKey 前ページの LastEvaluatedKey（先頭ページの場合は null）
+     * @return スキャン結果のページ（次ページがない場合 LastEvaluatedKey は null）
+     */
+    ScanResultPage<Article> scanPage(int limit, Map<String, AttributeValue> exclusiveStartKey);
+
+    /**
+     * {@link #scanPage(int, Map)} と同じですが、fields の属性だけを読み取ります (ProjectionExpression)。
+     * 読み取らなかった属性は null になります。
+     */
+    ScanResultPage<Article> scanPage(int limit, Map<String, AttributeValue> exclusiveStartKey, ArticleFields fields);
+
+    /**
+     * 設定されたセグメント数 (app.dynamodb.parallel-scan.segments) で Articles テーブル全体を並列スキャンします。
+     * 返されたストリームは必ず close してください（途中で close すると残りのセグメントはキャンセルされます）。
+     */
+    Stream<Article> parallelScan();
+
+    /**
+     * 指定したセグメント数で Articles テーブル全体を並列スキャンします。
+     *
+     * @param totalSegments 並列スキャンのセグメント数 (1 以上)
+     */
+    Stream<Article> parallelScan(int totalSegments);
+
+    /**
+     * 設定されたセグメント数で Articles テーブル全体を並列スキャンし、fields の属性だけを読み取ります。
+     */
+    Stream<Article> parallelScan(ArticleFields fields);
+
+    /**
+     * 記事を BatchWriteItem でまとめて書き込みます。
+     * 25 件ずつのチャンクに分けて並行に送信し、UnprocessedItems はジッター付きバックオフで再試行します。
+     *
+     * @param articles 書き込む記事（ID は設定済みであること）
+     * @return 書き込めなかった記事の ID と理由（全件成功した場合は空）
+     */
+    Map<String, String> batchPut(List<Article> articles);
+
+    /**
+     * 記事を BatchGetItem でまとめて取得します。
+     * 100 件ずつのチャンクに分けて並行に送信し、UnprocessedKeys はジッター付きバックオフで再試行します。
+     *
+     * @param ids 取得する記事の ID（重複なし）
+     * @return 見つかった記事（ID をキーとする）。存在しない ID は含まれません
+     */
+    Map<String, Article> batchGet(Collection<String> ids);
+
+    /**
+     * {@link #batchGet(Collection)} と同じですが、fields の属性だけを読み取ります。
+     */
+    Map<String, Article> batchGet(Collection<String> ids, ArticleFields fields);
+
+    /**
+     * TitleIndex (GSI) をクエリして、タイトルが完全一致する記事を取得します。テーブルはスキャンしません。
+     * GSI は結果整合性のため、書き込み直後の記事が含まれない場合があります。
+     */
+    List<Article> findByTitle(String title);
+
+    /**
+     * {@link #findByTitle(String)} と同じですが、fields の属性だけを読み取ります。
+     */
+    List<Article> findByTitle(String title, ArticleFields fields);
+
+    /**
+     * RecentIndex (GSI) の全シャードを並行にクエリしてマージし、更新日時の新しい順に最大 limit 件の記事を取得します。
+     * fields に本文 (content) が含まれる場合は、マージした記事をテーブルから BatchGetItem で読み直します。
+     * GSI は結果整合性のため、書き込み直後の記事が含まれない、または更新前の位置に現れる場合があります。
+     *
+     * @param limit  1 ページの最大件数
+     * @param cursor 前ページの LastEvaluatedKey（先頭ページの場合は null）
+     * @return 記事と次ページの位置（次ページがない場合 LastEvaluatedKey は null）
+     * @throws com.mic.knowledgebase.exception.InvalidPageTokenException cursor が不正な場合
+     */
+    QueryResultPage<Article> findRecent(int limit, Map<String, AttributeValue> cursor, ArticleFields fields);
+
+    /**
+     * 既存の記事の指定した属性だけを 1 回の UpdateItem で更新します。
+     * 条件式 attribute_exists(id) により、記事が存在しない場合は書き込まずに失敗します。
+     * version 属性は常に 1 増やします。
+     *
+     * @param changes         更新後の値を持つ記事（ID は必須）。null の属性は削除されます
+     * @param attributeNames  更新する属性名
+     * @param expectedVersion 現在のバージョンがこの値の場合のみ更新します（null の場合は確認しません）。
+     *                        version 属性を持たない既存の記事はバージョン 0 として扱います
+     * @return 更新後の記事 (ReturnValues=ALL_NEW)
+     * @throws com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException 記事が存在しない場合、
+     *         またはバージョンが一致しない場合。後者の場合は {@code getItem()} に現在の記事が入ります
+     */
+    Article updateIfExists(Article changes, Collection<String> attributeNames, Long expectedVersion);
+
+    /**
+     * 記事を 1 回の DeleteItem で削除します。
+     *
+     * @param expectedVersion 現在のバージョンがこの値の場合のみ削除します（null の場合は確認しません）
+     * @throws com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException 記事が存在しない場合、
+     *         またはバージョンが一致しない場合。後者の場合は {@code getItem()} に現在の記事が入ります
+     */
+    void deleteIfExists(String id, Long expectedVersion);
+}
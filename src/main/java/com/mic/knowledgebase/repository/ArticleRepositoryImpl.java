@@ -0,0 +1,382 @@
+package com.mic.knowledgebase.repository;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AbortedException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperFieldModel;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.PutRequest;
+import com.amazonaws.services.dynamodbv2.model.ReturnValue;
+import com.amazonaws.services.dynamodbv2.model.ReturnValuesOnConditionCheckFailure;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.model.ArticleFields;
+import com.mic.knowledgebase.util.RetryBackoff;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+public class ArticleRepositoryImpl implements ArticleRepositoryCustom {
+    private static final Logger logger = LoggerFactory.getLogger(ArticleRepositoryImpl.class);
+
+    static final String TABLE_NAME = Article.class.getAnnotation(DynamoDBTable.class).tableName();
+    static final int MAX_BATCH_WRITE_ITEMS = 25;
+    static final int MAX_BATCH_GET_KEYS = 100;
+    static final String TITLE_INDEX = "TitleIndex";
+
+    private static final String VERSION_ATTRIBUTE = "version";
+
+    @Autowired
+    private AmazonDynamoDB amazonDynamoDB;
+
+    @Autowired
+    private DynamoDBMapper dynamoDBMapper;
+
+    @Autowired
+    @Qualifier("dynamoDBExecutor")
+    private ExecutorService dynamoDBExecutor;
+
+    @Autowired
+    @Qualifier("dynamoDBScanExecutor")
+    private ExecutorService dynamoDBScanExecutor;
+
+    @Value("${app.dynamodb.parallel-scan.segments:4}")
+    private int parallelScanSegments;
+
+    @Value("${app.dynamodb.batch.max-attempts:8}")
+    private int batchMaxAttempts;
+
+    @Value("${app.dynamodb.batch.backoff-base-millis:50}")
+    private long batchBackoffBaseMillis;
+
+    @Value("${app.dynamodb.batch.backoff-cap-millis:2000}")
+    private long batchBackoffCapMillis;
+
+    @Override
+    public ScanResultPage<Article> scanPage(int limit, Map<String, AttributeValue> exclusiveStartKey) {
+        return scanPage(limit, exclusiveStartKey, ArticleFields.ALL);
+    }
+
+    @Override
+    public ScanResultPage<Article> scanPage(int limit, Map<String, AttributeValue> exclusiveStartKey,
+            ArticleFields fields) {
+        DynamoDBScanExpression scanExpression = new DynamoDBScanExpression()
+                .withLimit(limit)
+                .withExclusiveStartKey(exclusiveStartKey)
+                .withProjectionExpression(fields.projectionExpression())
+                .withExpressionAttributeNames(fields.expressionAttributeNames());
+        return dynamoDBMapper.scanPage(Article.class, scanExpression);
+    }
+
+    @Override
+    public List<Article> findByTitle(String title) {
+        return findByTitle(title, ArticleFields.ALL);
+    }
+
+    @Override
+    public List<Article> findByTitle(String title, ArticleFields fields) {
+        Map<String, String> names = new HashMap<>();
+        names.put("#title", "title");
+        if (!fields.isAll()) {
+            names.putAll(fields.expressionAttributeNames());
+        }
+        DynamoDBQueryExpression<Article> queryExpression = new DynamoDBQueryExpression<Article>()
+                .withIndexName(TITLE_INDEX)
+                .withConsistentRead(false)
+                .withKeyConditionExpression("#title = :title")
+                .withExpressionAttributeNames(names)
+                .withExpressionAttributeValues(Map.of(":title", new AttributeValue().withS(title)))
+                .withProjectionExpression(fields.projectionExpression());
+        return new ArrayList<>(dynamoDBMapper.query(Article.class, queryExpression));
+    }
+
+    @Override
+    public QueryResultPage<Article> findRecent(int limit, Map<String, AttributeValue> cursor, ArticleFields fields) {
+        QueryResultPage<Article> page = RecentArticlesQuery.execute(dynamoDBMapper, dynamoDBExecutor, limit, cursor,
+                fields);
+        if (RecentArticlesQuery.coveredByIndex(fields) || page.getResults().isEmpty()) {
+            return page;
+        }
+        List<String> ids = page.getResults().stream().map(Article::getId).toList();
+        Map<String, Article> found = batchGet(ids, fields);
+        // マージした順に並べ直す。GSI を読んだ後に削除された記事は除く
+        page.setResults(ids.stream().map(found::get).filter(Objects::nonNull).toList());
+        return page;
+    }
+
+    @Override
+    public Article updateIfExists(Article changes, Collection<String> attributeNames, Long expectedVersion) {
+        DynamoDBMapperTableModel<Article> tableModel = dynamoDBMapper.getTableModel(Article.class);
+        UpdateItemRequest request = updateRequest(tableModel, changes, attributeNames, expectedVersion);
+        return tableModel.unconvert(amazonDynamoDB.updateItem(request).getAttributes());
+    }
+
+    @Override
+    public void deleteIfExists(String id, Long expectedVersion) {
+        amazonDynamoDB.deleteItem(deleteRequest(id, expectedVersion));
+    }
+
+    /**
+     * {@link #updateIfExists} の UpdateItem リクエストを組み立てます。非同期版のリポジトリと共通です。
+     */
+    static UpdateItemRequest updateRequest(DynamoDBMapperTableModel<Article> tableModel, Article changes,
+            Collection<String> attributeNames, Long expectedVersion) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        List<String> setActions = new ArrayList<>();
+        List<String> removeActions = new ArrayList<>();
+        names.put("#id", "id");
+        int i = 0;
+        for (String attributeName : attributeNames) {
+            DynamoDBMapperFieldModel<Article, ?> field = tableModel.field(attributeName);
+            String nameRef = "#a" + i;
+            names.put(nameRef, field.name());
+            AttributeValue value = field.getAndConvert(changes);
+            if (value == null) {
+                removeActions.add(nameRef);
+            } else {
+                String valueRef = ":v" + i;
+                values.put(valueRef, value);
+                setActions.add(nameRef + " = " + valueRef);
+            }
+            i++;
+        }
+        names.put("#version", VERSION_ATTRIBUTE);
+        values.put(":zero", new AttributeValue().withN("0"));
+        values.put(":one", new AttributeValue().withN("1"));
+        setActions.add("#version = if_not_exists(#version, :zero) + :one");
+        StringBuilder updateExpression = new StringBuilder("SET ").append(String.join(", ", setActions));
+        if (!removeActions.isEmpty()) {
+            updateExpression.append(" REMOVE ").append(String.join(", ", removeActions));
+        }
+        return new UpdateItemRequest()
+                .withTableName(TABLE_NAME)
+                .withKey(tableModel.convertKey(changes))
+                .withUpdateExpression(updateExpression.toString())
+                .withConditionExpression(existsCondition(expectedVersion, values))
+                .withExpressionAttributeNames(names)
+                .withExpressionAttributeValues(values)
+                .withReturnValues(ReturnValue.ALL_NEW)
+                .withReturnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD);
+    }
+
+    /**
+     * {@link #deleteIfExists} の DeleteItem リクエストを組み立てます。非同期版のリポジトリと共通です。
+     */
+    static DeleteItemRequest deleteRequest(String id, Long expectedVersion) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        names.put("#id", "id");
+        if (expectedVersion != null) {
+            names.put("#version", VERSION_ATTRIBUTE);
+        }
+        return new DeleteItemRequest()
+                .withTableName(TABLE_NAME)
+                .withKey(Map.of("id", new AttributeValue().withS(id)))
+                .withConditionExpression(existsCondition(expectedVersion, values))
+                .withExpressionAttributeNames(names)
+                .withExpressionAttributeValues(values.isEmpty() ? null : values)
+                .withReturnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD);
+    }
+
+    /**
+     * 記事が存在し、expectedVersion が指定されていればバージョンも一致することを求める条件式を作ります。
+     * version 属性を持たない既存の記事はバージョン 0 として扱います。
+     */
+    private static String existsCondition(Long expectedVersion, Map<String, AttributeValue> values) {
+        if (expectedVersion == null) {
+            return "attribute_exists(#id)";
+        }
+        if (expectedVersion == 0) {
+            return "attribute_exists(#id) AND attribute_not_exists(#version)";
+        }
+        values.put(":expectedVersion", new AttributeValue().withN(expectedVersion.toString()));
+        return "attribute_exists(#id) AND #version = :expectedVersion";
+    }
+
+    @Override
+    public Stream<Article> parallelScan() {
+        return parallelScan(parallelScanSegments);
+    }
+
+    @Override
+    public Stream<Article> parallelScan(int totalSegments) {
+        if (totalSegments < 1) {
+            throw new IllegalArgumentException("totalSegments must be positive: " + totalSegments);
+        }
+        return ParallelScan.stream(dynamoDBMapper, Article.class, totalSegments, dynamoDBScanExecutor);
+    }
+
+    @Override
+    public Stream<Article> parallelScan(ArticleFields fields) {
+        return ParallelScan.stream(dynamoDBMapper, Article.class, parallelScanSegments,
+                fields.projectionExpression(), fields.expressionAttributeNames(), dynamoDBScanExecutor);
+    }
+
+    @Override
+    public Map<String, String> batchPut(List<Article> articles) {
+        DynamoDBMapperTableModel<Article> tableModel = dynamoDBMapper.getTableModel(Article.class);
+        Map<String, String> failures = new ConcurrentHashMap<>();
+        List<Future<?>> chunks = new ArrayList<>();
+        for (int from = 0; from < articles.size(); from += MAX_BATCH_WRITE_ITEMS) {
+            List<WriteRequest> requests = new ArrayList<>(MAX_BATCH_WRITE_ITEMS);
+            for (Article article : articles.subList(from, Math.min(from + MAX_BATCH_WRITE_ITEMS, articles.size()))) {
+                requests.add(new WriteRequest(new PutRequest(tableModel.convert(article))));
+            }
+            chunks.add(dynamoDBExecutor.submit(() -> writeChunk(requests, failures)));
+        }
+        awaitAll(chunks);
+        return failures;
+    }
+
+    private void writeChunk(List<WriteRequest> requests, Map<String, String> failures) {
+        List<WriteRequest> pending = requests;
+        long delayMillis = batchBackoffBaseMillis;
+        try {
+            for (int attempt = 0; attempt < batchMaxAttempts; attempt++) {
+                if (attempt > 0) {
+                    delayMillis = sleepBeforeRetry(delayMillis);
+                }
+                BatchWriteItemResult result = amazonDynamoDB.batchWriteItem(
+                        new BatchWriteItemRequest().addRequestItemsEntry(TABLE_NAME, pending));
+                List<WriteRequest> unprocessed = result.getUnprocessedItems() == null ? null
+                        : result.getUnprocessedItems().get(TABLE_NAME);
+                if (unprocessed == null || unprocessed.isEmpty()) {
+                    return;
+                }
+                logger.debug("Retrying {} unprocessed items (attempt {})", unprocessed.size(), attempt + 1);
+                pending = unprocessed;
+            }
+            markFailed(pending, failures, "Unprocessed after " + batchMaxAttempts + " attempts");
+        } catch (AmazonClientException e) {
+            logger.error("Batch write failed for {} items: {}", pending.size(), e.getMessage());
+            markFailed(pending, failures, e.getMessage());
+        }
+    }
+
+    private static void markFailed(List<WriteRequest> requests, Map<String, String> failures, String reason) {
+        for (WriteRequest request : requests) {
+            failures.put(request.getPutRequest().getItem().get("id").getS(), reason);
+        }
+    }
+
+    @Override
+    public Map<String, Article> batchGet(Collection<String> ids) {
+        return batchGet(ids, ArticleFields.ALL);
+    }
+
+    @Override
+    public Map<String, Article> batchGet(Collection<String> ids, ArticleFields fields) {
+        DynamoDBMapperTableModel<Article> tableModel = dynamoDBMapper.getTableModel(Article.class);
+        List<String> keys = new ArrayList<>(ids);
+        Map<String, Article> found = new ConcurrentHashMap<>();
+        List<Future<?>> chunks = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += MAX_BATCH_GET_KEYS) {
+            List<Map<String, AttributeValue>> chunkKeys = new ArrayList<>();
+            for (String id : keys.subList(from, Math.min(from + MAX_BATCH_GET_KEYS, keys.size()))) {
+                chunkKeys.add(Map.of("id", new AttributeValue().withS(id)));
+            }
+            KeysAndAttributes chunk = new KeysAndAttributes()
+                    .withKeys(chunkKeys)
+                    .withProjectionExpression(fields.projectionExpression())
+                    .withExpressionAttributeNames(fields.expressionAttributeNames());
+            chunks.add(dynamoDBExecutor.submit(() -> readChunk(chunk, tableModel, found)));
+        }
+        awaitAll(chunks);
+        return found;
+    }
+
+    private void readChunk(KeysAndAttributes keys, DynamoDBMapperTableModel<Article> tableModel,
+            Map<String, Article> found) {
+        KeysAndAttributes pending = keys;
+        long delayMillis = batchBackoffBaseMillis;
+        for (int attempt = 0; attempt < batchMaxAttempts; attempt++) {
+            if (attempt > 0) {
+                delayMillis = sleepBeforeRetry(delayMillis);
+            }
+            BatchGetItemResult result = amazonDynamoDB.batchGetItem(
+                    new BatchGetItemRequest().addRequestItemsEntry(TABLE_NAME, pending));
+            List<Map<String, AttributeValue>> items = result.getResponses().get(TABLE_NAME);
+            if (items != null) {
+                for (Map<String, AttributeValue> item : items) {
+                    Article article = tableModel.unconvert(item);
+                    found.put(article.getId(), article);
+                }
+            }
+            KeysAndAttributes unprocessed = result.getUnprocessedKeys() == null ? null
+                    : result.getUnprocessedKeys().get(TABLE_NAME);
+            if (unprocessed == null || unprocessed.getKeys() == null || unprocessed.getKeys().isEmpty()) {
+                return;
+            }
+            logger.debug("Retrying {} unprocessed keys (attempt {})", unprocessed.getKeys().size(), attempt + 1);
+            pending = unprocessed;
+        }
+        throw new AmazonClientException(pending.getKeys().size() + " keys unprocessed after "
+                + batchMaxAttempts + " attempts");
+    }
+
+    /**
+     * 前回の待機時間を元に Decorrelated Jitter で決めた時間だけ待ち、その時間を返します。
+     */
+    private long sleepBeforeRetry(long previousMillis) {
+        long delayMillis = RetryBackoff.decorrelatedJitterMillis(previousMillis, batchBackoffBaseMillis,
+                batchBackoffCapMillis);
+        try {
+            Thread.sleep(delayMillis);
+            return delayMillis;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortedException("Interrupted while waiting to retry", e);
+        }
+    }
+
+    /**
+     * 並行に発行したチャンクの完了を待ちます。チャンク内で発生した SDK の例外はそのまま再スローします。
+     */
+    private static void awaitAll(List<Future<?>> chunks) {
+        try {
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            chunks.forEach(c -> c.cancel(true));
+            throw new AbortedException("Interrupted while waiting for batch requests", e);
+        } catch (ExecutionException e) {
+            chunks.forEach(c -> c.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Unexpected error in batch request", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.mic.knowledgebase.repository;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.mic.knowledgebase.exception.ThrottledException;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.resilience.AdaptiveRateLimiter;
+import com.mic.knowledgebase.util.RetryBackoff;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * AWS SDK v2 の非同期クライアントで記事を読み書きするリポジトリ。
+ * <p>
+ * 各メソッドはリクエストを送信するとすぐに CompletableFuture を返し、DynamoDB の応答を待つ間スレッドを占有しません。
+ * 項目の変換と条件式は同期版 ({@link ArticleRepositoryImpl}) と共通のため、どちらで書き込んだ記事もそのまま読めます。
+ * 各リクエストは同期版と共通の {@link AdaptiveRateLimiter} で制限します（トークンを待つ間もスレッドは占有しません）。
+ * 失敗した Future は v1 の SDK 例外（ConditionalCheckFailedException など）を原因に持つ CompletionException で完了します。
+ * スロットリングされた場合とリクエスト数の上限に達した場合の原因は {@link ThrottledException} です。
+ */
+@Repository
+public class AsyncArticleRepository {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncArticleRepository.class);
+
+    @Autowired
+    private DynamoDbAsyncClient dynamoDbAsyncClient;
+
+    @Autowired
+    private DynamoDBMapper dynamoDBMapper;
+
+    @Autowired
+    private AdaptiveRateLimiter dynamoDBRateLimiter;
+
+    @Value("${app.dynamodb.batch.max-attempts:8}")
+    private int batchMaxAttempts;
+
+    @Value("${app.dynamodb.batch.backoff-base-millis:50}")
+    private long batchBackoffBaseMillis;
+
+    @Value("${app.dynamodb.batch.backoff-cap-millis:2000}")
+    private long batchBackoffCapMillis;
+
+    public CompletableFuture<Optional<Article>> findById(String id) {
+        DynamoDBMapperTableModel<Article> tableModel = tableModel();
+        return send(() -> dynamoDbAsyncClient.getItem(GetItemRequest.builder()
+                .tableName(ArticleRepositoryImpl.TABLE_NAME)
+                .key(Map.of("id", AttributeValue.fromS(id)))
+                .build()))
+                .thenApply(response -> response.hasItem() && !response.item().isEmpty()
+                        ? Optional.of(tableModel.unconvert(SdkV2Bridge.toV1(response.item())))
+                        : Optional.empty());
+    }
+
+    /**
+     * 記事を ID で一括取得します。100 件ずつの BatchGetItem を同時に発行し、
+     * 未処理のキーは Decorrelated Jitter で決めた時間だけ待ってから再試行します。
+     *
+     * @return 見つかった記事（キーは ID）
+     */
+    public CompletableFuture<Map<String, Article>> batchGet(Collection<String> ids) {
+        DynamoDBMapperTableModel<Article> tableModel = tableModel();
+        List<String> keys = new ArrayList<>(ids);
+        Map<String, Article> found = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += ArticleRepositoryImpl.MAX_BATCH_GET_KEYS) {
+            List<Map<String, AttributeValue>> chunk = new ArrayList<>(ArticleRepositoryImpl.MAX_BATCH_GET_KEYS);
+            for (String id : keys.subList(from,
+                    Math.min(from + ArticleRepositoryImpl.MAX_BATCH_GET_KEYS, keys.size()))) {
+                chunk.add(Map.of("id", AttributeValue.fromS(id)));
+            }
+            chunks.add(readChunk(KeysAndAttributes.builder().keys(chunk).build(), 0, batchBackoffBaseMillis,
+                    tableModel, found));
+        }
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).thenApply(ignored -> found);
+    }
+
+    private CompletableFuture<Void> readChunk(KeysAndAttributes keys, int attempt, long previousDelayMillis,
+            DynamoDBMapperTableModel<Article> tableModel, Map<String, Article> found) {
+        return send(() -> dynamoDbAsyncClient.batchGetItem(BatchGetItemRequest.builder()
+                .requestItems(Map.of(ArticleRepositoryImpl.TABLE_NAME, keys))
+                .build()))
+                .thenCompose(response -> {
+                    List<Map<String, AttributeValue>> items = response.responses()
+                            .get(ArticleRepositoryImpl.TABLE_NAME);
+                    if (items != null) {
+                        for (Map<String, AttributeValue> item : items) {
+                            Article article = tableModel.unconvert(SdkV2Bridge.toV1(item));
+                            found.put(article.getId(), article);
+                        }
+                    }
+                    KeysAndAttributes unprocessed = response.unprocessedKeys()
+                            .get(ArticleRepositoryImpl.TABLE_NAME);
+                    if (unprocessed == null || unprocessed.keys().isEmpty()) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    if (attempt + 1 >= batchMaxAttempts) {
+                        throw new AmazonClientException(unprocessed.keys().size() + " keys unprocessed after "
+                                + batchMaxAttempts + " attempts");
+                    }
+                    logger.debug("Retrying {} unprocessed keys (attempt {})", unprocessed.keys().size(),
+                            attempt + 1);
+                    long delayMillis = RetryBackoff.decorrelatedJitterMillis(previousDelayMillis,
+                            batchBackoffBaseMillis, batchBackoffCapMillis);
+                    Executor delayed = CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS);
+                    return CompletableFuture.supplyAsync(() -> null, delayed)
+                            .thenCompose(ignored -> readChunk(unprocessed, attempt + 1, delayMillis, tableModel,
+                                    found));
+                });
+    }
+
+    /**
+     * 新しい記事を書き込みます。同じ ID の記事が既にあれば ConditionalCheckFailedException で失敗します。
+     * バージョンは 1 から始まります。
+     */
+    public CompletableFuture<Article> create(Article article) {
+        article.setVersion(1L);
+        Map<String, AttributeValue> item = SdkV2Bridge.toV2(tableModel().convert(article));
+        return send(() -> dynamoDbAsyncClient.putItem(PutItemRequest.builder()
+                .tableName(ArticleRepositoryImpl.TABLE_NAME)
+                .item(item)
+                .conditionExpression("attribute_not_exists(#id)")
+                .expressionAttributeNames(Map.of("#id", "id"))
+                .build()))
+                .thenApply(response -> article);
+    }
+
+    /**
+     * {@link ArticleRepositoryCustom#updateIfExists} の非同期版。
+     */
+    public CompletableFuture<Article> updateIfExists(Article changes, Collection<String> attributeNames,
+            Long expectedVersion) {
+        DynamoDBMapperTableModel<Article> tableModel = tableModel();
+        software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest request = SdkV2Bridge.toV2(
+                ArticleRepositoryImpl.updateRequest(tableModel, changes, attributeNames, expectedVersion));
+        return send(() -> dynamoDbAsyncClient.updateItem(request))
+                .thenApply(response -> tableModel.unconvert(SdkV2Bridge.toV1(response.attributes())));
+    }
+
+    /**
+     * {@link ArticleRepositoryCustom#deleteIfExists} の非同期版。
+     */
+    public CompletableFuture<Void> deleteIfExists(String id, Long expectedVersion) {
+        software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest request = SdkV2Bridge.toV2(
+                ArticleRepositoryImpl.deleteRequest(id, expectedVersion));
+        return send(() -> dynamoDbAsyncClient.deleteItem(request)).thenApply(response -> null);
+    }
+
+    private DynamoDBMapperTableModel<Article> tableModel() {
+        return dynamoDBMapper.getTableModel(Article.class);
+    }
+
+    /**
+     * トークンを予約し、必要な時間だけ待ってからリクエストを送ります。
+     * 結果を limiter に通知し、失敗の原因を v1 の SDK 例外（スロットリングは {@link ThrottledException}）に置き換えます。
+     */
+    private <R extends DynamoDbResponse> CompletableFuture<R> send(Supplier<CompletableFuture<R>> request) {
+        long waitNanos;
+        try {
+            waitNanos = dynamoDBRateLimiter.reserve();
+        } catch (ThrottledException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<R> response = waitNanos == 0 ? request.get()
+                : CompletableFuture.supplyAsync(() -> null,
+                        CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS))
+                        .thenCompose(ignored -> request.get());
+        return response.handle((value, error) -> {
+            if (error != null) {
+                Throwable cause = SdkV2Bridge.toV1Exception(error);
+                if (cause instanceof AmazonServiceException e && RetryUtils.isThrottlingException(e)) {
+                    dynamoDBRateLimiter.onThrottle();
+                    cause = new ThrottledException("DynamoDB request was throttled",
+                            dynamoDBRateLimiter.retryAfterSeconds(), e);
+                }
+                throw new CompletionException(cause);
+            }
+            if (value instanceof BatchGetItemResponse batch && !batch.unprocessedKeys().isEmpty()) {
+                dynamoDBRateLimiter.onThrottle();
+            } else {
+                dynamoDBRateLimiter.onSuccess();
+            }
+            return value;
+        });
+    }
+}
@@ -0,0 +1,159 @@
+package com.mic.knowledgebase.repository;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * DynamoDB の並列スキャン (Segment / TotalSegments) を実行し、各セグメントの結果を 1 つのストリームにまとめます。
+ * <p>
+ * 各セグメントはスキャン専用の有界エグゼキューター (dynamoDBScanExecutor) 上でページ単位に読み進め、結果を有界キューへ渡します。
+ * 消費側が遅い場合はキューが満杯になりセグメント側が待機するため、メモリ使用量は
+ * 「セグメント数 x 2 ページ」程度に抑えられます。いずれかのセグメントが失敗すると他のセグメントは
+ * キャンセルされ、その例外が消費側に再スローされます。返されるストリームは必ず close してください。
+ */
+class ParallelScan<T> implements Iterator<T>, AutoCloseable {
+
+    private static final Object END_OF_SEGMENT = new Object();
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final BlockingQueue<Object> queue;
+    private final List<Future<?>> segments = new CopyOnWriteArrayList<>();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final int totalSegments;
+    private final String projectionExpression;
+    private final Map<String, String> expressionAttributeNames;
+    private int finishedSegments;
+    private Iterator<T> current = Collections.emptyIterator();
+
+    private ParallelScan(int totalSegments, String projectionExpression, Map<String, String> expressionAttributeNames) {
+        this.totalSegments = totalSegments;
+        this.projectionExpression = projectionExpression;
+        this.expressionAttributeNames = expressionAttributeNames;
+        this.queue = new ArrayBlockingQueue<>(totalSegments * 2);
+    }
+
+    static <T> Stream<T> stream(DynamoDBMapper mapper, Class<T> type, int totalSegments,
+            ExecutorService executor) {
+        return stream(mapper, type, totalSegments, null, null, executor);
+    }
+
+    /**
+     * 項目の一部の属性だけを読み取る並列スキャン。projectionExpression が null の場合は項目全体を読み取ります。
+     */
+    static <T> Stream<T> stream(DynamoDBMapper mapper, Class<T> type, int totalSegments,
+            String projectionExpression, Map<String, String> expressionAttributeNames, ExecutorService executor) {
+        ParallelScan<T> scan = new ParallelScan<>(totalSegments, projectionExpression, expressionAttributeNames);
+        for (int segment = 0; segment < totalSegments; segment++) {
+            final int segmentNumber = segment;
+            scan.segments.add(executor.submit(() -> scan.scanSegment(mapper, type, segmentNumber)));
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(scan, Spliterator.NONNULL), false)
+                .onClose(scan::close);
+    }
+
+    private void scanSegment(DynamoDBMapper mapper, Class<T> type, int segment) {
+        try {
+            Map<String, AttributeValue> exclusiveStartKey = null;
+            do {
+                DynamoDBScanExpression scanExpression = new DynamoDBScanExpression()
+                        .withSegment(segment)
+                        .withTotalSegments(totalSegments)
+                        .withExclusiveStartKey(exclusiveStartKey)
+                        .withProjectionExpression(projectionExpression)
+                        .withExpressionAttributeNames(expressionAttributeNames);
+                ScanResultPage<T> page = mapper.scanPage(type, scanExpression);
+                if (!page.getResults().isEmpty()) {
+                    publish(page.getResults());
+                }
+                exclusiveStartKey = page.getLastEvaluatedKey();
+            } while (exclusiveStartKey != null && !closed.get());
+            publish(END_OF_SEGMENT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // 最初の失敗だけを記録し、残りのセグメントは読み取りを続けても無駄になるためキャンセルする
+            if (failure.compareAndSet(null, e)) {
+                cancelSegments();
+            }
+        }
+    }
+
+    private void publish(Object item) throws InterruptedException {
+        while (!closed.get() && failure.get() == null) {
+            if (queue.offer(item, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (finishedSegments == totalSegments || closed.get()) {
+                return false;
+            }
+            RuntimeException segmentFailure = failure.get();
+            if (segmentFailure != null) {
+                close();
+                throw segmentFailure;
+            }
+            Object item;
+            try {
+                item = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new IllegalStateException("Interrupted while waiting for parallel scan results", e);
+            }
+            if (item == END_OF_SEGMENT) {
+                finishedSegments++;
+            } else if (item != null) {
+                current = ((List<T>) item).iterator();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            cancelSegments();
+        }
+    }
+
+    private void cancelSegments() {
+        for (Future<?> segment : segments) {
+            segment.cancel(true);
+        }
+    }
+}
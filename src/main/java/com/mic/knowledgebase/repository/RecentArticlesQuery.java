@@ -0,0 +1,267 @@
+package com.mic.knowledgebase.repository;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.mic.knowledgebase.exception.InvalidPageTokenException;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.model.ArticleFields;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * RecentIndex (GSI) の全シャードを並行にクエリし、更新日時の新しい順にマージします (scatter-gather)。
+ * <p>
+ * 各シャードからは updatedAtMillis の降順に最大 limit 件だけ読み、シャードの先頭同士をヒープで比べて
+ * 新しいものから limit 件を取り出します (k-way マージ)。読み取るのは最大でシャード数 x limit 件で、
+ * テーブルの件数には依存しません。
+ * <p>
+ * 続きのページの位置はシャードごとに持ちます。シャード s で最後に取り出した記事のキーを "s.id" / "s.t" に、
+ * 読み終えたシャードを "s.end" にした Map を LastEvaluatedKey として返します（全シャードを読み終えた場合は null）。
+ * 取り出さなかった記事は次のページで改めて読むため、ページの境界で記事が抜けたり重複したりしません。
+ */
+final class RecentArticlesQuery {
+
+    /** RecentIndex に射影していない属性。これを含む fields はテーブルから読み直します。 */
+    static final String NOT_PROJECTED = "content";
+
+    private static final String ID_SUFFIX = ".id";
+    private static final String TIME_SUFFIX = ".t";
+    private static final String END_SUFFIX = ".end";
+
+    private static final Comparator<ShardHead> NEWEST_FIRST = Comparator
+            .comparing((ShardHead head) -> head.peek().getUpdatedAtMillis(), Comparator.reverseOrder())
+            .thenComparingInt(head -> head.shard);
+
+    private RecentArticlesQuery() {
+    }
+
+    /**
+     * RecentIndex だけで fields の属性を返せるかどうか。
+     */
+    static boolean coveredByIndex(ArticleFields fields) {
+        return !fields.names().contains(NOT_PROJECTED);
+    }
+
+    /**
+     * 更新日時の新しい順に最大 limit 件の記事を読み取ります。
+     * fields に RecentIndex にない属性が含まれる場合、その属性は読み取りません（呼び出し側でテーブルから読み直します）。
+     *
+     * @param cursor 前ページの LastEvaluatedKey（先頭ページの場合は null）
+     * @throws InvalidPageTokenException cursor が不正な場合
+     */
+    static QueryResultPage<Article> execute(DynamoDBMapper mapper, ExecutorService executor, int limit,
+            Map<String, AttributeValue> cursor, ArticleFields fields) {
+        Map<Integer, Map<String, AttributeValue>> startKeys = new HashMap<>();
+        Set<Integer> finished = new HashSet<>();
+        parseCursor(cursor, startKeys, finished);
+
+        List<String> projection = new ArrayList<>();
+        Map<String, String> names = new HashMap<>();
+        for (String name : fields.names()) {
+            if (!name.equals(NOT_PROJECTED)) {
+                projection.add("#" + name);
+                names.put("#" + name, name);
+            }
+        }
+        // 並べ替えと次ページの位置に使う（updatedAtMillis は updatedAt から計算されます）
+        for (String name : List.of("id", "updatedAt")) {
+            if (names.putIfAbsent("#" + name, name) == null) {
+                projection.add("#" + name);
+            }
+        }
+        names.put("#shard", "recentShard");
+
+        Map<Integer, Future<QueryResultPage<Article>>> queries = new LinkedHashMap<>();
+        for (int shard = 0; shard < Article.RECENT_SHARDS; shard++) {
+            if (finished.contains(shard)) {
+                continue;
+            }
+            DynamoDBQueryExpression<Article> expression = new DynamoDBQueryExpression<Article>()
+                    .withIndexName(Article.RECENT_INDEX)
+                    .withConsistentRead(false)
+                    .withScanIndexForward(false)
+                    .withLimit(limit)
+                    .withKeyConditionExpression("#shard = :shard")
+                    .withExpressionAttributeNames(names)
+                    .withExpressionAttributeValues(Map.of(":shard", new AttributeValue().withN(Integer.toString(shard))))
+                    .withProjectionExpression(String.join(", ", projection))
+                    .withExclusiveStartKey(startKeys.get(shard));
+            queries.put(shard, executor.submit(() -> mapper.queryPage(Article.class, expression)));
+        }
+        Map<Integer, QueryResultPage<Article>> pages = awaitAll(queries);
+
+        PriorityQueue<ShardHead> heads = new PriorityQueue<>(NEWEST_FIRST);
+        Map<Integer, ShardHead> byShard = new HashMap<>();
+        pages.forEach((shard, page) -> {
+            ShardHead head = new ShardHead(shard, page.getResults());
+            byShard.put(shard, head);
+            if (head.hasNext()) {
+                heads.add(head);
+            }
+        });
+        List<Article> merged = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        while (merged.size() < limit && !heads.isEmpty()) {
+            ShardHead head = heads.poll();
+            Article article = head.next();
+            // GSI の更新途中に同じ記事が新旧 2 つの位置で見えることがあるため、ページ内の重複は除く
+            if (seen.add(article.getId())) {
+                merged.add(article);
+            }
+            if (head.hasNext()) {
+                heads.add(head);
+            }
+        }
+
+        Map<String, AttributeValue> next = new LinkedHashMap<>();
+        boolean more = false;
+        for (int shard = 0; shard < Article.RECENT_SHARDS; shard++) {
+            ShardHead head = byShard.get(shard);
+            Map<String, AttributeValue> startKey = startKeys.get(shard);
+            if (head == null) {
+                next.put(shard + END_SUFFIX, new AttributeValue().withN("1"));
+                continue;
+            }
+            Map<String, AttributeValue> lastEvaluatedKey = pages.get(shard).getLastEvaluatedKey();
+            if (!head.hasNext() && (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty())) {
+                next.put(shard + END_SUFFIX, new AttributeValue().withN("1"));
+                continue;
+            }
+            more = true;
+            if (head.consumed() > 0) {
+                Article last = head.last();
+                next.put(shard + ID_SUFFIX, new AttributeValue().withS(last.getId()));
+                next.put(shard + TIME_SUFFIX, new AttributeValue().withN(last.getUpdatedAtMillis().toString()));
+            } else if (startKey != null) {
+                next.put(shard + ID_SUFFIX, startKey.get("id"));
+                next.put(shard + TIME_SUFFIX, startKey.get("updatedAtMillis"));
+            }
+        }
+        QueryResultPage<Article> result = new QueryResultPage<>();
+        result.setResults(merged);
+        result.setLastEvaluatedKey(more ? next : null);
+        return result;
+    }
+
+    /**
+     * LastEvaluatedKey をシャードごとの ExclusiveStartKey と読み終えたシャードに分けます。
+     */
+    private static void parseCursor(Map<String, AttributeValue> cursor,
+            Map<Integer, Map<String, AttributeValue>> startKeys, Set<Integer> finished) {
+        if (cursor == null) {
+            return;
+        }
+        Map<Integer, String> ids = new HashMap<>();
+        Map<Integer, String> times = new HashMap<>();
+        for (Map.Entry<String, AttributeValue> entry : cursor.entrySet()) {
+            String key = entry.getKey();
+            int dot = key.indexOf('.');
+            int shard = dot > 0 ? parseShard(key.substring(0, dot)) : -1;
+            String suffix = dot > 0 ? key.substring(dot) : "";
+            AttributeValue value = entry.getValue();
+            if (suffix.equals(ID_SUFFIX) && value.getS() != null) {
+                ids.put(shard, value.getS());
+            } else if (suffix.equals(TIME_SUFFIX) && value.getN() != null && value.getN().matches("-?\\d{1,18}")) {
+                times.put(shard, value.getN());
+            } else if (suffix.equals(END_SUFFIX)) {
+                finished.add(shard);
+            } else {
+                throw new InvalidPageTokenException("Invalid page token");
+            }
+        }
+        if (!ids.keySet().equals(times.keySet())) {
+            throw new InvalidPageTokenException("Invalid page token");
+        }
+        ids.forEach((shard, id) -> {
+            Map<String, AttributeValue> startKey = new HashMap<>();
+            startKey.put("id", new AttributeValue().withS(id));
+            startKey.put("recentShard", new AttributeValue().withN(Integer.toString(shard)));
+            startKey.put("updatedAtMillis", new AttributeValue().withN(times.get(shard)));
+            startKeys.put(shard, startKey);
+        });
+    }
+
+    private static int parseShard(String value) {
+        try {
+            int shard = Integer.parseInt(value);
+            if (shard >= 0 && shard < Article.RECENT_SHARDS) {
+                return shard;
+            }
+        } catch (NumberFormatException e) {
+            // 下で不正なトークンとして扱う
+        }
+        throw new InvalidPageTokenException("Invalid page token");
+    }
+
+    /**
+     * 全シャードのクエリの完了を待ちます。いずれかが失敗した場合は残りをキャンセルし、SDK の例外をそのまま再スローします。
+     */
+    private static Map<Integer, QueryResultPage<Article>> awaitAll(
+            Map<Integer, Future<QueryResultPage<Article>>> queries) {
+        try {
+            Map<Integer, QueryResultPage<Article>> pages = new LinkedHashMap<>();
+            for (Map.Entry<Integer, Future<QueryResultPage<Article>>> query : queries.entrySet()) {
+                pages.put(query.getKey(), query.getValue().get());
+            }
+            return pages;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queries.values().forEach(query -> query.cancel(true));
+            throw new AbortedException("Interrupted while querying " + Article.RECENT_INDEX, e);
+        } catch (ExecutionException e) {
+            queries.values().forEach(query -> query.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Unexpected error in " + Article.RECENT_INDEX + " query", e.getCause());
+        }
+    }
+
+    /**
+     * 1 シャード分のクエリ結果と、そのうち取り出した件数。
+     */
+    private static final class ShardHead {
+        final int shard;
+        private final List<Article> items;
+        private int position;
+
+        ShardHead(int shard, List<Article> items) {
+            this.shard = shard;
+            this.items = items;
+        }
+
+        boolean hasNext() {
+            return position < items.size();
+        }
+
+        Article peek() {
+            return items.get(position);
+        }
+
+        Article next() {
+            return items.get(position++);
+        }
+
+        int consumed() {
+            return position;
+        }
+
+        Article last() {
+            return items.get(position - 1);
+        }
+    }
+}
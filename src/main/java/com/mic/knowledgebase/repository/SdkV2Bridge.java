@@ -0,0 +1,175 @@
+package com.mic.knowledgebase.repository;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.exception.SdkException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+/**
+ * AWS SDK v1 と v2 の DynamoDB の型を相互変換します。
+ * <p>
+ * 非同期のデータアクセス層は v2 のクライアントを使いますが、項目と Article の変換には v1 の
+ * DynamoDBMapper のテーブルモデルを、更新・削除の式の組み立てには {@link ArticleRepositoryImpl} のものを
+ * そのまま使います。同期版と同じ形式で読み書きするためです。例外も v1 の型に変換するため、
+ * サービス層のエラー処理は同期版と共通です。
+ */
+final class SdkV2Bridge {
+
+    private SdkV2Bridge() {
+    }
+
+    static software.amazon.awssdk.services.dynamodb.model.AttributeValue toV2(AttributeValue value) {
+        software.amazon.awssdk.services.dynamodb.model.AttributeValue.Builder builder =
+                software.amazon.awssdk.services.dynamodb.model.AttributeValue.builder();
+        if (value.getS() != null) {
+            builder.s(value.getS());
+        } else if (value.getN() != null) {
+            builder.n(value.getN());
+        } else if (value.getB() != null) {
+            builder.b(SdkBytes.fromByteBuffer(value.getB().duplicate()));
+        } else if (value.getSS() != null) {
+            builder.ss(value.getSS());
+        } else if (value.getNS() != null) {
+            builder.ns(value.getNS());
+        } else if (value.getBS() != null) {
+            List<SdkBytes> bytes = new ArrayList<>(value.getBS().size());
+            value.getBS().forEach(b -> bytes.add(SdkBytes.fromByteBuffer(b.duplicate())));
+            builder.bs(bytes);
+        } else if (value.getM() != null) {
+            builder.m(toV2(value.getM()));
+        } else if (value.getL() != null) {
+            List<software.amazon.awssdk.services.dynamodb.model.AttributeValue> list =
+                    new ArrayList<>(value.getL().size());
+            value.getL().forEach(v -> list.add(toV2(v)));
+            builder.l(list);
+        } else if (value.getBOOL() != null) {
+            builder.bool(value.getBOOL());
+        } else if (value.getNULL() != null) {
+            builder.nul(value.getNULL());
+        }
+        return builder.build();
+    }
+
+    static Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> toV2(
+            Map<String, AttributeValue> values) {
+        if (values == null) {
+            return null;
+        }
+        Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> converted =
+                new HashMap<>(values.size() * 2);
+        values.forEach((name, value) -> converted.put(name, toV2(value)));
+        return converted;
+    }
+
+    static AttributeValue toV1(software.amazon.awssdk.services.dynamodb.model.AttributeValue value) {
+        AttributeValue converted = new AttributeValue();
+        switch (value.type()) {
+            case S -> converted.setS(value.s());
+            case N -> converted.setN(value.n());
+            case B -> converted.setB(ByteBuffer.wrap(value.b().asByteArrayUnsafe()));
+            case SS -> converted.setSS(value.ss());
+            case NS -> converted.setNS(value.ns());
+            case BS -> {
+                List<ByteBuffer> bytes = new ArrayList<>(value.bs().size());
+                value.bs().forEach(b -> bytes.add(ByteBuffer.wrap(b.asByteArrayUnsafe())));
+                converted.setBS(bytes);
+            }
+            case M -> converted.setM(toV1(value.m()));
+            case L -> {
+                List<AttributeValue> list = new ArrayList<>(value.l().size());
+                value.l().forEach(v -> list.add(toV1(v)));
+                converted.setL(list);
+            }
+            case BOOL -> converted.setBOOL(value.bool());
+            case NUL -> converted.setNULL(value.nul());
+            default -> throw new IllegalArgumentException("Unsupported attribute type: " + value.type());
+        }
+        return converted;
+    }
+
+    static Map<String, AttributeValue> toV1(
+            Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> values) {
+        if (values == null) {
+            return null;
+        }
+        Map<String, AttributeValue> converted = new HashMap<>(values.size() * 2);
+        values.forEach((name, value) -> converted.put(name, toV1(value)));
+        return converted;
+    }
+
+    static software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest toV2(UpdateItemRequest request) {
+        return software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest.builder()
+                .tableName(request.getTableName())
+                .key(toV2(request.getKey()))
+                .updateExpression(request.getUpdateExpression())
+                .conditionExpression(request.getConditionExpression())
+                .expressionAttributeNames(request.getExpressionAttributeNames())
+                .expressionAttributeValues(toV2(request.getExpressionAttributeValues()))
+                .returnValues(request.getReturnValues())
+                .returnValuesOnConditionCheckFailure(request.getReturnValuesOnConditionCheckFailure())
+                .build();
+    }
+
+    static software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest toV2(DeleteItemRequest request) {
+        return software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest.builder()
+                .tableName(request.getTableName())
+                .key(toV2(request.getKey()))
+                .conditionExpression(request.getConditionExpression())
+                .expressionAttributeNames(request.getExpressionAttributeNames())
+                .expressionAttributeValues(toV2(request.getExpressionAttributeValues()))
+                .returnValuesOnConditionCheckFailure(request.getReturnValuesOnConditionCheckFailure())
+                .build();
+    }
+
+    /**
+     * 非同期処理の失敗を v1 の例外に変換します。
+     * 条件付き書き込みの失敗は、失敗時の項目を含む v1 の ConditionalCheckFailedException になります。
+     */
+    static Throwable toV1Exception(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException e) {
+            ConditionalCheckFailedException converted = new ConditionalCheckFailedException(message(e));
+            converted.setItem(e.hasItem() ? toV1(e.item()) : null);
+            return serviceException(converted, e);
+        }
+        if (cause instanceof software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException e) {
+            return serviceException(new ResourceNotFoundException(message(e)), e);
+        }
+        if (cause instanceof AwsServiceException e) {
+            return serviceException(new AmazonServiceException(message(e), e), e);
+        }
+        if (cause instanceof SdkException e) {
+            return new AmazonClientException(e.getMessage(), e);
+        }
+        return cause;
+    }
+
+    private static AmazonServiceException serviceException(AmazonServiceException converted, AwsServiceException e) {
+        converted.setStatusCode(e.statusCode());
+        converted.setRequestId(e.requestId());
+        converted.setServiceName("DynamoDB");
+        if (e.awsErrorDetails() != null) {
+            converted.setErrorCode(e.awsErrorDetails().errorCode());
+        }
+        return converted;
+    }
+
+    private static String message(AwsServiceException e) {
+        return e.awsErrorDetails() != null && e.awsErrorDetails().errorMessage() != null
+                ? e.awsErrorDetails().errorMessage() : e.getMessage();
+    }
+}
@@ -0,0 +1,163 @@
+package com.mic.knowledgebase.resilience;
+
+import com.mic.knowledgebase.exception.ThrottledException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * DynamoDB へのリクエスト数を、スロットリングの有無に合わせて調整するトークンバケット (AIMD)。
+ * <p>
+ * 1 リクエストにつき 1 トークンを使い、トークンは毎秒 rate 個ずつ（最大 1 秒分まで）補充されます。
+ * スロットリングが起きると rate を decreaseFactor 倍に下げ（同時に失敗した呼び出しで何度も下げないよう、
+ * 下げるのは 1 / rate 秒に 1 回まで）、成功するたびに rate を increasePerSecond / rate ずつ上げます。
+ * 一定の rate で成功し続けた場合、rate は 1 秒あたり increasePerSecond 上がります。
+ * <p>
+ * 状態（rate、トークン数、最終補充時刻）は不変オブジェクトにまとめて CAS で更新するため、ロックを使いません。
+ */
+public final class AdaptiveRateLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double minRate;
+    private final double maxRate;
+    private final double increasePerSecond;
+    private final double decreaseFactor;
+    private final long maxWaitNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicReference<State> state;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param initialRate       開始時の 1 秒あたりのリクエスト数
+     * @param minRate           rate の下限
+     * @param maxRate           rate の上限
+     * @param increasePerSecond 成功し続けた場合に 1 秒あたり rate を上げる量
+     * @param decreaseFactor    スロットリング時に rate に掛ける値 (0〜1)
+     * @param maxWaitMillis     トークンの補充を待つ最大時間。これより長く待つ必要がある場合は {@link ThrottledException}
+     */
+    public AdaptiveRateLimiter(double initialRate, double minRate, double maxRate, double increasePerSecond,
+            double decreaseFactor, long maxWaitMillis) {
+        this(initialRate, minRate, maxRate, increasePerSecond, decreaseFactor, maxWaitMillis, System::nanoTime);
+    }
+
+    AdaptiveRateLimiter(double initialRate, double minRate, double maxRate, double increasePerSecond,
+            double decreaseFactor, long maxWaitMillis, LongSupplier nanoClock) {
+        if (minRate <= 0 || minRate > maxRate || decreaseFactor <= 0 || decreaseFactor >= 1) {
+            throw new IllegalArgumentException("Invalid rate limit settings");
+        }
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increasePerSecond = increasePerSecond;
+        this.decreaseFactor = decreaseFactor;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.nanoClock = nanoClock;
+        double rate = clamp(initialRate);
+        long now = nanoClock.getAsLong();
+        this.state = new AtomicReference<>(new State(rate, rate, now, now - NANOS_PER_SECOND));
+    }
+
+    /**
+     * 1 トークンを予約し、呼び出し前に待つべき時間を返します。
+     * トークンが足りない場合は先の補充分を予約するため、呼び出し元は返された時間だけ待ってからリクエストを送ります。
+     *
+     * @return 待機時間（ナノ秒）。すぐに送れる場合は 0
+     * @throws ThrottledException 待機時間が上限を超える場合（トークンは予約しません）
+     */
+    public long reserve() {
+        while (true) {
+            State current = state.get();
+            long now = nanoClock.getAsLong();
+            double tokens = current.refill(now) - 1;
+            long waitNanos = tokens >= 0 ? 0 : (long) (-tokens / current.rate * NANOS_PER_SECOND);
+            if (waitNanos > maxWaitNanos) {
+                rejected.increment();
+                throw new ThrottledException("DynamoDB request rate limit exceeded",
+                        retryAfterSeconds(waitNanos));
+            }
+            if (state.compareAndSet(current, new State(current.rate, tokens, now, current.decreasedAt))) {
+                return waitNanos;
+            }
+        }
+    }
+
+    /**
+     * リクエストが成功した（スロットリングされなかった）ことを通知し、rate を少し上げます。
+     */
+    public void onSuccess() {
+        while (true) {
+            State current = state.get();
+            if (current.rate >= maxRate) {
+                return;
+            }
+            long now = nanoClock.getAsLong();
+            double rate = clamp(current.rate + increasePerSecond / current.rate);
+            if (state.compareAndSet(current, new State(rate, current.refill(now), now, current.decreasedAt))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * スロットリングされたことを通知し、rate を下げて残りのトークンを捨てます。
+     */
+    public void onThrottle() {
+        while (true) {
+            State current = state.get();
+            long now = nanoClock.getAsLong();
+            if (now - current.decreasedAt < NANOS_PER_SECOND / current.rate) {
+                return;
+            }
+            double rate = clamp(current.rate * decreaseFactor);
+            double tokens = Math.min(current.refill(now), 0);
+            if (state.compareAndSet(current, new State(rate, tokens, now, now))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 現在の 1 秒あたりのリクエスト数。
+     */
+    public double getRate() {
+        return state.get().rate;
+    }
+
+    /**
+     * {@link #reserve} が {@link ThrottledException} で失敗した回数。
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 次のトークンが補充されるまでの秒数（切り上げ、最小 1）。Retry-After に使います。
+     */
+    public long retryAfterSeconds() {
+        return retryAfterSeconds((long) (NANOS_PER_SECOND / state.get().rate));
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+    }
+
+    private double clamp(double rate) {
+        return Math.max(minRate, Math.min(maxRate, rate));
+    }
+
+    /**
+     * @param rate        1 秒あたりに補充するトークン数
+     * @param tokens      refilledAt 時点のトークン数。予約済みの分だけ負になります
+     * @param refilledAt  tokens を計算した時刻
+     * @param decreasedAt 最後に rate を下げた時刻
+     */
+    private record State(double rate, double tokens, long refilledAt, long decreasedAt) {
+
+        /** now 時点のトークン数。バケットの容量は 1 秒分です。 */
+        double refill(long now) {
+            return Math.min(rate, tokens + (now - refilledAt) * rate / NANOS_PER_SECOND);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.mic.knowledgebase.resilience;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.retry.RetryPolicy;
+import com.amazonaws.retry.RetryUtils;
+import com.mic.knowledgebase.util.RetryBackoff;
+
+/**
+ * AWS SDK v1 の再試行の待機時間を Decorrelated Jitter で決めます。
+ * <p>
+ * 前回の待機時間はリクエストのハンドラーコンテキストに保存します。スロットリングの場合は待機時間の下限を
+ * throttledBaseMillis に上げ、テーブルの容量が回復する前に再試行しないようにします。
+ */
+public class DecorrelatedJitterBackoffStrategy implements RetryPolicy.BackoffStrategy {
+
+    private static final HandlerContextKey<Long> PREVIOUS_DELAY = new HandlerContextKey<>("RetryPreviousDelayMillis");
+
+    private final long baseMillis;
+    private final long throttledBaseMillis;
+    private final long capMillis;
+
+    public DecorrelatedJitterBackoffStrategy(long baseMillis, long throttledBaseMillis, long capMillis) {
+        this.baseMillis = baseMillis;
+        this.throttledBaseMillis = throttledBaseMillis;
+        this.capMillis = capMillis;
+    }
+
+    @Override
+    public long delayBeforeNextRetry(AmazonWebServiceRequest originalRequest, AmazonClientException exception,
+            int retriesAttempted) {
+        long base = RetryUtils.isThrottlingException(exception) ? throttledBaseMillis : baseMillis;
+        Long previous = retriesAttempted == 0 ? null : originalRequest.getHandlerContext(PREVIOUS_DELAY);
+        long delay = RetryBackoff.decorrelatedJitterMillis(previous != null ? previous : base, base, capMillis);
+        originalRequest.addHandlerContext(PREVIOUS_DELAY, delay);
+        return delay;
+    }
+}
@@ -0,0 +1,90 @@
+package com.mic.knowledgebase.resilience;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonWebServiceResult;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.mic.knowledgebase.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DynamoDB への同時呼び出し数をセマフォで制限するバルクヘッド。
+ * <p>
+ * 同期クライアントはリクエストのスレッドと複数のスレッドプール（dynamoDBExecutor、dynamoDBScanExecutor）から呼ばれるため、
+ * 1 つのスレッドプールの大きさでは同時呼び出し数の上限になりません。
+ * {@link #wrap} が返すクライアントは各オペレーションの前に許可を取得し、上限に達している場合は
+ * 空きを最大 acquireTimeoutMillis 待ちます。待っても空かない場合は {@link ServiceUnavailableException}
+ * (503) で失敗させ、テーブルや HTTP の接続プールに要求が殺到するのを防ぎます。
+ * <p>
+ * 使用中の許可数を dynamodb.bulkhead.active、待っても取得できなかった回数を dynamodb.bulkhead.rejected として記録します。
+ */
+public final class DynamoDBBulkhead implements InvocationHandler {
+
+    private final AmazonDynamoDB delegate;
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+    private final Counter rejected;
+
+    private DynamoDBBulkhead(AmazonDynamoDB delegate, int maxConcurrentCalls, long acquireTimeoutMillis,
+            MeterRegistry registry) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.rejected = registry.counter("dynamodb.bulkhead.rejected");
+        Gauge.builder("dynamodb.bulkhead.active", permits, p -> maxConcurrentCalls - p.availablePermits())
+                .register(registry);
+    }
+
+    /**
+     * @param maxConcurrentCalls   同時に実行できる DynamoDB のオペレーション数
+     * @param acquireTimeoutMillis 許可の空きを待つ最大時間（ミリ秒）
+     */
+    public static AmazonDynamoDB wrap(AmazonDynamoDB delegate, int maxConcurrentCalls, long acquireTimeoutMillis,
+            MeterRegistry registry) {
+        if (maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("maxConcurrentCalls must be positive: " + maxConcurrentCalls);
+        }
+        return (AmazonDynamoDB) Proxy.newProxyInstance(AmazonDynamoDB.class.getClassLoader(),
+                new Class<?>[] { AmazonDynamoDB.class },
+                new DynamoDBBulkhead(delegate, maxConcurrentCalls, acquireTimeoutMillis, registry));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        // DynamoDB へのリクエストを送るメソッドだけを制限する（shutdown や setRegion などはそのまま）
+        if (!AmazonWebServiceResult.class.isAssignableFrom(method.getReturnType())) {
+            return invokeDelegate(method, args);
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new ServiceUnavailableException("Too many concurrent DynamoDB requests", 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortedException("Interrupted while waiting for a DynamoDB bulkhead permit", e);
+        }
+        try {
+            return invokeDelegate(method, args);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Object invokeDelegate(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.mic.knowledgebase.resilience;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceResult;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.mic.knowledgebase.exception.ThrottledException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 同期の DynamoDB クライアントへのリクエストを {@link AdaptiveRateLimiter} で制限します。
+ * <p>
+ * 各オペレーションの前にトークンを予約して必要な時間だけ待ち、結果を limiter に通知します。
+ * バッチ API で未処理の項目が返った場合もスロットリングとして扱います。
+ * SDK の再試行を使い切ってもスロットリングされた場合は、{@link ThrottledException} (429) に置き換えます。
+ */
+public final class DynamoDBRateLimit implements InvocationHandler {
+
+    private final AmazonDynamoDB delegate;
+    private final AdaptiveRateLimiter limiter;
+
+    private DynamoDBRateLimit(AmazonDynamoDB delegate, AdaptiveRateLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    public static AmazonDynamoDB wrap(AmazonDynamoDB delegate, AdaptiveRateLimiter limiter) {
+        return (AmazonDynamoDB) Proxy.newProxyInstance(AmazonDynamoDB.class.getClassLoader(),
+                new Class<?>[] { AmazonDynamoDB.class }, new DynamoDBRateLimit(delegate, limiter));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (!AmazonWebServiceResult.class.isAssignableFrom(method.getReturnType())) {
+            return invokeDelegate(method, args);
+        }
+        long waitNanos = limiter.reserve();
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AbortedException("Interrupted while waiting for the DynamoDB rate limit", e);
+            }
+        }
+        Object result;
+        try {
+            result = invokeDelegate(method, args);
+        } catch (AmazonServiceException e) {
+            if (RetryUtils.isThrottlingException(e)) {
+                limiter.onThrottle();
+                throw new ThrottledException("DynamoDB request was throttled", limiter.retryAfterSeconds(), e);
+            }
+            throw e;
+        }
+        if (hasUnprocessedItems(result)) {
+            limiter.onThrottle();
+        } else {
+            limiter.onSuccess();
+        }
+        return result;
+    }
+
+    private static boolean hasUnprocessedItems(Object result) {
+        if (result instanceof BatchGetItemResult r) {
+            return r.getUnprocessedKeys() != null && !r.getUnprocessedKeys().isEmpty();
+        }
+        if (result instanceof BatchWriteItemResult r) {
+            return r.getUnprocessedItems() != null && !r.getUnprocessedItems().isEmpty();
+        }
+        return false;
+    }
+
+    private Object invokeDelegate(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.mic.knowledgebase.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 記事のタイトルと本文に対する転置インデックスと BM25 によるランキング。
+ * <p>
+ * 記事は追加順に連番の内部文書番号を割り当て、各語のポスティングリストは文書番号と出現回数を
+ * int 配列で保持します（ボクシングされたコレクションを使わないため、メモリ効率と走査速度に優れます）。
+ * 更新は古い文書番号を無効化して新しい番号で追加し、無効な文書が半数を超えたら番号を詰め直します。
+ * 本文はスニペット用に先頭 {@link #SNIPPET_SOURCE_CHARS} 文字だけを NFKC 正規化して保持し、全文はヒープに残しません。
+ */
+final class InvertedIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    /** タイトル中の語は本文中の語よりこの倍率だけ重く数えます。 */
+    private static final int TITLE_WEIGHT = 2;
+    private static final int COMPACTION_MIN_DOCS = 1024;
+    static final int SNIPPET_SOURCE_CHARS = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, PostingList> postings = new HashMap<>();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private String[] articleIds = new String[64];
+    private String[] titles = new String[64];
+    private SnippetSource[] snippetSources = new SnippetSource[64];
+    private int[] lengths = new int[64];
+    private int nextDoc;
+    private long liveLength;
+
+    record Hit(String articleId, String title, SnippetSource snippetSource, float score) {
+    }
+
+    /**
+     * スニペットの切り出し元。本文の先頭を NFKC 正規化した文字列で、トークナイザーと同じ正規化なので
+     * 検索語の位置をそのまま使えます。
+     *
+     * @param truncated 本文がこの文字列より長い場合は true
+     */
+    record SnippetSource(String text, boolean truncated) {
+        static final SnippetSource EMPTY = new SnippetSource("", false);
+
+        static SnippetSource of(String content) {
+            if (content == null || content.isEmpty()) {
+                return EMPTY;
+            }
+            if (content.length() <= SNIPPET_SOURCE_CHARS) {
+                return new SnippetSource(Tokenizer.normalizeWidth(content), false);
+            }
+            int end = SNIPPET_SOURCE_CHARS;
+            if (Character.isHighSurrogate(content.charAt(end - 1))) {
+                end--;
+            }
+            return new SnippetSource(Tokenizer.normalizeWidth(content.substring(0, end)), true);
+        }
+    }
+
+    void upsert(String articleId, String title, String content) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : Tokenizer.tokenize(title)) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : Tokenizer.tokenize(content)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        int length = 0;
+        for (int frequency : frequencies.values()) {
+            length += frequency;
+        }
+        SnippetSource snippetSource = SnippetSource.of(content);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(articleId);
+            int doc = nextDoc++;
+            ensureCapacity(nextDoc);
+            articleIds[doc] = articleId;
+            titles[doc] = title;
+            snippetSources[doc] = snippetSource;
+            lengths[doc] = length;
+            liveLength += length;
+            docIds.put(articleId, doc);
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new PostingList()).add(doc, entry.getValue());
+            }
+            if (nextDoc >= COMPACTION_MIN_DOCS && nextDoc > 2 * docIds.size()) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String articleId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(articleId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            postings = new HashMap<>();
+            docIds.clear();
+            Arrays.fill(articleIds, null);
+            Arrays.fill(titles, null);
+            Arrays.fill(snippetSources, null);
+            nextDoc = 0;
+            liveLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * クエリ中のいずれかの語を含む文書を BM25 のスコア順に返します。
+     */
+    List<Hit> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int liveDocs = docIds.size();
+            if (liveDocs == 0) {
+                return List.of();
+            }
+            float averageLength = (float) liveLength / liveDocs;
+            float[] scores = new float[nextDoc];
+            for (String term : terms) {
+                PostingList postingList = postings.get(term);
+                if (postingList == null) {
+                    continue;
+                }
+                int documentFrequency = 0;
+                for (int i = 0; i < postingList.size; i++) {
+                    if (articleIds[postingList.docs[i]] != null) {
+                        documentFrequency++;
+                    }
+                }
+                float idf = (float) Math.log(1 + (liveDocs - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                for (int i = 0; i < postingList.size; i++) {
+                    int doc = postingList.docs[i];
+                    if (articleIds[doc] == null) {
+                        continue;
+                    }
+                    int tf = postingList.frequencies[i];
+                    float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                    scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, (a, b) -> Float.compare(scores[a], scores[b]));
+            for (int doc = 0; doc < scores.length; doc++) {
+                if (scores[doc] > 0 && (top.size() < limit || scores[doc] > scores[top.peek()])) {
+                    top.offer(doc);
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+            Hit[] hits = new Hit[top.size()];
+            for (int i = hits.length - 1; i >= 0; i--) {
+                int doc = top.poll();
+                hits[i] = new Hit(articleIds[doc], titles[doc], snippetSources[doc], scores[doc]);
+            }
+            return Arrays.asList(hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(String articleId) {
+        Integer doc = docIds.remove(articleId);
+        if (doc != null) {
+            liveLength -= lengths[doc];
+            articleIds[doc] = null;
+            titles[doc] = null;
+            snippetSources[doc] = null;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > articleIds.length) {
+            int newLength = Math.max(capacity, articleIds.length * 2);
+            articleIds = Arrays.copyOf(articleIds, newLength);
+            titles = Arrays.copyOf(titles, newLength);
+            snippetSources = Arrays.copyOf(snippetSources, newLength);
+            lengths = Arrays.copyOf(lengths, newLength);
+        }
+    }
+
+    /**
+     * 無効化された文書を取り除き、文書番号を詰め直します。ポスティングの昇順は保たれます。
+     */
+    private void compact() {
+        int[] remap = new int[nextDoc];
+        int live = 0;
+        for (int doc = 0; doc < nextDoc; doc++) {
+            if (articleIds[doc] == null) {
+                remap[doc] = -1;
+                continue;
+            }
+            remap[doc] = live;
+            articleIds[live] = articleIds[doc];
+            titles[live] = titles[doc];
+            snippetSources[live] = snippetSources[doc];
+            lengths[live] = lengths[doc];
+            docIds.put(articleIds[live], live);
+            live++;
+        }
+        Arrays.fill(articleIds, live, nextDoc, null);
+        Arrays.fill(titles, live, nextDoc, null);
+        Arrays.fill(snippetSources, live, nextDoc, null);
+        nextDoc = live;
+
+        Map<String, PostingList> compacted = new HashMap<>(postings.size());
+        for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+            PostingList postingList = entry.getValue();
+            PostingList remapped = new PostingList();
+            for (int i = 0; i < postingList.size; i++) {
+                int doc = remap[postingList.docs[i]];
+                if (doc >= 0) {
+                    remapped.add(doc, postingList.frequencies[i]);
+                }
+            }
+            if (remapped.size > 0) {
+                compacted.put(entry.getKey(), remapped);
+            }
+        }
+        postings = compacted;
+    }
+
+    /** 文書番号の昇順に並んだ (文書番号, 出現回数) の列。 */
+    private static final class PostingList {
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.mic.knowledgebase.search;
+
+import com.amazonaws.AmazonClientException;
+import com.mic.knowledgebase.event.ArticleChangedEvent;
+import com.mic.knowledgebase.exception.ArticleNotFoundException;
+import com.mic.knowledgebase.exception.DatabaseOperationException;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.model.SearchHit;
+import com.mic.knowledgebase.repository.ArticleRepository;
+import com.mic.knowledgebase.service.ArticleContentStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * プロセス内の転置インデックスを使った記事の全文検索。
+ * <p>
+ * インデックスは起動時に Articles テーブルの並列スキャンから構築し、以降は {@link ArticleChangedEvent} で
+ * 差分更新するため、検索時に DynamoDB へアクセスしません。構築は新しいインデックスに対して行い、完成してから
+ * 差し替えるため、構築中の検索は前回のインデックス（初回は空）を使い、読み込み途中の結果を返すことはありません。
+ * 構築中に届いた変更イベントは現在のインデックスに適用するとともに保留しておき、スキャン完了後に新しいインデックスにも
+ * 適用します（スキャン結果より新しい変更で上書きするため）。
+ * <p>
+ * 本文が BlobStore に置かれた記事（contentRef を持つ記事）は、索引の際に {@link ArticleContentStore} から本文を読み出します。
+ */
+@Service
+public class SearchService {
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    private static final int SNIPPET_RADIUS = 60;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ArticleContentStore articleContentStore;
+
+    @Value("${app.search.build-on-startup:true}")
+    private boolean buildOnStartup;
+
+    private volatile InvertedIndex index = new InvertedIndex();
+    private final Object stateLock = new Object();
+    private boolean built;
+    private boolean building;
+    private List<ArticleChangedEvent> pendingEvents = new ArrayList<>();
+
+    /**
+     * app.search.build-on-startup=true の場合、専用のスレッドでインデックスを構築します。構築はスキャンの結果を
+     * 消費し続けるため、DynamoDB 呼び出し用のスレッドプールは使いません（スキャンのセグメントと取り合わないように）。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (buildOnStartup) {
+            Thread thread = new Thread(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    logger.error("Failed to build search index: {}", e.getMessage());
+                }
+            }, "search-index");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * テーブル全体をスキャンして新しいインデックスを作り、現在のインデックスと差し替えます。
+     * スキャンに失敗した場合は現在のインデックスを使い続けます。
+     */
+    public void rebuild() {
+        synchronized (stateLock) {
+            if (building) {
+                return;
+            }
+            building = true;
+        }
+        long start = System.nanoTime();
+        InvertedIndex fresh = new InvertedIndex();
+        boolean scanned = false;
+        try {
+            try (Stream<Article> scan = articleRepository.parallelScan()) {
+                scan.forEach(article -> index(fresh, article));
+            }
+            scanned = true;
+        } finally {
+            replayPendingEvents(scanned ? fresh : null);
+        }
+        logger.info("Search index built with {} articles in {} ms", fresh.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * インデックスが古くなった可能性がある場合（ストリームの読み逃しなど）に呼びます。
+     * 次の検索で作り直し、それまでは現在のインデックスで検索します。
+     */
+    public void markStale() {
+        synchronized (stateLock) {
+            built = false;
+        }
+    }
+
+    /**
+     * 記事を全文検索します。インデックスが未構築または古い場合はこの呼び出しの中で構築します。
+     * 他のスレッドで構築が進行中の場合は、前回のインデックス（初回は空）が対象になります。
+     *
+     * @param query 検索語（空白区切りの語のいずれかを含む記事がヒットします）
+     * @param limit 最大件数（null の場合は既定値、上限は {@link #MAX_LIMIT}）
+     */
+    public List<SearchHit> search(String query, Integer limit) {
+        try {
+            ensureBuilt();
+        } catch (AmazonClientException e) {
+            logger.error("Error occurred while building search index: {}", e.getMessage());
+            throw new DatabaseOperationException("Failed to build search index", e);
+        }
+        int maxHits = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<String> queryTerms = Tokenizer.tokenize(query);
+        List<SearchHit> hits = new ArrayList<>();
+        for (InvertedIndex.Hit hit : index.search(query, maxHits)) {
+            hits.add(new SearchHit(hit.articleId(), hit.title(), hit.score(), snippet(hit.snippetSource(), queryTerms)));
+        }
+        logger.debug("Search for '{}' returned {} hits", query, hits.size());
+        return hits;
+    }
+
+    @EventListener
+    public void onArticleChanged(ArticleChangedEvent event) {
+        InvertedIndex current;
+        synchronized (stateLock) {
+            if (building) {
+                pendingEvents.add(event);
+            }
+            // 保留したイベントは差し替え前のインデックスにだけ適用する（新しいインデックスには受信順に再生される）
+            current = index;
+        }
+        apply(current, event);
+    }
+
+    /**
+     * 構築中に保留したイベントを受信順に新しいインデックスへ適用し、保留がなくなった時点でインデックスを差し替えて
+     * 構築中の状態を解除します。適用中に届いたイベントも保留に回るため、差し替え後に適用されるイベントが保留中の
+     * 古いイベントより先に反映されることはありません（削除済みの記事が古い更新で復活するのを防ぎます）。
+     *
+     * @param fresh 新しいインデックス。スキャンに失敗した場合は null で、保留を捨てて現在のインデックスを使い続けます
+     *              （保留したイベントは受信時に現在のインデックスへ適用済みです）
+     */
+    private void replayPendingEvents(InvertedIndex fresh) {
+        while (true) {
+            List<ArticleChangedEvent> events;
+            synchronized (stateLock) {
+                if (fresh == null || pendingEvents.isEmpty()) {
+                    pendingEvents = new ArrayList<>();
+                    if (fresh != null) {
+                        index = fresh;
+                        built = true;
+                    }
+                    building = false;
+                    return;
+                }
+                events = pendingEvents;
+                pendingEvents = new ArrayList<>();
+            }
+            events.forEach(event -> apply(fresh, event));
+        }
+    }
+
+    private void apply(InvertedIndex target, ArticleChangedEvent event) {
+        if (event.getType() == ArticleChangedEvent.Type.DELETED) {
+            target.remove(event.getArticleId());
+        } else {
+            index(target, event.getArticle());
+        }
+    }
+
+    private void index(InvertedIndex target, Article article) {
+        target.upsert(article.getId(), article.getTitle(), content(article));
+    }
+
+    /**
+     * 索引する本文を返します。本文が BlobStore にあり読み出せない場合（置き換えられて削除された、一時的な障害）は
+     * 警告を記録して null を返し、タイトルだけを索引します。
+     */
+    private String content(Article article) {
+        if (article.getContentRef() == null) {
+            return article.getContent();
+        }
+        try {
+            return articleContentStore.readContent(article);
+        } catch (ArticleNotFoundException | DatabaseOperationException e) {
+            logger.warn("Failed to read content of article {} for search index: {}", article.getId(),
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    private void ensureBuilt() {
+        boolean needsBuild;
+        synchronized (stateLock) {
+            needsBuild = !built && !building;
+        }
+        if (needsBuild) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 本文中で最初に検索語が現れる位置の前後を切り出します。見つからない場合は本文の先頭を返します。
+     * 位置はトークナイザーと同じく NFKC 正規化した文字列上で探し、大文字・小文字は区別しません。
+     */
+    static String snippet(InvertedIndex.SnippetSource source, List<String> queryTerms) {
+        String text = source.text();
+        if (text.isEmpty()) {
+            return "";
+        }
+        int position = -1;
+        for (String term : queryTerms) {
+            int found = indexOfIgnoreCase(text, term, position < 0 ? text.length() : position);
+            if (found >= 0) {
+                position = found;
+            }
+        }
+        if (position < 0) {
+            position = 0;
+        }
+        int start = Math.max(0, position - SNIPPET_RADIUS);
+        int end = Math.min(text.length(), position + SNIPPET_RADIUS);
+        boolean more = end < text.length() || source.truncated();
+        return (start > 0 ? "…" : "") + text.substring(start, end) + (more ? "…" : "");
+    }
+
+    /**
+     * text 中で term（小文字）が limit より前に現れる最初の位置を返します。ない場合は -1 です。
+     */
+    private static int indexOfIgnoreCase(String text, String term, int limit) {
+        int last = Math.min(limit - 1, text.length() - term.length());
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, term, 0, term.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,90 @@
+package com.mic.knowledgebase.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 全文検索用のトークナイザー。
+ * <p>
+ * 入力を NFKC 正規化（全角英数字を半角に統一）して小文字化したうえで、
+ * 英数字の連続は 1 語として、漢字・ひらがな・カタカナ・ハングルの連続は文字 bigram として切り出します。
+ * 日本語は単語の区切りが空白で表れないため、辞書を持たずに部分一致検索ができる bigram を採用しています。
+ */
+public final class Tokenizer {
+
+    private Tokenizer() {
+    }
+
+    public static String normalize(String text) {
+        return normalizeWidth(text).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * NFKC 正規化だけを行います（大文字・小文字は保ちます）。スニペットの表示用に使います。
+     */
+    public static String normalizeWidth(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC);
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String normalized = normalize(text);
+        List<String> terms = new ArrayList<>();
+        int length = normalized.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = normalized.codePointAt(i);
+            if (isCjk(codePoint)) {
+                int start = i;
+                while (i < length && isCjk(normalized.codePointAt(i))) {
+                    i += Character.charCount(normalized.codePointAt(i));
+                }
+                addBigrams(normalized.substring(start, i), terms);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                int start = i;
+                while (i < length) {
+                    int next = normalized.codePointAt(i);
+                    if (!Character.isLetterOrDigit(next) || isCjk(next)) {
+                        break;
+                    }
+                    i += Character.charCount(next);
+                }
+                terms.add(normalized.substring(start, i));
+            } else {
+                i += Character.charCount(codePoint);
+            }
+        }
+        return terms;
+    }
+
+    private static void addBigrams(String run, List<String> terms) {
+        int first = 0;
+        int second = Character.charCount(run.codePointAt(0));
+        if (second == run.length()) {
+            terms.add(run);
+            return;
+        }
+        while (second < run.length()) {
+            int end = second + Character.charCount(run.codePointAt(second));
+            terms.add(run.substring(first, end));
+            first = second;
+            second = end;
+        }
+    }
+
+    private static boolean isCjk(int codePoint) {
+        // 長音記号「ー」は Unicode 上は共通文字だが、カタカナ語の一部として扱う
+        if (codePoint == 0x30FC) {
+            return true;
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
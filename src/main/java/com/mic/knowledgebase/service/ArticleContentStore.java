@@ -0,0 +1,225 @@
+package com.mic.knowledgebase.service;
+
+import com.amazonaws.AmazonClientException;
+import com.mic.knowledgebase.blob.BlobStore;
+import com.mic.knowledgebase.exception.ArticleNotFoundException;
+import com.mic.knowledgebase.exception.DatabaseOperationException;
+import com.mic.knowledgebase.model.Article;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 大きな記事本文を Articles の項目の外 ({@link BlobStore}) に置き、必要なときだけ読み出します。
+ * <p>
+ * 本文が app.content-store.offload-threshold-bytes (UTF-8) 以上の記事は、本文を BlobStore に書き込み、
+ * 項目には本文の代わりに参照 (contentRef) とバイト数 (contentLength) を保存します。
+ * 記事の取得では本文を読まず、{@link #open} で要求されたときにストリームとして読み出します。
+ * <p>
+ * 更新のたびに新しい contentRef で書き込むため、読み取り中の古い本文が上書きされることはありません。
+ * 置き換えられた本文は、更新時に app.content-store.retention-seconds 後の削除を BlobStore に予約します
+ * （{@link BlobStore#expire}）。削除はプロセス内のタイマーに頼らないため、Lambda の実行環境が凍結・破棄されても失われません。
+ * 書き込みに失敗した記事の本文と削除した記事の本文も、同じく期限を現在とした予約で削除します。予約は呼び出したリクエストの
+ * 中で済ませ（非同期版は返す Future の完了前）、応答後に凍結された実行環境に作業が残らないようにします。
+ */
+@Service
+public class ArticleContentStore {
+    private static final Logger logger = LoggerFactory.getLogger(ArticleContentStore.class);
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    @Qualifier("dynamoDBExecutor")
+    private ExecutorService dynamoDBExecutor;
+
+    @Value("${app.content-store.offload-threshold-bytes:65536}")
+    private int offloadThresholdBytes;
+
+    @Value("${app.content-store.retention-seconds:300}")
+    private long retentionSeconds;
+
+    /**
+     * 本文が大きい場合は BlobStore に書き込み、記事の本文を参照に置き換えます。
+     * 小さい場合は参照を消し、本文を項目に保存するようにします。
+     *
+     * @return 書き込んだ本文の contentRef。書き込まなかった場合は null
+     */
+    public String offload(Article article) {
+        String content = article.getContent();
+        article.setContentRef(null);
+        article.setContentLength(null);
+        // UTF-8 では 1 文字 (char) が最大 3 バイトのため、文字数で明らかにしきい値未満と分かる場合はエンコードしない
+        if (content == null || (long) content.length() * 3 < offloadThresholdBytes) {
+            return null;
+        }
+        byte[] utf8 = content.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length < offloadThresholdBytes) {
+            return null;
+        }
+        String contentRef = newContentRef();
+        try {
+            blobStore.put(article.getId(), contentRef, utf8);
+        } catch (AmazonClientException | UncheckedIOException e) {
+            logger.error("Error occurred while storing content of article {}: {}", article.getId(), e.getMessage());
+            throw new DatabaseOperationException("Failed to store article content", e);
+        }
+        logger.debug("Offloaded {} bytes of content of article {}", utf8.length, article.getId());
+        article.setContent(null);
+        article.setContentRef(contentRef);
+        article.setContentLength((long) utf8.length);
+        return contentRef;
+    }
+
+    /**
+     * {@link #offload} を dynamoDBExecutor で行います。本文が小さい場合はその場で完了します。
+     */
+    public CompletableFuture<String> offloadAsync(Article article) {
+        String content = article.getContent();
+        if (content == null || (long) content.length() * 3 < offloadThresholdBytes) {
+            return CompletableFuture.completedFuture(offload(article));
+        }
+        return CompletableFuture.supplyAsync(() -> offload(article), dynamoDBExecutor);
+    }
+
+    /**
+     * 記事の本文を読み出すストリームを返します。本文が項目にある場合はそれを返します。
+     *
+     * @throws ArticleNotFoundException 参照先の本文が削除されている場合
+     */
+    public InputStream open(Article article) {
+        if (article.getContentRef() == null) {
+            String content = article.getContent() != null ? article.getContent() : "";
+            return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+        }
+        try {
+            return blobStore.open(article.getId(), article.getContentRef())
+                    .orElseThrow(() -> new ArticleNotFoundException(
+                            "Content not found for article with ID: " + article.getId()));
+        } catch (AmazonClientException | UncheckedIOException e) {
+            logger.error("Error occurred while reading content of article {}: {}", article.getId(), e.getMessage());
+            throw new DatabaseOperationException("Failed to read article content", e);
+        }
+    }
+
+    /**
+     * 記事の本文を文字列として読み込みます。本文全体をメモリに載せるため、ストリームで返せない場合
+     * （Lambda のレスポンス、エクスポート）にのみ使います。
+     */
+    public String readContent(Article article) {
+        if (article.getContentRef() == null) {
+            return article.getContent();
+        }
+        try (InputStream in = open(article)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new DatabaseOperationException("Failed to read article content", e);
+        }
+    }
+
+    /**
+     * 記事の書き込みに失敗した場合に、そのために書き込んだ本文の削除を予約します。
+     */
+    public void discard(String articleId, String contentRef) {
+        if (contentRef != null) {
+            expire(articleId, contentRef, Instant.now());
+        }
+    }
+
+    /**
+     * {@link #discard} を dynamoDBExecutor で行います。失敗した場合も正常に完了します。
+     */
+    public CompletableFuture<Void> discardAsync(String articleId, String contentRef) {
+        if (contentRef == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> discard(articleId, contentRef), dynamoDBExecutor);
+    }
+
+    /**
+     * 記事の更新後に呼び、更新で置き換えられた本文の削除を保持期間の後に予約します。
+     * 対象は currentContentRef より前に書き込まれた本文で、並行する更新がその後に書き込んだ本文は対象にしません。
+     * 予約済みの本文は {@link BlobStore#list} に現れないため、更新のたびに予約し直すことはありません。
+     * 失敗しても記事の更新は成功しているため、警告を記録して次の更新で改めて予約します。
+     */
+    public void sweep(String articleId, String currentContentRef) {
+        long writtenBefore = currentContentRef != null ? createdAt(currentContentRef) : System.currentTimeMillis();
+        Instant expiresAt = Instant.now().plusSeconds(retentionSeconds);
+        for (String contentRef : list(articleId)) {
+            if (!contentRef.equals(currentContentRef) && createdAt(contentRef) < writtenBefore) {
+                expire(articleId, contentRef, expiresAt);
+            }
+        }
+    }
+
+    /**
+     * {@link #sweep} を dynamoDBExecutor で行います。失敗した場合も正常に完了します。
+     */
+    public CompletableFuture<Void> sweepAsync(String articleId, String currentContentRef) {
+        return CompletableFuture.runAsync(() -> sweep(articleId, currentContentRef), dynamoDBExecutor);
+    }
+
+    /**
+     * 削除した記事の本文すべての削除を予約します。
+     */
+    public void deleteAll(String articleId) {
+        Instant now = Instant.now();
+        for (String contentRef : list(articleId)) {
+            expire(articleId, contentRef, now);
+        }
+    }
+
+    /**
+     * {@link #deleteAll} を dynamoDBExecutor で行います。失敗した場合も正常に完了します。
+     */
+    public CompletableFuture<Void> deleteAllAsync(String articleId) {
+        return CompletableFuture.runAsync(() -> deleteAll(articleId), dynamoDBExecutor);
+    }
+
+    private List<String> list(String articleId) {
+        try {
+            return blobStore.list(articleId);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to list content of article {}: {}", articleId, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void expire(String articleId, String contentRef, Instant expiresAt) {
+        try {
+            blobStore.expire(articleId, contentRef, expiresAt);
+            logger.debug("Content {} of article {} expires at {}", contentRef, articleId, expiresAt);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to expire content {} of article {}: {}", contentRef, articleId, e.getMessage());
+        }
+    }
+
+    /**
+     * 書き込み時刻（エポックミリ秒 13 桁）で始まる contentRef を作ります。
+     */
+    static String newContentRef() {
+        return String.format("%013d-%s", System.currentTimeMillis(), UUID.randomUUID());
+    }
+
+    static long createdAt(String contentRef) {
+        try {
+            return Long.parseLong(contentRef.substring(0, 13));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+}
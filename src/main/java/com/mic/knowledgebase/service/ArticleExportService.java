@@ -0,0 +1,76 @@
+package com.mic.knowledgebase.service;
+
+import com.amazonaws.AmazonServiceException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mic.knowledgebase.exception.DatabaseOperationException;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.repository.ArticleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Articles テーブル全体を NDJSON (1 行 1 記事) としてストリーム出力します。
+ * 並列スキャンの結果を読み取りながら書き出すため、テーブルの大きさに関係なくメモリ使用量は一定です。
+ * 本文を BlobStore に置いた記事は本文を読み込んで出力するため、エクスポートした NDJSON はそのままインポートできます。
+ */
+@Service
+public class ArticleExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ArticleExportService.class);
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ArticleContentStore articleContentStore;
+
+    @Value("${app.export.flush-interval:100}")
+    private int flushInterval;
+
+    /**
+     * 全記事を NDJSON として書き出します。{@code flushInterval} 件ごとに出力をフラッシュします。
+     *
+     * @param out 出力先（このメソッドでは close しません）
+     * @return 書き出した記事の件数
+     */
+    public long exportAsNdjson(OutputStream out) throws IOException {
+        logger.debug("Exporting all articles as NDJSON");
+        ObjectWriter writer = objectMapper.writerFor(Article.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+                Stream<Article> scan = articleRepository.parallelScan()) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<Article> articles = scan.iterator();
+            while (articles.hasNext()) {
+                Article article = articles.next();
+                if (article.getContentRef() != null) {
+                    article.setContent(articleContentStore.readContent(article));
+                }
+                writer.writeValue(generator, article);
+                generator.writeRaw('\n');
+                if (++count % flushInterval == 0) {
+                    generator.flush();
+                }
+            }
+        } catch (AmazonServiceException e) {
+            logger.error("Error occurred while exporting articles after {} items: {}", count, e.getMessage());
+            throw new DatabaseOperationException("Failed to export articles", e);
+        }
+        logger.debug("Exported {} articles", count);
+        return count;
+    }
+}
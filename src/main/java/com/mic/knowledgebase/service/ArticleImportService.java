@@ -0,0 +1,82 @@
+package com.mic.knowledgebase.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.model.BatchItemResult;
+import com.mic.knowledgebase.model.BatchWriteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON 配列または NDJSON で送られた大量の記事を一括作成します。
+ * 入力を逐次パースし、一定件数 (app.import.window-size) ごとに {@link ArticleService#createArticles} へ渡すため、
+ * リクエスト全体をメモリに保持しません。
+ * <p>
+ * 途中の記事が JSON として解釈できない場合は、それより前の記事は作成済み（または作成する）ため、そこで読み取りをやめ、
+ * それまでの結果に解釈できなかった位置の FAILED を加えて返します。クライアントは結果から作成済みの記事を判断でき、
+ * 残りだけを送り直せます。
+ */
+@Service
+public class ArticleImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ArticleImportService.class);
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.import.window-size:500}")
+    private int windowSize;
+
+    /**
+     * 入力ストリームから記事を読み取り、一括作成します。
+     * ルートが JSON 配列の場合は各要素を、そうでない場合は改行区切りの JSON オブジェクトを 1 記事として扱います。
+     *
+     * @param in リクエストボディ
+     * @return 記事ごとの作成結果。途中で解釈できない記事があった場合は、その位置の FAILED で終わります
+     * @throws IOException 先頭の記事から JSON として解釈できない場合（何も作成していません）
+     */
+    public BatchWriteResult importArticles(InputStream in) throws IOException {
+        BatchWriteResult result = new BatchWriteResult();
+        List<Article> window = new ArrayList<>(windowSize);
+        int index = 0;
+        try (MappingIterator<Article> articles = objectMapper.readerFor(Article.class).readValues(in)) {
+            while (articles.hasNextValue()) {
+                window.add(articles.nextValue());
+                if (window.size() == windowSize) {
+                    articleService.createArticles(window, index).forEach(result::add);
+                    index += window.size();
+                    window = new ArrayList<>(windowSize);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            int failedIndex = index + window.size();
+            if (failedIndex == 0) {
+                throw e;
+            }
+            logger.warn("Stopped importing at item {}: {}", failedIndex, e.getOriginalMessage());
+            if (!window.isEmpty()) {
+                articleService.createArticles(window, index).forEach(result::add);
+            }
+            result.add(new BatchItemResult(failedIndex, null, BatchItemResult.FAILED,
+                    "Invalid JSON: " + e.getOriginalMessage() + " (this and the following items were not imported)"));
+            return result;
+        }
+        if (!window.isEmpty()) {
+            articleService.createArticles(window, index).forEach(result::add);
+        }
+        logger.debug("Imported articles: {} succeeded, {} failed", result.getSucceeded(), result.getFailed());
+        return result;
+    }
+}
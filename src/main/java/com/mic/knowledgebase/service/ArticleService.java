@@ -1,35 +1,88 @@
 package com.mic.knowledgebase.service;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
 import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
+import com.mic.knowledgebase.cache.ArticleCache;
+import com.mic.knowledgebase.event.ArticleChangedEvent;
 import com.mic.knowledgebase.exception.ArticleNotFoundException;
+import com.mic.knowledgebase.exception.BadRequestException;
 import com.mic.knowledgebase.exception.DatabaseOperationException;
+import com.mic.knowledgebase.exception.PreconditionFailedException;
 import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.model.ArticleFields;
+import com.mic.knowledgebase.model.ArticlePage;
+import com.mic.knowledgebase.model.BatchItemResult;
+import com.mic.knowledgebase.model.MultiGetResult;
 import com.mic.knowledgebase.repository.ArticleRepository;
+import com.mic.knowledgebase.util.PageTokenCodec;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+/**
+ * 記事の取得・作成・更新・削除を行います。
+ * 各メソッドの処理時間は article.service タイマー（class/method/exception タグ付き）として記録されます。
+ */
 @Service
+@Timed(value = "article.service", description = "ArticleService method latency")
 public class ArticleService {
     private static final Logger logger = LoggerFactory.getLogger(ArticleService.class);
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_MULTI_GET_IDS = 1000;
+
+    /**
+     * updateArticle で書き換える属性。createdAt は作成時の値を保ちます。updatedAtMillis は updatedAt から計算されます。
+     * 本文を項目に置く場合、contentRef と contentLength は null（属性の削除）になります。
+     * recentShard は ID から決まる値ですが、この属性を持たない既存の記事も RecentIndex に載るよう毎回書き込みます。
+     */
+    static final List<String> UPDATABLE_ATTRIBUTES = List.of("title", "content", "contentRef", "contentLength",
+            "updatedAt", "updatedAtMillis", "recentShard");
+
     @Autowired
     private ArticleRepository articleRepository;
 
+    @Autowired
+    private ArticleCache articleCache;
+
+    @Autowired
+    private ArticleContentStore articleContentStore;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<Article> getAllArticles() {
-        logger.info("Fetching all articles");
+        return getAllArticles(ArticleFields.ALL);
+    }
+
+    /**
+     * 全ての記事の fields の属性だけを取得します。本文を含めない場合、DynamoDB から本文を読み取りません。
+     */
+    public List<Article> getAllArticles(ArticleFields fields) {
+        logger.debug("Fetching all articles (fields: {})", fields.names());
         List<Article> articles = new ArrayList<>();
-        try {
-            articleRepository.findAll().forEach(articles::add);
-            logger.info("Fetched {} articles successfully", articles.size());
+        try (Stream<Article> scan = articleRepository.parallelScan(fields)) {
+            scan.forEach(articles::add);
+            logger.debug("Fetched {} articles successfully", articles.size());
             return articles;
         } catch (AmazonServiceException e) {
             logger.error("Error occurred while fetching all articles: {}", e.getMessage());
@@ -37,12 +90,70 @@ public class ArticleService {
         }
     }
 
+    /**
+     * 記事を 1 ページ分だけ取得します。
+     * テーブル全体を読み込まず、DynamoDB の LastEvaluatedKey を元にしたトークンで続きのページを取得できます。
+     *
+     * @param limit     1 ページの最大件数（null の場合は既定値、上限は {@link #MAX_PAGE_SIZE}）
+     * @param pageToken 前ページのレスポンスに含まれる nextPageToken（先頭ページの場合は null）
+     */
+    public ArticlePage getArticlesPage(Integer limit, String pageToken) {
+        return getArticlesPage(limit, pageToken, ArticleFields.ALL);
+    }
+
+    /**
+     * 記事を 1 ページ分だけ、fields の属性に絞って取得します。
+     */
+    public ArticlePage getArticlesPage(Integer limit, String pageToken, ArticleFields fields) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Map<String, AttributeValue> exclusiveStartKey = PageTokenCodec.decode(pageToken);
+        logger.debug("Fetching articles page (limit: {})", pageSize);
+        try {
+            ScanResultPage<Article> page = articleRepository.scanPage(pageSize, exclusiveStartKey, fields);
+            List<Article> articles = new ArrayList<>(page.getResults());
+            logger.debug("Fetched {} articles in page", articles.size());
+            return new ArticlePage(articles, PageTokenCodec.encode(page.getLastEvaluatedKey()));
+        } catch (AmazonServiceException e) {
+            logger.error("Error occurred while fetching articles page: {}", e.getMessage());
+            throw new DatabaseOperationException("Failed to fetch articles", e);
+        }
+    }
+
+    /**
+     * 更新日時の新しい順に記事を 1 ページ分取得します。
+     * RecentIndex のシャードごとに limit 件までしか読まないため、テーブルの件数に関係なく一定の時間で返します。
+     *
+     * @param limit     1 ページの最大件数（null の場合は既定値、上限は {@link #MAX_PAGE_SIZE}）
+     * @param pageToken 前ページのレスポンスに含まれる nextPageToken（先頭ページの場合は null）
+     */
+    public ArticlePage getRecentArticles(Integer limit, String pageToken, ArticleFields fields) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Map<String, AttributeValue> cursor = PageTokenCodec.decode(pageToken);
+        logger.debug("Fetching recently updated articles (limit: {})", pageSize);
+        try {
+            QueryResultPage<Article> page = articleRepository.findRecent(pageSize, cursor, fields);
+            List<Article> articles = new ArrayList<>(page.getResults());
+            logger.debug("Fetched {} recently updated articles", articles.size());
+            return new ArticlePage(articles, PageTokenCodec.encode(page.getLastEvaluatedKey()));
+        } catch (AmazonClientException e) {
+            logger.error("Error occurred while fetching recently updated articles: {}", e.getMessage());
+            throw new DatabaseOperationException("Failed to fetch articles", e);
+        }
+    }
+
     public Article getArticleById(String id) {
-        logger.info("Fetching article with ID: {}", id);
+        logger.debug("Fetching article with ID: {}", id);
+        Article cached = articleCache.get(id);
+        if (cached != null) {
+            logger.debug("Article served from cache: {}", id);
+            return cached;
+        }
         try {
+            long loadGeneration = articleCache.beginLoad();
             Optional<Article> article = articleRepository.findById(id);
             if (article.isPresent()) {
-                logger.info("Article found: {}", article.get().getTitle());
+                logger.debug("Article found: {}", article.get().getTitle());
+                articleCache.putIfFresh(article.get(), loadGeneration);
                 return article.get();
             } else {
                 logger.warn("Article not found with ID: {}", id);
@@ -57,14 +168,107 @@ public class ArticleService {
         }
     }
 
+    /**
+     * 複数の記事を ID で一括取得します。
+     * 結果はリクエストされた ID の順序を保ち（重複は 1 件にまとめます）、存在しない ID は missingIds として返します。
+     *
+     * @param ids 取得する記事の ID（最大 {@link #MAX_MULTI_GET_IDS} 件）
+     */
+    public MultiGetResult getArticlesByIds(List<String> ids) {
+        return getArticlesByIds(ids, ArticleFields.ALL);
+    }
+
+    /**
+     * 複数の記事を ID で一括取得し、fields の属性だけを返します。
+     */
+    public MultiGetResult getArticlesByIds(List<String> ids, ArticleFields fields) {
+        Set<String> uniqueIds = uniqueIds(ids);
+        logger.debug("Fetching {} articles by ID", uniqueIds.size());
+        try {
+            Map<String, Article> found = uniqueIds.isEmpty() ? Map.of() : articleRepository.batchGet(uniqueIds, fields);
+            return multiGetResult(uniqueIds, found);
+        } catch (AmazonClientException e) {
+            logger.error("Error occurred while fetching articles by ID: {}", e.getMessage());
+            throw new DatabaseOperationException("Failed to fetch articles", e);
+        }
+    }
+
+    /**
+     * 一括取得する ID から空の ID と重複を除きます（順序は保ちます）。
+     *
+     * @throws BadRequestException ID が {@link #MAX_MULTI_GET_IDS} 件を超える場合
+     */
+    static Set<String> uniqueIds(List<String> ids) {
+        Set<String> uniqueIds = new LinkedHashSet<>();
+        for (String id : ids) {
+            if (id != null && !id.isBlank()) {
+                uniqueIds.add(id.trim());
+            }
+        }
+        if (uniqueIds.size() > MAX_MULTI_GET_IDS) {
+            throw new BadRequestException("Too many IDs: at most " + MAX_MULTI_GET_IDS + " are allowed");
+        }
+        return uniqueIds;
+    }
+
+    /**
+     * 一括取得の結果を、リクエストされた ID の順に見つかった記事と見つからなかった ID に分けます。
+     */
+    static MultiGetResult multiGetResult(Set<String> uniqueIds, Map<String, Article> found) {
+        List<Article> articles = new ArrayList<>(found.size());
+        List<String> missingIds = new ArrayList<>();
+        for (String id : uniqueIds) {
+            Article article = found.get(id);
+            if (article != null) {
+                articles.add(article);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        logger.debug("Fetched {} articles, {} missing", articles.size(), missingIds.size());
+        return new MultiGetResult(articles, missingIds);
+    }
+
+    /**
+     * タイトルが完全一致する記事を TitleIndex のクエリで取得します。
+     */
+    public List<Article> getArticlesByTitle(String title) {
+        return getArticlesByTitle(title, ArticleFields.ALL);
+    }
+
+    /**
+     * タイトルが完全一致する記事を、fields の属性に絞って取得します。
+     */
+    public List<Article> getArticlesByTitle(String title, ArticleFields fields) {
+        logger.debug("Fetching articles with title: {}", title);
+        try {
+            List<Article> articles = articleRepository.findByTitle(title, fields);
+            logger.debug("Fetched {} articles with title", articles.size());
+            return articles;
+        } catch (AmazonServiceException e) {
+            logger.error("Error occurred while fetching articles by title: {}", e.getMessage());
+            throw new DatabaseOperationException("Failed to fetch articles", e);
+        }
+    }
+
     public Article createArticle(Article article) {
-        logger.info("Creating new article: {}", article.getTitle());
+        logger.debug("Creating new article: {}", article.getTitle());
         try {
             article.setId(UUID.randomUUID().toString());
             article.setCreatedAt(LocalDateTime.now());
             article.setUpdatedAt(LocalDateTime.now());
-            Article savedArticle = articleRepository.save(article);
-            logger.info("Article created successfully with ID: {}", savedArticle.getId());
+            // バージョンは DynamoDBMapper が 1 を割り当てます
+            article.setVersion(null);
+            String contentRef = articleContentStore.offload(article);
+            Article savedArticle;
+            try {
+                savedArticle = articleRepository.save(article);
+            } catch (RuntimeException e) {
+                articleContentStore.discard(article.getId(), contentRef);
+                throw e;
+            }
+            eventPublisher.publishEvent(ArticleChangedEvent.created(savedArticle));
+            logger.debug("Article created successfully with ID: {}", savedArticle.getId());
             return savedArticle;
         } catch (AmazonServiceException e) {
             logger.error("Error occurred while creating article: {}", e.getMessage());
@@ -72,22 +276,83 @@ public class ArticleService {
         }
     }
 
-    public Article updateArticle(String id, Article articleDetails) {
-        logger.info("Updating article with ID: {}", id);
+    /**
+     * 複数の記事をまとめて作成します。
+     * 各記事に ID と作成日時を割り当て、BatchWriteItem で一括書き込みします。
+     *
+     * @param articles   作成する記事
+     * @param startIndex 結果に記録するリクエスト内の先頭位置
+     * @return 記事ごとの作成結果（入力と同じ順序）
+     */
+    public List<BatchItemResult> createArticles(List<Article> articles, int startIndex) {
+        logger.debug("Creating {} articles in batch", articles.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (Article article : articles) {
+            article.setId(UUID.randomUUID().toString());
+            article.setCreatedAt(now);
+            article.setUpdatedAt(now);
+            // BatchWriteItem では DynamoDBMapper がバージョンを割り当てないため、ここで初期値を設定します
+            article.setVersion(1L);
+            articleContentStore.offload(article);
+        }
+        Map<String, String> failures;
         try {
-            Optional<Article> articleOptional = articleRepository.findById(id);
-            if (articleOptional.isPresent()) {
-                Article existingArticle = articleOptional.get();
-                existingArticle.setTitle(articleDetails.getTitle());
-                existingArticle.setContent(articleDetails.getContent());
-                existingArticle.setUpdatedAt(LocalDateTime.now());
-                Article updatedArticle = articleRepository.save(existingArticle);
-                logger.info("Article updated successfully: {}", updatedArticle.getTitle());
-                return updatedArticle;
+            failures = articleRepository.batchPut(articles);
+        } catch (AmazonServiceException e) {
+            logger.error("Error occurred while creating articles in batch: {}", e.getMessage());
+            articles.forEach(article -> articleContentStore.discard(article.getId(), article.getContentRef()));
+            throw new DatabaseOperationException("Failed to create articles", e);
+        }
+        List<BatchItemResult> results = new ArrayList<>(articles.size());
+        for (int i = 0; i < articles.size(); i++) {
+            String id = articles.get(i).getId();
+            String error = failures.get(id);
+            if (error == null) {
+                eventPublisher.publishEvent(ArticleChangedEvent.created(articles.get(i)));
             } else {
-                logger.warn("Article not found for update with ID: {}", id);
-                throw new ArticleNotFoundException("Article not found with ID: " + id);
+                articleContentStore.discard(id, articles.get(i).getContentRef());
+            }
+            results.add(error == null
+                    ? new BatchItemResult(startIndex + i, id, BatchItemResult.CREATED, null)
+                    : new BatchItemResult(startIndex + i, null, BatchItemResult.FAILED, error));
+        }
+        logger.debug("Batch create finished: {} succeeded, {} failed", articles.size() - failures.size(),
+                failures.size());
+        return results;
+    }
+
+    /**
+     * 記事のタイトルと本文を更新します。
+     * 存在確認と書き込みを条件付きの UpdateItem 1 回で行うため、読み取りとの間で競合が起きません。
+     */
+    public Article updateArticle(String id, Article articleDetails) {
+        return updateArticle(id, articleDetails, null);
+    }
+
+    /**
+     * 記事のタイトルと本文を、現在のバージョンが expectedVersion の場合のみ更新します。
+     *
+     * @param expectedVersion クライアントが最後に読み取ったバージョン（If-Match）。null の場合は確認しません
+     * @throws PreconditionFailedException 他の更新によりバージョンが変わっていた場合
+     */
+    public Article updateArticle(String id, Article articleDetails, Long expectedVersion) {
+        logger.debug("Updating article with ID: {}", id);
+        try {
+            Article changes = changes(id, articleDetails);
+            String contentRef = articleContentStore.offload(changes);
+            Article updatedArticle;
+            try {
+                updatedArticle = articleRepository.updateIfExists(changes, UPDATABLE_ATTRIBUTES, expectedVersion);
+            } catch (RuntimeException e) {
+                articleContentStore.discard(id, contentRef);
+                throw e;
             }
+            articleContentStore.sweep(id, contentRef);
+            eventPublisher.publishEvent(ArticleChangedEvent.updated(updatedArticle));
+            logger.debug("Article updated successfully: {}", updatedArticle.getTitle());
+            return updatedArticle;
+        } catch (ConditionalCheckFailedException e) {
+            throw conditionFailed(id, expectedVersion, e);
         } catch (ResourceNotFoundException e) {
             logger.error("Error occurred while updating article: {}", e.getMessage());
             throw new ArticleNotFoundException("Article not found with ID: " + id, e);
@@ -97,16 +362,40 @@ public class ArticleService {
         }
     }
 
+    /**
+     * updateArticle で書き込む属性 ({@link #UPDATABLE_ATTRIBUTES}) の値を持つ記事を作ります。
+     */
+    static Article changes(String id, Article articleDetails) {
+        Article changes = new Article();
+        changes.setId(id);
+        changes.setTitle(articleDetails.getTitle());
+        changes.setContent(articleDetails.getContent());
+        changes.setUpdatedAt(LocalDateTime.now());
+        return changes;
+    }
+
+    /**
+     * 記事を削除します。存在確認と削除を条件付きの DeleteItem 1 回で行います。
+     */
     public void deleteArticle(String id) {
-        logger.info("Deleting article with ID: {}", id);
+        deleteArticle(id, null);
+    }
+
+    /**
+     * 記事を、現在のバージョンが expectedVersion の場合のみ削除します。
+     *
+     * @param expectedVersion クライアントが最後に読み取ったバージョン（If-Match）。null の場合は確認しません
+     * @throws PreconditionFailedException 他の更新によりバージョンが変わっていた場合
+     */
+    public void deleteArticle(String id, Long expectedVersion) {
+        logger.debug("Deleting article with ID: {}", id);
         try {
-            if (articleRepository.existsById(id)) {
-                articleRepository.deleteById(id);
-                logger.info("Article deleted successfully with ID: {}", id);
-            } else {
-                logger.warn("Article not found for deletion with ID: {}", id);
-                throw new ArticleNotFoundException("Article not found with ID: " + id);
-            }
+            articleRepository.deleteIfExists(id, expectedVersion);
+            articleContentStore.deleteAll(id);
+            eventPublisher.publishEvent(ArticleChangedEvent.deleted(id));
+            logger.debug("Article deleted successfully with ID: {}", id);
+        } catch (ConditionalCheckFailedException e) {
+            throw conditionFailed(id, expectedVersion, e);
         } catch (ResourceNotFoundException e) {
             logger.error("Error occurred while deleting article: {}", e.getMessage());
             throw new ArticleNotFoundException("Article not found with ID: " + id, e);
@@ -115,4 +404,17 @@ public class ArticleService {
             throw new DatabaseOperationException("Failed to delete article", e);
         }
     }
+
+    /**
+     * 条件付き書き込みの失敗を、記事が存在しない場合とバージョンが一致しない場合に振り分けます。
+     * 失敗時の項目 (ReturnValuesOnConditionCheckFailure=ALL_OLD) が返っていれば記事は存在しています。
+     */
+    static RuntimeException conditionFailed(String id, Long expectedVersion, ConditionalCheckFailedException e) {
+        if (expectedVersion != null && e.getItem() != null && !e.getItem().isEmpty()) {
+            logger.warn("Version conflict on article {} (expected version: {})", id, expectedVersion);
+            return new PreconditionFailedException("Article " + id + " has been modified", e);
+        }
+        logger.warn("Article not found with ID: {}", id);
+        return new ArticleNotFoundException("Article not found with ID: " + id, e);
+    }
 }
@@ -0,0 +1,207 @@
+package com.mic.knowledgebase.service;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
+import com.mic.knowledgebase.cache.ArticleCache;
+import com.mic.knowledgebase.event.ArticleChangedEvent;
+import com.mic.knowledgebase.exception.ArticleNotFoundException;
+import com.mic.knowledgebase.exception.DatabaseOperationException;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.model.MultiGetResult;
+import com.mic.knowledgebase.repository.AsyncArticleRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * {@link ArticleService} の記事単位の操作を、非同期の DynamoDB クライアントで行う版。
+ * <p>
+ * 各メソッドは CompletableFuture を返し、DynamoDB の応答を待つ間スレッドを占有しません。
+ * キャッシュ、イベントの発行、例外（ArticleNotFoundException、PreconditionFailedException、
+ * DatabaseOperationException）は同期版と同じで、失敗した Future はこれらを原因に持つ CompletionException で完了します。
+ * 処理時間は article.service タイマーに Future の完了までの時間として記録されます。
+ * <p>
+ * SDK v2 の Future は Netty のイベントループのスレッドで完了するため、本文の削除の予約やイベントの発行
+ * （同期的に呼ばれるキャッシュや検索インデックスのリスナー）は dynamoDBExecutor に移してから行い、
+ * イベントループを塞がないようにします。
+ * <p>
+ * 同期版を残しているのは Lambda のハンドラー (MainLambdaFunction) のためです。Lambda の実行環境は一度に 1 リクエストしか
+ * 処理せず、ハンドラーも応答を戻り値で返すため、スレッドを解放しても同時に処理できるリクエストは増えません。
+ * 非同期版はスレッドを解放する効果があるサーブレットのコントローラーだけが使います。入力の検証、更新する属性、条件付き書き込みの失敗の振り分けは {@link ArticleService} の
+ * static メソッドを共有し、2 つの経路で書き込む内容と例外が変わらないようにしています。
+ */
+@Service
+@Timed(value = "article.service", description = "ArticleService method latency")
+public class AsyncArticleService {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncArticleService.class);
+
+    @Autowired
+    private AsyncArticleRepository asyncArticleRepository;
+
+    @Autowired
+    private ArticleCache articleCache;
+
+    @Autowired
+    private ArticleContentStore articleContentStore;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    @Qualifier("dynamoDBExecutor")
+    private ExecutorService dynamoDBExecutor;
+
+    public CompletableFuture<Article> getArticleById(String id) {
+        logger.debug("Fetching article with ID: {}", id);
+        Article cached = articleCache.get(id);
+        if (cached != null) {
+            logger.debug("Article served from cache: {}", id);
+            return CompletableFuture.completedFuture(cached);
+        }
+        long loadGeneration = articleCache.beginLoad();
+        return mapErrors(asyncArticleRepository.findById(id).thenApply(article -> {
+            if (article.isEmpty()) {
+                logger.warn("Article not found with ID: {}", id);
+                throw new ArticleNotFoundException("Article not found with ID: " + id);
+            }
+            logger.debug("Article found: {}", article.get().getTitle());
+            articleCache.putIfFresh(article.get(), loadGeneration);
+            return article.get();
+        }), e -> {
+            if (e instanceof ResourceNotFoundException) {
+                logger.error("Error occurred while fetching article: {}", e.getMessage());
+                return new ArticleNotFoundException("Article not found with ID: " + id, e);
+            }
+            return databaseError(e, "Error occurred while fetching article: {}", "Failed to fetch article");
+        });
+    }
+
+    /**
+     * 複数の記事を ID で一括取得します。結果の形式と ID の制限は {@link ArticleService#getArticlesByIds} と同じです。
+     */
+    public CompletableFuture<MultiGetResult> getArticlesByIds(List<String> ids) {
+        Set<String> uniqueIds = ArticleService.uniqueIds(ids);
+        logger.debug("Fetching {} articles by ID", uniqueIds.size());
+        CompletableFuture<Map<String, Article>> found = uniqueIds.isEmpty()
+                ? CompletableFuture.completedFuture(Map.of()) : asyncArticleRepository.batchGet(uniqueIds);
+        return mapErrors(found.thenApply(articles -> ArticleService.multiGetResult(uniqueIds, articles)),
+                e -> databaseError(e, "Error occurred while fetching articles by ID: {}", "Failed to fetch articles"));
+    }
+
+    public CompletableFuture<Article> createArticle(Article article) {
+        logger.debug("Creating new article: {}", article.getTitle());
+        LocalDateTime now = LocalDateTime.now();
+        article.setId(UUID.randomUUID().toString());
+        article.setCreatedAt(now);
+        article.setUpdatedAt(now);
+        // 大きな本文は先に BlobStore に書き込み、記事の書き込みに失敗した場合は削除します
+        CompletableFuture<Article> created = articleContentStore.offloadAsync(article)
+                .thenCompose(contentRef -> discardOnFailure(asyncArticleRepository.create(article), article.getId(),
+                        contentRef));
+        return mapErrors(created.thenApplyAsync(savedArticle -> {
+            eventPublisher.publishEvent(ArticleChangedEvent.created(savedArticle));
+            logger.debug("Article created successfully with ID: {}", savedArticle.getId());
+            return savedArticle;
+        }, dynamoDBExecutor), e -> databaseError(e, "Error occurred while creating article: {}", "Failed to create article"));
+    }
+
+    /**
+     * 記事のタイトルと本文を、現在のバージョンが expectedVersion の場合のみ更新します。
+     *
+     * @param expectedVersion クライアントが最後に読み取ったバージョン（If-Match）。null の場合は確認しません
+     */
+    public CompletableFuture<Article> updateArticle(String id, Article articleDetails, Long expectedVersion) {
+        logger.debug("Updating article with ID: {}", id);
+        Article changes = ArticleService.changes(id, articleDetails);
+        CompletableFuture<Article> updated = articleContentStore.offloadAsync(changes)
+                .thenCompose(contentRef -> discardOnFailure(asyncArticleRepository
+                        .updateIfExists(changes, ArticleService.UPDATABLE_ATTRIBUTES, expectedVersion), id, contentRef)
+                        // 置き換えた本文の削除の予約が済んでから完了させる（Lambda が応答後に凍結されても失われない）
+                        .thenCompose(article -> articleContentStore.sweepAsync(id, contentRef)
+                                .thenApply(swept -> article)));
+        return mapErrors(updated.thenApplyAsync(updatedArticle -> {
+            eventPublisher.publishEvent(ArticleChangedEvent.updated(updatedArticle));
+            logger.debug("Article updated successfully: {}", updatedArticle.getTitle());
+            return updatedArticle;
+        }, dynamoDBExecutor), e -> writeError(e, id, expectedVersion, "updating", "Failed to update article"));
+    }
+
+    /**
+     * 記事を、現在のバージョンが expectedVersion の場合のみ削除します。
+     *
+     * @param expectedVersion クライアントが最後に読み取ったバージョン（If-Match）。null の場合は確認しません
+     */
+    public CompletableFuture<Void> deleteArticle(String id, Long expectedVersion) {
+        logger.debug("Deleting article with ID: {}", id);
+        return mapErrors(asyncArticleRepository.deleteIfExists(id, expectedVersion)
+                .thenCompose(deleted -> articleContentStore.deleteAllAsync(id)).thenRunAsync(() -> {
+            eventPublisher.publishEvent(ArticleChangedEvent.deleted(id));
+            logger.debug("Article deleted successfully with ID: {}", id);
+        }, dynamoDBExecutor), e -> writeError(e, id, expectedVersion, "deleting", "Failed to delete article"));
+    }
+
+    /**
+     * 記事の書き込みが失敗した場合は、そのために書き込んだ本文の削除を予約してから同じ原因で失敗させます。
+     */
+    private <T> CompletableFuture<T> discardOnFailure(CompletableFuture<T> write, String articleId,
+            String contentRef) {
+        return write.handle((value, error) -> error == null
+                ? CompletableFuture.completedFuture(value)
+                : articleContentStore.discardAsync(articleId, contentRef)
+                        .thenCompose(discarded -> CompletableFuture.<T>failedFuture(error)))
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * 条件付き書き込みの失敗を {@link ArticleService#conditionFailed} と同じ規則で振り分けます。
+     */
+    private static Throwable writeError(Throwable e, String id, Long expectedVersion, String action,
+            String message) {
+        if (e instanceof ConditionalCheckFailedException conditionFailed) {
+            return ArticleService.conditionFailed(id, expectedVersion, conditionFailed);
+        }
+        if (e instanceof ResourceNotFoundException) {
+            logger.error("Error occurred while {} article: {}", action, e.getMessage());
+            return new ArticleNotFoundException("Article not found with ID: " + id, e);
+        }
+        return databaseError(e, "Error occurred while " + action + " article: {}", message);
+    }
+
+    private static Throwable databaseError(Throwable e, String logFormat, String message) {
+        if (e instanceof AmazonClientException) {
+            logger.error(logFormat, e.getMessage());
+            return new DatabaseOperationException(message, e);
+        }
+        return e;
+    }
+
+    /**
+     * 失敗の原因を mapper で置き換えます。mapper は原因をそのまま返しても構いません。
+     */
+    private static <T> CompletableFuture<T> mapErrors(CompletableFuture<T> future,
+            Function<Throwable, Throwable> mapper) {
+        return future.handle((value, error) -> {
+            if (error == null) {
+                return value;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            throw new CompletionException(mapper.apply(cause));
+        });
+    }
+}
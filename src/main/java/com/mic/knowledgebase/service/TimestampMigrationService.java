@@ -0,0 +1,228 @@
+package com.mic.knowledgebase.service;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.util.Timestamps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * createdAt / updatedAt を旧形式（"yyyy-MM-dd HH:mm:ss" など）で保存している記事を、その場で ISO 形式に書き換えるジョブ。
+ * あわせて数値属性 createdAtMillis / updatedAtMillis がない、または日時と一致しない記事に値を設定し、
+ * RecentIndex のシャード (recentShard) がない、または ID から計算した値と異なる記事にシャードを設定します。
+ * <p>
+ * app.migration.timestamps.enabled=true で起動した場合のみ、起動時に 1 回実行します。
+ * テーブルを並列スキャンし、変更が必要な記事だけを UpdateItem で更新します。更新は「スキャン時の値のまま」を
+ * 条件にするため、その間に API から更新された記事は上書きしません（API の書き込みは常に新形式です）。
+ * 日時の値自体は変わらないため version は増やしません。何度実行しても結果は同じです。
+ */
+@Service
+@ConditionalOnProperty(name = "app.migration.timestamps.enabled", havingValue = "true")
+public class TimestampMigrationService implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(TimestampMigrationService.class);
+
+    private static final String TABLE_NAME = Article.class.getAnnotation(DynamoDBTable.class).tableName();
+    private static final List<String> TIMESTAMP_ATTRIBUTES = List.of("createdAt", "updatedAt");
+    private static final String MILLIS_SUFFIX = "Millis";
+    private static final String SHARD_ATTRIBUTE = "recentShard";
+
+    private final Article.LocalDateTimeConverter converter = new Article.LocalDateTimeConverter();
+
+    @Autowired
+    private AmazonDynamoDB amazonDynamoDB;
+
+    @Autowired
+    @Qualifier("dynamoDBScanExecutor")
+    private ExecutorService dynamoDBScanExecutor;
+
+    @Value("${app.dynamodb.parallel-scan.segments:4}")
+    private int segments;
+
+    @Value("${app.migration.timestamps.page-size:100}")
+    private int pageSize;
+
+    @Value("${app.migration.timestamps.dry-run:false}")
+    private boolean dryRun;
+
+    /**
+     * 移行の結果。
+     *
+     * @param scanned  読み取った記事数
+     * @param migrated 書き換えた（ドライランでは書き換えが必要な）記事数
+     * @param skipped  スキャン後に更新されていたため書き換えなかった記事数
+     * @param failed   日時を解析できなかった記事数
+     */
+    public record Result(long scanned, long migrated, long skipped, long failed) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        logger.info("Starting timestamp migration (segments: {}, dryRun: {})", segments, dryRun);
+        long start = System.nanoTime();
+        Result result = migrate(dryRun);
+        logger.info("Timestamp migration finished in {} ms: {}", (System.nanoTime() - start) / 1_000_000, result);
+    }
+
+    /**
+     * テーブル全体を移行します。
+     *
+     * @param dryRun true の場合は書き込まずに件数だけを数えます
+     */
+    public Result migrate(boolean dryRun) {
+        Counters counters = new Counters();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int segment = 0; segment < segments; segment++) {
+            final int segmentNumber = segment;
+            futures.add(dynamoDBScanExecutor.submit(() -> migrateSegment(segmentNumber, dryRun, counters)));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Timestamp migration was interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof RuntimeException runtime ? runtime
+                    : new IllegalStateException("Timestamp migration failed", e.getCause());
+        }
+        return counters.toResult();
+    }
+
+    private void migrateSegment(int segment, boolean dryRun, Counters counters) {
+        Map<String, String> names = new HashMap<>();
+        names.put("#id", "id");
+        List<String> projection = new ArrayList<>(List.of("#id"));
+        for (int i = 0; i < TIMESTAMP_ATTRIBUTES.size(); i++) {
+            names.put("#t" + i, TIMESTAMP_ATTRIBUTES.get(i));
+            names.put("#m" + i, TIMESTAMP_ATTRIBUTES.get(i) + MILLIS_SUFFIX);
+            projection.add("#t" + i);
+            projection.add("#m" + i);
+        }
+        names.put("#shard", SHARD_ATTRIBUTE);
+        projection.add("#shard");
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            ScanResult page = amazonDynamoDB.scan(new ScanRequest()
+                    .withTableName(TABLE_NAME)
+                    .withSegment(segment)
+                    .withTotalSegments(segments)
+                    .withLimit(pageSize)
+                    .withProjectionExpression(String.join(", ", projection))
+                    .withExpressionAttributeNames(names)
+                    .withExclusiveStartKey(exclusiveStartKey));
+            for (Map<String, AttributeValue> item : page.getItems()) {
+                counters.scanned.incrementAndGet();
+                migrateItem(item, dryRun, counters);
+            }
+            exclusiveStartKey = page.getLastEvaluatedKey();
+        } while (exclusiveStartKey != null && !exclusiveStartKey.isEmpty()
+                && !Thread.currentThread().isInterrupted());
+    }
+
+    private void migrateItem(Map<String, AttributeValue> item, boolean dryRun, Counters counters) {
+        String id = item.get("id").getS();
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        List<String> setActions = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        for (int i = 0; i < TIMESTAMP_ATTRIBUTES.size(); i++) {
+            String attributeName = TIMESTAMP_ATTRIBUTES.get(i);
+            AttributeValue stored = item.get(attributeName);
+            if (stored == null || stored.getS() == null) {
+                continue;
+            }
+            LocalDateTime time;
+            try {
+                time = converter.unconvert(stored.getS());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping article {}: {}", id, e.getMessage());
+                counters.failed.incrementAndGet();
+                return;
+            }
+            String canonical = converter.convert(time);
+            String millis = Long.toString(Timestamps.toEpochMillis(time));
+            AttributeValue storedMillis = item.get(attributeName + MILLIS_SUFFIX);
+            if (canonical.equals(stored.getS()) && storedMillis != null && millis.equals(storedMillis.getN())) {
+                continue;
+            }
+            names.put("#t" + i, attributeName);
+            names.put("#m" + i, attributeName + MILLIS_SUFFIX);
+            values.put(":old" + i, stored);
+            values.put(":t" + i, new AttributeValue().withS(canonical));
+            values.put(":m" + i, new AttributeValue().withN(millis));
+            setActions.add("#t" + i + " = :t" + i);
+            setActions.add("#m" + i + " = :m" + i);
+            conditions.add("#t" + i + " = :old" + i);
+        }
+        String shard = Integer.toString(Article.recentShardOf(id));
+        AttributeValue storedShard = item.get(SHARD_ATTRIBUTE);
+        if (storedShard == null || !shard.equals(storedShard.getN())) {
+            names.put("#shard", SHARD_ATTRIBUTE);
+            values.put(":shard", new AttributeValue().withN(shard));
+            setActions.add("#shard = :shard");
+        }
+        if (setActions.isEmpty()) {
+            return;
+        }
+        if (conditions.isEmpty()) {
+            // シャードだけを設定する場合も、スキャン後に削除された記事を作り直さない
+            names.put("#id", "id");
+            conditions.add("attribute_exists(#id)");
+        }
+        if (dryRun) {
+            counters.migrated.incrementAndGet();
+            return;
+        }
+        try {
+            amazonDynamoDB.updateItem(new UpdateItemRequest()
+                    .withTableName(TABLE_NAME)
+                    .withKey(Map.of("id", item.get("id")))
+                    .withUpdateExpression("SET " + String.join(", ", setActions))
+                    .withConditionExpression(String.join(" AND ", conditions))
+                    .withExpressionAttributeNames(names)
+                    .withExpressionAttributeValues(values));
+            counters.migrated.incrementAndGet();
+        } catch (ConditionalCheckFailedException e) {
+            // スキャン後に API から更新または削除された
+            logger.debug("Article {} changed during migration", id);
+            counters.skipped.incrementAndGet();
+        }
+    }
+
+    private static final class Counters {
+        final AtomicLong scanned = new AtomicLong();
+        final AtomicLong migrated = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+
+        Result toResult() {
+            return new Result(scanned.get(), migrated.get(), skipped.get(), failed.get());
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.mic.knowledgebase.stream;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBStreams;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.DescribeStreamRequest;
+import com.amazonaws.services.dynamodbv2.model.ExpiredIteratorException;
+import com.amazonaws.services.dynamodbv2.model.GetRecordsRequest;
+import com.amazonaws.services.dynamodbv2.model.GetRecordsResult;
+import com.amazonaws.services.dynamodbv2.model.GetShardIteratorRequest;
+import com.amazonaws.services.dynamodbv2.model.OperationType;
+import com.amazonaws.services.dynamodbv2.model.Record;
+import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
+import com.amazonaws.services.dynamodbv2.model.Shard;
+import com.amazonaws.services.dynamodbv2.model.ShardIteratorType;
+import com.amazonaws.services.dynamodbv2.model.StreamDescription;
+import com.amazonaws.services.dynamodbv2.model.StreamRecord;
+import com.amazonaws.services.dynamodbv2.model.TrimmedDataAccessException;
+import com.mic.knowledgebase.cache.ArticleCache;
+import com.mic.knowledgebase.cache.ArticleResponseCache;
+import com.mic.knowledgebase.event.ArticleChangedEvent;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.search.SearchService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Articles テーブルの DynamoDB Streams を読み、他のノード（Spring のインスタンスや Lambda のコンテナ）による記事の
+ * 作成・更新・削除を、このプロセスの {@link ArticleChangedEvent} として発行します。
+ * ArticleCache・ArticleResponseCache・SearchService は自ノードの書き込みと同じ経路で更新されるため、
+ * テーブルを読み直さずに最新の状態を保てます。自ノードの書き込みもストリーム経由で再度届きますが、適用は冪等です。
+ * <p>
+ * シャードごとに最後に適用したシーケンス番号をチェックポイントとして持ち、シャードイテレーターが期限切れ (15 分) に
+ * なった場合はその続きから読み直します。リシャーディングで分かれた子シャードは親シャードを読み終えてから読むため、
+ * 同じ記事のイベントは書き込み順に適用されます。プロセス内の状態は起動時に空なので、チェックポイントは永続化せず、
+ * 起動時は各シャードの最新 (LATEST) から読み始めます。読み逃しがありえる場合（ストリームの保持期間 24 時間を
+ * 過ぎた、ストリームが作り直された、LATEST から読み始めたシャードのイテレーターが期限切れになった）は、
+ * 読み取り位置を取り直してからキャッシュを全て破棄し、検索インデックスを古いものとして印を付けます（次の検索で
+ * 作り直されます。ポーリングを止めてテーブル全体をスキャンすることはしません）。
+ * <p>
+ * ポーリングは専用のスレッドで一定間隔で行うほか、Lambda では {@link #pollIfDue()} で呼び出しごとにも行います。
+ * <p>
+ * ストリームは NEW_IMAGE（または NEW_AND_OLD_IMAGES）で有効にしておく必要があります（dynamodb-table.json に含まれ、
+ * DynamoDBTableCreator も app.stream.enabled=true のときに有効にします）。app.stream.enabled=true の場合のみ有効です。
+ */
+@Component
+@Lazy(false)
+@ConditionalOnProperty(name = "app.stream.enabled", havingValue = "true")
+public class ArticleStreamConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(ArticleStreamConsumer.class);
+
+    static final String TABLE_NAME = Article.class.getAnnotation(DynamoDBTable.class).tableName();
+
+    @Autowired
+    private AmazonDynamoDB amazonDynamoDB;
+
+    @Autowired
+    private AmazonDynamoDBStreams amazonDynamoDBStreams;
+
+    @Autowired
+    private DynamoDBMapper dynamoDBMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ArticleCache articleCache;
+
+    @Autowired
+    private ArticleResponseCache articleResponseCache;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.stream.poll-interval:PT1S}")
+    private Duration pollInterval;
+
+    @Value("${app.stream.max-records:1000}")
+    private int maxRecords;
+
+    @Value("${app.stream.shard-refresh-interval:PT1M}")
+    private Duration shardRefreshInterval;
+
+    /** 読み終えていないシャード。ポーリングのスレッドからのみ操作します（メソッドは synchronized）。 */
+    private final Map<String, ShardPosition> shards = new LinkedHashMap<>();
+    private final Set<String> finishedShards = new HashSet<>();
+    private String streamArn;
+    private long nextShardRefresh;
+    private boolean shardRefreshRequested;
+    private boolean resyncPending;
+    private boolean streamMissingLogged;
+
+    /** 最後にポーリングを終えた時刻 (System.nanoTime)。失敗した場合も更新します。 */
+    private volatile long lastPollNanos = System.nanoTime();
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final AtomicLong resyncs = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+    private DynamoDBMapperTableModel<Article> tableModel;
+
+    /**
+     * 読み取り位置を取得してからポーリングを開始します。SearchService のインデックス構築（同じく ApplicationReadyEvent）
+     * より前に位置を確定させ、構築中の書き込みを読み逃さないようにします。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() {
+        Gauge.builder("article.stream.lag", lagMillis, AtomicLong::get)
+                .description("Age of the last applied stream record")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("article.stream.shards", this, ArticleStreamConsumer::activeShards).register(meterRegistry);
+        FunctionCounter.builder("article.stream.resyncs", resyncs, AtomicLong::get).register(meterRegistry);
+        pollSafely();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "article-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollSafely, pollInterval.toMillis(), pollInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        logger.info("Article stream consumer started (poll interval: {})", pollInterval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 前回のポーリングから app.stream.poll-interval 以上経っていれば、呼び出したスレッドでポーリングします。
+     * Lambda では実行環境が凍結されている間ポーリングのスレッドも止まるため、呼び出しの始めにこのメソッドを呼び、
+     * 解凍後の最初のリクエストが古いキャッシュから応答しないようにします。ポーリング中の場合は終わるのを待ちます。
+     */
+    public void pollIfDue() {
+        long intervalNanos = pollInterval.toNanos();
+        if (System.nanoTime() - lastPollNanos < intervalNanos) {
+            return;
+        }
+        synchronized (this) {
+            // 待っている間に他のスレッドがポーリングを終えていれば読み直さない
+            if (System.nanoTime() - lastPollNanos >= intervalNanos) {
+                pollSafely();
+            }
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            // スロットリングや一時的な障害は次のポーリングで再試行する
+            logger.warn("Failed to read article stream: {}", e.getMessage());
+        } finally {
+            lastPollNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * ストリームを 1 回読み進めます。読み取れる各シャードに GetRecords を 1 回ずつ発行し、レコードを適用します。
+     *
+     * @return 適用したレコード数
+     */
+    synchronized int poll() {
+        if (streamArn == null && !initialize()) {
+            return 0;
+        }
+        if (shardRefreshRequested || System.nanoTime() - nextShardRefresh >= 0) {
+            refreshShards(false);
+        }
+        int applied = 0;
+        for (ShardPosition shard : new ArrayList<>(shards.values())) {
+            if (streamArn == null) {
+                break;
+            }
+            if (isReady(shard)) {
+                applied += read(shard);
+            }
+        }
+        return applied;
+    }
+
+    synchronized int activeShards() {
+        return shards.size();
+    }
+
+    /**
+     * テーブルの最新のストリームを調べ、開いているシャードの LATEST の位置を取得します。
+     * 再同期が必要な場合は、位置を取得した後でキャッシュを破棄します（破棄後に読み込まれた値は、その後の変更を必ず受け取ります）。
+     *
+     * @return ストリームを読める場合は true
+     */
+    private boolean initialize() {
+        String arn = amazonDynamoDB.describeTable(TABLE_NAME).getTable().getLatestStreamArn();
+        if (arn == null) {
+            if (!streamMissingLogged) {
+                logger.warn("DynamoDB Streams is not enabled on {}; changes from other nodes are not applied",
+                        TABLE_NAME);
+                streamMissingLogged = true;
+            }
+            return false;
+        }
+        streamArn = arn;
+        try {
+            refreshShards(true);
+            for (ShardPosition shard : shards.values()) {
+                if (isReady(shard)) {
+                    shard.iterator = iterator(shard);
+                }
+            }
+        } catch (RuntimeException e) {
+            // 次のポーリングで最初からやり直す
+            streamArn = null;
+            shards.clear();
+            finishedShards.clear();
+            throw e;
+        }
+        logger.info("Reading {} from {} shards", arn, shards.size());
+        if (resyncPending) {
+            resyncPending = false;
+            articleCache.invalidateAll();
+            articleResponseCache.invalidateAll();
+            searchService.markStale();
+        }
+        return true;
+    }
+
+    /**
+     * シャードの一覧を取り直します。初回は閉じたシャードを読み終えたものとし、開いているシャードは LATEST から読みます。
+     * 以降に見つかったシャード（リシャーディングで作られた子シャード）は先頭 (TRIM_HORIZON) から読みます。
+     */
+    private void refreshShards(boolean initial) {
+        Set<String> described = new HashSet<>();
+        String exclusiveStartShardId = null;
+        do {
+            StreamDescription stream = amazonDynamoDBStreams.describeStream(new DescribeStreamRequest()
+                    .withStreamArn(streamArn)
+                    .withExclusiveStartShardId(exclusiveStartShardId)).getStreamDescription();
+            for (Shard shard : stream.getShards()) {
+                String shardId = shard.getShardId();
+                described.add(shardId);
+                if (shards.containsKey(shardId) || finishedShards.contains(shardId)) {
+                    continue;
+                }
+                boolean closed = shard.getSequenceNumberRange() != null
+                        && shard.getSequenceNumberRange().getEndingSequenceNumber() != null;
+                if (initial && closed) {
+                    finishedShards.add(shardId);
+                    continue;
+                }
+                shards.put(shardId, new ShardPosition(shardId, shard.getParentShardId(),
+                        initial ? ShardIteratorType.LATEST : ShardIteratorType.TRIM_HORIZON));
+                logger.debug("Found stream shard {} (parent: {})", shardId, shard.getParentShardId());
+            }
+            exclusiveStartShardId = stream.getLastEvaluatedShardId();
+        } while (exclusiveStartShardId != null);
+        // 保持期間を過ぎて一覧から消えたシャードは覚えておく必要がない
+        finishedShards.retainAll(described);
+        nextShardRefresh = System.nanoTime() + shardRefreshInterval.toNanos();
+        shardRefreshRequested = false;
+    }
+
+    /**
+     * 親シャードを読み終えている（または保持期間を過ぎて消えている）シャードだけを読みます。
+     */
+    private boolean isReady(ShardPosition shard) {
+        return shard.parentShardId == null || !shards.containsKey(shard.parentShardId);
+    }
+
+    private String iterator(ShardPosition shard) {
+        GetShardIteratorRequest request = new GetShardIteratorRequest()
+                .withStreamArn(streamArn)
+                .withShardId(shard.shardId);
+        if (shard.checkpoint != null) {
+            request.withShardIteratorType(ShardIteratorType.AFTER_SEQUENCE_NUMBER)
+                    .withSequenceNumber(shard.checkpoint);
+        } else {
+            request.withShardIteratorType(shard.startType);
+        }
+        return amazonDynamoDBStreams.getShardIterator(request).getShardIterator();
+    }
+
+    private int read(ShardPosition shard) {
+        try {
+            if (shard.iterator == null) {
+                shard.iterator = iterator(shard);
+            }
+            GetRecordsResult result = amazonDynamoDBStreams.getRecords(new GetRecordsRequest()
+                    .withShardIterator(shard.iterator)
+                    .withLimit(maxRecords));
+            for (Record record : result.getRecords()) {
+                apply(record);
+                shard.checkpoint = record.getDynamodb().getSequenceNumber();
+            }
+            shard.iterator = result.getNextShardIterator();
+            if (shard.iterator == null) {
+                // 閉じたシャードを読み終えた。子シャードを探す
+                logger.debug("Finished stream shard {}", shard.shardId);
+                shards.remove(shard.shardId);
+                finishedShards.add(shard.shardId);
+                shardRefreshRequested = true;
+            }
+            return result.getRecords().size();
+        } catch (ExpiredIteratorException e) {
+            shard.iterator = null;
+            if (shard.checkpoint == null && shard.startType == ShardIteratorType.LATEST) {
+                // LATEST の位置は取り直すと進んでしまうため、その間の変更を読み逃したかもしれない
+                resync("shard iterator expired before any record was read");
+            }
+            return 0;
+        } catch (TrimmedDataAccessException e) {
+            resync("stream records were trimmed before they were read");
+            return 0;
+        } catch (ResourceNotFoundException e) {
+            resync("stream or shard no longer exists");
+            return 0;
+        }
+    }
+
+    /**
+     * ストリームの読み取り状態を捨て、次のポーリングで位置を取り直してからプロセス内の状態を作り直します。
+     */
+    private void resync(String reason) {
+        logger.warn("Resynchronizing local article state: {}", reason);
+        resyncs.incrementAndGet();
+        streamArn = null;
+        shards.clear();
+        finishedShards.clear();
+        resyncPending = true;
+    }
+
+    private void apply(Record record) {
+        StreamRecord change = record.getDynamodb();
+        String id = change.getKeys().get("id").getS();
+        Map<String, AttributeValue> image = change.getNewImage();
+        OperationType type = OperationType.fromValue(record.getEventName());
+        if (change.getApproximateCreationDateTime() != null) {
+            lagMillis.set(Math.max(0, System.currentTimeMillis() - change.getApproximateCreationDateTime().getTime()));
+        }
+        Counter.builder("article.stream.records").tag("type", type.toString()).register(meterRegistry).increment();
+        if (type == OperationType.REMOVE) {
+            eventPublisher.publishEvent(ArticleChangedEvent.deleted(id));
+        } else if (image == null) {
+            // KEYS_ONLY のストリームでは変更後の記事がわからないため、キャッシュだけ破棄する
+            articleCache.invalidate(id);
+            articleResponseCache.invalidate(id);
+        } else if (type == OperationType.INSERT) {
+            eventPublisher.publishEvent(ArticleChangedEvent.created(tableModel().unconvert(image)));
+        } else {
+            eventPublisher.publishEvent(ArticleChangedEvent.updated(tableModel().unconvert(image)));
+        }
+    }
+
+    private DynamoDBMapperTableModel<Article> tableModel() {
+        if (tableModel == null) {
+            tableModel = dynamoDBMapper.getTableModel(Article.class);
+        }
+        return tableModel;
+    }
+
+    /**
+     * シャードの読み取り位置。checkpoint は最後に適用したレコードのシーケンス番号です。
+     */
+    private static final class ShardPosition {
+        final String shardId;
+        final String parentShardId;
+        final ShardIteratorType startType;
+        String checkpoint;
+        String iterator;
+
+        ShardPosition(String shardId, String parentShardId, ShardIteratorType startType) {
+            this.shardId = shardId;
+            this.parentShardId = parentShardId;
+            this.startType = startType;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.mic.knowledgebase.util;
+
+import com.mic.knowledgebase.exception.BadRequestException;
+import com.mic.knowledgebase.exception.PreconditionFailedException;
+import com.mic.knowledgebase.model.Article;
+
+/**
+ * 記事のバージョンと HTTP の ETag を相互変換します。
+ * ETag は {@code "<version>"} 形式の強い ETag です。version 属性を持たない既存の記事はバージョン 0 として扱います。
+ * gzip で返す表現の ETag は {@code "<version>-gzip"} で、比較の際は同じバージョンとして扱います。
+ */
+public final class ArticleETag {
+    private static final String WEAK_PREFIX = "W/";
+    private static final String GZIP_SUFFIX = "-gzip\"";
+
+    private ArticleETag() {
+    }
+
+    public static String of(Article article) {
+        Long version = article.getVersion();
+        return "\"" + (version != null ? version : 0L) + "\"";
+    }
+
+    /**
+     * {@link #of} の ETag を gzip の表現の ETag にします。
+     */
+    public static String gzipped(String etag) {
+        return etag.substring(0, etag.length() - 1) + GZIP_SUFFIX;
+    }
+
+    /**
+     * gzip の表現の ETag を元の ETag に戻します。
+     */
+    private static String identity(String tag) {
+        return tag.endsWith(GZIP_SUFFIX) ? tag.substring(0, tag.length() - GZIP_SUFFIX.length()) + "\"" : tag;
+    }
+
+    /**
+     * If-Match ヘッダーから更新・削除の前提となるバージョンを取り出します。
+     *
+     * @return ヘッダーがない場合または {@code *} の場合は null（存在確認のみ）
+     * @throws PreconditionFailedException どのバージョンとも一致し得ない ETag の場合（弱い ETag を含む）
+     * @throws BadRequestException         複数の ETag が指定された場合
+     */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        String tag = identity(ifMatch.trim());
+        if ("*".equals(tag)) {
+            return null;
+        }
+        if (tag.indexOf(',') >= 0) {
+            throw new BadRequestException("Multiple entity tags in If-Match are not supported");
+        }
+        // If-Match は強い比較のため、弱い ETag はどの表現とも一致しません
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new PreconditionFailedException("If-Match does not match any version: " + tag);
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match any version: " + tag, e);
+        }
+    }
+
+    /**
+     * If-None-Match ヘッダーが記事の現在の ETag と一致するかを弱い比較で判定します。
+     * 一致する場合、GET には 304 Not Modified を返せます。
+     */
+    public static boolean matchesIfNoneMatch(String ifNoneMatch, Article article) {
+        return matchesIfNoneMatch(ifNoneMatch, of(article));
+    }
+
+    /**
+     * If-None-Match ヘッダーが ETag と一致するかを弱い比較で判定します。gzip の表現の ETag も同じバージョンとして扱います。
+     */
+    public static boolean matchesIfNoneMatch(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String current = identity(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith(WEAK_PREFIX)) {
+                tag = tag.substring(WEAK_PREFIX.length());
+            }
+            if ("*".equals(tag) || current.equals(identity(tag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
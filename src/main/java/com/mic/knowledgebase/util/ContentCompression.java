@@ -0,0 +1,192 @@
+package com.mic.knowledgebase.util;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 記事本文 (Article.content) を DynamoDB に保存する際の圧縮。
+ * <p>
+ * UTF-8 で thresholdBytes 以上の本文は Deflate (zlib 形式) で圧縮し、バイナリ (B) 属性として保存します。
+ * バイナリの形式は [コーデック (1 バイト)][元のバイト数 (4 バイト)][圧縮データ] で、コーデックは現在 {@link #DEFLATE} のみです。
+ * しきい値未満の本文と、圧縮しても小さくならない本文は従来どおり文字列 (S) 属性として保存するため、
+ * 圧縮前に書き込まれた項目もそのまま読めます。
+ * <p>
+ * DynamoDBMapper は変換クラスを自身でインスタンス化するため、設定は {@link #install} で登録したものを
+ * {@link #current} から参照します。
+ */
+public final class ContentCompression {
+
+    /** Deflate (zlib 形式) を表すコーデックの値。 */
+    public static final byte DEFLATE = 1;
+
+    public static final int DEFAULT_THRESHOLD_BYTES = 4096;
+
+    private static final int HEADER_BYTES = 5;
+
+    private static volatile ContentCompression current = new ContentCompression(DEFAULT_THRESHOLD_BYTES,
+            Deflater.DEFAULT_COMPRESSION, null);
+
+    private final int thresholdBytes;
+    private final int level;
+    private final DistributionSummary ratio;
+    private final DistributionSummary compressedSize;
+    private final DistributionSummary uncompressedSize;
+
+    /**
+     * @param thresholdBytes 圧縮する本文の最小サイズ (UTF-8 のバイト数)。ヘッダーの 5 バイト以上
+     * @param level          Deflater の圧縮レベル (0〜9、-1 は既定値)
+     * @param meterRegistry  圧縮率などを記録するレジストリ。null の場合は記録しません
+     */
+    public ContentCompression(int thresholdBytes, int level, MeterRegistry meterRegistry) {
+        if (thresholdBytes < HEADER_BYTES) {
+            throw new IllegalArgumentException("Compression threshold must be at least " + HEADER_BYTES
+                    + " bytes: " + thresholdBytes);
+        }
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        this.thresholdBytes = thresholdBytes;
+        this.level = level;
+        if (meterRegistry != null) {
+            ratio = DistributionSummary.builder("article.content.compression.ratio")
+                    .description("Uncompressed size divided by compressed size of stored article content")
+                    .register(meterRegistry);
+            compressedSize = storedSize(meterRegistry, "deflate");
+            uncompressedSize = storedSize(meterRegistry, "none");
+        } else {
+            ratio = null;
+            compressedSize = null;
+            uncompressedSize = null;
+        }
+    }
+
+    private static DistributionSummary storedSize(MeterRegistry meterRegistry, String codec) {
+        return DistributionSummary.builder("article.content.stored.size")
+                .baseUnit("bytes")
+                .tag("codec", codec)
+                .register(meterRegistry);
+    }
+
+    public static ContentCompression current() {
+        return current;
+    }
+
+    public static void install(ContentCompression compression) {
+        current = compression;
+    }
+
+    /**
+     * 本文を保存する属性値に変換します。
+     */
+    public AttributeValue encode(String content) {
+        if (content == null) {
+            return null;
+        }
+        // UTF-8 では 1 文字 (char) が最大 3 バイトのため、文字数で明らかにしきい値未満と分かる場合はエンコードしない
+        if ((long) content.length() * 3 < thresholdBytes) {
+            return uncompressed(content, content.length());
+        }
+        byte[] utf8 = content.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length < thresholdBytes) {
+            return uncompressed(content, utf8.length);
+        }
+        byte[] compressed = deflate(utf8);
+        if (compressed == null) {
+            return uncompressed(content, utf8.length);
+        }
+        if (ratio != null) {
+            ratio.record((double) utf8.length / compressed.length);
+            compressedSize.record(compressed.length);
+        }
+        return new AttributeValue().withB(ByteBuffer.wrap(compressed));
+    }
+
+    private AttributeValue uncompressed(String content, int sizeHint) {
+        if (uncompressedSize != null) {
+            uncompressedSize.record(sizeHint);
+        }
+        return new AttributeValue().withS(content);
+    }
+
+    /**
+     * @return ヘッダーを含む圧縮データ。元のデータより小さくならない場合は null
+     */
+    private byte[] deflate(byte[] utf8) {
+        byte[] output = new byte[utf8.length];
+        output[0] = DEFLATE;
+        ByteBuffer.wrap(output, 1, 4).putInt(utf8.length);
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(utf8);
+            deflater.finish();
+            int length = HEADER_BYTES;
+            while (!deflater.finished() && length < output.length) {
+                length += deflater.deflate(output, length, output.length - length);
+            }
+            if (!deflater.finished()) {
+                return null;
+            }
+            byte[] compressed = new byte[length];
+            System.arraycopy(output, 0, compressed, 0, length);
+            return compressed;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 保存されている属性値から本文を復元します。文字列 (S) 属性はそのまま返します。
+     */
+    public String decode(AttributeValue value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.getS() != null) {
+            return value.getS();
+        }
+        if (value.getB() == null) {
+            return null;
+        }
+        ByteBuffer buffer = value.getB().duplicate();
+        if (buffer.remaining() < HEADER_BYTES) {
+            throw new IllegalArgumentException("Compressed content is truncated");
+        }
+        byte codec = buffer.get();
+        if (codec != DEFLATE) {
+            throw new IllegalArgumentException("Unsupported content codec: " + codec);
+        }
+        int length = buffer.getInt();
+        if (length < 0) {
+            throw new IllegalArgumentException("Invalid content length: " + length);
+        }
+        byte[] utf8 = new byte[length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer);
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(utf8, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new IllegalArgumentException("Compressed content is truncated");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Compressed content is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,76 @@
+package com.mic.knowledgebase.util;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mic.knowledgebase.exception.InvalidPageTokenException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * DynamoDB の LastEvaluatedKey とクライアントに渡す不透明なページトークンを相互変換します。
+ * トークンはキー属性を {"name":{"S":"value"}} 形式の JSON にして Base64URL でエンコードしたものです。
+ * 文字列 (S) と数値 (N) のキー属性のみサポートします。
+ */
+public final class PageTokenCodec {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Map<String, String>>> TOKEN_TYPE = new TypeReference<>() {
+    };
+
+    private PageTokenCodec() {
+    }
+
+    public static String encode(Map<String, AttributeValue> lastEvaluatedKey) {
+        if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) {
+            return null;
+        }
+        Map<String, Map<String, String>> token = new LinkedHashMap<>();
+        for (Map.Entry<String, AttributeValue> entry : lastEvaluatedKey.entrySet()) {
+            AttributeValue value = entry.getValue();
+            if (value.getS() != null) {
+                token.put(entry.getKey(), Map.of("S", value.getS()));
+            } else if (value.getN() != null) {
+                token.put(entry.getKey(), Map.of("N", value.getN()));
+            } else {
+                throw new IllegalArgumentException("Unsupported key attribute type: " + entry.getKey());
+            }
+        }
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(token));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode page token", e);
+        }
+    }
+
+    public static Map<String, AttributeValue> decode(String pageToken) {
+        if (pageToken == null || pageToken.isEmpty()) {
+            return null;
+        }
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(pageToken.getBytes(StandardCharsets.US_ASCII));
+            Map<String, Map<String, String>> token = MAPPER.readValue(json, TOKEN_TYPE);
+            Map<String, AttributeValue> key = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, String>> entry : token.entrySet()) {
+                Map<String, String> typed = entry.getValue();
+                if (typed.get("S") != null) {
+                    key.put(entry.getKey(), new AttributeValue().withS(typed.get("S")));
+                } else if (typed.get("N") != null) {
+                    key.put(entry.getKey(), new AttributeValue().withN(typed.get("N")));
+                } else {
+                    throw new InvalidPageTokenException("Invalid page token");
+                }
+            }
+            if (key.isEmpty()) {
+                throw new InvalidPageTokenException("Invalid page token");
+            }
+            return key;
+        } catch (InvalidPageTokenException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InvalidPageTokenException("Invalid page token", e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.mic.knowledgebase.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * DynamoDB への再試行（SDK の再試行と、バッチ API で未処理となった項目の再試行）の待機時間を計算します。
+ * 前回の待機時間を元に範囲を広げる Decorrelated Jitter を使い、複数のクライアントが同時に再試行して
+ * 負荷が集中するのを防ぎます。
+ */
+public final class RetryBackoff {
+
+    private RetryBackoff() {
+    }
+
+    /**
+     * @param previousMillis 前回の待機時間（初回の再試行では baseMillis）
+     * @param baseMillis     待機時間の下限
+     * @param capMillis      待機時間の上限
+     * @return baseMillis 以上 min(cap, previous * 3) 以下のランダムな待機時間（ミリ秒）
+     */
+    public static long decorrelatedJitterMillis(long previousMillis, long baseMillis, long capMillis) {
+        long upper = Math.max(baseMillis, Math.min(capMillis, previousMillis * 3));
+        long delay = upper > baseMillis ? ThreadLocalRandom.current().nextLong(baseMillis, upper + 1) : baseMillis;
+        return Math.min(capMillis, delay);
+    }
+}
@@ -0,0 +1,112 @@
+package com.mic.knowledgebase.util;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneOffset;
+
+/**
+ * DynamoDB に保存された日時文字列の解析と、数値のタイムスタンプへの変換。
+ * <p>
+ * {@link #parse} は 1 回の走査で形式を判別するため、形式ごとに DateTimeFormatter を試して
+ * 例外で次の形式に進む方法と違い、旧形式でも例外を発生させません。対応する形式は次のとおりです。
+ * <ul>
+ * <li>yyyy-MM-dd'T'HH:mm[:ss[.SSSSSSSSS]]（現行の ISO 形式。小数秒は 1〜9 桁）</li>
+ * <li>yyyy-MM-dd HH:mm:ss（旧形式）</li>
+ * <li>yyyy-MM-dd H:mm:ss（旧形式。時が 1 桁）</li>
+ * </ul>
+ */
+public final class Timestamps {
+
+    private static final int[] NANO_SCALE = { 0, 100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100,
+            10, 1 };
+
+    private Timestamps() {
+    }
+
+    /**
+     * 日時文字列を解析します。
+     *
+     * @return 解析した日時。対応していない形式、または存在しない日時の場合は null（例外は投げません）
+     */
+    public static LocalDateTime parse(CharSequence text) {
+        int length = text.length();
+        // 最短は "yyyy-MM-ddTHH:mm"
+        if (length < 16 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return null;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        char separator = text.charAt(10);
+        int hour;
+        int pos;
+        if (separator == 'T') {
+            hour = digits(text, 11, 2);
+            pos = 13;
+        } else if (separator == ' ') {
+            boolean singleDigitHour = text.charAt(12) == ':';
+            hour = digits(text, 11, singleDigitHour ? 1 : 2);
+            pos = singleDigitHour ? 12 : 13;
+        } else {
+            return null;
+        }
+        if (pos + 3 > length || text.charAt(pos) != ':') {
+            return null;
+        }
+        int minute = digits(text, pos + 1, 2);
+        pos += 3;
+        int second = 0;
+        int nano = 0;
+        if (pos < length) {
+            if (pos + 3 > length || text.charAt(pos) != ':') {
+                return null;
+            }
+            second = digits(text, pos + 1, 2);
+            pos += 3;
+            if (pos < length) {
+                // 小数秒は ISO 形式のみ
+                int fractionDigits = length - pos - 1;
+                if (separator != 'T' || text.charAt(pos) != '.' || fractionDigits < 1 || fractionDigits > 9) {
+                    return null;
+                }
+                int fraction = digits(text, pos + 1, fractionDigits);
+                if (fraction < 0) {
+                    return null;
+                }
+                nano = fraction * NANO_SCALE[fractionDigits];
+            }
+        } else if (separator != 'T') {
+            // 旧形式では秒を省略しない
+            return null;
+        }
+        if (year < 0 || month < 1 || month > 12 || day < 1
+                || day > Month.of(month).length(Year.isLeap(year))
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+    }
+
+    /**
+     * 日時を UTC とみなしてエポックからのミリ秒に変換します。範囲検索用の数値属性に使います。
+     */
+    public static Long toEpochMillis(LocalDateTime time) {
+        return time != null ? time.toInstant(ZoneOffset.UTC).toEpochMilli() : null;
+    }
+
+    /**
+     * 10 進数字の並びを数値にします。数字以外を含む場合は -1 を返します。
+     */
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,133 @@
+package com.mic.knowledgebase;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MainLambdaFunction のコールドスタートを計測するハーネス。
+ * <p>
+ * プライミングを無効 (cold) と有効 (primed) にした JVM をそれぞれ新しく起動し、
+ * JVM 起動から最初のレスポンスまでの時間を中央値で比較します。子プロセスは prod プロファイルの設定
+ * （遅延初期化、ログレベル）で起動し、DynamoDB の接続先だけ dev プロファイルの DynamoDB Local を使います。
+ * <p>
+ * 事前に DynamoDB Local (localhost:8000) を起動し、dev プロファイルで一度アプリケーションを起動して
+ * Articles テーブルを作成しておいてください。実行例:
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.mic.knowledgebase.ColdStartHarness 5
+ * </pre>
+ * テストとしては実行されません。
+ */
+public class ColdStartHarness {
+
+    private static final String CHILD_FLAG = "--child";
+    private static final String RESULT_PREFIX = "RESULT ";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && CHILD_FLAG.equals(args[0])) {
+            runChild(Boolean.parseBoolean(args[1]));
+            return;
+        }
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        System.out.printf("%-7s %12s %16s %16s %14s%n", "mode", "context(ms)", "1st request(ms)",
+                "JVM->1st resp(ms)", "2nd request(ms)");
+        for (boolean primed : new boolean[] { false, true }) {
+            List<long[]> runs = new ArrayList<>();
+            for (int i = 0; i < iterations; i++) {
+                runs.add(launchChild(primed));
+            }
+            System.out.printf("%-7s %12d %16d %16d %14d%n", primed ? "primed" : "cold",
+                    median(runs, 0), median(runs, 1), median(runs, 2), median(runs, 3));
+        }
+    }
+
+    /**
+     * 新しい JVM でハーネスを子プロセスとして起動し、計測結果を受け取ります。
+     */
+    private static long[] launchChild(boolean primed) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                ColdStartHarness.class.getName(), CHILD_FLAG, Boolean.toString(primed))
+                .redirectErrorStream(true)
+                .start();
+        long[] result = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    String[] values = line.substring(RESULT_PREFIX.length()).split(" ");
+                    result = new long[values.length];
+                    for (int i = 0; i < values.length; i++) {
+                        result[i] = Long.parseLong(values[i]);
+                    }
+                }
+            }
+        }
+        int exitCode = process.waitFor();
+        if (result == null) {
+            throw new IllegalStateException("Child process exited with " + exitCode + " without a result");
+        }
+        return result;
+    }
+
+    private static void runChild(boolean primed) {
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        long start = System.nanoTime();
+        SpringApplication app = new SpringApplication(KnowledgebaseApplication.class);
+        app.setLazyInitialization(true);
+        app.setWebApplicationType(WebApplicationType.NONE);
+        app.setAdditionalProfiles("dev", "prod");
+        ConfigurableApplicationContext context = app.run("--app.lambda.priming.enabled=" + primed);
+        long contextMillis = (System.nanoTime() - start) / 1_000_000;
+
+        MainLambdaFunction function = context.getBean(MainLambdaFunction.class);
+        long firstStart = System.nanoTime();
+        APIGatewayProxyResponseEvent response = function.apply(listRequest());
+        long firstMillis = (System.nanoTime() - firstStart) / 1_000_000;
+        long jvmToFirstResponse = System.currentTimeMillis() - jvmStart;
+        if (response.getStatusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.getStatusCode() + ": "
+                    + response.getBody());
+        }
+
+        long secondStart = System.nanoTime();
+        function.apply(listRequest());
+        long secondMillis = (System.nanoTime() - secondStart) / 1_000_000;
+
+        System.out.println(RESULT_PREFIX + contextMillis + " " + firstMillis + " " + jvmToFirstResponse + " "
+                + secondMillis);
+        context.close();
+        System.exit(0);
+    }
+
+    private static APIGatewayProxyRequestEvent listRequest() {
+        return new APIGatewayProxyRequestEvent()
+                .withHttpMethod("GET")
+                .withPath("/articles")
+                .withQueryStringParameters(Map.of("limit", "1"));
+    }
+
+    private static long median(List<long[]> runs, int column) {
+        List<Long> values = new ArrayList<>();
+        for (long[] run : runs) {
+            values.add(run[column]);
+        }
+        Collections.sort(values);
+        return values.get(values.size() / 2);
+    }
+}
@@ -0,0 +1,141 @@
+package com.mic.knowledgebase.blob;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemResult;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DynamoDBChunkedBlobStoreTest {
+
+    /** part をキーにした 1 つの所有者分の項目。 */
+    private final TreeMap<String, Map<String, AttributeValue>> items = new TreeMap<>();
+    private AmazonDynamoDB client;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(AmazonDynamoDB.class);
+        when(client.putItem(any(PutItemRequest.class))).thenAnswer(invocation -> {
+            Map<String, AttributeValue> item = invocation.getArgument(0, PutItemRequest.class).getItem();
+            items.put(item.get("part").getS(), item);
+            return new PutItemResult();
+        });
+        when(client.getItem(any(GetItemRequest.class))).thenAnswer(invocation -> new GetItemResult()
+                .withItem(items.get(invocation.getArgument(0, GetItemRequest.class).getKey().get("part").getS())));
+        when(client.deleteItem(any(DeleteItemRequest.class))).thenAnswer(invocation -> {
+            items.remove(invocation.getArgument(0, DeleteItemRequest.class).getKey().get("part").getS());
+            return null;
+        });
+        when(client.updateItem(any(UpdateItemRequest.class))).thenAnswer(invocation -> {
+            UpdateItemRequest request = invocation.getArgument(0);
+            Map<String, AttributeValue> item = new HashMap<>(items.get(request.getKey().get("part").getS()));
+            item.put("expiresAt", request.getExpressionAttributeValues().get(":expiresAt"));
+            items.put(request.getKey().get("part").getS(), item);
+            return null;
+        });
+        when(client.query(any(QueryRequest.class))).thenAnswer(invocation -> query(invocation.getArgument(0)));
+    }
+
+    private QueryResult query(QueryRequest request) {
+        String prefix = request.getExpressionAttributeValues().values().stream()
+                .filter(value -> !"owner".equals(value.getS())).findFirst().orElseThrow().getS();
+        int limit = request.getLimit() != null ? request.getLimit() : Integer.MAX_VALUE;
+        String start = request.getExclusiveStartKey() != null ? request.getExclusiveStartKey().get("part").getS() : null;
+        List<Map<String, AttributeValue>> page = new ArrayList<>();
+        String last = null;
+        for (Map.Entry<String, Map<String, AttributeValue>> entry
+                : (start == null ? items : items.tailMap(start, false)).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)
+                    || (request.getFilterExpression() != null && entry.getValue().containsKey("expiresAt"))) {
+                continue;
+            }
+            if (page.size() == limit) {
+                return new QueryResult().withItems(page).withLastEvaluatedKey(Map.of("part", new AttributeValue(last)));
+            }
+            page.add(entry.getValue());
+            last = entry.getKey();
+        }
+        return new QueryResult().withItems(page);
+    }
+
+    @Test
+    void storesChunksAndStreamsThemInOrder() throws IOException {
+        DynamoDBChunkedBlobStore store = new DynamoDBChunkedBlobStore(client, 4);
+        byte[] content = "0123456789abcdefghij-".getBytes(StandardCharsets.UTF_8);
+
+        store.put("owner", "b1", content);
+
+        // 6 チャンクとマニフェスト
+        assertEquals(7, items.size());
+        try (InputStream in = store.open("owner", "b1").orElseThrow()) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        assertEquals(List.of("b1"), store.list("owner"));
+        assertTrue(store.open("owner", "b2").isEmpty());
+    }
+
+    @Test
+    void failsWhenChunkIsMissing() {
+        DynamoDBChunkedBlobStore store = new DynamoDBChunkedBlobStore(client, 4);
+        store.put("owner", "b1", new byte[10]);
+        items.remove("b1#000001");
+
+        assertThrows(IOException.class, () -> {
+            try (InputStream in = store.open("owner", "b1").orElseThrow()) {
+                in.readAllBytes();
+            }
+        });
+    }
+
+    @Test
+    void deletesChunksAndManifest() {
+        DynamoDBChunkedBlobStore store = new DynamoDBChunkedBlobStore(client, 4);
+        store.put("owner", "b1", new byte[10]);
+        store.put("owner", "b2", new byte[3]);
+
+        store.delete("owner", "b1");
+
+        assertEquals(List.of("b2"), store.list("owner"));
+        assertEquals(2, items.size());
+    }
+
+    @Test
+    void expiresChunksAndManifestWithTtl() throws IOException {
+        DynamoDBChunkedBlobStore store = new DynamoDBChunkedBlobStore(client, 4);
+        store.put("owner", "b1", new byte[10]);
+        store.put("owner", "b2", new byte[3]);
+
+        store.expire("owner", "b1", Instant.ofEpochSecond(1_700_000_000L));
+
+        assertEquals(List.of("b2"), store.list("owner"));
+        for (String part : List.of("#b1", "b1#000000", "b1#000001", "b1#000002")) {
+            assertEquals("1700000000", items.get(part).get("expiresAt").getN());
+        }
+        assertNull(items.get("#b2").get("expiresAt"));
+        // TTL で削除されるまでは読み出せる
+        try (InputStream in = store.open("owner", "b1").orElseThrow()) {
+            assertEquals(10, in.readAllBytes().length);
+        }
+    }
+}
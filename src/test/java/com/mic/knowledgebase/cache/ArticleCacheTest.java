@@ -0,0 +1,80 @@
+package com.mic.knowledgebase.cache;
+
+import com.mic.knowledgebase.event.ArticleChangedEvent;
+import com.mic.knowledgebase.model.Article;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArticleCacheTest {
+
+    @Test
+    void cachesAndCountsHitsAndMisses() {
+        ArticleCache cache = new ArticleCache(10, 1024, Duration.ofMinutes(1));
+
+        assertNull(cache.get("1"));
+        cache.putIfFresh(article("1", "abc"), cache.beginLoad());
+
+        assertNotNull(cache.get("1"));
+        ArticleCache.CacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(6, stats.bytes());
+    }
+
+    @Test
+    void invalidationDuringLoadSkipsPut() {
+        ArticleCache cache = new ArticleCache(10, 1024, Duration.ofMinutes(1));
+
+        long loadGeneration = cache.beginLoad();
+        cache.onArticleChanged(ArticleChangedEvent.deleted("1"));
+        cache.putIfFresh(article("1", "stale"), loadGeneration);
+
+        assertNull(cache.get("1"));
+    }
+
+    @Test
+    void expiredEntriesAreNotReturned() {
+        ArticleCache cache = new ArticleCache(10, 1024, Duration.ZERO);
+
+        cache.putIfFresh(article("1", "abc"), cache.beginLoad());
+
+        assertNull(cache.get("1"));
+    }
+
+    @Test
+    void frequentlyReadEntriesSurviveOneOffReads() {
+        ArticleCache cache = new ArticleCache(2, 1024, Duration.ofMinutes(1));
+        for (int i = 0; i < 5; i++) {
+            cache.get("hot");
+        }
+        cache.putIfFresh(article("hot", "h"), cache.beginLoad());
+        cache.get("warm");
+        cache.putIfFresh(article("warm", "w"), cache.beginLoad());
+
+        cache.get("cold");
+        cache.putIfFresh(article("cold", "c"), cache.beginLoad());
+
+        assertNotNull(cache.get("hot"));
+        assertEquals(2, cache.stats().size());
+    }
+
+    @Test
+    void boundedByContentBytes() {
+        ArticleCache cache = new ArticleCache(10, 10, Duration.ofMinutes(1));
+        cache.get("1");
+        cache.get("1");
+        cache.putIfFresh(article("1", "abcd"), cache.beginLoad());
+
+        cache.putIfFresh(article("big", "too large for the cache"), cache.beginLoad());
+
+        assertNull(cache.get("big"));
+        assertTrue(cache.stats().bytes() <= 10);
+    }
+
+    private static Article article(String id, String content) {
+        return new Article(id, "Title " + id, content, null, null);
+    }
+}
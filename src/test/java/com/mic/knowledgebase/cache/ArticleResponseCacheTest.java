@@ -0,0 +1,96 @@
+package com.mic.knowledgebase.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mic.knowledgebase.event.ArticleChangedEvent;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.util.ArticleETag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArticleResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private ArticleResponseCache cache(Duration ttl) {
+        return new ArticleResponseCache(objectMapper, 10, 1 << 20, ttl, 1024);
+    }
+
+    @Test
+    void cachesSerializedJsonAndGzip() throws Exception {
+        ArticleResponseCache cache = cache(Duration.ofMinutes(1));
+        Article article = article("1", "ナレッジベース ".repeat(500));
+
+        ArticleResponseCache.SerializedArticle serialized = cache.serialize(article, cache.beginLoad());
+
+        assertSame(serialized, cache.get("1"));
+        assertArrayEquals(objectMapper.writeValueAsBytes(article), serialized.json());
+        assertTrue(serialized.hasGzip());
+        assertTrue(serialized.gzip().length < serialized.json().length / 4);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(serialized.gzip()))) {
+            assertArrayEquals(serialized.json(), in.readAllBytes());
+        }
+        assertSame(serialized.jsonText(), serialized.jsonText());
+        assertEquals(objectMapper.writeValueAsString(article), serialized.jsonText());
+        assertArrayEquals(serialized.gzip(), Base64.getDecoder().decode(serialized.gzipBase64()));
+        assertEquals(serialized.json().length + 2L * serialized.jsonText().length() + serialized.gzip().length
+                + serialized.gzipBase64().length(), cache.stats().bytes());
+        assertEquals("\"3\"", serialized.etag());
+        assertEquals("\"3-gzip\"", serialized.gzipEtag());
+        assertTrue(ArticleETag.matchesIfNoneMatch("\"3-gzip\"", article));
+        assertEquals(3L, ArticleETag.parseIfMatch("\"3-gzip\""));
+        assertEquals(1, cache.stats().hits());
+    }
+
+    @Test
+    void smallResponsesAreNotCompressed() {
+        ArticleResponseCache cache = cache(Duration.ofMinutes(1));
+
+        ArticleResponseCache.SerializedArticle serialized = cache.serialize(article("1", "short"), cache.beginLoad());
+
+        assertFalse(serialized.hasGzip());
+        assertNull(serialized.gzipBase64());
+        // UTF-8 のバイト列と、ASCII だけの JSON 文字列 (1 文字 1 バイト)
+        assertEquals(2L * serialized.json().length, cache.stats().bytes());
+    }
+
+    @Test
+    void invalidationDropsEntriesAndSkipsStaleLoads() {
+        ArticleResponseCache cache = cache(Duration.ofMinutes(1));
+        cache.serialize(article("1", "v1"), cache.beginLoad());
+
+        long loadGeneration = cache.beginLoad();
+        cache.onArticleChanged(ArticleChangedEvent.updated(article("1", "v2")));
+        ArticleResponseCache.SerializedArticle stale = cache.serialize(article("1", "v1"), loadGeneration);
+
+        assertNotNull(stale);
+        assertNull(cache.get("1"));
+        assertEquals(0, cache.stats().bytes());
+    }
+
+    @Test
+    void negotiatesGzip() {
+        assertTrue(ArticleResponseCache.acceptsGzip("gzip, deflate, br"));
+        assertTrue(ArticleResponseCache.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(ArticleResponseCache.acceptsGzip("*"));
+        assertTrue(ArticleResponseCache.acceptsGzip("*;q=0, gzip"));
+        assertFalse(ArticleResponseCache.acceptsGzip(null));
+        assertFalse(ArticleResponseCache.acceptsGzip("identity"));
+        assertFalse(ArticleResponseCache.acceptsGzip("gzip;q=0, *"));
+        assertFalse(ArticleResponseCache.acceptsGzip("br, *;q=0.0"));
+    }
+
+    private static Article article(String id, String content) {
+        Article article = new Article(id, "Title", content, LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 1, 1, 0, 0));
+        article.setVersion(3L);
+        return article;
+    }
+}
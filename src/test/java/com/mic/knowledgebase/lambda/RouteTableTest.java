@@ -0,0 +1,70 @@
+package com.mic.knowledgebase.lambda;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteTableTest {
+
+    private final RouteTable<String> routes = RouteTable.<String>builder()
+            .add("GET", "/articles", "list")
+            .add("GET", "/articles/search", "search")
+            .add("GET", "/articles/{id}", "get")
+            .add("PUT", "/articles/{id}", "update")
+            .add("DELETE", "/articles/{id}", "delete")
+            .add("GET", "/articles/{id}/content", "content")
+            .build();
+
+    @Test
+    void matchesLiteralAndVariableSegments() {
+        assertEquals("list", routes.match("GET", "/articles").getHandler());
+        assertEquals("list", routes.match("GET", "/articles/").getHandler());
+
+        RouteTable.Match<String> match = routes.match("GET", "/articles/abc-123");
+        assertEquals(RouteTable.Status.FOUND, match.getStatus());
+        assertEquals("get", match.getHandler());
+        assertEquals("abc-123", match.pathVariable("id"));
+        assertEquals("/articles/{id}", match.getTemplate());
+
+        match = routes.match("GET", "/articles/abc/content");
+        assertEquals("content", match.getHandler());
+        assertEquals("abc", match.pathVariable("id"));
+    }
+
+    @Test
+    void reusesMatchForRoutesWithoutVariables() {
+        assertSame(routes.match("GET", "/articles"), routes.match("GET", "/articles/"));
+        assertSame(routes.match("GET", "/articles/search"), routes.match("GET", "/articles/search"));
+        assertEquals("abc", routes.match("GET", "articles/abc/content/").pathVariable("id"));
+        assertNull(routes.match("GET", "/articles/abc").pathVariable("name"));
+    }
+
+    @Test
+    void prefersLiteralSegmentsOverVariables() {
+        assertEquals("search", routes.match("GET", "/articles/search").getHandler());
+        // リテラルの枝がそのメソッドを持たない場合は、405 ではなくパス変数の枝で一致する
+        RouteTable.Match<String> match = routes.match("PUT", "/articles/search");
+        assertEquals("update", match.getHandler());
+        assertEquals("search", match.pathVariable("id"));
+    }
+
+    @Test
+    void reportsNotFoundAndMethodNotAllowed() {
+        assertEquals(RouteTable.Status.NOT_FOUND, routes.match("GET", "/users").getStatus());
+        assertEquals(RouteTable.Status.NOT_FOUND, routes.match("GET", "/articles/a/b").getStatus());
+        assertEquals(RouteTable.Status.NOT_FOUND, routes.match("GET", "/articles//content").getStatus());
+        assertEquals(RouteTable.Status.NOT_FOUND, routes.match("GET", null).getStatus());
+
+        RouteTable.Match<String> match = routes.match("POST", "/articles/1");
+        assertEquals(RouteTable.Status.METHOD_NOT_ALLOWED, match.getStatus());
+        assertEquals("DELETE,GET,PUT", match.getAllow());
+    }
+
+    @Test
+    void rejectsDuplicateAndMalformedTemplates() {
+        RouteTable.Builder<String> builder = RouteTable.<String>builder().add("GET", "/a/{id}", "x");
+        assertThrows(IllegalArgumentException.class, () -> builder.add("GET", "/a/{key}", "y"));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("GET", "/a/x{id}", "y"));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("GET", "/b/{id}/{id}", "y"));
+    }
+}
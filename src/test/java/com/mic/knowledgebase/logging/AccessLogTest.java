@@ -0,0 +1,67 @@
+package com.mic.knowledgebase.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessLogTest {
+
+    private final Logger accessLogger = (Logger) LoggerFactory.getLogger("ACCESS_LOG");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        accessLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessLogger.detachAppender(appender);
+    }
+
+    @Test
+    void samplesOnlySuccessfulRequests() {
+        AccessLog accessLog = new AccessLog(0.0, 16);
+
+        assertFalse(accessLog.isSampled(200));
+        assertTrue(accessLog.isSampled(404));
+        assertTrue(accessLog.isSampled(500));
+    }
+
+    @Test
+    void writesOneJsonLineAndCapturesPayloadOnlyOnServerError() {
+        AccessLog accessLog = new AccessLog(1.0, 5);
+
+        accessLog.log(new AccessLogEntry("lambda", "GET", "/articles/{id}", "/articles/1", 200, 1_500_000, 42,
+                "req-1"), () -> "ignored");
+        accessLog.log(new AccessLogEntry("lambda", "POST", "/articles", "/articles", 500, 2_000_000, 10, null),
+                () -> "{\"title\":\"x\"}");
+
+        assertEquals(2, appender.list.size());
+        String success = appender.list.get(0).getFormattedMessage();
+        assertTrue(success.contains("\"route\":\"/articles/{id}\""));
+        assertTrue(success.contains("\"status\":200"));
+        assertTrue(success.contains("\"latencyMs\":1.5"));
+        assertTrue(success.contains("\"requestId\":\"req-1\""));
+        assertFalse(success.contains("payload"));
+        assertFalse(success.contains("\n"));
+
+        String failure = appender.list.get(1).getFormattedMessage();
+        assertTrue(failure.contains("\"payload\":\"{\\\"tit\""));
+    }
+
+    @Test
+    void countsUtf8BytesWithoutEncoding() {
+        assertEquals(0, AccessLog.utf8Length(null));
+        assertEquals(3, AccessLog.utf8Length("abc"));
+        assertEquals(6, AccessLog.utf8Length("記事"));
+        assertEquals(4, AccessLog.utf8Length("😀"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.mic.knowledgebase.metrics;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.http.HttpResponse;
+import com.amazonaws.retry.RetryPolicy;
+import com.amazonaws.services.dynamodbv2.model.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DynamoDBMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DynamoDBMetrics metrics = new DynamoDBMetrics(registry);
+
+    @Test
+    void requestsConsumedCapacityAndRecordsItPerOperation() {
+        GetItemRequest getItem = new GetItemRequest();
+        metrics.beforeExecution(getItem);
+        assertEquals(ReturnConsumedCapacity.TOTAL.toString(), getItem.getReturnConsumedCapacity());
+
+        Request<GetItemRequest> request = request(getItem, "GetItem");
+        request.addHeader("Content-Length", "120");
+        metrics.beforeRequest(request);
+        HttpResponse httpResponse = new HttpResponse(request, null);
+        httpResponse.addHeader("content-length", "300");
+        metrics.afterResponse(request, new Response<>(
+                new GetItemResult().withConsumedCapacity(new ConsumedCapacity().withCapacityUnits(0.5)),
+                httpResponse));
+
+        BatchWriteItemRequest batchWrite = new BatchWriteItemRequest();
+        Request<BatchWriteItemRequest> writeRequest = request(batchWrite, "BatchWriteItem");
+        metrics.beforeRequest(writeRequest);
+        metrics.afterResponse(writeRequest, new Response<>(new BatchWriteItemResult()
+                .withConsumedCapacity(new ConsumedCapacity().withCapacityUnits(20.0))
+                .withUnprocessedItems(Map.of("Articles", List.of(new WriteRequest(), new WriteRequest()))),
+                new HttpResponse(writeRequest, null)));
+
+        assertEquals(0.5, registry.get("dynamodb.consumed.read.capacity.units").tag("operation", "GetItem")
+                .counter().count());
+        assertEquals(20.0, registry.get("dynamodb.consumed.write.capacity.units")
+                .tag("operation", "BatchWriteItem").counter().count());
+        assertEquals(2.0, registry.get("dynamodb.unprocessed.items").counter().count());
+        assertEquals(120.0, registry.get("dynamodb.request.size").tag("operation", "GetItem").summary().totalAmount());
+        assertEquals(300.0, registry.get("dynamodb.response.size").tag("operation", "GetItem").summary().totalAmount());
+        assertEquals(1, registry.get("dynamodb.requests").tags("operation", "GetItem", "outcome", "SUCCESS")
+                .timer().count());
+    }
+
+    @Test
+    void countsThrottlesAndRetries() {
+        RetryPolicy policy = metrics.retryPolicy();
+        AmazonServiceException throttled = new ProvisionedThroughputExceededException("slow down");
+        throttled.setErrorCode("ProvisionedThroughputExceededException");
+        throttled.setStatusCode(400);
+
+        assertTrue(policy.getRetryCondition().shouldRetry(new QueryRequest(), throttled, 0));
+
+        assertEquals(1.0, registry.get("dynamodb.throttles").tag("operation", "Query").counter().count());
+        assertEquals(1.0, registry.get("dynamodb.retries").tags("operation", "Query", "reason", "throttle")
+                .counter().count());
+    }
+
+    private static <T extends com.amazonaws.AmazonWebServiceRequest> Request<T> request(T original,
+            String operation) {
+        DefaultRequest<T> request = new DefaultRequest<>(original, "AmazonDynamoDBv2");
+        request.addHandlerContext(HandlerContextKey.OPERATION_NAME, operation);
+        return request;
+    }
+}
@@ -0,0 +1,85 @@
+package com.mic.knowledgebase.metrics;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmfMetricsEmitterTest {
+
+    private final Logger emfLogger = (Logger) LoggerFactory.getLogger("EMF_METRICS");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final EmfMetricsEmitter emitter = new EmfMetricsEmitter(registry, "Test", Duration.ofMinutes(1),
+            List.of("lambda."));
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        emfLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emfLogger.detachAppender(appender);
+    }
+
+    @Test
+    void writesDeltasSinceLastFlushAsEmf() throws Exception {
+        registry.timer("lambda.requests", "route", "/articles").record(20, TimeUnit.MILLISECONDS);
+        registry.timer("lambda.requests", "route", "/articles").record(10, TimeUnit.MILLISECONDS);
+        registry.counter("jvm.ignored").increment();
+
+        emitter.flush(1000L);
+
+        assertEquals(1, appender.list.size());
+        JsonNode line = new ObjectMapper().readTree(appender.list.get(0).getFormattedMessage());
+        assertEquals(1000L, line.path("_aws").path("Timestamp").asLong());
+        JsonNode directive = line.path("_aws").path("CloudWatchMetrics").get(0);
+        assertEquals("Test", directive.path("Namespace").asText());
+        assertEquals("route", directive.path("Dimensions").get(0).get(0).asText());
+        assertEquals("/articles", line.path("route").asText());
+        assertEquals(2, line.path("lambda.requests.count").asInt());
+        assertEquals(30.0, line.path("lambda.requests.sum").asDouble(), 0.001);
+
+        registry.timer("lambda.requests", "route", "/articles").record(5, TimeUnit.MILLISECONDS);
+        emitter.flush(2000L);
+
+        JsonNode second = new ObjectMapper().readTree(appender.list.get(1).getFormattedMessage());
+        assertEquals(1, second.path("lambda.requests.count").asInt());
+        assertEquals(5.0, second.path("lambda.requests.sum").asDouble(), 0.001);
+
+        // 変化のないメーターは出力しない
+        emitter.flush(3000L);
+        assertEquals(2, appender.list.size());
+    }
+
+    @Test
+    void resetAfterRestoreDropsValuesRecordedBeforeCheckpoint() throws Exception {
+        registry.counter("lambda.primed").increment();
+
+        emitter.resetAfterRestore();
+        emitter.flushIfDue();
+        emitter.flush(1000L);
+
+        assertTrue(appender.list.isEmpty());
+
+        registry.counter("lambda.primed").increment();
+        emitter.flush(2000L);
+
+        JsonNode line = new ObjectMapper().readTree(appender.list.get(0).getFormattedMessage());
+        assertEquals(1, line.path("lambda.primed").asInt());
+    }
+}
@@ -0,0 +1,72 @@
+package com.mic.knowledgebase.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mic.knowledgebase.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArticleFieldsTest {
+
+    private final ObjectMapper objectMapper = ArticleFields.configure(
+            new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @Test
+    void parseAlwaysIncludesIdAndBuildsProjection() {
+        ArticleFields fields = ArticleFields.parse("updatedAt, title", null);
+
+        assertEquals(Set.of("id", "title", "updatedAt"), fields.names());
+        assertFalse(fields.isAll());
+        assertEquals("#id, #title, #updatedAt", fields.projectionExpression());
+        assertEquals(Map.of("#id", "id", "#title", "title", "#updatedAt", "updatedAt"),
+                fields.expressionAttributeNames());
+    }
+
+    @Test
+    void parseViewAndDefaults() {
+        assertEquals(ArticleFields.ALL, ArticleFields.parse(null, null));
+        assertEquals(ArticleFields.ALL, ArticleFields.parse(null, "full"));
+        assertEquals(ArticleFields.SUMMARY, ArticleFields.parse(null, "summary"));
+        assertEquals(ArticleFields.ALL, ArticleFields.parse(String.join(",", ArticleFields.SELECTABLE), null));
+        assertNull(ArticleFields.ALL.projectionExpression());
+        assertNull(ArticleFields.ALL.expressionAttributeNames());
+    }
+
+    @Test
+    void parseRejectsUnknownFieldsAndViews() {
+        assertThrows(BadRequestException.class, () -> ArticleFields.parse("title,createdAtMillis", null));
+        assertThrows(BadRequestException.class, () -> ArticleFields.parse(null, "compact"));
+        assertThrows(BadRequestException.class, () -> ArticleFields.parse("title", "summary"));
+    }
+
+    @Test
+    void filtersWrittenProperties() throws Exception {
+        Article article = new Article("1", "Title", "Content", LocalDateTime.now(), LocalDateTime.now());
+        article.setVersion(3L);
+        ArticlePage page = new ArticlePage(List.of(article), "token");
+
+        JsonNode summary = objectMapper.readTree(
+                objectMapper.writer(ArticleFields.SUMMARY.filters()).writeValueAsString(page));
+        JsonNode full = objectMapper.readTree(objectMapper.writeValueAsString(page));
+
+        JsonNode item = summary.get("items").get(0);
+        assertEquals(Set.of("id", "title", "createdAt", "updatedAt"), Set.copyOf(fieldNames(item)));
+        assertEquals("token", summary.get("nextPageToken").asText());
+        assertEquals("Content", full.get("items").get(0).get("content").asText());
+        assertEquals(3, full.get("items").get(0).get("version").asInt());
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
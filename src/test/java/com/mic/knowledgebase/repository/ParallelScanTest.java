@@ -0,0 +1,78 @@
+package com.mic.knowledgebase.repository;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.mic.knowledgebase.model.Article;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ParallelScanTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void mergesAllSegments() {
+        DynamoDBMapper mapper = mock(DynamoDBMapper.class);
+        when(mapper.scanPage(eq(Article.class), any(DynamoDBScanExpression.class))).thenAnswer(invocation -> {
+            DynamoDBScanExpression expression = invocation.getArgument(1);
+            int segment = expression.getSegment();
+            ScanResultPage<Article> page = new ScanResultPage<>();
+            if (expression.getExclusiveStartKey() == null) {
+                page.setResults(List.of(article(segment + "-a")));
+                page.setLastEvaluatedKey(Map.of("id", new AttributeValue().withS(segment + "-a")));
+            } else {
+                page.setResults(List.of(article(segment + "-b")));
+            }
+            return page;
+        });
+
+        Set<String> ids;
+        try (Stream<Article> scan = ParallelScan.stream(mapper, Article.class, 3, executor)) {
+            ids = scan.map(Article::getId).collect(Collectors.toSet());
+        }
+
+        assertEquals(Set.of("0-a", "0-b", "1-a", "1-b", "2-a", "2-b"), ids);
+    }
+
+    @Test
+    void segmentFailureIsRethrown() {
+        DynamoDBMapper mapper = mock(DynamoDBMapper.class);
+        when(mapper.scanPage(eq(Article.class), any(DynamoDBScanExpression.class))).thenAnswer(invocation -> {
+            DynamoDBScanExpression expression = invocation.getArgument(1);
+            if (expression.getSegment() == 1) {
+                throw new AmazonServiceException("Segment failed");
+            }
+            ScanResultPage<Article> page = new ScanResultPage<>();
+            page.setResults(List.of(article(String.valueOf(expression.getSegment()))));
+            return page;
+        });
+
+        try (Stream<Article> scan = ParallelScan.stream(mapper, Article.class, 2, executor)) {
+            assertThrows(AmazonServiceException.class, scan::count);
+        }
+    }
+
+    private static Article article(String id) {
+        return new Article(id, "Title " + id, "Content " + id, null, null);
+    }
+}
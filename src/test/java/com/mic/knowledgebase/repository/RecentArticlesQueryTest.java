@@ -0,0 +1,135 @@
+package com.mic.knowledgebase.repository;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.mic.knowledgebase.exception.InvalidPageTokenException;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.model.ArticleFields;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RecentArticlesQueryTest {
+
+    private static final Comparator<Article> INDEX_ORDER = Comparator
+            .comparing(Article::getUpdatedAtMillis, Comparator.reverseOrder())
+            .thenComparing(Article::getId, Comparator.reverseOrder());
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void pagesThroughAllShardsNewestFirst() {
+        List<Article> articles = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 50; i++) {
+            // 同じ更新日時の記事も含める
+            articles.add(new Article("article-" + i, "Title", "Content", base, base.plusMinutes(i / 3)));
+        }
+        DynamoDBMapper mapper = fakeIndex(articles);
+
+        List<Article> read = new ArrayList<>();
+        Map<String, AttributeValue> cursor = null;
+        int pages = 0;
+        do {
+            QueryResultPage<Article> page = RecentArticlesQuery.execute(mapper, executor, 7, cursor,
+                    ArticleFields.SUMMARY);
+            assertTrue(page.getResults().size() <= 7);
+            read.addAll(page.getResults());
+            cursor = page.getLastEvaluatedKey();
+            pages++;
+        } while (cursor != null && pages < 20);
+
+        assertNull(cursor);
+        assertEquals(50, read.size());
+        assertEquals(50, new HashSet<>(read.stream().map(Article::getId).toList()).size());
+        for (int i = 1; i < read.size(); i++) {
+            assertTrue(read.get(i - 1).getUpdatedAtMillis() >= read.get(i).getUpdatedAtMillis());
+        }
+        assertEquals(base.plusMinutes(16), read.get(0).getUpdatedAt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readsOnlyTheRequestedAttributesFromTheIndex() {
+        DynamoDBMapper mapper = fakeIndex(List.of());
+
+        RecentArticlesQuery.execute(mapper, executor, 5, null, ArticleFields.parse("title,content", null));
+
+        ArgumentCaptor<DynamoDBQueryExpression<Article>> captor = ArgumentCaptor.forClass(DynamoDBQueryExpression.class);
+        verify(mapper, times(Article.RECENT_SHARDS)).queryPage(eq(Article.class), captor.capture());
+        DynamoDBQueryExpression<Article> expression = captor.getValue();
+        assertEquals(Article.RECENT_INDEX, expression.getIndexName());
+        assertFalse(expression.isScanIndexForward());
+        assertEquals("#id, #title, #updatedAt", expression.getProjectionExpression());
+        assertFalse(RecentArticlesQuery.coveredByIndex(ArticleFields.ALL));
+        assertTrue(RecentArticlesQuery.coveredByIndex(ArticleFields.SUMMARY));
+    }
+
+    @Test
+    void rejectsInvalidCursor() {
+        DynamoDBMapper mapper = fakeIndex(List.of());
+
+        assertThrows(InvalidPageTokenException.class, () -> RecentArticlesQuery.execute(mapper, executor, 5,
+                Map.of("id", new AttributeValue().withS("1")), ArticleFields.ALL));
+        assertThrows(InvalidPageTokenException.class, () -> RecentArticlesQuery.execute(mapper, executor, 5,
+                Map.of(Article.RECENT_SHARDS + ".end", new AttributeValue().withN("1")), ArticleFields.ALL));
+        assertThrows(InvalidPageTokenException.class, () -> RecentArticlesQuery.execute(mapper, executor, 5,
+                Map.of("0.id", new AttributeValue().withS("1")), ArticleFields.ALL));
+    }
+
+    /**
+     * RecentIndex のクエリを真似るモック。シャードの記事を updatedAtMillis の降順に並べ、Limit 件まで返します。
+     */
+    @SuppressWarnings("unchecked")
+    private static DynamoDBMapper fakeIndex(List<Article> articles) {
+        DynamoDBMapper mapper = mock(DynamoDBMapper.class);
+        when(mapper.queryPage(eq(Article.class), any(DynamoDBQueryExpression.class))).thenAnswer(invocation -> {
+            DynamoDBQueryExpression<Article> expression = invocation.getArgument(1);
+            int shard = Integer.parseInt(expression.getExpressionAttributeValues().get(":shard").getN());
+            List<Article> partition = articles.stream()
+                    .filter(article -> Article.recentShardOf(article.getId()) == shard)
+                    .sorted(INDEX_ORDER)
+                    .toList();
+            int from = 0;
+            Map<String, AttributeValue> startKey = expression.getExclusiveStartKey();
+            if (startKey != null) {
+                assertEquals(String.valueOf(shard), startKey.get("recentShard").getN());
+                while (!partition.get(from).getId().equals(startKey.get("id").getS())) {
+                    from++;
+                }
+                from++;
+            }
+            List<Article> results = partition.subList(from, Math.min(from + expression.getLimit(), partition.size()));
+            QueryResultPage<Article> page = new QueryResultPage<>();
+            page.setResults(new ArrayList<>(results));
+            if (results.size() == expression.getLimit()) {
+                Article last = results.get(results.size() - 1);
+                page.setLastEvaluatedKey(Map.of("id", new AttributeValue().withS(last.getId()),
+                        "recentShard", new AttributeValue().withN(String.valueOf(shard)),
+                        "updatedAtMillis", new AttributeValue().withN(last.getUpdatedAtMillis().toString())));
+            }
+            return page;
+        });
+        return mapper;
+    }
+}
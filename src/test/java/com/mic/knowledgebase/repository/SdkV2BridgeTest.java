@@ -0,0 +1,74 @@
+package com.mic.knowledgebase.repository;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SdkV2BridgeTest {
+
+    @Test
+    void attributeValuesRoundTrip() {
+        Map<String, AttributeValue> item = Map.of(
+                "id", new AttributeValue().withS("1"),
+                "version", new AttributeValue().withN("3"),
+                "body", new AttributeValue().withB(ByteBuffer.wrap(new byte[] { 1, 2, 3 })),
+                "tags", new AttributeValue().withSS("a", "b"),
+                "nested", new AttributeValue().withM(Map.of("flag", new AttributeValue().withBOOL(true))),
+                "list", new AttributeValue().withL(new AttributeValue().withNULL(true)));
+
+        assertEquals(item, SdkV2Bridge.toV1(SdkV2Bridge.toV2(item)));
+    }
+
+    @Test
+    void deleteRequest() {
+        DeleteItemRequest v1 = ArticleRepositoryImpl.deleteRequest("1", 2L);
+
+        software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest v2 = SdkV2Bridge.toV2(v1);
+
+        assertEquals(ArticleRepositoryImpl.TABLE_NAME, v2.tableName());
+        assertEquals("1", v2.key().get("id").s());
+        assertEquals(v1.getConditionExpression(), v2.conditionExpression());
+        assertEquals("2", v2.expressionAttributeValues().get(":expectedVersion").n());
+        assertEquals("ALL_OLD", v2.returnValuesOnConditionCheckFailureAsString());
+    }
+
+    @Test
+    void conditionalCheckFailedKeepsItem() {
+        Throwable converted = SdkV2Bridge.toV1Exception(new CompletionException(
+                software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException.builder()
+                        .item(Map.of("id", software.amazon.awssdk.services.dynamodb.model.AttributeValue.fromS("1")))
+                        .awsErrorDetails(AwsErrorDetails.builder().errorCode("ConditionalCheckFailedException")
+                                .errorMessage("The conditional request failed").build())
+                        .statusCode(400)
+                        .build()));
+
+        ConditionalCheckFailedException e = assertInstanceOf(ConditionalCheckFailedException.class, converted);
+        assertEquals("1", e.getItem().get("id").getS());
+        assertEquals(400, e.getStatusCode());
+        assertEquals("ConditionalCheckFailedException", e.getErrorCode());
+    }
+
+    @Test
+    void serviceErrorBecomesAmazonServiceException() {
+        Throwable converted = SdkV2Bridge.toV1Exception(
+                software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException.builder()
+                        .awsErrorDetails(AwsErrorDetails.builder()
+                                .errorCode("ProvisionedThroughputExceededException").build())
+                        .statusCode(400)
+                        .build());
+
+        AmazonServiceException e = assertInstanceOf(AmazonServiceException.class, converted);
+        assertEquals("ProvisionedThroughputExceededException", e.getErrorCode());
+        assertSame(IllegalStateException.class,
+                SdkV2Bridge.toV1Exception(new IllegalStateException()).getClass());
+    }
+}
@@ -0,0 +1,77 @@
+package com.mic.knowledgebase.resilience;
+
+import com.mic.knowledgebase.exception.ThrottledException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private AdaptiveRateLimiter limiter(double initialRate, double maxRate, long maxWaitMillis) {
+        return new AdaptiveRateLimiter(initialRate, 1, maxRate, 10, 0.5, maxWaitMillis, now::get);
+    }
+
+    @Test
+    void reservesFutureTokensAndRejectsBeyondMaxWait() {
+        AdaptiveRateLimiter limiter = limiter(10, 100, 150);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.reserve());
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), limiter.reserve());
+
+        ThrottledException e = assertThrows(ThrottledException.class, limiter::reserve);
+        assertEquals(1, e.getRetryAfterSeconds());
+        assertEquals(1, limiter.getRejectedCount());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), limiter.reserve());
+    }
+
+    @Test
+    void halvesRateOncePerIntervalOnThrottle() {
+        AdaptiveRateLimiter limiter = limiter(100, 1000, 1000);
+
+        limiter.onThrottle();
+        limiter.onThrottle();
+        assertEquals(50, limiter.getRate());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(20));
+        limiter.onThrottle();
+        assertEquals(25, limiter.getRate());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        for (int i = 0; i < 20; i++) {
+            limiter.onThrottle();
+            now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        }
+        assertEquals(1, limiter.getRate());
+    }
+
+    @Test
+    void discardsBurstTokensOnThrottle() {
+        AdaptiveRateLimiter limiter = limiter(10, 100, 1000);
+
+        limiter.onThrottle();
+
+        assertTrue(limiter.reserve() > 0);
+    }
+
+    @Test
+    void increasesRateOnSuccessUpToMax() {
+        AdaptiveRateLimiter limiter = limiter(10, 12, 1000);
+
+        limiter.onSuccess();
+        assertEquals(11, limiter.getRate());
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onSuccess();
+        }
+        assertEquals(12, limiter.getRate());
+    }
+}
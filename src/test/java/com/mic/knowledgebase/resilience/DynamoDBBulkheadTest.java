@@ -0,0 +1,69 @@
+package com.mic.knowledgebase.resilience;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.mic.knowledgebase.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DynamoDBBulkheadTest {
+
+    @Test
+    void rejectsCallsBeyondLimit() throws Exception {
+        AmazonDynamoDB client = mock(AmazonDynamoDB.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(client.getItem(any(GetItemRequest.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new GetItemResult();
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AmazonDynamoDB bulkhead = DynamoDBBulkhead.wrap(client, 1, 10, registry);
+
+        CompletableFuture<GetItemResult> first = CompletableFuture.supplyAsync(
+                () -> bulkhead.getItem(new GetItemRequest()));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(1.0, registry.get("dynamodb.bulkhead.active").gauge().value());
+
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+                () -> bulkhead.getItem(new GetItemRequest()));
+        assertEquals(1, e.getRetryAfterSeconds());
+        assertEquals(1.0, registry.get("dynamodb.bulkhead.rejected").counter().count());
+
+        release.countDown();
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        assertEquals(0.0, registry.get("dynamodb.bulkhead.active").gauge().value());
+        assertNotNull(bulkhead.getItem(new GetItemRequest()));
+    }
+
+    @Test
+    void rethrowsClientExceptionsAndReleasesPermit() {
+        AmazonDynamoDB client = mock(AmazonDynamoDB.class);
+        when(client.getItem(any(GetItemRequest.class))).thenThrow(new IllegalStateException("boom"));
+        AmazonDynamoDB bulkhead = DynamoDBBulkhead.wrap(client, 1, 10, new SimpleMeterRegistry());
+
+        assertThrows(IllegalStateException.class, () -> bulkhead.getItem(new GetItemRequest()));
+        assertThrows(IllegalStateException.class, () -> bulkhead.getItem(new GetItemRequest()));
+        verify(client, times(2)).getItem(any(GetItemRequest.class));
+    }
+
+    @Test
+    void doesNotLimitNonRequestMethods() {
+        AmazonDynamoDB client = mock(AmazonDynamoDB.class);
+        AmazonDynamoDB bulkhead = DynamoDBBulkhead.wrap(client, 1, 10, new SimpleMeterRegistry());
+
+        bulkhead.shutdown();
+
+        verify(client).shutdown();
+    }
+}
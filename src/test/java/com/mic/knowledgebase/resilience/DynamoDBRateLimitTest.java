@@ -0,0 +1,65 @@
+package com.mic.knowledgebase.resilience;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
+import com.mic.knowledgebase.exception.ThrottledException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DynamoDBRateLimitTest {
+
+    @Test
+    void convertsThrottlingToThrottledException() {
+        AmazonDynamoDB client = mock(AmazonDynamoDB.class);
+        ProvisionedThroughputExceededException throttled = new ProvisionedThroughputExceededException("slow down");
+        throttled.setErrorCode("ProvisionedThroughputExceededException");
+        when(client.getItem(any(GetItemRequest.class))).thenThrow(throttled);
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(100, 1, 1000, 10, 0.5, 1000);
+        AmazonDynamoDB limited = DynamoDBRateLimit.wrap(client, limiter);
+
+        ThrottledException e = assertThrows(ThrottledException.class, () -> limited.getItem(new GetItemRequest()));
+
+        assertSame(throttled, e.getCause());
+        assertEquals(50, limiter.getRate());
+    }
+
+    @Test
+    void rethrowsOtherServiceExceptions() {
+        AmazonDynamoDB client = mock(AmazonDynamoDB.class);
+        AmazonServiceException error = new AmazonServiceException("bad request");
+        error.setErrorCode("ValidationException");
+        when(client.getItem(any(GetItemRequest.class))).thenThrow(error);
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(100, 1, 1000, 10, 0.5, 1000);
+        AmazonDynamoDB limited = DynamoDBRateLimit.wrap(client, limiter);
+
+        assertSame(error, assertThrows(AmazonServiceException.class, () -> limited.getItem(new GetItemRequest())));
+        assertEquals(100, limiter.getRate());
+    }
+
+    @Test
+    void adjustsRateFromResults() {
+        AmazonDynamoDB client = mock(AmazonDynamoDB.class);
+        when(client.getItem(any(GetItemRequest.class))).thenReturn(new GetItemResult());
+        when(client.batchGetItem(any(BatchGetItemRequest.class))).thenReturn(new BatchGetItemResult()
+                .withUnprocessedKeys(Map.of("Articles", new KeysAndAttributes())));
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(100, 1, 1000, 10, 0.5, 1000);
+        AmazonDynamoDB limited = DynamoDBRateLimit.wrap(client, limiter);
+
+        limited.getItem(new GetItemRequest());
+        assertEquals(100.1, limiter.getRate(), 1e-9);
+
+        limited.batchGetItem(new BatchGetItemRequest());
+        assertEquals(50.05, limiter.getRate(), 1e-9);
+    }
+}
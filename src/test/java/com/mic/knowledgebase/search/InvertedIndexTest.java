@@ -0,0 +1,91 @@
+package com.mic.knowledgebase.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    @Test
+    void tokenizesLatinWordsAndJapaneseBigrams() {
+        assertEquals(List.of("spring", "boot", "3"), Tokenizer.tokenize("Spring Boot ３"));
+        assertEquals(List.of("検索", "索機", "機能"), Tokenizer.tokenize("検索機能"));
+        assertEquals(List.of("aws", "設定", "定方", "方法"), Tokenizer.tokenize("AWSの設定方法".replace("の", " ")));
+    }
+
+    @Test
+    void ranksMoreRelevantDocumentsFirst() {
+        InvertedIndex index = new InvertedIndex();
+        index.upsert("1", "DynamoDB の使い方", "テーブルの作成とクエリについて");
+        index.upsert("2", "Spring Boot 入門", "DynamoDB にも少し触れます");
+        index.upsert("3", "React", "フロントエンドの話");
+
+        List<InvertedIndex.Hit> hits = index.search("dynamodb", 10);
+
+        assertEquals(List.of("1", "2"), hits.stream().map(InvertedIndex.Hit::articleId).toList());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void updatesAndRemovesDocuments() {
+        InvertedIndex index = new InvertedIndex();
+        index.upsert("1", "Old title", "alpha");
+        index.upsert("1", "New title", "beta");
+
+        assertTrue(index.search("alpha", 10).isEmpty());
+        assertEquals(1, index.search("beta", 10).size());
+
+        index.remove("1");
+
+        assertTrue(index.search("beta", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void compactionKeepsLiveDocumentsSearchable() {
+        InvertedIndex index = new InvertedIndex();
+        for (int i = 0; i < 3000; i++) {
+            index.upsert(String.valueOf(i % 10), "title", "common word" + (i % 10));
+        }
+
+        assertEquals(10, index.size());
+        assertEquals(10, index.search("common", 20).size());
+        assertEquals("7", index.search("word7", 5).get(0).articleId());
+    }
+
+    @Test
+    void snippetHighlightsFirstMatch() {
+        String content = "x".repeat(100) + " needle " + "y".repeat(100);
+
+        String snippet = SearchService.snippet(InvertedIndex.SnippetSource.of(content), Tokenizer.tokenize("needle"));
+
+        assertTrue(snippet.startsWith("…"));
+        assertTrue(snippet.contains("needle"));
+    }
+
+    @Test
+    void snippetFindsMatchWhenNormalizationChangesLength() {
+        // 半角カナの濁点は NFKC で前の文字と結合するため、正規化で文字数が減る
+        String content = "ｶﾞ".repeat(100) + " Needle " + "ﾃﾞ".repeat(100);
+
+        String snippet = SearchService.snippet(InvertedIndex.SnippetSource.of(content), Tokenizer.tokenize("needle"));
+
+        assertTrue(snippet.startsWith("…ガ"));
+        assertTrue(snippet.contains("Needle"));
+        assertTrue(snippet.endsWith("デ…"));
+    }
+
+    @Test
+    void keepsOnlyBoundedPrefixForSnippets() {
+        InvertedIndex index = new InvertedIndex();
+        index.upsert("1", "title", "head " + "x".repeat(10_000) + " tail");
+
+        InvertedIndex.Hit hit = index.search("tail", 1).get(0);
+
+        assertEquals(InvertedIndex.SNIPPET_SOURCE_CHARS, hit.snippetSource().text().length());
+        assertTrue(hit.snippetSource().truncated());
+        assertTrue(SearchService.snippet(hit.snippetSource(), Tokenizer.tokenize("tail")).startsWith("head "));
+    }
+}
@@ -0,0 +1,116 @@
+package com.mic.knowledgebase.search;
+
+import com.mic.knowledgebase.event.ArticleChangedEvent;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.repository.ArticleRepository;
+import com.mic.knowledgebase.service.ArticleContentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SearchServiceTest {
+
+    @Mock
+    private ArticleRepository articleRepository;
+
+    @Mock
+    private ArticleContentStore articleContentStore;
+
+    @InjectMocks
+    private SearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void eventsReceivedDuringBuildAreAppliedAfterScan() {
+        Article scanned = new Article("1", "Old title", "alpha", LocalDateTime.now(), LocalDateTime.now());
+        Article updated = new Article("1", "New title", "beta", LocalDateTime.now(), LocalDateTime.now());
+        when(articleRepository.parallelScan()).thenReturn(Stream.of(scanned)
+                .peek(article -> searchService.onArticleChanged(ArticleChangedEvent.updated(updated))));
+
+        searchService.rebuild();
+
+        assertTrue(searchService.search("alpha", null).isEmpty());
+        assertEquals(1, searchService.search("beta", null).size());
+    }
+
+    @Test
+    void eventReceivedWhileReplayingIsAppliedAfterBufferedEvents() {
+        Article scanned = new Article("1", "Title", "alpha", LocalDateTime.now(), LocalDateTime.now());
+        // 保留中の UPDATE を再適用している最中に DELETE が届く状況を再現する
+        // （1 回目の getTitle は受信時の現在のインデックスへの適用、2 回目が新しいインデックスへの再適用）
+        AtomicBoolean deleteSent = new AtomicBoolean();
+        AtomicInteger titleReads = new AtomicInteger();
+        Article updated = spy(new Article("1", "Title", "beta", LocalDateTime.now(), LocalDateTime.now()));
+        doAnswer(invocation -> {
+            if (titleReads.incrementAndGet() == 2 && deleteSent.compareAndSet(false, true)) {
+                searchService.onArticleChanged(ArticleChangedEvent.deleted("1"));
+            }
+            return invocation.callRealMethod();
+        }).when(updated).getTitle();
+        when(articleRepository.parallelScan()).thenReturn(Stream.of(scanned)
+                .peek(article -> searchService.onArticleChanged(ArticleChangedEvent.updated(updated))));
+
+        searchService.rebuild();
+
+        assertTrue(deleteSent.get());
+        assertTrue(searchService.search("beta", null).isEmpty());
+        assertTrue(searchService.search("alpha", null).isEmpty());
+    }
+
+    @Test
+    void staleIndexIsServedUntilNextSearchRebuildsIt() {
+        Article first = new Article("1", "Title", "alpha", LocalDateTime.now(), LocalDateTime.now());
+        Article second = new Article("2", "Title", "beta", LocalDateTime.now(), LocalDateTime.now());
+        List<Integer> hitsDuringBuild = new ArrayList<>();
+        when(articleRepository.parallelScan()).thenReturn(Stream.of(first)).thenReturn(Stream.of(second)
+                .peek(article -> hitsDuringBuild.add(searchService.search("alpha", null).size())));
+        searchService.rebuild();
+
+        searchService.markStale();
+        verify(articleRepository, times(1)).parallelScan();
+
+        assertTrue(searchService.search("alpha", null).isEmpty());
+        assertEquals(1, searchService.search("beta", null).size());
+        // 作り直しの間は前回のインデックスで検索する
+        assertEquals(List.of(1), hitsDuringBuild);
+        verify(articleRepository, times(2)).parallelScan();
+    }
+
+    @Test
+    void indexesOffloadedContent() {
+        Article scanned = offloaded("1", "ref-1");
+        Article created = offloaded("2", "ref-2");
+        when(articleContentStore.readContent(scanned)).thenReturn("large body mentioning zeppelin");
+        when(articleContentStore.readContent(created)).thenReturn("large body mentioning dirigible");
+        when(articleRepository.parallelScan()).thenReturn(Stream.of(scanned));
+
+        searchService.rebuild();
+        searchService.onArticleChanged(ArticleChangedEvent.created(created));
+
+        assertEquals("1", searchService.search("zeppelin", null).get(0).getId());
+        assertEquals("2", searchService.search("dirigible", null).get(0).getId());
+    }
+
+    private static Article offloaded(String id, String contentRef) {
+        Article article = new Article(id, "Title", null, LocalDateTime.now(), LocalDateTime.now());
+        article.setContentRef(contentRef);
+        article.setContentLength(70_000L);
+        return article;
+    }
+}
@@ -0,0 +1,132 @@
+package com.mic.knowledgebase.service;
+
+import com.mic.knowledgebase.blob.FileSystemBlobStore;
+import com.mic.knowledgebase.exception.ArticleNotFoundException;
+import com.mic.knowledgebase.model.Article;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArticleContentStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private FileSystemBlobStore blobStore;
+    private ExecutorService executor;
+    private ArticleContentStore articleContentStore;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new FileSystemBlobStore(directory);
+        executor = Executors.newSingleThreadExecutor();
+        articleContentStore = new ArticleContentStore();
+        ReflectionTestUtils.setField(articleContentStore, "blobStore", blobStore);
+        ReflectionTestUtils.setField(articleContentStore, "dynamoDBExecutor", executor);
+        ReflectionTestUtils.setField(articleContentStore, "offloadThresholdBytes", 16);
+        ReflectionTestUtils.setField(articleContentStore, "retentionSeconds", 0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void offloadsLargeContentAndStreamsItBack() throws Exception {
+        String content = "ランブック: 長い本文 ".repeat(10);
+        Article article = new Article("a1", "Title", content, null, null);
+
+        String contentRef = articleContentStore.offload(article);
+
+        assertNotNull(contentRef);
+        assertNull(article.getContent());
+        assertEquals(contentRef, article.getContentRef());
+        assertEquals(content.getBytes(StandardCharsets.UTF_8).length, article.getContentLength());
+        try (InputStream in = articleContentStore.open(article)) {
+            assertEquals(content, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(content, articleContentStore.readContent(article));
+    }
+
+    @Test
+    void keepsSmallContentInline() throws Exception {
+        Article article = new Article("a1", "Title", "short", null, null);
+        article.setContentRef("stale");
+        article.setContentLength(100L);
+
+        assertNull(articleContentStore.offload(article));
+
+        assertEquals("short", article.getContent());
+        assertNull(article.getContentRef());
+        assertNull(article.getContentLength());
+        try (InputStream in = articleContentStore.open(article)) {
+            assertEquals("short", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(List.of(), blobStore.list("a1"));
+    }
+
+    @Test
+    void missingContentIsNotFound() {
+        Article article = new Article("a1", "Title", null, null, null);
+        article.setContentRef(ArticleContentStore.newContentRef());
+
+        assertThrows(ArticleNotFoundException.class, () -> articleContentStore.open(article));
+    }
+
+    @Test
+    void sweepDeletesReplacedContentAndDeleteAllDeletesEverything() throws Exception {
+        Article first = new Article("a1", "Title", "x".repeat(32), null, null);
+        String oldRef = articleContentStore.offload(first);
+        Thread.sleep(2);
+        Article second = new Article("a1", "Title", "y".repeat(32), null, null);
+        String newRef = articleContentStore.offload(second);
+
+        articleContentStore.sweep("a1", newRef);
+        assertEquals(List.of(newRef), blobStore.list("a1"));
+        assertTrue(blobStore.open("a1", oldRef).isEmpty());
+
+        // 削除の予約はリクエストの中で済むため、待たずに確認できる
+        articleContentStore.deleteAll("a1");
+        assertEquals(List.of(), blobStore.list("a1"));
+    }
+
+    @Test
+    void discardExpiresContentOfFailedWrite() {
+        String contentRef = articleContentStore.offload(new Article("a1", "Title", "x".repeat(32), null, null));
+
+        articleContentStore.discardAsync("a1", contentRef).join();
+
+        assertEquals(List.of(), blobStore.list("a1"));
+        assertTrue(blobStore.open("a1", contentRef).isEmpty());
+    }
+
+    @Test
+    void sweepKeepsReplacedContentReadableDuringRetention() throws Exception {
+        ReflectionTestUtils.setField(articleContentStore, "retentionSeconds", 300L);
+        String oldRef = articleContentStore.offload(new Article("a1", "Title", "x".repeat(32), null, null));
+        Thread.sleep(2);
+        String newRef = articleContentStore.offload(new Article("a1", "Title", "y".repeat(32), null, null));
+        Thread.sleep(2);
+        // 並行する更新がこの更新の後に書き込んだ本文
+        String concurrentRef = articleContentStore.offload(new Article("a1", "Title", "z".repeat(32), null, null));
+
+        articleContentStore.sweep("a1", newRef);
+
+        assertEquals(List.of(newRef, concurrentRef), blobStore.list("a1").stream().sorted().toList());
+        try (InputStream in = blobStore.open("a1", oldRef).orElseThrow()) {
+            assertEquals("x".repeat(32), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
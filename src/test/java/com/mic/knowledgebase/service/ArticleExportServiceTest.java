@@ -0,0 +1,68 @@
+package com.mic.knowledgebase.service;
+
+import com.amazonaws.AmazonServiceException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mic.knowledgebase.exception.DatabaseOperationException;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.repository.ArticleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ArticleExportServiceTest {
+
+    @Mock
+    private ArticleRepository articleRepository;
+
+    @Mock
+    private ArticleContentStore articleContentStore;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @InjectMocks
+    private ArticleExportService articleExportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(articleExportService, "flushInterval", 2);
+    }
+
+    @Test
+    void exportAsNdjson() throws Exception {
+        when(articleRepository.parallelScan()).thenReturn(Stream.of(
+                new Article("1", "Title 1", "Content 1", LocalDateTime.now(), LocalDateTime.now()),
+                new Article("2", "Title 2", "Content 2", LocalDateTime.now(), LocalDateTime.now()),
+                new Article("3", "Title 3", "Content 3", LocalDateTime.now(), LocalDateTime.now())));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = articleExportService.exportAsNdjson(out);
+
+        assertEquals(3, count);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("3", objectMapper.readValue(lines[2], Article.class).getId());
+    }
+
+    @Test
+    void exportAsNdjson_DatabaseOperationException() {
+        when(articleRepository.parallelScan()).thenThrow(new AmazonServiceException("Database error"));
+
+        assertThrows(DatabaseOperationException.class,
+                () -> articleExportService.exportAsNdjson(new ByteArrayOutputStream()));
+    }
+}
@@ -0,0 +1,103 @@
+package com.mic.knowledgebase.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mic.knowledgebase.model.BatchItemResult;
+import com.mic.knowledgebase.model.BatchWriteResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ArticleImportServiceTest {
+
+    @Mock
+    private ArticleService articleService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @InjectMocks
+    private ArticleImportService articleImportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(articleImportService, "windowSize", 2);
+        when(articleService.createArticles(anyList(), anyInt())).thenAnswer(invocation -> {
+            List<?> articles = invocation.getArgument(0);
+            int startIndex = invocation.getArgument(1);
+            List<BatchItemResult> results = new ArrayList<>();
+            for (int i = 0; i < articles.size(); i++) {
+                results.add(new BatchItemResult(startIndex + i, "id-" + (startIndex + i), BatchItemResult.CREATED,
+                        null));
+            }
+            return results;
+        });
+    }
+
+    @Test
+    void importArticles_JsonArray() throws Exception {
+        String body = "[{\"title\":\"A\",\"content\":\"a\"},{\"title\":\"B\",\"content\":\"b\"},"
+                + "{\"title\":\"C\",\"content\":\"c\"}]";
+
+        BatchWriteResult result = articleImportService.importArticles(stream(body));
+
+        assertEquals(3, result.getSucceeded());
+        assertEquals(2, result.getResults().get(2).getIndex());
+        verify(articleService).createArticles(anyList(), eq(0));
+        verify(articleService).createArticles(anyList(), eq(2));
+    }
+
+    @Test
+    void importArticles_Ndjson() throws Exception {
+        String body = "{\"title\":\"A\",\"content\":\"a\"}\n{\"title\":\"B\",\"content\":\"b\"}\n";
+
+        BatchWriteResult result = articleImportService.importArticles(stream(body));
+
+        assertEquals(2, result.getSucceeded());
+        assertEquals(0, result.getFailed());
+    }
+
+    @Test
+    void importArticles_InvalidJson() {
+        assertThrows(JsonProcessingException.class, () -> articleImportService.importArticles(stream("[{\"title\":")));
+    }
+
+    @Test
+    void importArticles_InvalidLineAfterFirstWindow() throws Exception {
+        ReflectionTestUtils.setField(articleImportService, "windowSize", 500);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 502; i++) {
+            body.append("{\"title\":\"T").append(i).append("\",\"content\":\"c\"}\n");
+        }
+        body.append("{\"title\": broken}\n{\"title\":\"after\",\"content\":\"c\"}\n");
+
+        BatchWriteResult result = articleImportService.importArticles(stream(body.toString()));
+
+        assertEquals(502, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        BatchItemResult failed = result.getResults().get(502);
+        assertEquals(502, failed.getIndex());
+        assertEquals(BatchItemResult.FAILED, failed.getStatus());
+        verify(articleService).createArticles(anyList(), eq(0));
+        verify(articleService).createArticles(argThat(articles -> articles.size() == 2), eq(500));
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
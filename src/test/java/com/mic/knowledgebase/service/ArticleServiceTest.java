@@ -1,22 +1,36 @@
 package com.mic.knowledgebase.service;
 
 import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.mic.knowledgebase.cache.ArticleCache;
+import com.mic.knowledgebase.event.ArticleChangedEvent;
 import com.mic.knowledgebase.exception.ArticleNotFoundException;
 import com.mic.knowledgebase.exception.DatabaseOperationException;
+import com.mic.knowledgebase.exception.InvalidPageTokenException;
+import com.mic.knowledgebase.exception.PreconditionFailedException;
 import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.model.ArticleFields;
+import com.mic.knowledgebase.model.ArticlePage;
+import com.mic.knowledgebase.model.BatchItemResult;
+import com.mic.knowledgebase.model.MultiGetResult;
 import com.mic.knowledgebase.repository.ArticleRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class ArticleServiceTest {
@@ -24,6 +38,15 @@ class ArticleServiceTest {
     @Mock
     private ArticleRepository articleRepository;
 
+    @Mock
+    private ArticleCache articleCache;
+
+    @Mock
+    private ArticleContentStore articleContentStore;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ArticleService articleService;
 
@@ -37,21 +60,48 @@ class ArticleServiceTest {
         List<Article> articles = Arrays.asList(
                 new Article("1", "Title 1", "Content 1", LocalDateTime.now(), LocalDateTime.now()),
                 new Article("2", "Title 2", "Content 2", LocalDateTime.now(), LocalDateTime.now()));
-        when(articleRepository.findAll()).thenReturn(articles);
+        when(articleRepository.parallelScan(ArticleFields.ALL)).thenReturn(articles.stream());
 
         List<Article> result = articleService.getAllArticles();
 
         assertEquals(2, result.size());
-        verify(articleRepository, times(1)).findAll();
+        verify(articleRepository, times(1)).parallelScan(ArticleFields.ALL);
     }
 
     @Test
     void getAllArticles_DatabaseOperationException() {
-        when(articleRepository.findAll()).thenThrow(new AmazonServiceException("Database error"));
+        when(articleRepository.parallelScan(ArticleFields.ALL)).thenThrow(new AmazonServiceException("Database error"));
 
         assertThrows(DatabaseOperationException.class, () -> articleService.getAllArticles());
     }
 
+    @Test
+    void getArticlesPage() {
+        ScanResultPage<Article> page = new ScanResultPage<>();
+        page.setResults(List.of(new Article("1", "Title 1", "Content 1", LocalDateTime.now(), LocalDateTime.now())));
+        page.setLastEvaluatedKey(Map.of("id", new AttributeValue().withS("1")));
+        when(articleRepository.scanPage(eq(1), isNull(), eq(ArticleFields.ALL))).thenReturn(page);
+
+        ArticlePage result = articleService.getArticlesPage(1, null);
+
+        assertEquals(1, result.getItems().size());
+        assertNotNull(result.getNextPageToken());
+
+        ScanResultPage<Article> lastPage = new ScanResultPage<>();
+        lastPage.setResults(List.of());
+        when(articleRepository.scanPage(1, Map.of("id", new AttributeValue().withS("1")), ArticleFields.ALL)).thenReturn(lastPage);
+
+        ArticlePage next = articleService.getArticlesPage(1, result.getNextPageToken());
+
+        assertTrue(next.getItems().isEmpty());
+        assertNull(next.getNextPageToken());
+    }
+
+    @Test
+    void getArticlesPage_InvalidPageToken() {
+        assertThrows(InvalidPageTokenException.class, () -> articleService.getArticlesPage(10, "not-a-token"));
+    }
+
     @Test
     void getArticleById() {
         Article article = new Article("1", "Title", "Content", LocalDateTime.now(), LocalDateTime.now());
@@ -62,6 +112,28 @@ class ArticleServiceTest {
         assertEquals("1", result.getId());
     }
 
+    @Test
+    void getArticleById_FromCache() {
+        Article article = new Article("1", "Title", "Content", LocalDateTime.now(), LocalDateTime.now());
+        when(articleCache.get("1")).thenReturn(article);
+
+        Article result = articleService.getArticleById("1");
+
+        assertSame(article, result);
+        verify(articleRepository, never()).findById(any());
+    }
+
+    @Test
+    void getArticleById_PopulatesCache() {
+        Article article = new Article("1", "Title", "Content", LocalDateTime.now(), LocalDateTime.now());
+        when(articleCache.beginLoad()).thenReturn(7L);
+        when(articleRepository.findById("1")).thenReturn(Optional.of(article));
+
+        articleService.getArticleById("1");
+
+        verify(articleCache).putIfFresh(article, 7L);
+    }
+
     @Test
     void getArticleById_NotFound() {
         when(articleRepository.findById("1")).thenReturn(Optional.empty());
@@ -69,6 +141,36 @@ class ArticleServiceTest {
         assertThrows(ArticleNotFoundException.class, () -> articleService.getArticleById("1"));
     }
 
+    @Test
+    void getArticlesByIds() {
+        Article first = new Article("1", "Title 1", "Content 1", LocalDateTime.now(), LocalDateTime.now());
+        Article third = new Article("3", "Title 3", "Content 3", LocalDateTime.now(), LocalDateTime.now());
+        when(articleRepository.batchGet(anyCollection(), eq(ArticleFields.ALL))).thenReturn(Map.of("1", first, "3", third));
+
+        MultiGetResult result = articleService.getArticlesByIds(Arrays.asList("3", "2", "1", "3"));
+
+        assertEquals(List.of("3", "1"), result.getArticles().stream().map(Article::getId).toList());
+        assertEquals(List.of("2"), result.getMissingIds());
+    }
+
+    @Test
+    void getArticlesByIds_DatabaseOperationException() {
+        when(articleRepository.batchGet(anyCollection(), eq(ArticleFields.ALL))).thenThrow(new AmazonServiceException("Database error"));
+
+        assertThrows(DatabaseOperationException.class, () -> articleService.getArticlesByIds(List.of("1")));
+    }
+
+    @Test
+    void getArticlesByTitle() {
+        Article article = new Article("1", "Title", "Content", LocalDateTime.now(), LocalDateTime.now());
+        when(articleRepository.findByTitle("Title", ArticleFields.ALL)).thenReturn(List.of(article));
+
+        List<Article> result = articleService.getArticlesByTitle("Title");
+
+        assertEquals(1, result.size());
+        verify(articleRepository, never()).findAll();
+    }
+
     @Test
     void createArticle() {
         Article article = new Article(null, "New Title", "New Content", null, null);
@@ -91,43 +193,124 @@ class ArticleServiceTest {
         assertThrows(DatabaseOperationException.class, () -> articleService.createArticle(article));
     }
 
+    @Test
+    void createArticles() {
+        List<Article> articles = Arrays.asList(
+                new Article(null, "Title 1", "Content 1", null, null),
+                new Article(null, "Title 2", "Content 2", null, null));
+        when(articleRepository.batchPut(anyList())).thenAnswer(invocation -> {
+            List<Article> written = invocation.getArgument(0);
+            return Map.of(written.get(1).getId(), "Unprocessed");
+        });
+
+        List<BatchItemResult> results = articleService.createArticles(articles, 10);
+
+        assertEquals(BatchItemResult.CREATED, results.get(0).getStatus());
+        assertEquals(articles.get(0).getId(), results.get(0).getId());
+        assertEquals(10, results.get(0).getIndex());
+        assertEquals(BatchItemResult.FAILED, results.get(1).getStatus());
+        assertEquals("Unprocessed", results.get(1).getError());
+        assertNotNull(articles.get(1).getCreatedAt());
+    }
+
     @Test
     void updateArticle() {
         Article existingArticle = new Article("1", "Old Title", "Old Content", LocalDateTime.now(),
                 LocalDateTime.now());
         Article updatedArticle = new Article("1", "Updated Title", "Updated Content", existingArticle.getCreatedAt(),
                 LocalDateTime.now());
-        when(articleRepository.findById("1")).thenReturn(Optional.of(existingArticle));
-        when(articleRepository.save(any(Article.class))).thenReturn(updatedArticle);
+        when(articleRepository.updateIfExists(any(Article.class), anyCollection(), isNull())).thenReturn(updatedArticle);
 
         Article result = articleService.updateArticle("1", updatedArticle);
 
         assertEquals("Updated Title", result.getTitle());
         assertEquals("Updated Content", result.getContent());
+        verify(articleRepository, never()).findById(any());
+        verify(articleRepository).updateIfExists(argThat(changes -> "1".equals(changes.getId())
+                && "Updated Title".equals(changes.getTitle()) && changes.getUpdatedAt() != null),
+                argThat(attributes -> attributes.contains("content") && !attributes.contains("createdAt")),
+                isNull());
     }
 
     @Test
     void updateArticle_NotFound() {
         Article updatedArticle = new Article("1", "Updated Title", "Updated Content", LocalDateTime.now(),
                 LocalDateTime.now());
-        when(articleRepository.findById("1")).thenReturn(Optional.empty());
+        when(articleRepository.updateIfExists(any(Article.class), anyCollection(), isNull()))
+                .thenThrow(new ConditionalCheckFailedException("The conditional request failed"));
 
         assertThrows(ArticleNotFoundException.class, () -> articleService.updateArticle("1", updatedArticle));
     }
 
     @Test
     void deleteArticle() {
-        when(articleRepository.existsById("1")).thenReturn(true);
-        doNothing().when(articleRepository).deleteById("1");
+        doNothing().when(articleRepository).deleteIfExists("1", null);
 
         assertDoesNotThrow(() -> articleService.deleteArticle("1"));
-        verify(articleRepository, times(1)).deleteById("1");
+        verify(articleRepository, times(1)).deleteIfExists("1", null);
+        verify(articleRepository, never()).existsById(any());
+        verify(eventPublisher).publishEvent(argThat((ArticleChangedEvent event) ->
+                event.getType() == ArticleChangedEvent.Type.DELETED && "1".equals(event.getArticleId())));
     }
 
     @Test
     void deleteArticle_NotFound() {
-        when(articleRepository.existsById("1")).thenReturn(false);
+        doThrow(new ConditionalCheckFailedException("The conditional request failed"))
+                .when(articleRepository).deleteIfExists("1", null);
 
         assertThrows(ArticleNotFoundException.class, () -> articleService.deleteArticle("1"));
     }
+
+    @Test
+    void updateArticle_VersionConflict() {
+        Article updatedArticle = new Article("1", "Updated Title", "Updated Content", LocalDateTime.now(),
+                LocalDateTime.now());
+        when(articleRepository.updateIfExists(any(Article.class), anyCollection(), eq(3L)))
+                .thenThrow(new ConditionalCheckFailedException("The conditional request failed")
+                        .withItem(Map.of("id", new AttributeValue("1"), "version", new AttributeValue().withN("4"))));
+
+        assertThrows(PreconditionFailedException.class, () -> articleService.updateArticle("1", updatedArticle, 3L));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void updateArticle_DiscardsOffloadedContentOnConflict() {
+        Article updatedArticle = new Article("1", "Updated Title", "Large Content", LocalDateTime.now(),
+                LocalDateTime.now());
+        when(articleContentStore.offload(any(Article.class))).thenReturn("ref-2");
+        when(articleRepository.updateIfExists(any(Article.class), anyCollection(), eq(3L)))
+                .thenThrow(new ConditionalCheckFailedException("The conditional request failed")
+                        .withItem(Map.of("id", new AttributeValue("1"), "version", new AttributeValue().withN("4"))));
+
+        assertThrows(PreconditionFailedException.class, () -> articleService.updateArticle("1", updatedArticle, 3L));
+        verify(articleContentStore).discard("1", "ref-2");
+        verify(articleContentStore, never()).sweep(any(), any());
+    }
+
+    @Test
+    void deleteArticle_DeletesOffloadedContent() {
+        articleService.deleteArticle("1", null);
+
+        verify(articleContentStore).deleteAll("1");
+    }
+
+    @Test
+    void updateArticle_WithVersionNotFound() {
+        Article updatedArticle = new Article("1", "Updated Title", "Updated Content", LocalDateTime.now(),
+                LocalDateTime.now());
+        when(articleRepository.updateIfExists(any(Article.class), anyCollection(), eq(3L)))
+                .thenThrow(new ConditionalCheckFailedException("The conditional request failed"));
+
+        assertThrows(ArticleNotFoundException.class, () -> articleService.updateArticle("1", updatedArticle, 3L));
+    }
+
+    @Test
+    void deleteArticle_VersionConflict() {
+        doThrow(new ConditionalCheckFailedException("The conditional request failed")
+                .withItem(Map.of("id", new AttributeValue("1"), "version", new AttributeValue().withN("2"))))
+                .when(articleRepository).deleteIfExists("1", 1L);
+
+        assertThrows(PreconditionFailedException.class, () -> articleService.deleteArticle("1", 1L));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
 }
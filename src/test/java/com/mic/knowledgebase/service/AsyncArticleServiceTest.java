@@ -0,0 +1,174 @@
+package com.mic.knowledgebase.service;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.mic.knowledgebase.cache.ArticleCache;
+import com.mic.knowledgebase.event.ArticleChangedEvent;
+import com.mic.knowledgebase.exception.ArticleNotFoundException;
+import com.mic.knowledgebase.exception.DatabaseOperationException;
+import com.mic.knowledgebase.exception.PreconditionFailedException;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.model.MultiGetResult;
+import com.mic.knowledgebase.repository.AsyncArticleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AsyncArticleServiceTest {
+
+    @Mock
+    private AsyncArticleRepository asyncArticleRepository;
+
+    @Mock
+    private ArticleCache articleCache;
+
+    @Mock
+    private ArticleContentStore articleContentStore;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private AsyncArticleService asyncArticleService;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "app"));
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(asyncArticleService, "dynamoDBExecutor", executor);
+        when(articleContentStore.offloadAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(articleContentStore.sweepAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(articleContentStore.discardAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(articleContentStore.deleteAllAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void getArticleById_PopulatesCache() {
+        Article article = new Article("1", "Title", "Content", LocalDateTime.now(), LocalDateTime.now());
+        when(articleCache.beginLoad()).thenReturn(7L);
+        when(asyncArticleRepository.findById("1")).thenReturn(CompletableFuture.completedFuture(Optional.of(article)));
+
+        assertSame(article, asyncArticleService.getArticleById("1").join());
+        verify(articleCache).putIfFresh(article, 7L);
+    }
+
+    @Test
+    void getArticleById_FromCache() {
+        Article article = new Article("1", "Title", "Content", LocalDateTime.now(), LocalDateTime.now());
+        when(articleCache.get("1")).thenReturn(article);
+
+        assertSame(article, asyncArticleService.getArticleById("1").join());
+        verifyNoInteractions(asyncArticleRepository);
+    }
+
+    @Test
+    void getArticleById_NotFound() {
+        when(asyncArticleRepository.findById("1")).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        assertFailsWith(ArticleNotFoundException.class, asyncArticleService.getArticleById("1"));
+    }
+
+    @Test
+    void getArticlesByIds() {
+        Article article = new Article("1", "Title", "Content", LocalDateTime.now(), LocalDateTime.now());
+        when(asyncArticleRepository.batchGet(anyCollection()))
+                .thenReturn(CompletableFuture.completedFuture(Map.of("1", article)));
+
+        MultiGetResult result = asyncArticleService.getArticlesByIds(List.of("1", " 2 ", "1")).join();
+
+        assertEquals(List.of(article), result.getArticles());
+        assertEquals(List.of("2"), result.getMissingIds());
+    }
+
+    @Test
+    void createArticle() {
+        Article article = new Article(null, "Title", "Content", null, null);
+        when(asyncArticleRepository.create(any(Article.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(0)));
+
+        Article created = asyncArticleService.createArticle(article).join();
+
+        assertNotNull(created.getId());
+        assertNotNull(created.getCreatedAt());
+        verify(eventPublisher).publishEvent(any(ArticleChangedEvent.class));
+    }
+
+    @Test
+    void createArticle_DatabaseOperationException() {
+        when(asyncArticleRepository.create(any(Article.class)))
+                .thenReturn(CompletableFuture.failedFuture(new AmazonServiceException("Database error")));
+
+        assertFailsWith(DatabaseOperationException.class,
+                asyncArticleService.createArticle(new Article(null, "Title", "Content", null, null)));
+        verify(articleContentStore).discardAsync(any(), isNull());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateArticle_VersionConflict() {
+        ConditionalCheckFailedException conflict = new ConditionalCheckFailedException("conflict");
+        conflict.setItem(Map.of("id", new AttributeValue("1")));
+        when(asyncArticleRepository.updateIfExists(any(Article.class), anyCollection(), eq(3L)))
+                .thenReturn(CompletableFuture.failedFuture(new CompletionException(conflict)));
+
+        assertFailsWith(PreconditionFailedException.class,
+                asyncArticleService.updateArticle("1", new Article(), 3L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deleteArticle_NotFound() {
+        when(asyncArticleRepository.deleteIfExists("1", null)).thenReturn(
+                CompletableFuture.failedFuture(new ConditionalCheckFailedException("not found")));
+
+        assertFailsWith(ArticleNotFoundException.class, asyncArticleService.deleteArticle("1", null));
+    }
+
+    @Test
+    void deleteArticle() {
+        when(asyncArticleRepository.deleteIfExists("1", 2L)).thenReturn(CompletableFuture.completedFuture(null));
+        AtomicReference<String> listenerThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            listenerThread.set(Thread.currentThread().getName());
+            return null;
+        }).when(eventPublisher).publishEvent(any(ArticleChangedEvent.class));
+
+        asyncArticleService.deleteArticle("1", 2L).join();
+
+        verify(articleContentStore).deleteAllAsync("1");
+        verify(eventPublisher).publishEvent(any(ArticleChangedEvent.class));
+        // リスナーは SDK の完了スレッドではなく dynamoDBExecutor で呼ばれる
+        assertEquals("app", listenerThread.get());
+    }
+
+    private static void assertFailsWith(Class<? extends Throwable> type, CompletableFuture<?> future) {
+        CompletionException e = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(type, e.getCause());
+    }
+}
@@ -0,0 +1,130 @@
+package com.mic.knowledgebase.service;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+import com.mic.knowledgebase.model.Article;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TimestampMigrationServiceTest {
+
+    @Mock
+    private AmazonDynamoDB amazonDynamoDB;
+
+    @InjectMocks
+    private TimestampMigrationService migrationService;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(migrationService, "dynamoDBScanExecutor", executor);
+        ReflectionTestUtils.setField(migrationService, "segments", 1);
+        ReflectionTestUtils.setField(migrationService, "pageSize", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void rewritesLegacyValuesAndBackfillsMillis() {
+        when(amazonDynamoDB.scan(any(ScanRequest.class))).thenReturn(new ScanResult().withItems(
+                // 旧形式
+                Map.of("id", s("legacy"), "createdAt", s("2024-05-01 9:15:30"),
+                        "updatedAt", s("2024-05-01T10:15:30")),
+                // 新形式で数値属性も設定済み
+                Map.of("id", s("current"), "createdAt", s("2024-05-01T10:15:30"),
+                        "createdAtMillis", n("1714558530000"), "recentShard", n(shard("current"))),
+                // 解析できない
+                Map.of("id", s("broken"), "createdAt", s("yesterday"))));
+        when(amazonDynamoDB.updateItem(any(UpdateItemRequest.class))).thenReturn(new UpdateItemResult());
+
+        TimestampMigrationService.Result result = migrationService.migrate(false);
+
+        assertEquals(new TimestampMigrationService.Result(3, 1, 0, 1), result);
+        ArgumentCaptor<UpdateItemRequest> captor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(amazonDynamoDB).updateItem(captor.capture());
+        UpdateItemRequest request = captor.getValue();
+        assertEquals(Map.of("id", s("legacy")), request.getKey());
+        assertEquals("SET #t0 = :t0, #m0 = :m0, #t1 = :t1, #m1 = :m1, #shard = :shard", request.getUpdateExpression());
+        assertEquals("#t0 = :old0 AND #t1 = :old1", request.getConditionExpression());
+        assertEquals(s("2024-05-01T09:15:30"), request.getExpressionAttributeValues().get(":t0"));
+        assertEquals(n("1714554930000"), request.getExpressionAttributeValues().get(":m0"));
+        assertEquals(s("2024-05-01 9:15:30"), request.getExpressionAttributeValues().get(":old0"));
+        // 形式は新しいが数値属性がない値は、値を変えずに数値属性だけ設定する
+        assertEquals(s("2024-05-01T10:15:30"), request.getExpressionAttributeValues().get(":t1"));
+        assertEquals("updatedAtMillis", request.getExpressionAttributeNames().get("#m1"));
+        assertEquals(n(shard("legacy")), request.getExpressionAttributeValues().get(":shard"));
+    }
+
+    @Test
+    void backfillsRecentShardOfExistingItems() {
+        when(amazonDynamoDB.scan(any(ScanRequest.class))).thenReturn(new ScanResult().withItems(
+                Map.of("id", s("1"), "createdAt", s("2024-05-01T10:15:30"), "createdAtMillis", n("1714558530000"))));
+        when(amazonDynamoDB.updateItem(any(UpdateItemRequest.class))).thenReturn(new UpdateItemResult());
+
+        assertEquals(new TimestampMigrationService.Result(1, 1, 0, 0), migrationService.migrate(false));
+        ArgumentCaptor<UpdateItemRequest> captor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(amazonDynamoDB).updateItem(captor.capture());
+        assertEquals("SET #shard = :shard", captor.getValue().getUpdateExpression());
+        assertEquals("attribute_exists(#id)", captor.getValue().getConditionExpression());
+        assertEquals(n(shard("1")), captor.getValue().getExpressionAttributeValues().get(":shard"));
+    }
+
+    @Test
+    void countsConcurrentlyUpdatedItemsAsSkipped() {
+        when(amazonDynamoDB.scan(any(ScanRequest.class)))
+                .thenReturn(new ScanResult().withItems(Map.of("id", s("1"), "createdAt", s("2024-05-01 10:15:30")))
+                        .withLastEvaluatedKey(Map.of("id", s("1"))))
+                .thenReturn(new ScanResult().withItems(List.of()));
+        when(amazonDynamoDB.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(new ConditionalCheckFailedException("The conditional request failed"));
+
+        assertEquals(new TimestampMigrationService.Result(1, 0, 1, 0), migrationService.migrate(false));
+        verify(amazonDynamoDB, times(2)).scan(any(ScanRequest.class));
+    }
+
+    @Test
+    void dryRunDoesNotWrite() {
+        when(amazonDynamoDB.scan(any(ScanRequest.class))).thenReturn(new ScanResult().withItems(
+                Map.of("id", s("1"), "createdAt", s("2024-05-01 10:15:30"))));
+
+        assertEquals(new TimestampMigrationService.Result(1, 1, 0, 0), migrationService.migrate(true));
+        verify(amazonDynamoDB, never()).updateItem(any(UpdateItemRequest.class));
+    }
+
+    private static AttributeValue s(String value) {
+        return new AttributeValue().withS(value);
+    }
+
+    private static AttributeValue n(String value) {
+        return new AttributeValue().withN(value);
+    }
+
+    private static String shard(String id) {
+        return Integer.toString(Article.recentShardOf(id));
+    }
+}
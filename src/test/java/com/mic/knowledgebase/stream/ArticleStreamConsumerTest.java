@@ -0,0 +1,184 @@
+package com.mic.knowledgebase.stream;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableResult;
+import com.amazonaws.services.dynamodbv2.model.OperationType;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+import com.mic.knowledgebase.cache.ArticleCache;
+import com.mic.knowledgebase.cache.ArticleResponseCache;
+import com.mic.knowledgebase.event.ArticleChangedEvent;
+import com.mic.knowledgebase.model.Article;
+import com.mic.knowledgebase.search.SearchService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ArticleStreamConsumerTest {
+
+    @Mock
+    private AmazonDynamoDB amazonDynamoDB;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ArticleCache articleCache;
+
+    @Mock
+    private ArticleResponseCache articleResponseCache;
+
+    @Mock
+    private SearchService searchService;
+
+    @InjectMocks
+    private ArticleStreamConsumer consumer;
+
+    private final InMemoryDynamoDBStreams streams = new InMemoryDynamoDBStreams();
+    private DynamoDBMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mapper = new DynamoDBMapper(amazonDynamoDB);
+        when(amazonDynamoDB.describeTable(ArticleStreamConsumer.TABLE_NAME)).thenReturn(new DescribeTableResult()
+                .withTable(new TableDescription().withLatestStreamArn(InMemoryDynamoDBStreams.STREAM_ARN)));
+        ReflectionTestUtils.setField(consumer, "amazonDynamoDBStreams", streams);
+        ReflectionTestUtils.setField(consumer, "dynamoDBMapper", mapper);
+        ReflectionTestUtils.setField(consumer, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(consumer, "maxRecords", 100);
+        ReflectionTestUtils.setField(consumer, "shardRefreshInterval", Duration.ZERO);
+    }
+
+    @Test
+    void publishesChangesWrittenAfterStart() {
+        String shard = streams.openShard(null);
+        streams.append(shard, OperationType.INSERT, "old", image("old", "before start"));
+
+        assertEquals(0, consumer.poll());
+        streams.append(shard, OperationType.INSERT, "1", image("1", "v1"));
+        streams.append(shard, OperationType.MODIFY, "1", image("1", "v2"));
+        streams.append(shard, OperationType.REMOVE, "2", null);
+
+        assertEquals(3, consumer.poll());
+        List<ArticleChangedEvent> events = publishedEvents(3);
+        assertEquals(ArticleChangedEvent.Type.CREATED, events.get(0).getType());
+        assertEquals("v1", events.get(0).getArticle().getContent());
+        assertEquals(ArticleChangedEvent.Type.UPDATED, events.get(1).getType());
+        assertEquals("v2", events.get(1).getArticle().getContent());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 0), events.get(1).getArticle().getUpdatedAt());
+        assertEquals(ArticleChangedEvent.deleted("2").toString(), events.get(2).toString());
+        assertEquals(0, consumer.poll());
+    }
+
+    @Test
+    void readsChildShardsAfterTheirParent() {
+        String parent = streams.openShard(null);
+        consumer.poll();
+        streams.append(parent, OperationType.MODIFY, "1", image("1", "in parent"));
+        String left = streams.openShard(parent);
+        String right = streams.openShard(parent);
+        streams.append(left, OperationType.MODIFY, "1", image("1", "in child"));
+        streams.append(right, OperationType.MODIFY, "2", image("2", "in other child"));
+        streams.closeShard(parent);
+
+        assertEquals(3, consumer.poll());
+        List<ArticleChangedEvent> events = publishedEvents(3);
+        assertEquals("in parent", events.get(0).getArticle().getContent());
+        assertEquals("in child", events.get(1).getArticle().getContent());
+        assertEquals("in other child", events.get(2).getArticle().getContent());
+        assertEquals(2, consumer.activeShards());
+    }
+
+    @Test
+    void resumesFromCheckpointAfterIteratorExpiry() {
+        String shard = streams.openShard(null);
+        consumer.poll();
+        streams.append(shard, OperationType.MODIFY, "1", image("1", "v1"));
+        assertEquals(1, consumer.poll());
+
+        streams.expireIterators();
+        streams.append(shard, OperationType.MODIFY, "1", image("1", "v2"));
+
+        assertEquals(0, consumer.poll());
+        assertEquals(1, consumer.poll());
+        assertEquals("v2", publishedEvents(2).get(1).getArticle().getContent());
+        verify(articleCache, never()).invalidateAll();
+    }
+
+    @Test
+    void pollsOnInvocationOnlyOnceIntervalHasPassed() {
+        ReflectionTestUtils.setField(consumer, "pollInterval", Duration.ofMinutes(1));
+        String shard = streams.openShard(null);
+        consumer.poll();
+        streams.append(shard, OperationType.MODIFY, "1", image("1", "while frozen"));
+
+        consumer.pollIfDue();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+
+        // 凍結されていた実行環境を、前回のポーリングを過去にずらして再現する
+        ReflectionTestUtils.setField(consumer, "lastPollNanos", System.nanoTime() - Duration.ofMinutes(2).toNanos());
+        consumer.pollIfDue();
+        assertEquals("while frozen", publishedEvents(1).get(0).getArticle().getContent());
+    }
+
+    @Test
+    void resynchronizesWhenRecordsMayHaveBeenMissed() {
+        String shard = streams.openShard(null);
+        consumer.poll();
+        streams.append(shard, OperationType.MODIFY, "1", image("1", "missed"));
+        streams.trim(shard, 1);
+
+        assertEquals(0, consumer.poll());
+        verify(articleCache, never()).invalidateAll();
+
+        streams.append(shard, OperationType.MODIFY, "1", image("1", "after resync"));
+        assertEquals(0, consumer.poll());
+        verify(articleCache).invalidateAll();
+        verify(articleResponseCache).invalidateAll();
+        verify(searchService).markStale();
+        verify(searchService, never()).rebuild();
+
+        streams.append(shard, OperationType.MODIFY, "1", image("1", "latest"));
+        assertEquals(1, consumer.poll());
+        assertEquals("latest", publishedEvents(1).get(0).getArticle().getContent());
+    }
+
+    @Test
+    void doesNothingWhenStreamIsDisabled() {
+        when(amazonDynamoDB.describeTable(ArticleStreamConsumer.TABLE_NAME))
+                .thenReturn(new DescribeTableResult().withTable(new TableDescription()));
+
+        assertEquals(0, consumer.poll());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    private List<ArticleChangedEvent> publishedEvents(int count) {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(count)).publishEvent(captor.capture());
+        return captor.getAllValues().stream().map(ArticleChangedEvent.class::cast).toList();
+    }
+
+    private Map<String, AttributeValue> image(String id, String content) {
+        Article article = new Article(id, "Title", content, LocalDateTime.of(2024, 5, 1, 9, 0),
+                LocalDateTime.of(2024, 5, 1, 10, 0));
+        article.setVersion(2L);
+        return mapper.getTableModel(Article.class).convert(article);
+    }
+}
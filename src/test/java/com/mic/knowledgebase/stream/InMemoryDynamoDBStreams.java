@@ -0,0 +1,161 @@
+package com.mic.knowledgebase.stream;
+
+import com.amazonaws.services.dynamodbv2.AbstractAmazonDynamoDBStreams;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.DescribeStreamRequest;
+import com.amazonaws.services.dynamodbv2.model.DescribeStreamResult;
+import com.amazonaws.services.dynamodbv2.model.ExpiredIteratorException;
+import com.amazonaws.services.dynamodbv2.model.GetRecordsRequest;
+import com.amazonaws.services.dynamodbv2.model.GetRecordsResult;
+import com.amazonaws.services.dynamodbv2.model.GetShardIteratorRequest;
+import com.amazonaws.services.dynamodbv2.model.GetShardIteratorResult;
+import com.amazonaws.services.dynamodbv2.model.OperationType;
+import com.amazonaws.services.dynamodbv2.model.Record;
+import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
+import com.amazonaws.services.dynamodbv2.model.SequenceNumberRange;
+import com.amazonaws.services.dynamodbv2.model.Shard;
+import com.amazonaws.services.dynamodbv2.model.ShardIteratorType;
+import com.amazonaws.services.dynamodbv2.model.StreamDescription;
+import com.amazonaws.services.dynamodbv2.model.StreamRecord;
+import com.amazonaws.services.dynamodbv2.model.TrimmedDataAccessException;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * テスト用の DynamoDB Streams。シャードの分割（親子関係）、イテレーターの期限切れ、保持期間による削除を再現します。
+ * DescribeStream は 1 ページに 2 シャードずつ返します。
+ */
+class InMemoryDynamoDBStreams extends AbstractAmazonDynamoDBStreams {
+
+    static final String STREAM_ARN = "arn:aws:dynamodb:local:000000000000:table/Articles/stream/test";
+
+    private static final int SHARDS_PER_PAGE = 2;
+
+    private final Map<String, FakeShard> shards = new LinkedHashMap<>();
+    private long sequence;
+    private int iteratorGeneration;
+
+    synchronized String openShard(String parentShardId) {
+        String shardId = "shard-" + shards.size();
+        shards.put(shardId, new FakeShard(parentShardId));
+        return shardId;
+    }
+
+    synchronized void closeShard(String shardId) {
+        shards.get(shardId).closed = true;
+    }
+
+    synchronized void append(String shardId, OperationType type, String id, Map<String, AttributeValue> newImage) {
+        String sequenceNumber = String.format("%021d", ++sequence);
+        shards.get(shardId).records.add(new Record()
+                .withEventName(type)
+                .withDynamodb(new StreamRecord()
+                        .withKeys(Map.of("id", new AttributeValue().withS(id)))
+                        .withNewImage(newImage)
+                        .withSequenceNumber(sequenceNumber)
+                        .withApproximateCreationDateTime(new Date())));
+    }
+
+    /** 発行済みのイテレーターを全て期限切れにします。 */
+    synchronized void expireIterators() {
+        iteratorGeneration++;
+    }
+
+    /** シャードの先頭から count 件のレコードを保持期間切れとして削除します。 */
+    synchronized void trim(String shardId, int count) {
+        shards.get(shardId).trimmed += count;
+    }
+
+    @Override
+    public synchronized DescribeStreamResult describeStream(DescribeStreamRequest request) {
+        checkArn(request.getStreamArn());
+        List<String> ids = new ArrayList<>(shards.keySet());
+        int from = request.getExclusiveStartShardId() == null ? 0 : ids.indexOf(request.getExclusiveStartShardId()) + 1;
+        int to = Math.min(from + SHARDS_PER_PAGE, ids.size());
+        List<Shard> page = new ArrayList<>();
+        for (String id : ids.subList(from, to)) {
+            FakeShard shard = shards.get(id);
+            page.add(new Shard()
+                    .withShardId(id)
+                    .withParentShardId(shard.parentShardId)
+                    .withSequenceNumberRange(new SequenceNumberRange()
+                            .withStartingSequenceNumber("0")
+                            .withEndingSequenceNumber(shard.closed ? Long.toString(sequence) : null)));
+        }
+        return new DescribeStreamResult().withStreamDescription(new StreamDescription()
+                .withStreamArn(STREAM_ARN)
+                .withShards(page)
+                .withLastEvaluatedShardId(to < ids.size() ? ids.get(to - 1) : null));
+    }
+
+    @Override
+    public synchronized GetShardIteratorResult getShardIterator(GetShardIteratorRequest request) {
+        checkArn(request.getStreamArn());
+        FakeShard shard = shards.get(request.getShardId());
+        if (shard == null) {
+            throw new ResourceNotFoundException("Shard not found: " + request.getShardId());
+        }
+        int position = switch (ShardIteratorType.fromValue(request.getShardIteratorType())) {
+            case TRIM_HORIZON -> shard.trimmed;
+            case LATEST -> shard.records.size();
+            case AFTER_SEQUENCE_NUMBER -> positionAfter(shard, request.getSequenceNumber());
+            default -> throw new UnsupportedOperationException(request.getShardIteratorType());
+        };
+        return new GetShardIteratorResult().withShardIterator(iterator(request.getShardId(), position));
+    }
+
+    @Override
+    public synchronized GetRecordsResult getRecords(GetRecordsRequest request) {
+        String[] parts = request.getShardIterator().split("\\|");
+        FakeShard shard = shards.get(parts[0]);
+        int position = Integer.parseInt(parts[1]);
+        if (Integer.parseInt(parts[2]) != iteratorGeneration) {
+            throw new ExpiredIteratorException("Iterator expired");
+        }
+        if (position < shard.trimmed) {
+            throw new TrimmedDataAccessException("Records were trimmed");
+        }
+        int limit = request.getLimit() != null ? request.getLimit() : 1000;
+        int to = Math.min(position + limit, shard.records.size());
+        List<Record> records = new ArrayList<>(shard.records.subList(position, to));
+        String next = shard.closed && to == shard.records.size() ? null : iterator(parts[0], to);
+        return new GetRecordsResult().withRecords(records).withNextShardIterator(next);
+    }
+
+    private int positionAfter(FakeShard shard, String sequenceNumber) {
+        for (int i = 0; i < shard.records.size(); i++) {
+            if (shard.records.get(i).getDynamodb().getSequenceNumber().equals(sequenceNumber)) {
+                if (i < shard.trimmed) {
+                    throw new TrimmedDataAccessException("Records were trimmed");
+                }
+                return i + 1;
+            }
+        }
+        throw new TrimmedDataAccessException("Sequence number not found: " + sequenceNumber);
+    }
+
+    private String iterator(String shardId, int position) {
+        return shardId + "|" + position + "|" + iteratorGeneration;
+    }
+
+    private static void checkArn(String streamArn) {
+        if (!STREAM_ARN.equals(streamArn)) {
+            throw new ResourceNotFoundException("Stream not found: " + streamArn);
+        }
+    }
+
+    private static final class FakeShard {
+        final String parentShardId;
+        final List<Record> records = new ArrayList<>();
+        int trimmed;
+        boolean closed;
+
+        FakeShard(String parentShardId) {
+            this.parentShardId = parentShardId;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.mic.knowledgebase.util;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.mic.knowledgebase.model.Article;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ContentCompressionTest {
+
+    private static final String LARGE = "ナレッジベースの記事本文 knowledge base article. ".repeat(200);
+
+    @AfterEach
+    void tearDown() {
+        ContentCompression.install(new ContentCompression(ContentCompression.DEFAULT_THRESHOLD_BYTES,
+                Deflater.DEFAULT_COMPRESSION, null));
+    }
+
+    @Test
+    void compressesContentAboveThreshold() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ContentCompression compression = new ContentCompression(1024, Deflater.DEFAULT_COMPRESSION, registry);
+
+        AttributeValue value = compression.encode(LARGE);
+
+        assertNull(value.getS());
+        assertEquals(ContentCompression.DEFLATE, value.getB().get(0));
+        assertTrue(value.getB().remaining() < LARGE.length() / 10);
+        assertEquals(LARGE, compression.decode(value));
+        assertTrue(registry.get("article.content.compression.ratio").summary().mean() > 10);
+        assertEquals(1, registry.get("article.content.stored.size").tag("codec", "deflate").summary().count());
+    }
+
+    @Test
+    void storesSmallOrIncompressibleContentAsString() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ContentCompression compression = new ContentCompression(64, Deflater.DEFAULT_COMPRESSION, registry);
+        StringBuilder random = new StringBuilder();
+        Random rnd = new Random(1);
+        for (int i = 0; i < 80; i++) {
+            random.append((char) ('!' + rnd.nextInt(94)));
+        }
+
+        assertEquals("short", compression.encode("short").getS());
+        assertEquals(random.toString(), compression.encode(random.toString()).getS());
+        assertEquals(2, registry.get("article.content.stored.size").tag("codec", "none").summary().count());
+        assertNull(compression.encode(null));
+    }
+
+    @Test
+    void readsLegacyStringAndRejectsUnknownCodec() {
+        ContentCompression compression = ContentCompression.current();
+
+        assertEquals("legacy", compression.decode(new AttributeValue().withS("legacy")));
+        assertNull(compression.decode(null));
+        assertThrows(IllegalArgumentException.class, () -> compression.decode(
+                new AttributeValue().withB(ByteBuffer.wrap(new byte[] { 9, 0, 0, 0, 1, 0 }))));
+    }
+
+    @Test
+    void rejectsThresholdSmallerThanHeader() {
+        assertThrows(IllegalArgumentException.class, () -> new ContentCompression(4, Deflater.BEST_SPEED, null));
+
+        ContentCompression compression = new ContentCompression(5, Deflater.BEST_SPEED, null);
+        assertEquals("", compression.encode("").getS());
+        assertEquals("abcde", compression.encode("abcde").getS());
+    }
+
+    @Test
+    void articleMapperUsesCompressionForContent() {
+        ContentCompression.install(new ContentCompression(1024, Deflater.BEST_SPEED, null));
+        DynamoDBMapperTableModel<Article> tableModel = new DynamoDBMapper(mock(AmazonDynamoDB.class))
+                .getTableModel(Article.class);
+        Article article = new Article("a1", "title", LARGE, null, null);
+
+        Map<String, AttributeValue> item = tableModel.convert(article);
+        assertNotNull(item.get("content").getB());
+        assertEquals(LARGE, tableModel.unconvert(item).getContent());
+
+        Map<String, AttributeValue> legacy = new HashMap<>(item);
+        legacy.put("content", new AttributeValue().withS("plain"));
+        assertEquals("plain", tableModel.unconvert(legacy).getContent());
+    }
+}
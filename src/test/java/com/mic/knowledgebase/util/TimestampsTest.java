@@ -0,0 +1,56 @@
+package com.mic.knowledgebase.util;
+
+import com.mic.knowledgebase.model.Article;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimestampsTest {
+
+    @Test
+    void parsesCurrentAndLegacyFormats() {
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_456_000),
+                Timestamps.parse("2024-05-01T10:15:30.123456"));
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 500_000_000), Timestamps.parse("2024-05-01T10:15:30.5"));
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 1), Timestamps.parse("2024-05-01T10:15:30.000000001"));
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30), Timestamps.parse("2024-05-01T10:15:30"));
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15), Timestamps.parse("2024-05-01T10:15"));
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30), Timestamps.parse("2024-05-01 10:15:30"));
+        assertEquals(LocalDateTime.of(2024, 5, 1, 9, 15, 30), Timestamps.parse("2024-05-01 9:15:30"));
+        assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0), Timestamps.parse("2024-02-29T00:00"));
+    }
+
+    @Test
+    void returnsNullInsteadOfThrowing() {
+        assertNull(Timestamps.parse("2024-05-01"));
+        assertNull(Timestamps.parse("2024-05-01 10:15"));
+        assertNull(Timestamps.parse("2024-05-01 10:15:30.5"));
+        assertNull(Timestamps.parse("2024-05-01T10:15:30.1234567890"));
+        assertNull(Timestamps.parse("2024-05-01T10:15:30Z"));
+        assertNull(Timestamps.parse("2024/05/01T10:15:30"));
+        assertNull(Timestamps.parse("2024-13-01T10:15:30"));
+        assertNull(Timestamps.parse("2023-02-29T10:15:30"));
+        assertNull(Timestamps.parse("2024-05-01T24:00:00"));
+        assertNull(Timestamps.parse("2024-05-0xT10:15:30"));
+    }
+
+    @Test
+    void converterAcceptsSameInputsAsBefore() {
+        Article.LocalDateTimeConverter converter = new Article.LocalDateTimeConverter();
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_456_000);
+        assertEquals(time, converter.unconvert(converter.convert(time)));
+        assertEquals(LocalDateTime.of(2024, 5, 1, 9, 15, 30), converter.unconvert("2024-05-01 9:15:30"));
+        // 高速パスで扱わない入力は従来のフォーマッタで解析する（大文字小文字を区別しない ISO 形式）
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30), converter.unconvert("2024-05-01t10:15:30"));
+        assertThrows(IllegalArgumentException.class, () -> converter.unconvert("2024-05-01"));
+    }
+
+    @Test
+    void toEpochMillisTreatsTimeAsUtc() {
+        assertEquals(0L, Timestamps.toEpochMillis(LocalDateTime.of(1970, 1, 1, 0, 0)));
+        assertEquals(1714558530123L, Timestamps.toEpochMillis(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_456_000)));
+        assertNull(Timestamps.toEpochMillis(null));
+    }
+}